@@ -4,25 +4,51 @@ import javax.swing.*;
 import java.awt.*;
 import java.util.Random;
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import com.andernet.experiment.ui.AnimatedButton;
+import com.andernet.experiment.ui.BackgroundPanel;
 import com.andernet.experiment.ui.FakeButton;
 import com.andernet.experiment.ui.GameOverlayPanel;
+import com.andernet.experiment.ui.HudLabel;
 import com.andernet.experiment.ui.UIUtils;
 import com.andernet.experiment.ui.ComponentFactory;
 import com.andernet.experiment.ui.ModernPanel;
+import com.andernet.experiment.ui.ParticleLayer;
 import com.andernet.experiment.logic.GameConstants;
 import com.andernet.experiment.logic.GameState;
 import com.andernet.experiment.logic.ButtonManager;
+import com.andernet.experiment.logic.ButtonRules;
 import com.andernet.experiment.ui.Theme;
 import com.andernet.experiment.util.ResourceManager;
+import com.andernet.experiment.audio.AudioBackends;
 import com.andernet.experiment.util.MusicManager;
+import com.andernet.experiment.util.PerformanceMonitor;
 import com.andernet.experiment.util.Constants;
+import com.andernet.experiment.util.GameScheduler;
 import com.andernet.experiment.settings.Settings;
 import com.andernet.experiment.settings.SettingsDialog;
 import com.andernet.experiment.settings.SettingsPersistence;
 import com.andernet.experiment.util.AnimationManager;
+import com.andernet.experiment.util.TweenEngine;
 import com.andernet.experiment.handlers.MainButtonClickHandler;
 import com.andernet.experiment.handlers.SettingsButtonClickHandler;
+import com.andernet.experiment.input.InputPipeline;
+import com.andernet.experiment.input.PointerInput;
+import com.andernet.experiment.render.ActiveRenderLoop;
+import com.andernet.experiment.render.DisplayBackend;
+import com.andernet.experiment.render.DisplayBackends;
+import com.andernet.experiment.observers.HudUpdater;
+import com.andernet.experiment.render.RepaintCoordinator;
+import com.andernet.experiment.render.QualityGovernor;
+import com.andernet.experiment.render.RenderQuality;
+import com.andernet.experiment.render.ScaledImageCache;
+import com.andernet.experiment.render.TiledFrameRenderer;
+import com.andernet.experiment.replay.InputLog;
+import com.andernet.experiment.replay.InputRecorder;
+import com.andernet.experiment.replay.SessionLog;
+import com.andernet.experiment.replay.SessionTracker;
 import java.awt.event.KeyEvent;
 
 /**
@@ -47,30 +73,59 @@ public class ClickTheButtonGame extends JFrame {
     // Main animated button the player must click
     private AnimatedButton button;
     // Displays current score
-    private JLabel scoreLabel;
+    private HudLabel scoreLabel;
     // Displays remaining time
-    private JLabel timerLabel;
+    private HudLabel timerLabel;
     // Displays high score
-    private JLabel highScoreLabel;
+    private HudLabel highScoreLabel;
     private GameState gameState;
     private boolean fontAdjustmentInProgress = false;
+    // Set once the window has been torn down
+    private boolean shutDown = false;
+    // Redraws the window when the quality governor changes level
+    private java.util.function.Consumer<RenderQuality> qualityListener;
     private ButtonManager buttonManager;
-    private Random random = new Random();
-    // Timer for game countdown
-    private Timer gameTimer;
-    // Timer for moving buttons automatically
-    private Timer moveTimer;
+    // Seeds each game's ButtonRules, so the recorded seed replays it
+    private final Random seeds = new Random();
+    private ButtonRules rules;
+    private final InputRecorder inputRecorder = new InputRecorder();
+    // Timed work runs on the shared scheduler; the game group stops while paused
+    private final GameScheduler scheduler = GameScheduler.getShared();
+    // Ticks the game clock once a second
+    private GameScheduler.Handle gameClock;
+    // Moves the buttons automatically
+    private GameScheduler.Handle moveTask;
     // Overlay panel for start/game over screens
     private GameOverlayPanel overlayPanel;
+    // Records what is on screen during each game for offline rendering
+    private SessionTracker sessionTracker;
     // Settings is always set in constructor, so no need for initializer
     private Settings settings;
+    // Fixed-rate render loop, only created when active rendering is enabled
+    private ActiveRenderLoop renderLoop;
+    // Display mode actually in use, resolved from the setting at startup
+    private DisplayBackend displayBackend;
+    // Screen the window is shown on, null when headless
+    private GraphicsDevice displayDevice;
+    // Frame rate the repaints and the render loop are paced at
+    private int frameRate;
+    // Device scale of the screen the window was last on
+    private double displayScale;
 
     // Event handlers
     private MainButtonClickHandler mainButtonClickHandler;
     private SettingsButtonClickHandler settingsButtonClickHandler;
+    private InputPipeline inputPipeline;
 
     // High score file path (single source of truth)
     private static final File HIGH_SCORE_FILE = new File(System.getProperty("user.home"), ".ctb_highscore");
+    // Recordings of the last game and of the last one that set the high score
+    private static final File LAST_SESSION_FILE = new File(System.getProperty("user.home"), Constants.LAST_SESSION_FILE);
+    private static final File BEST_SESSION_FILE = new File(System.getProperty("user.home"), Constants.BEST_SESSION_FILE);
+    private static final File LAST_INPUT_FILE = new File(System.getProperty("user.home"), Constants.LAST_INPUT_FILE);
+    private static final boolean RECORD_SESSIONS = Boolean.getBoolean(Constants.RECORD_SESSIONS_PROPERTY);
+    // How long the game over screen stays in a recording
+    private static final long SESSION_TAIL_MS = 3000;
 
     /**
      * Constructs the game window and initializes all UI components and game state.
@@ -90,39 +145,129 @@ public class ClickTheButtonGame extends JFrame {
      */
     private void initializeWindow() {
         setUndecorated(true);
-        getRootPane().setWindowDecorationStyle(JRootPane.FRAME);
+        resolveDisplayBackend();
+        getRootPane().setWindowDecorationStyle(displayBackend.isFullscreen() ? JRootPane.NONE : JRootPane.FRAME);
         setTitle(Constants.APP_TITLE);
         setSize(GameConstants.WINDOW_WIDTH, GameConstants.WINDOW_HEIGHT);
-        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        // exitGame tears the window down before the JVM goes
+        setDefaultCloseOperation(JFrame.DO_NOTHING_ON_CLOSE);
         setLayout(null);
         setLocationRelativeTo(null);
-        setBackground(new Color(0, 0, 0, 0));
-        setContentPane(new JPanel() {
+        // Only a translucent window pays for per-pixel compositing; the
+        // content pane covers an opaque one anyway
+        setBackground(displayBackend.isTranslucent() ? new Color(0, 0, 0, 0) : Theme.BACKGROUND_GRADIENT_TOP);
+        setContentPane(new BackgroundPanel());
+        getContentPane().setLayout(null);
+        setResizable(true);
+        setupRepaintCoordination();
+        setupQualityGovernor();
+        setupScaleTracking();
+        if (usesActiveRendering()) {
+            setupActiveRendering();
+        }
+    }
+    
+    /**
+     * Pick the display mode and the frame rate that matches the screen's
+     * refresh rate
+     */
+    private void resolveDisplayBackend() {
+        displayDevice = DisplayBackends.defaultDevice();
+        displayBackend = DisplayBackends.resolve(settings.getDisplayBackend(), displayDevice);
+        if (displayBackend.isTranslucent() && settings.isActiveRendering()) {
+            // Page flipping needs an opaque window
+            displayBackend = DisplayBackend.OPAQUE_WINDOWED;
+        }
+        frameRate = DisplayBackends.pacedFps(DisplayBackends.refreshRate(displayDevice), settings.getTargetFps());
+    }
+    
+    /**
+     * Fullscreen exclusive mode always renders actively, so it can page flip
+     */
+    private boolean usesActiveRendering() {
+        return settings.isActiveRendering() || displayBackend.isFullscreen();
+    }
+    
+    public DisplayBackend getDisplayBackend() {
+        return displayBackend;
+    }
+    
+    /**
+     * Shows the window, taking over the screen in fullscreen exclusive mode
+     */
+    public void showWindow() {
+        if (displayBackend.isFullscreen()) {
+            displayDevice.setFullScreenWindow(this);
+        } else {
+            setVisible(true);
+        }
+    }
+    
+    /**
+     * Batch the repaints caused by each click or tick into one paint pass
+     */
+    private void setupRepaintCoordination() {
+        RepaintCoordinator coordinator = RepaintCoordinator.install();
+        coordinator.setTargetFps(frameRate);
+        if (!usesActiveRendering()) {
+            coordinator.setFrameStats(DisplayBackends.statsFor(displayBackend, frameRate));
+        }
+    }
+    
+    /**
+     * Scale rendering quality to what this machine can paint within the frame
+     * budget, and redraw everything whenever the level changes
+     */
+    private void setupQualityGovernor() {
+        QualityGovernor governor = QualityGovernor.getShared();
+        governor.configure(settings.isAdaptiveQuality(), settings.getRenderQuality(), frameRate);
+        qualityListener = level -> {
+            PerformanceMonitor.logStats("render quality", governor);
+            SwingUtilities.invokeLater(this::repaint);
+        };
+        governor.addListener(qualityListener);
+    }
+    
+    /**
+     * Drop the sprites rendered for the old scale when the window moves to a
+     * monitor with a different one; the repaint renders them for the new one
+     */
+    private void setupScaleTracking() {
+        ScaledImageCache cache = ScaledImageCache.getShared();
+        displayScale = ScaledImageCache.deviceScale(getGraphicsConfiguration());
+        addPropertyChangeListener("graphicsConfiguration", e -> {
+            double scale = ScaledImageCache.deviceScale(getGraphicsConfiguration());
+            if (scale != displayScale) {
+                displayScale = scale;
+                cache.retainScale(scale);
+                PerformanceMonitor.logStats("scaled images", cache);
+                repaint();
+            }
+        });
+    }
+    
+    /**
+     * Replace passive Swing repainting with a fixed-rate render loop that
+     * starts once the window is shown
+     */
+    private void setupActiveRendering() {
+        renderLoop = new ActiveRenderLoop(this, frameRate, DisplayBackends.statsFor(displayBackend, frameRate));
+        renderLoop.addUpdate((frameTimeNanos, deltaNanos) -> scheduler.tick());
+        if (settings.isTiledRendering()) {
+            renderLoop.setTiledRenderer(new TiledFrameRenderer(getRootPane(),
+                Runtime.getRuntime().availableProcessors()));
+        }
+        addWindowListener(new java.awt.event.WindowAdapter() {
             @Override
-            protected void paintComponent(Graphics g) {
-                Graphics2D g2 = (Graphics2D) g.create();
-                g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-                g2.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-                
-                // Modern gradient background
-                GradientPaint gp = new GradientPaint(0, 0, Theme.BACKGROUND_GRADIENT_TOP, 
-                                                    0, getHeight(), Theme.BACKGROUND_GRADIENT_BOTTOM);
-                g2.setPaint(gp);
-                g2.fillRect(0, 0, getWidth(), getHeight());
-                
-                // Add subtle texture overlay
-                g2.setColor(new Color(255, 255, 255, 10));
-                for (int x = 0; x < getWidth(); x += 60) {
-                    for (int y = 0; y < getHeight(); y += 60) {
-                        g2.fillOval(x, y, 2, 2);
-                    }
+            public void windowOpened(java.awt.event.WindowEvent e) {
+                renderLoop.start();
+                if (renderLoop.isRunning()) {
+                    // Update and draw in one pass per frame
+                    scheduler.setExternallyDriven(true);
                 }
-                
-                g2.dispose();
+                PerformanceMonitor.logStats("active render loop", renderLoop.isPageFlipping() ? "page flipping" : "blitting");
             }
         });
-        getContentPane().setLayout(null);
-        setResizable(true);
     }
     
     /**
@@ -142,22 +287,66 @@ public class ClickTheButtonGame extends JFrame {
      */
     private void initializeEventHandlers() {
         mainButtonClickHandler = new MainButtonClickHandler(
-            gameState, settings, scoreLabel, highScoreLabel, button,
+            gameState, settings, button,
             this::moveAllButtons, this::randomizeColors, this::nextLevel
         );
         
         settingsButtonClickHandler = new SettingsButtonClickHandler(
             this, settings, gameState, HIGH_SCORE_FILE,
-            timerLabel, scoreLabel, highScoreLabel,
             () -> buttonManager.createFakeButtons(),
-            moveTimer
+            this::restartMoveTask
         );
         
         // Set the event handlers on the components
-        button.addActionListener(mainButtonClickHandler);
+        java.awt.event.ActionListener mainListener = e -> {
+            recordMainPress();
+            mainButtonClickHandler.actionPerformed(e);
+        };
+        if (settings.isRawInput()) {
+            installInputPipeline();
+            button.addActionListener(InputPipeline.keyboardOnly(mainListener));
+        } else {
+            button.addActionListener(mainListener);
+        }
         overlayPanel.getSettingsButton().addActionListener(settingsButtonClickHandler);
     }
     
+    /**
+     * Scores mouse presses on the playfield as they happen, through the
+     * input pipeline, rather than on button release
+     */
+    private void installInputPipeline() {
+        inputPipeline = new InputPipeline(getContentPane(), buttonManager, this::handlePointerInput);
+        inputPipeline.install();
+    }
+    
+    private void handlePointerInput(PointerInput input) {
+        switch (input.kind()) {
+            case MAIN_BUTTON:
+                if (button.isEnabled()) {
+                    inputRecorder.recordPress(ButtonManager.HIT_MAIN_BUTTON, input.x(), input.y());
+                    mainButtonClickHandler.hit(input.whenMillis());
+                }
+                break;
+            case FAKE_BUTTON:
+                // Recorded by the button manager's press listener
+                buttonManager.pressFakeButton(input.index());
+                break;
+            default:
+                inputRecorder.recordPress(ButtonManager.HIT_NONE, input.x(), input.y());
+                break;
+        }
+    }
+    
+    private void recordMainPress() {
+        inputRecorder.recordPress(ButtonManager.HIT_MAIN_BUTTON,
+            button.getX() + button.getWidth() / 2, button.getY() + button.getHeight() / 2);
+    }
+    
+    public InputPipeline getInputPipeline() {
+        return inputPipeline;
+    }
+    
     /**
      * Create all UI components
      */
@@ -167,6 +356,9 @@ public class ClickTheButtonGame extends JFrame {
         createFakeButtons();
         createOverlayPanel();
         createControlButtons();
+        sessionTracker = new SessionTracker(button, scoreLabel, timerLabel, highScoreLabel, overlayPanel);
+        // Floating scores and bursts are drawn above the playfield by one layer
+        ParticleLayer.install(getRootPane());
         
         // Initialize event handlers after UI components are created
         initializeEventHandlers();
@@ -179,29 +371,35 @@ public class ClickTheButtonGame extends JFrame {
         Font labelFont = Theme.LABEL_FONT;
         
         // Create modern info panels instead of basic labels
-        ModernPanel scorePanel = UIUtils.createInfoPanel(Constants.SCORE_PREFIX + "0", 10, 10, 120, 35, labelFont);
+        ModernPanel scorePanel = UIUtils.createHudPanel(Constants.SCORE_PREFIX, 0, 10, 10, 120, 35, labelFont);
         scorePanel.setName("scorePanel");
         scorePanel.setToolTipText(Constants.SCORE_TOOLTIP);
         add(scorePanel);
         
         // Extract the label from the panel for score updates
-        scoreLabel = (JLabel) scorePanel.getComponent(0);
+        scoreLabel = (HudLabel) scorePanel.getComponent(0);
+        scoreLabel.setName("scoreLabel");
         
-        ModernPanel timerPanel = UIUtils.createInfoPanel(Constants.TIME_PREFIX + settings.getGameDurationSeconds(), 140, 10, 120, 35, labelFont);
+        ModernPanel timerPanel = UIUtils.createHudPanel(Constants.TIME_PREFIX, settings.getGameDurationSeconds(), 140, 10, 120, 35, labelFont);
         timerPanel.setName("timerPanel");
         timerPanel.setToolTipText(Constants.TIMER_TOOLTIP);
         add(timerPanel);
         
         // Extract the label from the panel for timer updates
-        timerLabel = (JLabel) timerPanel.getComponent(0);
+        timerLabel = (HudLabel) timerPanel.getComponent(0);
+        timerLabel.setName("timerLabel");
         
-        ModernPanel highScorePanel = UIUtils.createInfoPanel(Constants.HIGH_SCORE_PREFIX + gameState.getHighScore(), 270, 10, 150, 35, labelFont);
+        ModernPanel highScorePanel = UIUtils.createHudPanel(Constants.HIGH_SCORE_PREFIX, gameState.getHighScore(), 270, 10, 150, 35, labelFont);
         highScorePanel.setName("highScorePanel");
         highScorePanel.setToolTipText(Constants.HIGH_SCORE_TOOLTIP);
         add(highScorePanel);
         
         // Extract the label from the panel for high score updates
-        highScoreLabel = (JLabel) highScorePanel.getComponent(0);
+        highScoreLabel = (HudLabel) highScorePanel.getComponent(0);
+        highScoreLabel.setName("highScoreLabel");
+        
+        // Every readout follows the game state from here on
+        gameState.addListener(new HudUpdater(scoreLabel, timerLabel, highScoreLabel));
     }
     
     /**
@@ -220,9 +418,14 @@ public class ClickTheButtonGame extends JFrame {
      * Create fake buttons using ButtonManager
      */
     private void createFakeButtons() {
-        buttonManager = new ButtonManager(settings, gameState, scoreLabel, this::moveAllButtons, this::randomizeColors,
+        buttonManager = new ButtonManager(settings, gameState, this::moveAllButtons, this::randomizeColors,
                 (JPanel) getContentPane());
+        buttonManager.setMainButton(button);
         buttonManager.createFakeButtons();
+        buttonManager.setPressListener(i -> inputRecorder.recordPress(i,
+            buttonManager.getObstacleField().getX(i) + GameConstants.FAKE_BUTTON_WIDTH / 2,
+            buttonManager.getObstacleField().getY(i) + GameConstants.FAKE_BUTTON_HEIGHT / 2));
+        rules = new ButtonRules(button, buttonManager, gameState, TweenEngine.getGame());
     }
     
     /**
@@ -232,6 +435,7 @@ public class ClickTheButtonGame extends JFrame {
         overlayPanel = new GameOverlayPanel(GameConstants.WINDOW_WIDTH, GameConstants.WINDOW_HEIGHT);
         overlayPanel.getOverlayButton().setName("overlayButton");
         overlayPanel.getSettingsButton().setName("settingsButton");
+        AnimationManager.prepareCountdown(overlayPanel.getOverlayLabel());
         overlayPanel.getOverlayButton().addActionListener(e -> {
             hideOverlay();
             startGame();
@@ -261,7 +465,8 @@ public class ClickTheButtonGame extends JFrame {
             if (settings.isSoundEnabled()) {
                 MusicManager.playBackgroundMusic(Constants.BACKGROUND_MUSIC, true);
             } else {
-                MusicManager.stopBackgroundMusic();
+                // Picked up where it was when sound comes back on
+                MusicManager.pauseBackgroundMusic();
             }
         });
         add(muteButton);
@@ -319,7 +524,7 @@ public class ClickTheButtonGame extends JFrame {
             if (overlayPanel.isVisible()) {
                 int result = JOptionPane.showConfirmDialog(this, Constants.QUIT_CONFIRMATION, Constants.QUIT_TITLE, JOptionPane.YES_NO_OPTION);
                 if (result == JOptionPane.YES_OPTION) {
-                    System.exit(0);
+                    exitGame();
                 }
             }
         }, KeyStroke.getKeyStroke("ESCAPE"), JComponent.WHEN_IN_FOCUSED_WINDOW);
@@ -330,14 +535,16 @@ public class ClickTheButtonGame extends JFrame {
      */
     private void setupPauseResume() {
         getRootPane().registerKeyboardAction(e -> {
-            if (gameTimer != null && gameTimer.isRunning()) {
-                gameTimer.stop();
-                moveTimer.stop();
+            GameScheduler.Group game = scheduler.getGameGroup();
+            if (gameClock != null && gameClock.isActive() && !game.isPaused()) {
+                // Freezes the clock, moves, fades and particles together
+                game.pause();
+                inputRecorder.recordPause(true);
                 showOverlay(Constants.PAUSED, Constants.RESUME, false);
             } else if (overlayPanel.isVisible() && overlayPanel.getOverlayButton().getText().equals(Constants.RESUME)) {
                 hideOverlay();
-                gameTimer.start();
-                moveTimer.start();
+                game.resume();
+                inputRecorder.recordPause(false);
             }
         }, KeyStroke.getKeyStroke('P'), JComponent.WHEN_IN_FOCUSED_WINDOW);
     }
@@ -393,18 +600,7 @@ public class ClickTheButtonGame extends JFrame {
                          (int) (h * GameConstants.MAIN_BUTTON_CENTER_Y_RATIO - button.getHeight() / 2));
         
         // Reposition fake buttons randomly within new bounds
-        repositionFakeButtons(w, h);
-    }
-    
-    /**
-     * Repositions fake buttons within window bounds
-     */
-    private void repositionFakeButtons(int windowWidth, int windowHeight) {
-        for (FakeButton fake : buttonManager.getFakeButtons()) {
-            int fx = (int) (Math.random() * (windowWidth - fake.getWidth()));
-            int fy = (int) (Math.random() * (windowHeight - fake.getHeight() - GameConstants.FAKE_BUTTON_MARGIN_BOTTOM) + GameConstants.FAKE_BUTTON_MARGIN_TOP);
-            fake.setLocation(fx, fy);
-        }
+        buttonManager.repositionFakeButtons(w, h);
     }
     
     /**
@@ -415,10 +611,21 @@ public class ClickTheButtonGame extends JFrame {
         setGameUIVisible(false);
         showOverlay(Constants.APP_TITLE, Constants.START_GAME, false);
 
-        // Start the button move timer
-        moveTimer = new Timer(settings.getMoveIntervalMs(), e -> moveAllButtons());
-        moveTimer.setInitialDelay(settings.getMoveIntervalMs());
-        moveTimer.start();
+        // Start moving the buttons
+        restartMoveTask();
+        AudioBackends.configure(settings.getAudioBackend());
+        ResourceManager.preloadSounds();
+        addWindowListener(new java.awt.event.WindowAdapter() {
+            @Override
+            public void windowClosing(java.awt.event.WindowEvent e) {
+                exitGame();
+            }
+
+            @Override
+            public void windowClosed(java.awt.event.WindowEvent e) {
+                shutdown();
+            }
+        });
 
         // Start background music if sound is enabled
         if (settings.isSoundEnabled()) {
@@ -426,13 +633,91 @@ public class ClickTheButtonGame extends JFrame {
         }
     }
 
+    /**
+     * Tears the game down and ends the program; the one way out for the
+     * close button and ESC
+     */
+    private void exitGame() {
+        shutdown();
+        dispose();
+        System.exit(0);
+    }
+
+    /**
+     * Stops everything the window started and reports its stats. Runs once,
+     * on exit or when the window is disposed, whichever comes first.
+     */
+    private void shutdown() {
+        if (shutDown) {
+            return;
+        }
+        shutDown = true;
+        cancelGameTasks();
+        if (renderLoop != null) {
+            renderLoop.stop();
+            scheduler.setExternallyDriven(false);
+            PerformanceMonitor.logStats("active render loop", renderLoop.getStats());
+            TiledFrameRenderer tiled = renderLoop.getTiledRenderer();
+            if (tiled != null) {
+                tiled.shutdown();
+                PerformanceMonitor.logStats("tiled renderer", tiled.getStats());
+            }
+        }
+        if (inputPipeline != null) {
+            inputPipeline.uninstall();
+            PerformanceMonitor.logStats("input", inputPipeline.getStats());
+        }
+        if (displayDevice != null && displayDevice.getFullScreenWindow() == this) {
+            displayDevice.setFullScreenWindow(null);
+        }
+
+        RepaintCoordinator coordinator = RepaintCoordinator.install();
+        coordinator.setFrameStats(null);
+        QualityGovernor governor = QualityGovernor.getShared();
+        governor.removeListener(qualityListener);
+        PerformanceMonitor.logStats("display " + displayBackend + " at " + frameRate + " fps",
+            DisplayBackends.getStats(displayBackend));
+        PerformanceMonitor.logStats("repaint coordinator", coordinator.getStats());
+        PerformanceMonitor.logStats("render quality", governor);
+        PerformanceMonitor.logStats("scaled images", ScaledImageCache.getShared());
+        PerformanceMonitor.logStats("scheduler", scheduler.getStats());
+        PerformanceMonitor.logStats("audio " + AudioBackends.get().getName(), AudioBackends.get().getStats());
+    }
+
+    /**
+     * (Re)starts moving the buttons at the configured interval
+     */
+    private void restartMoveTask() {
+        if (moveTask != null) {
+            moveTask.cancel();
+        }
+        int interval = settings.getMoveIntervalMs();
+        moveTask = scheduler.scheduleAtFixedRate(scheduler.getGameGroup(), interval, interval, () -> {
+            inputRecorder.recordMoveTick();
+            moveAllButtons();
+        });
+    }
+
+    /**
+     * Stops this window's clock and moves, and unfreezes the game group so a
+     * pause does not outlive the window
+     */
+    private void cancelGameTasks() {
+        if (gameClock != null) {
+            gameClock.cancel();
+        }
+        if (moveTask != null) {
+            moveTask.cancel();
+        }
+        scheduler.getGameGroup().resume();
+    }
+
     /**
      * Moves the main and fake buttons with fade animation.
      */
     // Helper to move and randomize all buttons
     private void moveAllButtons() {
-        AnimationManager.fadeAndMoveButton(button, null);
-        buttonManager.moveFakeButtons();
+        rules.moveAll();
     }
 
     /**
@@ -443,7 +728,7 @@ public class ClickTheButtonGame extends JFrame {
      * @param showScore  Whether to show the score (unused, for future use)
      */
     private void showOverlay(String message, String buttonText, boolean showScore) {
-        overlayPanel.getOverlayLabel().setText("<html><div style='text-align:center;'>" + message + "</div></html>");
+        overlayPanel.getOverlayLabel().setText(message);
         overlayPanel.getOverlayButton().setText(buttonText);
         overlayPanel.getOverlayButton().setVisible(true);
         overlayPanel.getOverlayButton().setEnabled(true);
@@ -471,14 +756,13 @@ public class ClickTheButtonGame extends JFrame {
         overlayPanel.setFocusable(true);
         // Try to request focus multiple times with increasing delays
         for (int delay : new int[]{0, 100, 250, 500}) {
-            new Timer(delay, ev -> {
+            scheduler.schedule(scheduler.getUiGroup(), delay, () -> {
                 overlayPanel.requestFocusInWindow();
                 KeyboardFocusManager.getCurrentKeyboardFocusManager().clearGlobalFocusOwner();
                 overlayBtn.requestFocusInWindow();
                 overlayBtn.requestFocus();
                 overlayBtn.grabFocus();
-                ((Timer)ev.getSource()).stop();
-            }).start();
+            });
         }
     }
 
@@ -504,16 +788,21 @@ public class ClickTheButtonGame extends JFrame {
         timerLabel.setVisible(visible);
         highScoreLabel.setVisible(visible);
         button.setVisible(visible);
-        for (FakeButton fake : buttonManager.getFakeButtons())
-            fake.setVisible(visible);
+        buttonManager.setFakeButtonsVisible(visible);
     }
 
     /**
      * Starts or restarts the game, resetting state and timers.
      */
     private void startGame() {
+        // Starting over from the pause screen drops the paused game
+        if (gameClock != null) {
+            gameClock.cancel();
+        }
+        scheduler.getGameGroup().resume();
+        sessionTracker.start(getContentPane(), buttonManager.getFakeButtons());
         if (settings.isSoundEnabled()) {
-            MusicManager.playBackgroundMusic("/audio/background.wav", true);
+            MusicManager.playBackgroundMusic(Constants.BACKGROUND_MUSIC, true);
         }
         // Countdown before game starts
         setGameUIVisible(false);
@@ -527,22 +816,24 @@ public class ClickTheButtonGame extends JFrame {
             setGameUIVisible(true);
             gameState.reset(settings.getGameDurationSeconds());
             gameState.loadHighScore(HIGH_SCORE_FILE);
-            scoreLabel.setText(Constants.SCORE_PREFIX + "0");
-            timerLabel.setText(Constants.TIME_PREFIX + gameState.getTimeLeft());
-            highScoreLabel.setText(Constants.HIGH_SCORE_PREFIX + gameState.getHighScore());
             button.setEnabled(true);
-            for (FakeButton fake : buttonManager.getFakeButtons())
-                fake.setEnabled(true);
-            gameTimer = new Timer(1000, ev -> {
-                gameState.decrementTime();
-                timerLabel.setText(Constants.TIME_PREFIX + gameState.getTimeLeft());
-                if (gameState.getTimeLeft() <= 0) {
-                    endGame();
-                }
-            });
-            gameTimer.start();
-            moveTimer.setDelay(settings.getMoveIntervalMs());
-            moveTimer.restart();
+            buttonManager.setFakeButtonsEnabled(true);
+            long seed = seeds.nextLong();
+            rules.reseed(seed);
+            inputRecorder.start(seed, settings.getGameDurationSeconds(), getContentPane(), button,
+                buttonManager, settings.isLightweightObstacles());
+            if (gameClock != null) {
+                gameClock.cancel();
+            }
+            gameClock = scheduler.scheduleAtFixedRate(scheduler.getGameGroup(),
+                GameConstants.GAME_TIMER_DELAY, GameConstants.GAME_TIMER_DELAY, () -> {
+                    inputRecorder.recordClockTick();
+                    gameState.decrementTime();
+                    if (gameState.getTimeLeft() <= 0) {
+                        endGame();
+                    }
+                });
+            restartMoveTask();
         });
     }
 
@@ -550,53 +841,71 @@ public class ClickTheButtonGame extends JFrame {
      * Ends the game, disables input, and shows the game over overlay.
      */
     private void endGame() {
+        // The clock stops at zero instead of ending the game again every second
+        gameClock.cancel();
         MusicManager.stopBackgroundMusic();
         if (settings.isSoundEnabled()) ResourceManager.playEndBeep();
         
-        // Update score label to show final score
-        scoreLabel.setText(Constants.SCORE_PREFIX + gameState.getScore());
-        
         // Save high score after game ends
         gameState.saveHighScore(HIGH_SCORE_FILE);
-        // Immediately reload and update label to ensure persistence in test
+        // Immediately reload to ensure persistence in test; the HUD follows
         gameState.loadHighScore(HIGH_SCORE_FILE);
-        highScoreLabel.setText(Constants.HIGH_SCORE_PREFIX + gameState.getHighScore());
         
         // Show summary screen with stats and achievements (if any)
         StringBuilder summary = new StringBuilder();
-        summary.append("Game Over!<br>Your score: ").append(gameState.getScore());
-        summary.append("<br>High score: ").append(gameState.getHighScore());
+        summary.append("Game Over!\n{size 24}Your score: ").append(gameState.getScore()).append("{/size}");
+        summary.append("\nHigh score: ").append(gameState.getHighScore());
         // Example achievement: 20+ points
         if (gameState.getScore() >= 20) {
-            summary.append("<br><b>Achievement: Quick Clicker!</b>");
+            summary.append("\n{b}Achievement: Quick Clicker!{/b}");
         }
         showOverlay(summary.toString(), "Play Again", true);
+        InputLog inputLog = inputRecorder.stop(gameState.getScore());
+        // Saved once the overlay's component events have been delivered
+        SwingUtilities.invokeLater(() -> saveSession(inputLog));
+    }
+
+    /**
+     * Writes the recordings of the game that just ended, if the player opted
+     * in with -Dctb.record.sessions=true
+     */
+    private void saveSession(InputLog inputLog) {
+        SessionLog log = sessionTracker.stop(SESSION_TAIL_MS);
+        if (!RECORD_SESSIONS) {
+            return;
+        }
+        if (inputLog != null) {
+            try {
+                inputLog.writeTo(LAST_INPUT_FILE.toPath());
+            } catch (IOException e) {
+                // Recording is best effort; the game does not depend on it
+            }
+        }
+        if (log == null) {
+            return;
+        }
+        try {
+            log.writeTo(LAST_SESSION_FILE.toPath());
+            if (gameState.getScore() > 0 && gameState.getScore() >= gameState.getHighScore()) {
+                Files.copy(LAST_SESSION_FILE.toPath(), BEST_SESSION_FILE.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException e) {
+            // Recording is best effort; the game does not depend on it
+        }
     }
 
     /**
      * Advances the level by shrinking the main button, but not below its text size.
      */
     private void nextLevel() {
-        Dimension minSize = button.getPreferredSize();
-        int minWidth = (int) minSize.getWidth();
-        int minHeight = (int) minSize.getHeight();
-        int newWidth = Math.max(minWidth, GameConstants.MAIN_BUTTON_START_WIDTH - gameState.getScore() * 2);
-        int newHeight = Math.max(minHeight, GameConstants.MAIN_BUTTON_START_HEIGHT - gameState.getScore());
-        button.setSize(newWidth, newHeight);
+        rules.nextLevel();
     }
 
     /**
-     * Randomizes the background and button colors using pastel shades.
-     * Allows for future theme support.
+     * Gives the main button a new color from the palette
      */
     private void randomizeColors() {
-        Color bg = UIUtils.getRandomPastelColor(random);
-        Color btn = UIUtils.getRandomPastelColor(random).darker();
-        getContentPane().setBackground(bg);
-        button.setBackground(btn);
-        for (FakeButton fake : buttonManager.getFakeButtons()) {
-            fake.setBackground(UIUtils.getRandomPastelColor(random).darker());
-        }
+        rules.randomizeColors();
     }
 
     /**
@@ -624,7 +933,7 @@ public class ClickTheButtonGame extends JFrame {
             // Save settings after dialog
             SettingsPersistence.save(settings);
             ClickTheButtonGame game = new ClickTheButtonGame(settings);
-            game.setVisible(true);
+            game.showWindow();
         });
     }
 
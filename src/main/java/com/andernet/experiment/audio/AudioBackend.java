@@ -0,0 +1,41 @@
+package com.andernet.experiment.audio;
+
+/**
+ * Where the game's sound effects and music go.
+ *
+ * The game talks to the backend chosen by {@link AudioBackends#get()}: the
+ * sound device, nothing at all, or a capture for tests and benchmarks.
+ * Implementations must return from every call at once, since the game calls
+ * them from the EDT, and must not throw.
+ */
+public interface AudioBackend {
+
+    /**
+     * Short name for logs and settings, e.g. "device"
+     */
+    String getName();
+
+    /**
+     * Plays a sound effect
+     */
+    void play(Sound sound);
+
+    /**
+     * Starts a music track, or keeps it playing if it is already on
+     */
+    void playMusic(String resourcePath, boolean loop);
+
+    /**
+     * Holds the music where it is, until the next {@link #playMusic}
+     */
+    void pauseMusic();
+
+    void stopMusic();
+
+    AudioStats getStats();
+
+    /**
+     * Stops playback and releases threads, lines and files
+     */
+    void close();
+}
@@ -0,0 +1,28 @@
+package com.andernet.experiment.audio;
+
+/**
+ * The kinds of {@link AudioBackend} the game can run with.
+ */
+public enum AudioBackendType {
+    /** Mix into the sound device */
+    DEVICE,
+    /** Play nothing and never touch a sound device */
+    NULL,
+    /** Mix into memory or a WAV file, recording every trigger */
+    CAPTURE;
+
+    private static final AudioBackendType[] TYPES = values();
+
+    /**
+     * Parses a persisted or configured name, in any case, falling back to
+     * {@link #DEVICE}
+     */
+    public static AudioBackendType fromName(String name) {
+        for (AudioBackendType type : TYPES) {
+            if (type.name().equalsIgnoreCase(name)) {
+                return type;
+            }
+        }
+        return DEVICE;
+    }
+}
@@ -0,0 +1,112 @@
+package com.andernet.experiment.audio;
+
+import java.io.File;
+import java.io.IOException;
+import com.andernet.experiment.util.Constants;
+
+/**
+ * Picks the {@link AudioBackend} the game plays through.
+ *
+ * The {@code ctb.audio.backend} system property wins when set: "device",
+ * "null" or "capture". Otherwise runs in test mode ({@code ctb.testmode})
+ * use the null backend, so they never probe for a sound device, and
+ * everything else uses the type from the settings, the device by default.
+ * A capture goes to the WAV file named by {@code ctb.audio.capture.file},
+ * or to memory.
+ *
+ * The backend in use is closed when the JVM exits, however it exits, so a
+ * file capture always ends with a complete WAV header.
+ */
+public class AudioBackends {
+    public static final String PROPERTY = "ctb.audio.backend";
+    public static final String CAPTURE_FILE_PROPERTY = "ctb.audio.capture.file";
+
+    private static AudioBackendType configured = AudioBackendType.DEVICE;
+    private static volatile AudioBackend active;
+    private static AudioBackendType activeType;
+    private static boolean hookInstalled;
+
+    private AudioBackends() {}
+
+    /**
+     * The backend in use, created on first use
+     */
+    public static AudioBackend get() {
+        AudioBackend backend = active;
+        if (backend == null) {
+            synchronized (AudioBackends.class) {
+                if (active == null) {
+                    activeType = resolve(configured);
+                    active = create(activeType);
+                    installShutdownHook();
+                }
+                backend = active;
+            }
+        }
+        return backend;
+    }
+
+    /**
+     * Sets the type chosen in the settings. A backend already in use is
+     * closed and replaced if the choice changes which one applies.
+     */
+    public static void configure(AudioBackendType type) {
+        AudioBackend old = null;
+        synchronized (AudioBackends.class) {
+            configured = type;
+            if (active != null && resolve(type) != activeType) {
+                old = active;
+                active = null;
+            }
+        }
+        if (old != null) {
+            old.close();
+        }
+    }
+
+    private static void installShutdownHook() {
+        if (hookInstalled) {
+            return;
+        }
+        hookInstalled = true;
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            AudioBackend backend = active;
+            if (backend != null) {
+                backend.close();
+            }
+        }, "audio-shutdown"));
+    }
+
+    /**
+     * The type that applies given the settings' choice
+     */
+    public static AudioBackendType resolve(AudioBackendType configured) {
+        String name = System.getProperty(PROPERTY);
+        if (name != null) {
+            return AudioBackendType.fromName(name);
+        }
+        if (Boolean.getBoolean(Constants.TEST_MODE_PROPERTY)) {
+            return AudioBackendType.NULL;
+        }
+        return configured != null ? configured : AudioBackendType.DEVICE;
+    }
+
+    public static AudioBackend create(AudioBackendType type) {
+        switch (type) {
+            case NULL:
+                return new NullAudioBackend();
+            case CAPTURE:
+                String path = System.getProperty(CAPTURE_FILE_PROPERTY);
+                if (path != null) {
+                    try {
+                        return CaptureAudioBackend.toFile(new File(path));
+                    } catch (IOException e) {
+                        // Capture into memory instead
+                    }
+                }
+                return new CaptureAudioBackend();
+            default:
+                return new DeviceAudioBackend();
+        }
+    }
+}
@@ -0,0 +1,250 @@
+package com.andernet.experiment.audio;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Arrays;
+
+/**
+ * Plays sound effects by mixing them in software into one line.
+ *
+ * The effects are decoded once into {@link PcmClip}s when the mixer starts.
+ * From then on one dedicated thread mixes {@link #BLOCK_FRAMES} frames at a
+ * time from up to {@link #MAX_VOICES} voices into a single
+ * {@link SourceDataLine} that stays open for the life of the game. Writing
+ * to the line blocks, which paces the thread; the line holds only
+ * {@link #LINE_BLOCKS} blocks, so a trigger is audible within a few
+ * milliseconds of the block it lands in.
+ *
+ * {@link #play} can be called from any thread. It puts the trigger on a
+ * lock-free queue and returns at once, allocating nothing. When every voice
+ * is busy the oldest one is cut short. Triggers that waited longer than
+ * {@link #MAX_TRIGGER_AGE_MILLIS}, for instance while the line was opening,
+ * are dropped rather than played late. The time from each trigger to its
+ * first sample leaving the line is recorded in {@link #getStats()}.
+ *
+ * Without an audio device the thread ends after the first attempt to open
+ * the line, and triggers are ignored.
+ */
+public final class AudioMixer {
+    public static final int SAMPLE_RATE = 44100;
+    public static final AudioFormat FORMAT = new AudioFormat(SAMPLE_RATE, 16, 2, true, false);
+    // About 5.8 ms per block
+    public static final int BLOCK_FRAMES = 256;
+    public static final int MAX_VOICES = 8;
+    public static final int MAX_TRIGGER_AGE_MILLIS = 100;
+
+    // Blocks the line buffers ahead of the speakers
+    static final int LINE_BLOCKS = 4;
+    static final int QUEUE_CAPACITY = 64;
+
+    private static final int FRAME_BYTES = 4;
+
+    private static AudioMixer shared;
+
+    private final PcmClip[] clips = new PcmClip[Sound.values().length];
+    private final TriggerQueue triggers = new TriggerQueue(QUEUE_CAPACITY);
+    private final AudioStats stats = new AudioStats();
+    // Mixing state, owned by the mixing thread
+    private final PcmClip[] voiceClips;
+    private final int[] voicePositions;
+    private final long[] voiceSerials;
+    private final int[] mix = new int[BLOCK_FRAMES * 2];
+    private long serial;
+
+    private volatile boolean unavailable;
+    private volatile boolean running;
+    private Thread thread;
+
+    AudioMixer(int maxVoices) {
+        voiceClips = new PcmClip[maxVoices];
+        voicePositions = new int[maxVoices];
+        voiceSerials = new long[maxVoices];
+    }
+
+    /**
+     * The game's mixer, started on first use
+     */
+    public static synchronized AudioMixer getShared() {
+        if (shared == null) {
+            shared = new AudioMixer(MAX_VOICES);
+            shared.start();
+        }
+        return shared;
+    }
+
+    /**
+     * Plays a sound effect as soon as the next block is mixed
+     */
+    public void play(Sound sound) {
+        trigger(sound, System.nanoTime());
+    }
+
+    /**
+     * Queues a trigger that happened at a given time
+     */
+    void trigger(Sound sound, long timeNanos) {
+        if (unavailable) {
+            return;
+        }
+        stats.recordTrigger();
+        if (!triggers.offer(sound.ordinal(), timeNanos)) {
+            stats.recordDropped();
+        }
+    }
+
+    public AudioStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Whether the mixer has given up on opening a line
+     */
+    public boolean isUnavailable() {
+        return unavailable;
+    }
+
+    synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "audio-mixer");
+        thread.setDaemon(true);
+        // Late blocks are audible, late frames are not
+        thread.setPriority(Thread.MAX_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * Stops the mixing thread and closes the line
+     */
+    public synchronized void shutdown() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+            thread = null;
+        }
+    }
+
+    void setClip(Sound sound, PcmClip clip) {
+        clips[sound.ordinal()] = clip;
+    }
+
+    private void run() {
+        loadClips();
+        SourceDataLine line;
+        try {
+            line = AudioSystem.getSourceDataLine(FORMAT);
+            line.open(FORMAT, BLOCK_FRAMES * FRAME_BYTES * LINE_BLOCKS);
+            line.start();
+        } catch (LineUnavailableException | IllegalArgumentException | SecurityException e) {
+            // No audio device: effects stay silent, as they always have
+            unavailable = true;
+            running = false;
+            return;
+        }
+        byte[] out = new byte[BLOCK_FRAMES * FRAME_BYTES];
+        boolean primed = false;
+        try {
+            while (running) {
+                int buffered = (line.getBufferSize() - line.available()) / FRAME_BYTES;
+                if (primed && buffered == 0) {
+                    stats.recordUnderrun();
+                }
+                mixBlock(out, System.nanoTime(), buffered);
+                line.write(out, 0, out.length);
+                primed = true;
+            }
+        } finally {
+            line.stop();
+            line.close();
+        }
+    }
+
+    void loadClips() {
+        for (Sound sound : Sound.values()) {
+            URL url = AudioMixer.class.getResource(sound.getResourcePath());
+            if (url == null) {
+                continue;
+            }
+            try {
+                clips[sound.ordinal()] = PcmClip.decode(url);
+            } catch (UnsupportedAudioFileException | IOException | IllegalArgumentException e) {
+                // Unreadable sounds stay silent
+            }
+        }
+    }
+
+    /**
+     * Starts the queued triggers and mixes the next block into out as
+     * little-endian 16-bit stereo
+     *
+     * @param nowNanos       when the block is mixed
+     * @param bufferedFrames frames already waiting in the line ahead of it
+     */
+    void mixBlock(byte[] out, long nowNanos, int bufferedFrames) {
+        long maxAge = MAX_TRIGGER_AGE_MILLIS * 1_000_000L;
+        while (triggers.poll()) {
+            long age = nowNanos - triggers.polledTime();
+            PcmClip clip = clips[triggers.polledSound()];
+            if (age > maxAge) {
+                stats.recordDropped();
+            } else if (clip != null) {
+                startVoice(clip);
+                stats.recordLatency(age + bufferedFrames * 1_000_000_000L / SAMPLE_RATE);
+            }
+        }
+
+        Arrays.fill(mix, 0);
+        int active = 0;
+        for (int v = 0; v < voiceClips.length; v++) {
+            PcmClip clip = voiceClips[v];
+            if (clip == null) {
+                continue;
+            }
+            active++;
+            short[] samples = clip.samples();
+            int position = voicePositions[v];
+            int count = Math.min(mix.length, samples.length - position);
+            for (int i = 0; i < count; i++) {
+                mix[i] += samples[position + i];
+            }
+            position += count;
+            if (position >= samples.length) {
+                voiceClips[v] = null;
+            }
+            voicePositions[v] = position;
+        }
+        stats.recordBlock(active);
+
+        for (int i = 0; i < mix.length; i++) {
+            int s = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, mix[i]));
+            out[i * 2] = (byte) s;
+            out[i * 2 + 1] = (byte) (s >> 8);
+        }
+    }
+
+    private void startVoice(PcmClip clip) {
+        int voice = -1;
+        for (int v = 0; v < voiceClips.length; v++) {
+            if (voiceClips[v] == null) {
+                voice = v;
+                break;
+            }
+            if (voice < 0 || voiceSerials[v] < voiceSerials[voice]) {
+                voice = v;
+            }
+        }
+        if (voiceClips[voice] != null) {
+            stats.recordStolen();
+        }
+        voiceClips[voice] = clip;
+        voicePositions[voice] = 0;
+        voiceSerials[voice] = ++serial;
+    }
+}
@@ -0,0 +1,101 @@
+package com.andernet.experiment.audio;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters for {@link AudioMixer}: triggers played, dropped and stolen, and
+ * the time from a trigger to its first sample reaching the speakers.
+ *
+ * Triggers and drops are counted on every thread that plays a sound, so the
+ * counters are adders and the peaks are updated atomically; a burst of
+ * triggers is exactly when a lost count would matter.
+ */
+public class AudioStats {
+    private final LongAdder triggers = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder stolen = new LongAdder();
+    private final LongAdder blocks = new LongAdder();
+    private final LongAdder underruns = new LongAdder();
+    private final AtomicInteger peakVoices = new AtomicInteger();
+    private final LongAdder started = new LongAdder();
+    private final LongAdder totalLatencyNanos = new LongAdder();
+    private final AtomicLong maxLatencyNanos = new AtomicLong();
+
+    void recordTrigger() {
+        triggers.increment();
+    }
+
+    void recordDropped() {
+        dropped.increment();
+    }
+
+    void recordStolen() {
+        stolen.increment();
+    }
+
+    void recordBlock(int voices) {
+        blocks.increment();
+        peakVoices.accumulateAndGet(voices, Math::max);
+    }
+
+    void recordUnderrun() {
+        underruns.increment();
+    }
+
+    void recordLatency(long nanos) {
+        started.increment();
+        totalLatencyNanos.add(nanos);
+        maxLatencyNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    public void reset() {
+        triggers.reset();
+        dropped.reset();
+        stolen.reset();
+        blocks.reset();
+        underruns.reset();
+        peakVoices.set(0);
+        started.reset();
+        totalLatencyNanos.reset();
+        maxLatencyNanos.set(0);
+    }
+
+    public long getTriggers() { return triggers.sum(); }
+    /**
+     * Triggers lost because the queue was full or there is no audio device
+     */
+    public long getDropped() { return dropped.sum(); }
+    /**
+     * Voices cut short to make room for a newer trigger
+     */
+    public long getStolen() { return stolen.sum(); }
+    public long getBlocks() { return blocks.sum(); }
+    /**
+     * Times the line ran dry because the mixing thread fell behind
+     */
+    public long getUnderruns() { return underruns.sum(); }
+    public int getPeakVoices() { return peakVoices.get(); }
+    /**
+     * Triggers that reached a voice, which is what latency is measured over
+     */
+    public long getStarted() { return started.sum(); }
+    public long getMaxLatencyNanos() { return maxLatencyNanos.get(); }
+
+    /**
+     * Average time from a trigger to its first sample leaving the line
+     */
+    public double getAverageLatencyMillis() {
+        long count = started.sum();
+        return count > 0 ? totalLatencyNanos.sum() / (double) count / 1_000_000.0 : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("triggers=%d dropped=%d stolen=%d blocks=%d underruns=%d peakVoices=%d "
+            + "avgLatency=%.2fms maxLatency=%.2fms",
+            getTriggers(), getDropped(), getStolen(), getBlocks(), getUnderruns(), getPeakVoices(),
+            getAverageLatencyMillis(), getMaxLatencyNanos() / 1_000_000.0);
+    }
+}
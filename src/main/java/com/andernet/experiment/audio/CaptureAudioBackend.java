@@ -0,0 +1,338 @@
+package com.andernet.experiment.audio;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Mixes sound effects into memory or a WAV file instead of a sound device,
+ * and records every trigger, for tests, benchmarks and soak runs.
+ *
+ * The capture is a sequence of {@link AudioMixer#BLOCK_FRAMES}-frame blocks
+ * starting when the backend was created, on the backend's clock. Triggers
+ * are only time-stamped by the caller; a trigger starts in the first block
+ * that begins after it, exactly as the device mixer would start it with an
+ * empty line. Given the same trigger times the PCM comes out the same, and
+ * the latency in {@link #getStats()} is the time to that block.
+ *
+ * A real-time capture mixes the blocks as they fall due on its own daemon
+ * thread, so callers on the EDT never mix. A capture on an injected clock
+ * has no thread and mixes when it is flushed, read or closed.
+ *
+ * Capturing to memory keeps only the last {@link #MEMORY_LIMIT_SECONDS}
+ * seconds, about 170 KB each; use a file for whole runs. Music requests
+ * are recorded but not mixed.
+ */
+public final class CaptureAudioBackend implements AudioBackend {
+    public static final int MEMORY_LIMIT_SECONDS = 60;
+
+    private static final int FRAME_BYTES = 4;
+    private static final int WAV_HEADER_BYTES = 44;
+    private static final long BLOCK_NANOS = AudioMixer.BLOCK_FRAMES * 1_000_000_000L / AudioMixer.SAMPLE_RATE;
+
+    /**
+     * A sound effect, or a music request when sound is null, and its time
+     * on the backend's clock
+     */
+    public record Trigger(Sound sound, String music, long timeNanos) {}
+
+    private final AudioMixer mixer = new AudioMixer(AudioMixer.MAX_VOICES);
+    private final LongSupplier clock;
+    private final long startNanos;
+    // Guarded by this
+    private final List<Trigger> triggers = new ArrayList<>();
+    private boolean closed;
+
+    // Mixing state, guarded by mixLock
+    private final Object mixLock = new Object();
+    private final byte[] block = new byte[AudioMixer.BLOCK_FRAMES * FRAME_BYTES];
+    private final PcmRing memory;
+    private final RandomAccessFile file;
+    private long blocks;
+    // Triggers already handed to the mixer
+    private int fed;
+    private boolean finished;
+
+    private final Thread thread;
+
+    /**
+     * Captures into memory, in real time
+     */
+    public CaptureAudioBackend() {
+        this(System::nanoTime, null, (long) MEMORY_LIMIT_SECONDS * AudioMixer.SAMPLE_RATE * FRAME_BYTES, true);
+    }
+
+    /**
+     * @param memoryLimit bytes of PCM kept when capturing to memory
+     * @param realTime    whether a thread mixes the blocks as they fall due
+     */
+    CaptureAudioBackend(LongSupplier clock, RandomAccessFile file, long memoryLimit, boolean realTime) {
+        this.clock = clock;
+        this.file = file;
+        this.memory = file == null ? new PcmRing(memoryLimit) : null;
+        this.startNanos = clock.getAsLong();
+        mixer.loadClips();
+        if (realTime) {
+            thread = new Thread(this::run, "audio-capture");
+            thread.setDaemon(true);
+            thread.start();
+        } else {
+            thread = null;
+        }
+    }
+
+    /**
+     * Captures into memory on an injected clock, without a mixing thread
+     */
+    CaptureAudioBackend(LongSupplier clock) {
+        this(clock, null, (long) MEMORY_LIMIT_SECONDS * AudioMixer.SAMPLE_RATE * FRAME_BYTES, false);
+    }
+
+    /**
+     * Captures into a WAV file, in real time; the file is complete once the
+     * backend is closed
+     */
+    public static CaptureAudioBackend toFile(File target) throws IOException {
+        return toFile(target, System::nanoTime, true);
+    }
+
+    static CaptureAudioBackend toFile(File target, LongSupplier clock, boolean realTime) throws IOException {
+        RandomAccessFile file = new RandomAccessFile(target, "rw");
+        try {
+            file.setLength(0);
+            file.write(new byte[WAV_HEADER_BYTES]);
+        } catch (IOException e) {
+            file.close();
+            throw e;
+        }
+        return new CaptureAudioBackend(clock, file, 0, realTime);
+    }
+
+    @Override
+    public String getName() {
+        return "capture";
+    }
+
+    @Override
+    public synchronized void play(Sound sound) {
+        if (!closed) {
+            triggers.add(new Trigger(sound, null, clock.getAsLong()));
+        }
+    }
+
+    @Override
+    public synchronized void playMusic(String resourcePath, boolean loop) {
+        recordMusic(resourcePath);
+    }
+
+    @Override
+    public synchronized void pauseMusic() {
+        recordMusic("pause");
+    }
+
+    @Override
+    public synchronized void stopMusic() {
+        recordMusic("stop");
+    }
+
+    private void recordMusic(String request) {
+        if (!closed) {
+            triggers.add(new Trigger(null, request, clock.getAsLong()));
+        }
+    }
+
+    @Override
+    public AudioStats getStats() {
+        return mixer.getStats();
+    }
+
+    /**
+     * Mixes everything due by now
+     */
+    public void flush() {
+        mixDue(clock.getAsLong());
+    }
+
+    /**
+     * Everything recorded so far, in order
+     */
+    public synchronized List<Trigger> getTriggers() {
+        return new ArrayList<>(triggers);
+    }
+
+    /**
+     * The PCM mixed so far, in {@link AudioMixer#FORMAT}, up to the memory
+     * limit's worth of the latest; empty when capturing to a file
+     */
+    public byte[] getPcm() {
+        flush();
+        synchronized (mixLock) {
+            return memory != null ? memory.toByteArray() : new byte[0];
+        }
+    }
+
+    /**
+     * Frames mixed so far
+     */
+    public long getFrames() {
+        synchronized (mixLock) {
+            return blocks * AudioMixer.BLOCK_FRAMES;
+        }
+    }
+
+    @Override
+    public void close() {
+        long now;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            now = clock.getAsLong();
+        }
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        mixDue(now);
+        synchronized (mixLock) {
+            finished = true;
+            if (file != null) {
+                try {
+                    writeWavHeader();
+                    file.close();
+                } catch (IOException e) {
+                    // The capture is incomplete; nothing else depends on it
+                }
+            }
+        }
+    }
+
+    void setClip(Sound sound, PcmClip clip) {
+        mixer.setClip(sound, clip);
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            mixDue(clock.getAsLong());
+            LockSupport.parkNanos(BLOCK_NANOS);
+        }
+    }
+
+    /**
+     * Mixes the blocks that have started by a given time, starting each
+     * trigger in the first block that begins after it
+     */
+    private void mixDue(long now) {
+        synchronized (mixLock) {
+            if (finished) {
+                return;
+            }
+            long start = blockStart(blocks);
+            while (start <= now) {
+                feedTriggersBefore(start);
+                mixer.mixBlock(block, start, 0);
+                write(block);
+                blocks++;
+                start = blockStart(blocks);
+            }
+        }
+    }
+
+    private void feedTriggersBefore(long blockStart) {
+        synchronized (this) {
+            while (fed < triggers.size() && triggers.get(fed).timeNanos() < blockStart) {
+                Trigger trigger = triggers.get(fed++);
+                if (trigger.sound() != null) {
+                    mixer.trigger(trigger.sound(), trigger.timeNanos());
+                }
+            }
+        }
+    }
+
+    private long blockStart(long index) {
+        return startNanos + index * AudioMixer.BLOCK_FRAMES * 1_000_000_000L / AudioMixer.SAMPLE_RATE;
+    }
+
+    private void write(byte[] data) {
+        if (memory != null) {
+            memory.write(data);
+            return;
+        }
+        try {
+            file.write(data);
+        } catch (IOException e) {
+            // A full disk ends the capture, not the game
+            finished = true;
+        }
+    }
+
+    private void writeWavHeader() throws IOException {
+        long dataBytes = file.length() - WAV_HEADER_BYTES;
+        int rate = AudioMixer.SAMPLE_RATE;
+        file.seek(0);
+        file.writeBytes("RIFF");
+        file.writeInt(Integer.reverseBytes((int) (dataBytes + WAV_HEADER_BYTES - 8)));
+        file.writeBytes("WAVEfmt ");
+        file.writeInt(Integer.reverseBytes(16));
+        file.writeShort(Short.reverseBytes((short) 1));
+        file.writeShort(Short.reverseBytes((short) 2));
+        file.writeInt(Integer.reverseBytes(rate));
+        file.writeInt(Integer.reverseBytes(rate * FRAME_BYTES));
+        file.writeShort(Short.reverseBytes((short) FRAME_BYTES));
+        file.writeShort(Short.reverseBytes((short) 16));
+        file.writeBytes("data");
+        file.writeInt(Integer.reverseBytes((int) dataBytes));
+    }
+
+    /**
+     * The latest PCM up to a limit; grows as needed, then overwrites the
+     * oldest bytes
+     */
+    private static final class PcmRing {
+        private final int limit;
+        private byte[] bytes = new byte[0];
+        private long written;
+
+        PcmRing(long limit) {
+            // Whole frames, so the oldest kept frame is never cut in half
+            this.limit = (int) Math.min(Integer.MAX_VALUE - 8, limit) / FRAME_BYTES * FRAME_BYTES;
+        }
+
+        void write(byte[] data) {
+            if (limit == 0) {
+                return;
+            }
+            if (written + data.length > bytes.length && bytes.length < limit) {
+                long grown = Math.max(written + data.length, (long) bytes.length * 2);
+                bytes = java.util.Arrays.copyOf(bytes, (int) Math.min(limit, grown));
+            }
+            for (int i = 0; i < data.length; ) {
+                int at = (int) ((written + i) % bytes.length);
+                int n = Math.min(data.length - i, bytes.length - at);
+                System.arraycopy(data, i, bytes, at, n);
+                i += n;
+            }
+            written += data.length;
+        }
+
+        byte[] toByteArray() {
+            if (written <= bytes.length) {
+                return java.util.Arrays.copyOf(bytes, (int) written);
+            }
+            byte[] out = new byte[bytes.length];
+            int oldest = (int) (written % bytes.length);
+            System.arraycopy(bytes, oldest, out, 0, bytes.length - oldest);
+            System.arraycopy(bytes, 0, out, bytes.length - oldest, oldest);
+            return out;
+        }
+    }
+}
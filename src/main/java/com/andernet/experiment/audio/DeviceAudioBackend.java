@@ -0,0 +1,46 @@
+package com.andernet.experiment.audio;
+
+/**
+ * Plays through the sound device: effects through the shared
+ * {@link AudioMixer}, music through the shared {@link MusicStreamer}
+ */
+final class DeviceAudioBackend implements AudioBackend {
+    private final AudioMixer mixer = AudioMixer.getShared();
+    private final MusicStreamer music = MusicStreamer.getShared();
+
+    @Override
+    public String getName() {
+        return "device";
+    }
+
+    @Override
+    public void play(Sound sound) {
+        mixer.play(sound);
+    }
+
+    @Override
+    public void playMusic(String resourcePath, boolean loop) {
+        music.play(resourcePath, loop);
+    }
+
+    @Override
+    public void pauseMusic() {
+        music.pause();
+    }
+
+    @Override
+    public void stopMusic() {
+        music.stop();
+    }
+
+    @Override
+    public AudioStats getStats() {
+        return mixer.getStats();
+    }
+
+    @Override
+    public void close() {
+        // The shared mixer keeps its line for the next device backend
+        music.stop();
+    }
+}
@@ -0,0 +1,325 @@
+package com.andernet.experiment.audio;
+
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.LineUnavailableException;
+import javax.sound.sampled.SourceDataLine;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.IOException;
+import java.net.URL;
+
+/**
+ * Streams background music into its own line, a chunk at a time.
+ *
+ * A background thread decodes {@link #CHUNK_FRAMES} frames of the current
+ * track through a {@link TrackStream} and writes them to a
+ * {@link SourceDataLine} in the mixer's format, so memory does not depend on
+ * the length of the track. Looping is gapless. Pausing stops the line where
+ * it is and resuming carries on from there, without reopening anything.
+ * Playing another track fades the old one out over the crossfade while the
+ * new one fades in. Playing the track that is already on does nothing, so
+ * callers can ask for the music whenever they want it on.
+ *
+ * The controlling methods can be called from any thread. The line is
+ * opened when the first track starts; without an audio device the streamer
+ * gives up then and ignores further requests.
+ */
+public final class MusicStreamer {
+    // About 46 ms per chunk
+    public static final int CHUNK_FRAMES = 2048;
+    public static final int DEFAULT_CROSSFADE_MILLIS = 1000;
+
+    // Chunks the line buffers ahead of the speakers
+    static final int LINE_CHUNKS = 3;
+
+    private static final int FRAME_BYTES = 4;
+
+    private static MusicStreamer shared;
+
+    /**
+     * A track to switch to, or to stop when the path is null
+     */
+    private record Request(String path, boolean loop, int crossfadeMillis) {}
+
+    private static final Request STOP = new Request(null, false, 0);
+
+    private final Object lock = new Object();
+    // Guarded by lock
+    private Request pending;
+    private String trackPath;
+    private boolean paused;
+    private Thread thread;
+
+    private volatile boolean unavailable;
+
+    // Streaming state, owned by the streaming thread
+    private TrackStream current;
+    private TrackStream outgoing;
+    private int fadeFrames;
+    private int fadePosition;
+    private SourceDataLine line;
+    private final short[] currentChunk = new short[CHUNK_FRAMES * 2];
+    private final short[] outgoingChunk = new short[CHUNK_FRAMES * 2];
+    private final byte[] out = new byte[CHUNK_FRAMES * FRAME_BYTES];
+
+    MusicStreamer() {
+    }
+
+    /**
+     * The game's music streamer; its thread starts with the first track
+     */
+    public static synchronized MusicStreamer getShared() {
+        if (shared == null) {
+            shared = new MusicStreamer();
+        }
+        return shared;
+    }
+
+    public void play(String resourcePath, boolean loop) {
+        play(resourcePath, loop, DEFAULT_CROSSFADE_MILLIS);
+    }
+
+    /**
+     * Switches to a track, crossfading from the one playing; resumes it
+     * instead if it is the one already on
+     */
+    public void play(String resourcePath, boolean loop, int crossfadeMillis) {
+        if (unavailable) {
+            return;
+        }
+        synchronized (lock) {
+            paused = false;
+            if (!resourcePath.equals(trackPath)) {
+                trackPath = resourcePath;
+                pending = new Request(resourcePath, loop, Math.max(0, crossfadeMillis));
+            }
+            if (thread == null) {
+                thread = new Thread(this::run, "music-streamer");
+                thread.setDaemon(true);
+                thread.start();
+            }
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Holds the music where it is
+     */
+    public void pause() {
+        synchronized (lock) {
+            paused = true;
+            lock.notifyAll();
+        }
+    }
+
+    public void resume() {
+        synchronized (lock) {
+            paused = false;
+            lock.notifyAll();
+        }
+    }
+
+    /**
+     * Stops the music and lets go of the track
+     */
+    public void stop() {
+        synchronized (lock) {
+            if (trackPath != null || pending != null) {
+                trackPath = null;
+                pending = STOP;
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * The track playing or paused, or null
+     */
+    public String getTrack() {
+        synchronized (lock) {
+            return trackPath;
+        }
+    }
+
+    public boolean isPaused() {
+        synchronized (lock) {
+            return paused;
+        }
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                Request request;
+                synchronized (lock) {
+                    while (pending == null && (paused || (current == null && outgoing == null))) {
+                        if (line != null && line.isRunning()) {
+                            line.stop();
+                        }
+                        lock.wait();
+                    }
+                    request = pending;
+                    pending = null;
+                }
+                if (request != null) {
+                    apply(request);
+                }
+                if (current == null && outgoing == null) {
+                    continue;
+                }
+                if (!openLine()) {
+                    closeStreams();
+                    return;
+                }
+                if (!line.isRunning()) {
+                    line.start();
+                }
+                int frames = render(out);
+                line.write(out, 0, frames * FRAME_BYTES);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            closeStreams();
+            if (line != null) {
+                line.close();
+            }
+        }
+    }
+
+    private boolean openLine() {
+        if (line != null) {
+            return true;
+        }
+        try {
+            line = AudioSystem.getSourceDataLine(AudioMixer.FORMAT);
+            line.open(AudioMixer.FORMAT, CHUNK_FRAMES * FRAME_BYTES * LINE_CHUNKS);
+            return true;
+        } catch (LineUnavailableException | IllegalArgumentException | SecurityException e) {
+            // No audio device: the music stays silent, as it always has
+            line = null;
+            unavailable = true;
+            return false;
+        }
+    }
+
+    private void apply(Request request) {
+        if (request.path() == null) {
+            closeStreams();
+            if (line != null) {
+                // Drop what is buffered, so the music stops now
+                line.flush();
+            }
+            return;
+        }
+        switchTo(open(request), request.crossfadeMillis());
+    }
+
+    /**
+     * Makes a stream the current one, fading the current one out over the
+     * crossfade if there is one to fade to
+     */
+    void switchTo(TrackStream next, int crossfadeMillis) {
+        if (current != null && crossfadeMillis > 0 && next != null) {
+            close(outgoing);
+            outgoing = current;
+            fadeFrames = (int) ((long) crossfadeMillis * AudioMixer.SAMPLE_RATE / 1000);
+            fadePosition = 0;
+        } else {
+            close(current);
+        }
+        current = next;
+    }
+
+    private TrackStream open(Request request) {
+        URL url = MusicStreamer.class.getResource(request.path());
+        if (url == null) {
+            trackEnded(request.path());
+            return null;
+        }
+        try {
+            return new TrackStream(url, request.loop(), CHUNK_FRAMES);
+        } catch (IOException | UnsupportedAudioFileException e) {
+            // Unreadable tracks stay silent
+            trackEnded(request.path());
+            return null;
+        }
+    }
+
+    /**
+     * Mixes the next chunk of the current track, and of the one fading out,
+     * into out as little-endian 16-bit stereo
+     *
+     * @return frames written, fewer than a chunk only when the music ends
+     */
+    int render(byte[] out) {
+        int currentFrames = read(current, currentChunk);
+        if (current != null && currentFrames < CHUNK_FRAMES) {
+            close(current);
+            current = null;
+            trackEnded(null);
+        }
+        int outgoingFrames = read(outgoing, outgoingChunk);
+        int frames = Math.max(currentFrames, outgoingFrames);
+        boolean fading = outgoing != null;
+        for (int f = 0; f < frames; f++) {
+            float in = fading ? Math.min(1f, (fadePosition + f) / (float) fadeFrames) : 1f;
+            for (int side = 0; side < 2; side++) {
+                int i = f * 2 + side;
+                float a = f < currentFrames ? currentChunk[i] : 0;
+                float b = f < outgoingFrames ? outgoingChunk[i] : 0;
+                int s = Math.round(a * in + b * (1f - in));
+                s = Math.max(Short.MIN_VALUE, Math.min(Short.MAX_VALUE, s));
+                out[i * 2] = (byte) s;
+                out[i * 2 + 1] = (byte) (s >> 8);
+            }
+        }
+        if (fading) {
+            fadePosition += frames;
+            if (fadePosition >= fadeFrames || outgoingFrames < CHUNK_FRAMES) {
+                close(outgoing);
+                outgoing = null;
+            }
+        }
+        return frames;
+    }
+
+    private static int read(TrackStream stream, short[] chunk) {
+        if (stream == null) {
+            return 0;
+        }
+        try {
+            return stream.read(chunk, CHUNK_FRAMES);
+        } catch (IOException e) {
+            // A broken stream ends the track
+            return 0;
+        }
+    }
+
+    /**
+     * Forgets a track that ended on its own, unless another was asked for
+     */
+    private void trackEnded(String path) {
+        synchronized (lock) {
+            if (pending == null && (path == null || path.equals(trackPath))) {
+                trackPath = null;
+            }
+        }
+    }
+
+    private void closeStreams() {
+        close(current);
+        close(outgoing);
+        current = null;
+        outgoing = null;
+    }
+
+    private static void close(TrackStream stream) {
+        if (stream != null) {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                // Nothing left to read from it anyway
+            }
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.andernet.experiment.audio;
+
+/**
+ * Plays nothing, for headless runs and rigs without a sound device
+ */
+final class NullAudioBackend implements AudioBackend {
+    private final AudioStats stats = new AudioStats();
+
+    @Override
+    public String getName() {
+        return "null";
+    }
+
+    @Override
+    public void play(Sound sound) {
+    }
+
+    @Override
+    public void playMusic(String resourcePath, boolean loop) {
+    }
+
+    @Override
+    public void pauseMusic() {
+    }
+
+    @Override
+    public void stopMusic() {
+    }
+
+    @Override
+    public AudioStats getStats() {
+        return stats;
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,75 @@
+package com.andernet.experiment.audio;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.IOException;
+import java.net.URL;
+
+/**
+ * A sound decoded into the mixer's format: interleaved 16-bit stereo
+ * samples at {@link AudioMixer#SAMPLE_RATE}.
+ */
+public final class PcmClip {
+    private final short[] samples;
+
+    public PcmClip(short[] samples) {
+        this.samples = samples;
+    }
+
+    /**
+     * Decodes a sound file, converting its sample rate and channels
+     */
+    public static PcmClip decode(URL url) throws IOException, UnsupportedAudioFileException {
+        try (AudioInputStream in = AudioSystem.getAudioInputStream(url)) {
+            AudioFormat source = in.getFormat();
+            int channels = source.getChannels();
+            AudioFormat pcm = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, source.getSampleRate(), 16,
+                                              channels, channels * 2, source.getSampleRate(), false);
+            try (AudioInputStream decoded = AudioSystem.getAudioInputStream(pcm, in)) {
+                return fromPcm16(decoded.readAllBytes(), channels, source.getSampleRate());
+            }
+        }
+    }
+
+    /**
+     * Converts little-endian 16-bit samples with any rate and channel count;
+     * mono is copied to both sides, and only the first two channels of
+     * anything wider are kept
+     */
+    static PcmClip fromPcm16(byte[] data, int channels, float sampleRate) {
+        int frames = data.length / (2 * channels);
+        if (frames == 0) {
+            return new PcmClip(new short[0]);
+        }
+        double step = sampleRate / AudioMixer.SAMPLE_RATE;
+        int outFrames = (int) ((frames - 1) / step) + 1;
+        short[] out = new short[outFrames * 2];
+        for (int i = 0; i < outFrames; i++) {
+            double position = i * step;
+            int frame = (int) position;
+            float frac = (float) (position - frame);
+            int next = Math.min(frame + 1, frames - 1);
+            for (int side = 0; side < 2; side++) {
+                int channel = Math.min(side, channels - 1);
+                int a = sample(data, frame * channels + channel);
+                int b = sample(data, next * channels + channel);
+                out[i * 2 + side] = (short) Math.round(a + (b - a) * frac);
+            }
+        }
+        return new PcmClip(out);
+    }
+
+    private static int sample(byte[] data, int index) {
+        return (short) ((data[index * 2] & 0xFF) | (data[index * 2 + 1] << 8));
+    }
+
+    public int getFrames() {
+        return samples.length / 2;
+    }
+
+    short[] samples() {
+        return samples;
+    }
+}
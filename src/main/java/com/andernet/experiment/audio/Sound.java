@@ -0,0 +1,34 @@
+package com.andernet.experiment.audio;
+
+import com.andernet.experiment.util.Constants;
+
+/**
+ * The sound effects the mixer decodes at startup and can play
+ */
+public enum Sound {
+    CLICK(Constants.CLICK_SOUND),
+    FAKE(Constants.FAKE_SOUND),
+    GAME_OVER(Constants.GAMEOVER_SOUND);
+
+    private final String resourcePath;
+
+    Sound(String resourcePath) {
+        this.resourcePath = resourcePath;
+    }
+
+    public String getResourcePath() {
+        return resourcePath;
+    }
+
+    /**
+     * The sound loaded from a resource path, or null if the mixer has none
+     */
+    public static Sound forPath(String resourcePath) {
+        for (Sound sound : values()) {
+            if (sound.resourcePath.equals(resourcePath)) {
+                return sound;
+            }
+        }
+        return null;
+    }
+}
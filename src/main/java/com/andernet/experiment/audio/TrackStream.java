@@ -0,0 +1,148 @@
+package com.andernet.experiment.audio;
+
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import javax.sound.sampled.UnsupportedAudioFileException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.URL;
+
+/**
+ * Decodes a sound file a chunk at a time into the mixer's format, so memory
+ * stays the same however long the track is. A looping track reopens the
+ * file at its end and carries on within the same chunk, interpolating
+ * across the seam, so the loop has no gap.
+ */
+final class TrackStream implements Closeable {
+    private final URL url;
+    private final boolean loop;
+    private AudioInputStream in;
+    private int channels;
+    // Source frames per output frame
+    private double step;
+    private byte[] bytes;
+    // Decoded source frames as stereo, the first being the last one of the
+    // previous chunk so interpolation can span chunks
+    private short[] source;
+    private int sourceFrames;
+    private double position;
+    private int laps;
+
+    TrackStream(URL url, boolean loop, int chunkFrames) throws IOException, UnsupportedAudioFileException {
+        this.url = url;
+        this.loop = loop;
+        open();
+        bytes = new byte[chunkFrames * 2 * channels];
+        source = new short[(chunkFrames + 1) * 2];
+    }
+
+    private void open() throws IOException, UnsupportedAudioFileException {
+        AudioInputStream raw = AudioSystem.getAudioInputStream(url);
+        AudioFormat format = raw.getFormat();
+        int rawChannels = format.getChannels();
+        AudioFormat pcm = new AudioFormat(AudioFormat.Encoding.PCM_SIGNED, format.getSampleRate(), 16,
+                                          rawChannels, rawChannels * 2, format.getSampleRate(), false);
+        try {
+            in = AudioSystem.getAudioInputStream(pcm, raw);
+        } catch (IllegalArgumentException e) {
+            raw.close();
+            throw new UnsupportedAudioFileException(e.getMessage());
+        }
+        if (bytes != null && rawChannels != channels) {
+            // The same file again, so this cannot happen unless it changed
+            close();
+            throw new UnsupportedAudioFileException("channel count changed while looping");
+        }
+        channels = rawChannels;
+        step = format.getSampleRate() / AudioMixer.SAMPLE_RATE;
+    }
+
+    /**
+     * Fills out with up to frames stereo frames; fewer only at the end of a
+     * track that does not loop
+     */
+    int read(short[] out, int frames) throws IOException {
+        int produced = 0;
+        while (produced < frames) {
+            int frame = (int) position;
+            if (frame + 1 >= sourceFrames) {
+                if (refill()) {
+                    continue;
+                }
+                // Nothing after the last frame: play it as is, then stop
+                frame = (int) position;
+                if (frame >= sourceFrames) {
+                    break;
+                }
+                out[produced * 2] = source[frame * 2];
+                out[produced * 2 + 1] = source[frame * 2 + 1];
+                produced++;
+                position += step;
+                continue;
+            }
+            float frac = (float) (position - frame);
+            for (int side = 0; side < 2; side++) {
+                int a = source[frame * 2 + side];
+                int b = source[(frame + 1) * 2 + side];
+                out[produced * 2 + side] = (short) Math.round(a + (b - a) * frac);
+            }
+            produced++;
+            position += step;
+        }
+        return produced;
+    }
+
+    private boolean refill() throws IOException {
+        if (sourceFrames > 1) {
+            int last = sourceFrames - 1;
+            source[0] = source[last * 2];
+            source[1] = source[last * 2 + 1];
+            position -= last;
+            sourceFrames = 1;
+        }
+        int count = readChunk();
+        if (count == 0 && loop) {
+            in.close();
+            try {
+                open();
+            } catch (UnsupportedAudioFileException e) {
+                throw new IOException(e);
+            }
+            laps++;
+            count = readChunk();
+        }
+        for (int i = 0; i < count; i++) {
+            for (int side = 0; side < 2; side++) {
+                int index = (i * channels + Math.min(side, channels - 1)) * 2;
+                source[(sourceFrames + i) * 2 + side] = (short) ((bytes[index] & 0xFF) | (bytes[index + 1] << 8));
+            }
+        }
+        sourceFrames += count;
+        return count > 0;
+    }
+
+    private int readChunk() throws IOException {
+        int length = 0;
+        while (length < bytes.length) {
+            int n = in.read(bytes, length, bytes.length - length);
+            if (n < 0) {
+                break;
+            }
+            length += n;
+        }
+        return length / (2 * channels);
+    }
+
+    /**
+     * Times a looping track has started over
+     */
+    int getLaps() {
+        return laps;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
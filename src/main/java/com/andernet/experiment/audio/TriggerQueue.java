@@ -0,0 +1,85 @@
+package com.andernet.experiment.audio;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded lock-free queue of sound triggers from any number of threads to
+ * the single mixing thread. Each slot carries a sequence number that tells
+ * producers and the consumer whose turn it is, so neither side waits on a
+ * lock and nothing is allocated per trigger.
+ */
+final class TriggerQueue {
+    private final int mask;
+    private final AtomicLongArray sequence;
+    private final int[] sounds;
+    private final long[] times;
+    private final AtomicLong tail = new AtomicLong();
+    // Only the consumer moves the head
+    private long head;
+    private int polledSound;
+    private long polledTime;
+
+    TriggerQueue(int capacity) {
+        if (Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        }
+        mask = capacity - 1;
+        sequence = new AtomicLongArray(capacity);
+        sounds = new int[capacity];
+        times = new long[capacity];
+        for (int i = 0; i < capacity; i++) {
+            sequence.set(i, i);
+        }
+    }
+
+    /**
+     * Adds a trigger; false if the queue is full
+     */
+    boolean offer(int sound, long timeNanos) {
+        long pos = tail.get();
+        while (true) {
+            int i = (int) pos & mask;
+            long diff = sequence.get(i) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    sounds[i] = sound;
+                    times[i] = timeNanos;
+                    // Publishes the slot to the consumer
+                    sequence.set(i, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    /**
+     * Takes the oldest trigger, readable through {@link #polledSound} and
+     * {@link #polledTime}; false if there is none. Consumer thread only.
+     */
+    boolean poll() {
+        int i = (int) head & mask;
+        if (sequence.get(i) != head + 1) {
+            return false;
+        }
+        polledSound = sounds[i];
+        polledTime = times[i];
+        // Hands the slot back to producers for the next lap
+        sequence.set(i, head + mask + 1);
+        head++;
+        return true;
+    }
+
+    int polledSound() {
+        return polledSound;
+    }
+
+    long polledTime() {
+        return polledTime;
+    }
+}
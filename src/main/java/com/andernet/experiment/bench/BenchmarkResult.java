@@ -0,0 +1,74 @@
+package com.andernet.experiment.bench;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import com.andernet.experiment.render.FrameStats;
+
+/**
+ * Outcome of a {@link HeadlessBenchmark} run: whole-frame throughput plus the
+ * average time each component group spent painting itself per frame
+ */
+public class BenchmarkResult {
+    private final int width;
+    private final int height;
+    private final int frames;
+    private final long elapsedNanos;
+    private final FrameStats frameStats;
+    private final Map<String, Long> componentNanos;
+
+    BenchmarkResult(int width, int height, int frames, long elapsedNanos, FrameStats frameStats,
+                    Map<String, Long> componentNanos) {
+        this.width = width;
+        this.height = height;
+        this.frames = frames;
+        this.elapsedNanos = elapsedNanos;
+        this.frameStats = frameStats;
+        this.componentNanos = Collections.unmodifiableMap(new LinkedHashMap<>(componentNanos));
+    }
+
+    public int getFrames() {
+        return frames;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    /**
+     * Frames painted per second of wall time spent painting whole frames
+     */
+    public double getFramesPerSecond() {
+        return elapsedNanos > 0 ? frames * 1_000_000_000.0 / elapsedNanos : 0;
+    }
+
+    public FrameStats getFrameStats() {
+        return frameStats;
+    }
+
+    /**
+     * Total self paint time per component group over the measured frames,
+     * in paint order. Containers do not include their measured children.
+     */
+    public Map<String, Long> getComponentNanos() {
+        return componentNanos;
+    }
+
+    /**
+     * Average self paint time of a component group per frame, in milliseconds
+     */
+    public double getComponentMillis(String group) {
+        Long nanos = componentNanos.get(group);
+        return nanos != null && frames > 0 ? nanos / 1_000_000.0 / frames : 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(String.format("%dx%d: %d frames, %.1f fps | %s",
+            width, height, frames, getFramesPerSecond(), frameStats));
+        for (String group : componentNanos.keySet()) {
+            sb.append(String.format(" | %s=%.3fms", group, getComponentMillis(group)));
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,141 @@
+package com.andernet.experiment.bench;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import com.andernet.experiment.logic.GameConstants;
+import com.andernet.experiment.render.FrameStats;
+
+/**
+ * Rendering throughput of the game's visual stack, measured without a display.
+ *
+ * Each frame applies the next step of the {@link OffscreenScene} script and
+ * paints the whole scene into an image, which is what the fps figure is
+ * based on. After every timed frame each component is also painted on its
+ * own, untimed for fps, to split the frame into per-component paint times.
+ * Run with {@code mvn compile exec:java -Djava.awt.headless=true
+ * -Dexec.mainClass=com.andernet.experiment.bench.HeadlessBenchmark
+ * -Dexec.args="--frames 2000"}; the other options are --width, --height,
+ * --warmup, --fakes and --seed.
+ */
+public class HeadlessBenchmark {
+    public static final int DEFAULT_FRAMES = 1000;
+    public static final int DEFAULT_WARMUP = 200;
+    public static final long DEFAULT_SEED = 42;
+    // Frames are judged against the game's own 60 fps budget
+    private static final long FRAME_BUDGET_NANOS = 1_000_000_000L / 60;
+
+    private final int width;
+    private final int height;
+    private final int fakeButtons;
+    private final long seed;
+
+    public HeadlessBenchmark(int width, int height, int fakeButtons, long seed) {
+        this.width = width;
+        this.height = height;
+        this.fakeButtons = fakeButtons;
+        this.seed = seed;
+    }
+
+    /**
+     * Plays the script for warmup plus measured frames on a new scene. Call
+     * from the EDT.
+     */
+    public BenchmarkResult run(int warmupFrames, int frames) {
+        OffscreenScene scene = new OffscreenScene(width, height, fakeButtons, seed);
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = target.createGraphics();
+        try {
+            for (int frame = 0; frame < warmupFrames; frame++) {
+                scene.step(frame);
+                scene.paint(g);
+                profile(scene, g, null);
+            }
+
+            FrameStats stats = new FrameStats(FRAME_BUDGET_NANOS);
+            Map<JComponent, Long> inclusive = new IdentityHashMap<>();
+            long elapsed = 0;
+            for (int frame = warmupFrames; frame < warmupFrames + frames; frame++) {
+                long start = System.nanoTime();
+                scene.step(frame);
+                scene.paint(g);
+                long frameNanos = System.nanoTime() - start;
+                stats.recordFrame(frameNanos);
+                elapsed += frameNanos;
+                profile(scene, g, inclusive);
+            }
+            return new BenchmarkResult(width, height, frames, elapsed, stats, selfTimes(scene, inclusive));
+        } finally {
+            g.dispose();
+        }
+    }
+
+    /**
+     * Paints each tracked component alone, adding its time, children
+     * included, to the totals if there are any
+     */
+    private static void profile(OffscreenScene scene, Graphics2D g, Map<JComponent, Long> inclusive) {
+        for (OffscreenScene.Tracked t : scene.getTracked()) {
+            long start = System.nanoTime();
+            scene.paintAlone(g, t.component());
+            long nanos = System.nanoTime() - start;
+            if (inclusive != null) {
+                inclusive.merge(t.component(), nanos, Long::sum);
+            }
+        }
+    }
+
+    /**
+     * Sums the inclusive times by group, leaving out the time of tracked
+     * children so containers such as the background panel report only
+     * their own painting
+     */
+    private static Map<String, Long> selfTimes(OffscreenScene scene, Map<JComponent, Long> inclusive) {
+        List<OffscreenScene.Tracked> tracked = scene.getTracked();
+        Map<String, Long> groups = new LinkedHashMap<>();
+        for (OffscreenScene.Tracked t : tracked) {
+            long self = inclusive.getOrDefault(t.component(), 0L);
+            for (OffscreenScene.Tracked child : tracked) {
+                if (child.component().getParent() == t.component()) {
+                    self -= inclusive.getOrDefault(child.component(), 0L);
+                }
+            }
+            groups.merge(t.group(), Math.max(0, self), Long::sum);
+        }
+        return groups;
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (System.getProperty("java.awt.headless") == null) {
+            System.setProperty("java.awt.headless", "true");
+        }
+        int width = GameConstants.WINDOW_WIDTH;
+        int height = GameConstants.WINDOW_HEIGHT;
+        int frames = DEFAULT_FRAMES;
+        int warmup = DEFAULT_WARMUP;
+        int fakes = GameConstants.MAX_FAKE_BUTTONS;
+        long seed = DEFAULT_SEED;
+        for (int i = 0; i + 1 < args.length; i += 2) {
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--width" -> width = Integer.parseInt(value);
+                case "--height" -> height = Integer.parseInt(value);
+                case "--frames" -> frames = Integer.parseInt(value);
+                case "--warmup" -> warmup = Integer.parseInt(value);
+                case "--fakes" -> fakes = Integer.parseInt(value);
+                case "--seed" -> seed = Long.parseLong(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        HeadlessBenchmark benchmark = new HeadlessBenchmark(width, height, fakes, seed);
+        int warmupFrames = warmup;
+        int measuredFrames = frames;
+        BenchmarkResult[] result = new BenchmarkResult[1];
+        SwingUtilities.invokeAndWait(() -> result[0] = benchmark.run(warmupFrames, measuredFrames));
+        System.out.println(result[0]);
+    }
+}
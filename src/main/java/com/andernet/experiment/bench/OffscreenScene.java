@@ -0,0 +1,304 @@
+package com.andernet.experiment.bench;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import com.andernet.experiment.logic.GameConstants;
+import com.andernet.experiment.replay.SessionLog;
+import com.andernet.experiment.ui.AnimatedButton;
+import com.andernet.experiment.ui.BackgroundPanel;
+import com.andernet.experiment.ui.ComponentFactory;
+import com.andernet.experiment.ui.FakeButton;
+import com.andernet.experiment.ui.GameOverlayPanel;
+import com.andernet.experiment.ui.HudLabel;
+import com.andernet.experiment.ui.ModernPanel;
+import com.andernet.experiment.ui.Palette;
+import com.andernet.experiment.ui.Theme;
+import com.andernet.experiment.ui.UIUtils;
+import com.andernet.experiment.util.Constants;
+
+/**
+ * The game's visual stack without a window: background, HUD panels, main
+ * button, fake buttons and overlay in a root pane that is painted into an
+ * image. Works with {@code java.awt.headless=true}.
+ *
+ * {@link #step} plays a fixed script of the things the game does to these
+ * components (moves, color changes, fades, score updates, the overlay coming
+ * and going), driven by a seeded random so every run paints the same frames.
+ * {@link #apply} instead shows a moment of a recorded session.
+ *
+ * Use from one thread at a time. Scenes are not attached to a window, so
+ * separate scenes may be painted on separate threads.
+ */
+public class OffscreenScene {
+    // Script timing, in frames
+    static final int MOVE_EVERY = 15;
+    static final int COLOR_EVERY = 60;
+    static final int FADE_FRAMES = 30;
+    static final int CYCLE_FRAMES = 240;
+    // The overlay is shown for the last quarter of each cycle, like the game over screen
+    static final int OVERLAY_FROM = CYCLE_FRAMES * 3 / 4;
+
+    /**
+     * A component whose paint time is reported under a group name
+     */
+    public record Tracked(String group, JComponent component) {}
+
+    private final int width;
+    private final int height;
+    private final Random random;
+    private final JRootPane root = new JRootPane();
+    private final BackgroundPanel content = new BackgroundPanel();
+    private final AnimatedButton mainButton;
+    private final FakeButton[] fakeButtons;
+    private final HudLabel scoreLabel;
+    private final HudLabel timerLabel;
+    private final HudLabel highScoreLabel;
+    private final GameOverlayPanel overlay;
+    private final List<Tracked> tracked = new ArrayList<>();
+
+    public OffscreenScene(int width, int height, int fakeButtonCount, long seed) {
+        this.width = width;
+        this.height = height;
+        this.random = new Random(seed);
+        root.setContentPane(content);
+
+        ModernPanel scorePanel = UIUtils.createHudPanel(Constants.SCORE_PREFIX, 0, 10, 10, 120, 35, Theme.LABEL_FONT);
+        ModernPanel timerPanel = UIUtils.createHudPanel(Constants.TIME_PREFIX, 30, 140, 10, 120, 35, Theme.LABEL_FONT);
+        ModernPanel highScorePanel = UIUtils.createHudPanel(Constants.HIGH_SCORE_PREFIX, 0, 270, 10, 150, 35,
+                                                            Theme.LABEL_FONT);
+        scoreLabel = (HudLabel) scorePanel.getComponent(0);
+        timerLabel = (HudLabel) timerPanel.getComponent(0);
+        highScoreLabel = (HudLabel) highScorePanel.getComponent(0);
+
+        mainButton = ComponentFactory.createMainButton(Constants.CLICK_ME, 140, 60);
+        mainButton.setLocation((width - 140) / 2, (height - 60) / 2);
+
+        fakeButtons = new FakeButton[Math.max(0, Math.min(fakeButtonCount, GameConstants.MAX_FAKE_BUTTONS))];
+        for (int i = 0; i < fakeButtons.length; i++) {
+            fakeButtons[i] = new FakeButton(Constants.FAKE);
+            fakeButtons[i].setSize(GameConstants.FAKE_BUTTON_WIDTH, GameConstants.FAKE_BUTTON_HEIGHT);
+        }
+
+        // Same z-order as the game: HUD, main button, then fake buttons
+        content.add(scorePanel);
+        content.add(timerPanel);
+        content.add(highScorePanel);
+        content.add(mainButton);
+        for (FakeButton fake : fakeButtons) {
+            content.add(fake);
+        }
+        overlay = new GameOverlayPanel(width, height);
+        overlay.setVisible(false);
+        root.getLayeredPane().add(overlay, JLayeredPane.POPUP_LAYER);
+
+        tracked.add(new Tracked("background", content));
+        tracked.add(new Tracked("hud", scorePanel));
+        tracked.add(new Tracked("hud", timerPanel));
+        tracked.add(new Tracked("hud", highScorePanel));
+        tracked.add(new Tracked("mainButton", mainButton));
+        for (FakeButton fake : fakeButtons) {
+            tracked.add(new Tracked("fakeButtons", fake));
+        }
+        tracked.add(new Tracked("overlay", overlay));
+
+        root.setSize(width, height);
+        layoutTree(root);
+        moveButtons();
+    }
+
+    public JRootPane getRoot() {
+        return root;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public AnimatedButton getMainButton() {
+        return mainButton;
+    }
+
+    public GameOverlayPanel getOverlay() {
+        return overlay;
+    }
+
+    /**
+     * Components whose paint time is measured, background first
+     */
+    public List<Tracked> getTracked() {
+        return tracked;
+    }
+
+    /**
+     * Applies the script for the given frame number
+     */
+    public void step(int frame) {
+        scoreLabel.setValue(frame);
+        timerLabel.setValue(30 - (frame / 60) % 31);
+        if (frame % MOVE_EVERY == 0) {
+            moveButtons();
+        }
+        if (frame % COLOR_EVERY == 0) {
+            randomizeColors();
+        }
+        // Fade out and back in over FADE_FRAMES, like the main button's click animation
+        int fade = frame % (FADE_FRAMES * 2);
+        float t = fade < FADE_FRAMES ? fade / (float) FADE_FRAMES : (FADE_FRAMES * 2 - fade) / (float) FADE_FRAMES;
+        mainButton.setAlpha(1f - 0.7f * t);
+
+        boolean showOverlay = frame % CYCLE_FRAMES >= OVERLAY_FROM;
+        if (overlay.isVisible() != showOverlay) {
+            overlay.setVisible(showOverlay);
+            if (showOverlay) {
+                layoutTree(overlay);
+            }
+        }
+    }
+
+    /**
+     * Makes the scene look the way a recorded session did at the state's
+     * time. The scene needs at least as many fake buttons as the session.
+     */
+    public void apply(SessionLog.State state) {
+        applyButton(mainButton, state, SessionLog.MAIN_BUTTON);
+        if (mainButton.getBaseColor().getRGB() != state.getColor(SessionLog.MAIN_BUTTON)) {
+            mainButton.setBaseColor(new Color(state.getColor(SessionLog.MAIN_BUTTON), true));
+        }
+        if (mainButton.getAlpha() != state.getAlpha(SessionLog.MAIN_BUTTON)) {
+            mainButton.setAlpha(state.getAlpha(SessionLog.MAIN_BUTTON));
+        }
+        for (int i = 0; i < fakeButtons.length; i++) {
+            int target = SessionLog.FAKE_BUTTON + i;
+            if (target < state.getTargetCount()) {
+                applyButton(fakeButtons[i], state, target);
+                if (fakeButtons[i].getBackground().getRGB() != state.getColor(target)) {
+                    fakeButtons[i].setBackground(new Color(state.getColor(target), true));
+                }
+            } else {
+                fakeButtons[i].setVisible(false);
+            }
+        }
+        applyValue(scoreLabel, state, SessionLog.SCORE_LABEL);
+        applyValue(timerLabel, state, SessionLog.TIMER_LABEL);
+        applyValue(highScoreLabel, state, SessionLog.HIGH_SCORE_LABEL);
+
+        boolean relayout = applyText(overlay.getOverlayLabel(), state, SessionLog.OVERLAY_LABEL);
+        JButton overlayButton = overlay.getOverlayButton();
+        relayout |= applyText(overlayButton, state, SessionLog.OVERLAY_BUTTON);
+        if (overlayButton.isVisible() != state.isVisible(SessionLog.OVERLAY_BUTTON)) {
+            overlayButton.setVisible(state.isVisible(SessionLog.OVERLAY_BUTTON));
+            relayout = true;
+        }
+        if (overlay.isVisible() != state.isVisible(SessionLog.OVERLAY)) {
+            overlay.setVisible(state.isVisible(SessionLog.OVERLAY));
+            relayout = true;
+        }
+        if (relayout && overlay.isVisible()) {
+            layoutTree(overlay);
+        }
+    }
+
+    private static void applyButton(AbstractButton button, SessionLog.State state, int target) {
+        if (button.getX() != state.getX(target) || button.getY() != state.getY(target)
+                || button.getWidth() != state.getWidth(target) || button.getHeight() != state.getHeight(target)) {
+            button.setBounds(state.getX(target), state.getY(target), state.getWidth(target), state.getHeight(target));
+        }
+        if (button.isVisible() != state.isVisible(target)) {
+            button.setVisible(state.isVisible(target));
+        }
+    }
+
+    private static void applyValue(HudLabel label, SessionLog.State state, int target) {
+        label.setValue(state.getValue(target));
+        if (label.isVisible() != state.isVisible(target)) {
+            label.setVisible(state.isVisible(target));
+        }
+    }
+
+    /**
+     * @return whether the text changed
+     */
+    private static boolean applyText(JComponent c, SessionLog.State state, int target) {
+        String text = state.getText(target);
+        if (text == null) {
+            return false;
+        }
+        if (c instanceof JLabel) {
+            JLabel label = (JLabel) c;
+            if (!text.equals(label.getText())) {
+                label.setText(text);
+                return true;
+            }
+        } else if (c instanceof AbstractButton) {
+            AbstractButton button = (AbstractButton) c;
+            if (!text.equals(button.getText())) {
+                button.setText(text);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Paints the whole scene with its top-left corner at (0, 0)
+     */
+    public void paint(Graphics2D g) {
+        g.setClip(0, 0, width, height);
+        root.paint(g);
+    }
+
+    /**
+     * Paints a single component, including its children, where it sits in
+     * the scene
+     */
+    public void paintAlone(Graphics2D g, JComponent c) {
+        if (!c.isVisible()) {
+            return;
+        }
+        Point p = SwingUtilities.convertPoint(c.getParent(), c.getX(), c.getY(), root);
+        Graphics2D cg = (Graphics2D) g.create(p.x, p.y, c.getWidth(), c.getHeight());
+        try {
+            c.paint(cg);
+        } finally {
+            cg.dispose();
+        }
+    }
+
+    private void moveButtons() {
+        int maxX = Math.max(1, width - mainButton.getWidth());
+        int maxY = Math.max(1, height - mainButton.getHeight());
+        mainButton.setLocation(random.nextInt(maxX), random.nextInt(maxY));
+        for (FakeButton fake : fakeButtons) {
+            fake.setLocation(random.nextInt(Math.max(1, width - fake.getWidth())),
+                             random.nextInt(Math.max(1, height - fake.getHeight())));
+        }
+    }
+
+    /**
+     * Same as the game's ButtonRules: the main button takes a palette color,
+     * the fake buttons keep their warning color
+     */
+    private void randomizeColors() {
+        mainButton.setBaseColor(Palette.color(Palette.randomButtonColor(random)));
+    }
+
+    /**
+     * Lays out a container and everything inside it; without a window,
+     * validate() does not reach the children
+     */
+    private static void layoutTree(Container c) {
+        c.doLayout();
+        for (Component child : c.getComponents()) {
+            if (child instanceof Container) {
+                layoutTree((Container) child);
+            }
+        }
+    }
+}
@@ -1,13 +1,13 @@
 package com.andernet.experiment.handlers;
 
 import javax.swing.*;
+import java.awt.Container;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import com.andernet.experiment.logic.GameState;
 import com.andernet.experiment.settings.Settings;
 import com.andernet.experiment.util.ResourceManager;
 import com.andernet.experiment.util.AnimationManager;
-import com.andernet.experiment.util.Constants;
 import com.andernet.experiment.logic.GameConstants;
 
 /**
@@ -16,17 +16,19 @@ import com.andernet.experiment.logic.GameConstants;
 public class FakeButtonClickHandler implements ActionListener {
     private final GameState gameState;
     private final Settings settings;
-    private final JLabel scoreLabel;
     private final JButton fakeButton;
     private final Runnable moveAllButtons;
     private final Runnable randomizeColors;
     
+    /**
+     * @param fakeButton the button this handler listens to, or null when it is
+     *                   only used through {@link #applyPenalty}
+     */
     public FakeButtonClickHandler(GameState gameState, Settings settings,
-                                JLabel scoreLabel, JButton fakeButton,
+                                JButton fakeButton,
                                 Runnable moveAllButtons, Runnable randomizeColors) {
         this.gameState = gameState;
         this.settings = settings;
-        this.scoreLabel = scoreLabel;
         this.fakeButton = fakeButton;
         this.moveAllButtons = moveAllButtons;
         this.randomizeColors = randomizeColors;
@@ -34,22 +36,28 @@ public class FakeButtonClickHandler implements ActionListener {
     
     @Override
     public void actionPerformed(ActionEvent e) {
-        // Update game state (penalty)
+        applyPenalty(fakeButton.getParent(),
+            fakeButton.getX() + fakeButton.getWidth() / 2,
+            fakeButton.getY());
+    }
+    
+    /**
+     * Applies the fake button penalty for a click on an obstacle located at
+     * (x, y) within parent. Used directly by lightweight obstacles, which have
+     * no backing button.
+     */
+    public void applyPenalty(Container parent, int x, int y) {
+        // Update game state (penalty); the HUD follows through its GameStateListener
         gameState.decrementScore(GameConstants.FAKE_BUTTON_PENALTY);
         
-        // Update UI
-        scoreLabel.setText(Constants.SCORE_PREFIX + gameState.getScore());
-        
         // Play penalty sound
         if (settings.isSoundEnabled()) {
             ResourceManager.playFakeBeep();
         }
         
         // Visual feedback for penalty
-        AnimationManager.showFloatingScore(fakeButton.getParent(),
-            -GameConstants.FAKE_BUTTON_PENALTY,
-            fakeButton.getX() + fakeButton.getWidth() / 2,
-            fakeButton.getY());
+        AnimationManager.showFloatingScore(parent, -GameConstants.FAKE_BUTTON_PENALTY, x, y);
+        AnimationManager.showPenaltyBurst(parent, x, y);
         
         // Move buttons and change colors
         moveAllButtons.run();
@@ -7,7 +7,7 @@ import com.andernet.experiment.logic.GameState;
 import com.andernet.experiment.settings.Settings;
 import com.andernet.experiment.util.ResourceManager;
 import com.andernet.experiment.util.AnimationManager;
-import com.andernet.experiment.util.Constants;
+import com.andernet.experiment.util.TweenEngine;
 import com.andernet.experiment.logic.GameConstants;
 
 /**
@@ -16,46 +16,65 @@ import com.andernet.experiment.logic.GameConstants;
 public class MainButtonClickHandler implements ActionListener {
     private final GameState gameState;
     private final Settings settings;
-    private final JLabel scoreLabel;
-    private final JLabel highScoreLabel;
     private final JButton button;
     private final Runnable moveAllButtons;
     private final Runnable randomizeColors;
     private final Runnable nextLevel;
+    private final TweenEngine tweens;
+    // Consecutive hits, each within GameConstants.COMBO_WINDOW_MS of the last
+    private int combo = 0;
+    private long lastHitMillis = 0;
     
     public MainButtonClickHandler(GameState gameState, Settings settings, 
-                                JLabel scoreLabel, JLabel highScoreLabel, 
                                 JButton button, Runnable moveAllButtons, 
                                 Runnable randomizeColors, Runnable nextLevel) {
+        this(gameState, settings, button, moveAllButtons, randomizeColors, nextLevel, TweenEngine.getGame());
+    }
+    
+    /**
+     * @param tweens the engine the hit's highlight is timed on
+     */
+    public MainButtonClickHandler(GameState gameState, Settings settings, 
+                                JButton button, Runnable moveAllButtons, 
+                                Runnable randomizeColors, Runnable nextLevel, TweenEngine tweens) {
         this.gameState = gameState;
         this.settings = settings;
-        this.scoreLabel = scoreLabel;
-        this.highScoreLabel = highScoreLabel;
         this.button = button;
         this.moveAllButtons = moveAllButtons;
         this.randomizeColors = randomizeColors;
         this.nextLevel = nextLevel;
+        this.tweens = tweens;
     }
     
     @Override
     public void actionPerformed(ActionEvent e) {
-        // Update game state
+        hit(e.getWhen());
+    }
+    
+    /**
+     * Scores a hit made at the given time, in wall clock milliseconds
+     */
+    public void hit(long whenMillis) {
+        // Update game state; the HUD follows through its GameStateListener
         gameState.incrementScore();
         
-        // Update UI
-        updateScoreLabels();
-        
         // Play sound effect
         if (settings.isSoundEnabled()) {
             ResourceManager.playBeep();
         }
         
         // Visual effects
-        AnimationManager.highlightButton(button);
+        AnimationManager.highlightButton(button, tweens);
         AnimationManager.showFloatingScore(button.getParent(), 
             GameConstants.MAIN_BUTTON_SCORE, 
             button.getX() + button.getWidth() / 2, 
             button.getY());
+        updateCombo(whenMillis);
+        if (combo >= GameConstants.COMBO_BURST_MIN) {
+            AnimationManager.showComboBurst(button.getParent(), combo,
+                button.getX() + button.getWidth() / 2,
+                button.getY() + button.getHeight() / 2);
+        }
         
         // Game mechanics
         nextLevel.run();
@@ -63,16 +82,19 @@ public class MainButtonClickHandler implements ActionListener {
         randomizeColors.run();
     }
     
-    private void updateScoreLabels() {
-        scoreLabel.setText(Constants.SCORE_PREFIX + gameState.getScore());
-        highScoreLabel.setText(Constants.HIGH_SCORE_PREFIX + gameState.getHighScore());
-        
-        // Force UI update for tests
-        SwingUtilities.invokeLater(() -> {
-            scoreLabel.revalidate();
-            scoreLabel.repaint();
-            highScoreLabel.revalidate();
-            highScoreLabel.repaint();
-        });
+    /**
+     * Counts the hit towards the current combo, or starts a new one
+     */
+    private void updateCombo(long when) {
+        if (when <= 0) {
+            // Events built by hand may carry no timestamp
+            when = System.currentTimeMillis();
+        }
+        combo = when - lastHitMillis <= GameConstants.COMBO_WINDOW_MS ? combo + 1 : 1;
+        lastHitMillis = when;
+    }
+    
+    public int getCombo() {
+        return combo;
     }
 }
@@ -7,7 +7,6 @@ import com.andernet.experiment.settings.Settings;
 import com.andernet.experiment.settings.SettingsDialog;
 import com.andernet.experiment.settings.SettingsPersistence;
 import com.andernet.experiment.logic.GameState;
-import com.andernet.experiment.util.Constants;
 import java.io.File;
 
 /**
@@ -18,26 +17,19 @@ public class SettingsButtonClickHandler implements ActionListener {
     private final Settings settings;
     private final GameState gameState;
     private final File highScoreFile;
-    private final JLabel timerLabel;
-    private final JLabel scoreLabel;
-    private final JLabel highScoreLabel;
     private final Runnable recreateFakeButtons;
-    private final Timer moveTimer;
+    private final Runnable restartMoveTask;
     
     public SettingsButtonClickHandler(JFrame parentFrame, Settings settings, 
                                     GameState gameState, File highScoreFile,
-                                    JLabel timerLabel, JLabel scoreLabel, 
-                                    JLabel highScoreLabel, Runnable recreateFakeButtons,
-                                    Timer moveTimer) {
+                                    Runnable recreateFakeButtons,
+                                    Runnable restartMoveTask) {
         this.parentFrame = parentFrame;
         this.settings = settings;
         this.gameState = gameState;
         this.highScoreFile = highScoreFile;
-        this.timerLabel = timerLabel;
-        this.scoreLabel = scoreLabel;
-        this.highScoreLabel = highScoreLabel;
         this.recreateFakeButtons = recreateFakeButtons;
-        this.moveTimer = moveTimer;
+        this.restartMoveTask = restartMoveTask;
     }
     
     @Override
@@ -57,20 +49,15 @@ public class SettingsButtonClickHandler implements ActionListener {
         
         // Update game state reference (this would need to be handled by the caller)
         // For now, we'll update the current gameState
+        // The HUD follows both changes through its GameStateListener
         gameState.reset(settings.getGameDurationSeconds());
         gameState.loadHighScore(highScoreFile);
         
-        // Update UI labels
-        updateLabels();
-        
         // Recreate fake buttons with new settings
         recreateFakeButtons.run();
         
-        // Update move timer interval (only if timer exists)
-        if (moveTimer != null) {
-            moveTimer.setDelay(settings.getMoveIntervalMs());
-            moveTimer.setInitialDelay(settings.getMoveIntervalMs());
-        }
+        // Move the buttons at the new interval
+        restartMoveTask.run();
         
         // Save settings to disk
         SettingsPersistence.save(settings);
@@ -80,20 +67,4 @@ public class SettingsButtonClickHandler implements ActionListener {
             Thread.sleep(100); 
         } catch (InterruptedException ignored) {}
     }
-    
-    private void updateLabels() {
-        timerLabel.setText(Constants.TIME_PREFIX + settings.getGameDurationSeconds());
-        scoreLabel.setText(Constants.SCORE_PREFIX + "0");
-        highScoreLabel.setText(Constants.HIGH_SCORE_PREFIX + gameState.getHighScore());
-        
-        // Force UI update
-        SwingUtilities.invokeLater(() -> {
-            timerLabel.revalidate();
-            timerLabel.repaint();
-            scoreLabel.revalidate();
-            scoreLabel.repaint();
-            highScoreLabel.revalidate();
-            highScoreLabel.repaint();
-        });
-    }
 }
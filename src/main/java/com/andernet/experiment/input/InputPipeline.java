@@ -0,0 +1,177 @@
+package com.andernet.experiment.input;
+
+import com.andernet.experiment.logic.ButtonManager;
+import com.andernet.experiment.render.FrameClock;
+import javax.swing.SwingUtilities;
+import java.awt.AWTEvent;
+import java.awt.Component;
+import java.awt.Container;
+import java.awt.EventQueue;
+import java.awt.Point;
+import java.awt.Toolkit;
+import java.awt.event.AWTEventListener;
+import java.awt.event.ActionListener;
+import java.awt.event.MouseEvent;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Takes presses straight off the event queue instead of waiting for buttons
+ * to fire.
+ *
+ * A button's ActionListener runs on release, after the button model has
+ * tracked the press, so a click counts a whole press-and-release later than
+ * the player pressed. The pipeline listens to every mouse event in the
+ * toolkit and, on a left-button press anywhere inside the playfield, resolves
+ * the hit itself with {@link ButtonManager#hitTest} and queues a
+ * {@link PointerInput}. The queue is drained to the game's handler straight
+ * away on the EDT, so the press is scored before the component under the
+ * pointer has even seen it. Touch screens deliver taps as mouse presses, so
+ * they take the same path.
+ *
+ * Each press leaves a {@link LatencyTrail}: the event's own timestamp, when
+ * the pipeline saw it, when the game was done with it and when the first
+ * frame showing the result reached the screen, as told by the
+ * {@link FrameClock}. The last {@link #TRAIL_LENGTH} trails are kept.
+ *
+ * Buttons keep their ActionListeners for the keyboard; wrap them in
+ * {@link #keyboardOnly} so mouse clicks are not counted twice.
+ */
+public class InputPipeline implements AWTEventListener, FrameClock.Listener {
+    public static final int TRAIL_LENGTH = 64;
+
+    private final Container playfield;
+    private final ButtonManager buttons;
+    private final Consumer<PointerInput> handler;
+    // EDT only
+    private final ArrayDeque<PointerInput> queue = new ArrayDeque<>();
+    private final InputStats stats = new InputStats();
+
+    // Newest trail last, guarded by this
+    private final LatencyTrail[] trails = new LatencyTrail[TRAIL_LENGTH];
+    private int trailCount;
+    private int nextTrail;
+    // The newest trails still waiting for a frame
+    private int awaitingFrame;
+
+    /**
+     * @param playfield the container whose coordinates the button manager
+     *                  hit tests in
+     * @param handler   the game's reaction to each press, called on the EDT
+     */
+    public InputPipeline(Container playfield, ButtonManager buttons, Consumer<PointerInput> handler) {
+        this.playfield = playfield;
+        this.buttons = buttons;
+        this.handler = handler;
+    }
+
+    public void install() {
+        Toolkit.getDefaultToolkit().addAWTEventListener(this, AWTEvent.MOUSE_EVENT_MASK);
+        FrameClock.getShared().addListener(this);
+    }
+
+    public void uninstall() {
+        Toolkit.getDefaultToolkit().removeAWTEventListener(this);
+        FrameClock.getShared().removeListener(this);
+    }
+
+    /**
+     * Wraps a button's listener so it only reacts to the keyboard and
+     * doClick, leaving mouse clicks to the pipeline
+     */
+    public static ActionListener keyboardOnly(ActionListener listener) {
+        return e -> {
+            if (!(EventQueue.getCurrentEvent() instanceof MouseEvent)) {
+                listener.actionPerformed(e);
+            }
+        };
+    }
+
+    @Override
+    public void eventDispatched(AWTEvent event) {
+        if (event.getID() != MouseEvent.MOUSE_PRESSED) {
+            return;
+        }
+        long now = System.nanoTime();
+        MouseEvent e = (MouseEvent) event;
+        Component source = e.getComponent();
+        if (!SwingUtilities.isLeftMouseButton(e) || source == null
+                || !SwingUtilities.isDescendingFrom(source, playfield)) {
+            return;
+        }
+        Point p = SwingUtilities.convertPoint(source, e.getX(), e.getY(), playfield);
+        post(resolve(p.x, p.y, e.getWhen(), now));
+        dispatch();
+    }
+
+    /**
+     * Hit tests a press at (x, y) in playfield coordinates
+     */
+    public PointerInput resolve(int x, int y, long whenMillis, long capturedNanos) {
+        int hit = buttons.hitTest(x, y);
+        PointerInput.Kind kind = hit == ButtonManager.HIT_MAIN_BUTTON ? PointerInput.Kind.MAIN_BUTTON
+            : hit >= 0 ? PointerInput.Kind.FAKE_BUTTON : PointerInput.Kind.MISS;
+        return new PointerInput(kind, Math.max(hit, -1), x, y, whenMillis, capturedNanos);
+    }
+
+    /**
+     * Queues a press for the next {@link #dispatch}. EDT only.
+     */
+    public void post(PointerInput input) {
+        queue.add(input);
+    }
+
+    /**
+     * Hands every queued press to the game, in order. EDT only.
+     */
+    public void dispatch() {
+        PointerInput input;
+        while ((input = queue.poll()) != null) {
+            long dispatchMillis = System.currentTimeMillis() - input.whenMillis();
+            handler.accept(input);
+            LatencyTrail trail = new LatencyTrail(input, dispatchMillis, System.nanoTime(), 0);
+            stats.recordHandled(trail);
+            addTrail(trail);
+        }
+    }
+
+    private synchronized void addTrail(LatencyTrail trail) {
+        trails[nextTrail] = trail;
+        nextTrail = (nextTrail + 1) % TRAIL_LENGTH;
+        trailCount = Math.min(trailCount + 1, TRAIL_LENGTH);
+        awaitingFrame = Math.min(awaitingFrame + 1, TRAIL_LENGTH);
+    }
+
+    /**
+     * Completes the trails of presses handled before the frame started
+     */
+    @Override
+    public synchronized void framePresented(long startNanos, long endNanos) {
+        while (awaitingFrame > 0) {
+            int i = Math.floorMod(nextTrail - awaitingFrame, TRAIL_LENGTH);
+            if (trails[i].handledNanos() > startNanos) {
+                break;
+            }
+            trails[i] = trails[i].presented(endNanos);
+            stats.recordPresented(trails[i]);
+            awaitingFrame--;
+        }
+    }
+
+    /**
+     * The most recent trails, oldest first
+     */
+    public synchronized List<LatencyTrail> getTrails() {
+        List<LatencyTrail> list = new ArrayList<>(trailCount);
+        for (int n = trailCount; n > 0; n--) {
+            list.add(trails[Math.floorMod(nextTrail - n, TRAIL_LENGTH)]);
+        }
+        return list;
+    }
+
+    public InputStats getStats() {
+        return stats;
+    }
+}
@@ -0,0 +1,101 @@
+package com.andernet.experiment.input;
+
+/**
+ * Counters for {@link InputPipeline}: presses by what they hit, and the
+ * average and worst time spent in each stage.
+ */
+public class InputStats {
+    private volatile long presses;
+    private volatile long mainHits;
+    private volatile long fakeHits;
+    private volatile long misses;
+    private volatile long totalDispatchMillis;
+    private volatile long maxDispatchMillis;
+    private volatile long totalLogicNanos;
+    private volatile long maxLogicNanos;
+    private volatile long presented;
+    private volatile long totalRenderNanos;
+    private volatile long maxRenderNanos;
+
+    void recordHandled(LatencyTrail trail) {
+        presses++;
+        switch (trail.input().kind()) {
+            case MAIN_BUTTON:
+                mainHits++;
+                break;
+            case FAKE_BUTTON:
+                fakeHits++;
+                break;
+            default:
+                misses++;
+                break;
+        }
+        long dispatch = Math.max(0, trail.dispatchMillis());
+        totalDispatchMillis += dispatch;
+        if (dispatch > maxDispatchMillis) {
+            maxDispatchMillis = dispatch;
+        }
+        long logic = trail.logicNanos();
+        totalLogicNanos += logic;
+        if (logic > maxLogicNanos) {
+            maxLogicNanos = logic;
+        }
+    }
+
+    void recordPresented(LatencyTrail trail) {
+        presented++;
+        long render = trail.renderNanos();
+        totalRenderNanos += render;
+        if (render > maxRenderNanos) {
+            maxRenderNanos = render;
+        }
+    }
+
+    public void reset() {
+        presses = 0;
+        mainHits = 0;
+        fakeHits = 0;
+        misses = 0;
+        totalDispatchMillis = 0;
+        maxDispatchMillis = 0;
+        totalLogicNanos = 0;
+        maxLogicNanos = 0;
+        presented = 0;
+        totalRenderNanos = 0;
+        maxRenderNanos = 0;
+    }
+
+    public long getPresses() { return presses; }
+    public long getMainHits() { return mainHits; }
+    public long getFakeHits() { return fakeHits; }
+    public long getMisses() { return misses; }
+    public long getMaxDispatchMillis() { return maxDispatchMillis; }
+    public long getMaxLogicNanos() { return maxLogicNanos; }
+    /**
+     * Presses whose result has been on screen, which render time is measured over
+     */
+    public long getPresented() { return presented; }
+    public long getMaxRenderNanos() { return maxRenderNanos; }
+
+    public double getAverageDispatchMillis() {
+        return presses > 0 ? totalDispatchMillis / (double) presses : 0;
+    }
+
+    public double getAverageLogicMillis() {
+        return presses > 0 ? totalLogicNanos / (double) presses / 1_000_000.0 : 0;
+    }
+
+    public double getAverageRenderMillis() {
+        return presented > 0 ? totalRenderNanos / (double) presented / 1_000_000.0 : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("presses=%d main=%d fake=%d miss=%d dispatch=%.2f/%dms logic=%.2f/%.2fms "
+            + "render=%.2f/%.2fms",
+            presses, mainHits, fakeHits, misses,
+            getAverageDispatchMillis(), maxDispatchMillis,
+            getAverageLogicMillis(), maxLogicNanos / 1_000_000.0,
+            getAverageRenderMillis(), maxRenderNanos / 1_000_000.0);
+    }
+}
@@ -0,0 +1,39 @@
+package com.andernet.experiment.input;
+
+/**
+ * How long one press took to get through each stage, from the event's own
+ * timestamp to the first frame that showed its result.
+ *
+ * @param dispatchMillis  from the event's timestamp to the pipeline seeing
+ *                        it; millisecond resolution, since that is what
+ *                        events carry
+ * @param handledNanos    when the game finished handling it
+ * @param presentedNanos  when the first frame started after that was shown,
+ *                        or 0 if none has been yet
+ */
+public record LatencyTrail(PointerInput input, long dispatchMillis, long handledNanos, long presentedNanos) {
+
+    /**
+     * Time the game spent on the press
+     */
+    public long logicNanos() {
+        return handledNanos - input.capturedNanos();
+    }
+
+    /**
+     * Time from handling the press to showing it, or -1 if not shown yet
+     */
+    public long renderNanos() {
+        return presentedNanos > 0 ? presentedNanos - handledNanos : -1;
+    }
+
+    LatencyTrail presented(long nanos) {
+        return new LatencyTrail(input, dispatchMillis, handledNanos, nanos);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s dispatch=%dms logic=%.2fms render=%.2fms",
+            input.kind(), dispatchMillis, logicNanos() / 1_000_000.0, renderNanos() / 1_000_000.0);
+    }
+}
@@ -0,0 +1,21 @@
+package com.andernet.experiment.input;
+
+/**
+ * A press on the playfield, already resolved to what it hit.
+ *
+ * @param kind          what was hit
+ * @param index         the fake button's index, or -1
+ * @param x             where, in playfield coordinates
+ * @param y             where, in playfield coordinates
+ * @param whenMillis    the event's own timestamp, wall clock milliseconds
+ * @param capturedNanos when the pipeline saw it, from {@link System#nanoTime()}
+ */
+public record PointerInput(Kind kind, int index, int x, int y, long whenMillis, long capturedNanos) {
+
+    public enum Kind {
+        MAIN_BUTTON,
+        FAKE_BUTTON,
+        /** Nothing under the pointer */
+        MISS
+    }
+}
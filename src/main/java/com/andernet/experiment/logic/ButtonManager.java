@@ -1,61 +1,248 @@
 package com.andernet.experiment.logic;
 
+import com.andernet.experiment.ui.AnimatedButton;
 import com.andernet.experiment.ui.FakeButton;
+import com.andernet.experiment.ui.ObstacleLayer;
+import com.andernet.experiment.ui.Theme;
 import com.andernet.experiment.util.Constants;
 import com.andernet.experiment.settings.Settings;
 import com.andernet.experiment.handlers.FakeButtonClickHandler;
+import com.andernet.experiment.input.InputPipeline;
 import javax.swing.*;
+import java.awt.event.ActionListener;
+import java.util.Random;
+import java.util.function.IntConsumer;
 
 /**
  * ButtonManager handles creation and management of fake buttons.
+ *
+ * Fake buttons are either one {@link FakeButton} component each (the default,
+ * compatible mode) or, when {@link Settings#isLightweightObstacles()} is set,
+ * plain entities in an {@link ObstacleField} drawn by a single
+ * {@link ObstacleLayer}.
+ *
+ * With {@link Settings#isRawInput()} the {@link InputPipeline} scores mouse
+ * presses through {@link #pressFakeButton}, and the buttons' own listeners
+ * are left to the keyboard.
  */
 public class ButtonManager {
-    private FakeButton[] fakeButtons;
+    // Results of hitTest
+    public static final int HIT_NONE = -2;
+    public static final int HIT_MAIN_BUTTON = -1;
+
+    private static final FakeButton[] NO_FAKE_BUTTONS = new FakeButton[0];
+
+    private FakeButton[] fakeButtons = NO_FAKE_BUTTONS;
+    private final ObstacleField obstacleField = new ObstacleField();
+    private ObstacleLayer obstacleLayer;
+    private AnimatedButton mainButton;
+    private boolean fakeButtonsVisible = true;
+    private boolean fakeButtonsEnabled = true;
+    // One handler serves every fake button
+    private FakeButtonClickHandler penaltyHandler;
+    private IntConsumer pressListener;
+    private Random random = new Random();
     private final Settings settings;
     private final GameState gameState;
-    private final JLabel scoreLabel;
     private final Runnable moveAllButtons;
     private final Runnable randomizeColors;
     private final JPanel parent;
 
-    public ButtonManager(Settings settings, GameState gameState, JLabel scoreLabel, Runnable moveAllButtons, Runnable randomizeColors, JPanel parent) {
+    public ButtonManager(Settings settings, GameState gameState, Runnable moveAllButtons, Runnable randomizeColors, JPanel parent) {
         this.settings = settings;
         this.gameState = gameState;
-        this.scoreLabel = scoreLabel;
         this.moveAllButtons = moveAllButtons;
         this.randomizeColors = randomizeColors;
         this.parent = parent;
+
+        // The obstacle layer always covers the whole parent
+        parent.addComponentListener(new java.awt.event.ComponentAdapter() {
+            @Override
+            public void componentResized(java.awt.event.ComponentEvent e) {
+                obstacleField.setWorldSize(parent.getWidth(), parent.getHeight());
+                if (obstacleLayer != null) {
+                    obstacleLayer.setSize(parent.getSize());
+                }
+            }
+        });
+        obstacleField.setCornerArc(Theme.BORDER_RADIUS_MD);
+    }
+
+    /**
+     * Sets the generator the fake buttons' moves are drawn from
+     */
+    public void setRandom(Random random) {
+        this.random = random;
+    }
+
+    /**
+     * Tells a listener about every fake button press that counts, before
+     * its penalty is applied
+     */
+    public void setPressListener(IntConsumer listener) {
+        this.pressListener = listener;
+    }
+
+    /**
+     * Registers the main button so that {@link #hitTest} can resolve it
+     */
+    public void setMainButton(AnimatedButton mainButton) {
+        this.mainButton = mainButton;
+    }
+
+    /**
+     * Resolves which button lies under a point in parent coordinates, using
+     * exact rounded shapes. The main button always wins over fake buttons, and
+     * overlapping fake buttons resolve to the highest index, which is also
+     * the one Swing draws on top (see {@link #createFakeButtons}).
+     *
+     * @return {@link #HIT_MAIN_BUTTON}, the fake button index, or {@link #HIT_NONE}
+     */
+    public int hitTest(int x, int y) {
+        if (mainButton != null && mainButton.isVisible()
+                && HitTest.roundRectContains(x, y, mainButton.getX(), mainButton.getY(),
+                    mainButton.getWidth(), mainButton.getHeight(), mainButton.getBorderRadius())) {
+            return HIT_MAIN_BUTTON;
+        }
+        if (fakeButtonsVisible) {
+            int index = obstacleField.hitTest(x, y);
+            if (index >= 0) {
+                return index;
+            }
+        }
+        return HIT_NONE;
     }
 
     public void createFakeButtons() {
-        if (fakeButtons != null) {
-            for (FakeButton fake : fakeButtons) parent.remove(fake);
+        for (FakeButton fake : fakeButtons) parent.remove(fake);
+        fakeButtons = NO_FAKE_BUTTONS;
+        if (obstacleLayer != null) {
+            parent.remove(obstacleLayer);
+            obstacleLayer = null;
+        }
+        obstacleField.reset(0, 0, 0, 0);
+        obstacleField.setWorldSize(parent.getWidth(), parent.getHeight());
+
+        if (settings.isLightweightObstacles()) {
+            createObstacleEntities();
+        } else {
+            createFakeButtonComponents();
         }
-        fakeButtons = new FakeButton[settings.getNumFakeButtons()];
-        for (int i = 0; i < settings.getNumFakeButtons(); i++) {
+        parent.revalidate();
+        parent.repaint();
+    }
+
+    private void createFakeButtonComponents() {
+        int count = Math.min(settings.getNumFakeButtons(), GameConstants.MAX_FAKE_BUTTONS);
+        // The field mirrors the component bounds for hit testing
+        obstacleField.reset(count, GameConstants.FAKE_BUTTON_WIDTH, GameConstants.FAKE_BUTTON_HEIGHT,
+            Theme.FAKE_BUTTON_COLOR.getRGB());
+        fakeButtons = new FakeButton[count];
+        for (int i = 0; i < count; i++) {
             fakeButtons[i] = new FakeButton(Constants.FAKE);
-            
-            // Create handler for each fake button
-            FakeButtonClickHandler handler = new FakeButtonClickHandler(
-                gameState, settings, scoreLabel, fakeButtons[i],
-                moveAllButtons, randomizeColors
-            );
-            fakeButtons[i].addActionListener(handler);
-            
+
+            int index = i;
+            ActionListener handler = e -> pressFakeButton(index);
+            fakeButtons[i].addActionListener(settings.isRawInput() ? InputPipeline.keyboardOnly(handler) : handler);
+
             fakeButtons[i].setToolTipText(Constants.FAKE_BUTTON_TOOLTIP);
             parent.add(fakeButtons[i]);
         }
+        // Swing paints and dispatches to component 0 first, so reverse the
+        // fakes to put the highest index on top, as the field's hit test does
+        int bottom = parent.getComponentCount() - 1;
+        for (int i = 0; i < count; i++) {
+            parent.setComponentZOrder(fakeButtons[i], bottom - i);
+        }
+    }
+
+    private void createObstacleEntities() {
+        int count = Math.min(settings.getNumFakeButtons(), GameConstants.MAX_LIGHTWEIGHT_OBSTACLES);
+        obstacleField.reset(count, GameConstants.FAKE_BUTTON_WIDTH, GameConstants.FAKE_BUTTON_HEIGHT,
+            Theme.FAKE_BUTTON_COLOR.getRGB());
+
+        obstacleLayer = new ObstacleLayer(obstacleField, Constants.FAKE);
+        obstacleLayer.setName("obstacleLayer");
+        obstacleLayer.setToolTipText(Constants.FAKE_BUTTON_TOOLTIP);
+        obstacleLayer.setBounds(0, 0, parent.getWidth(), parent.getHeight());
+        if (!settings.isRawInput()) {
+            obstacleLayer.setClickListener(this::pressFakeButton);
+        }
+        // Added last so it sits below the main button and labels
+        parent.add(obstacleLayer);
     }
 
     public void moveFakeButtons() {
-        for (FakeButton fake : fakeButtons) {
-            int x = (int) (parent.getWidth() * Math.random() * GameConstants.FAKE_BUTTON_WIDTH_RATIO);
-            int y = (int) (parent.getHeight() * Math.random() * GameConstants.FAKE_BUTTON_HEIGHT_RATIO + GameConstants.FAKE_BUTTON_MARGIN_TOP);
-            fake.setLocation(x, y);
+        for (int i = 0; i < obstacleField.size(); i++) {
+            int x = (int) (parent.getWidth() * random.nextDouble() * GameConstants.FAKE_BUTTON_WIDTH_RATIO);
+            int y = (int) (parent.getHeight() * random.nextDouble() * GameConstants.FAKE_BUTTON_HEIGHT_RATIO + GameConstants.FAKE_BUTTON_MARGIN_TOP);
+            setFakeButtonLocation(i, x, y);
+        }
+        if (obstacleLayer != null) {
+            obstacleLayer.repaint();
         }
     }
 
+    /**
+     * Repositions fake buttons randomly within new window bounds
+     */
+    public void repositionFakeButtons(int windowWidth, int windowHeight) {
+        for (int i = 0; i < obstacleField.size(); i++) {
+            int fx = (int) (Math.random() * (windowWidth - obstacleField.getWidth(i)));
+            int fy = (int) (Math.random() * (windowHeight - obstacleField.getHeight(i) - GameConstants.FAKE_BUTTON_MARGIN_BOTTOM) + GameConstants.FAKE_BUTTON_MARGIN_TOP);
+            setFakeButtonLocation(i, fx, fy);
+        }
+        if (obstacleLayer != null) {
+            obstacleLayer.repaint();
+        }
+    }
+
+    private void setFakeButtonLocation(int i, int x, int y) {
+        obstacleField.setLocation(i, x, y);
+        if (i < fakeButtons.length) {
+            fakeButtons[i].setLocation(x, y);
+        }
+    }
+
+    public void setFakeButtonsVisible(boolean visible) {
+        fakeButtonsVisible = visible;
+        for (FakeButton fake : fakeButtons) fake.setVisible(visible);
+        if (obstacleLayer != null) obstacleLayer.setVisible(visible);
+    }
+
+    public void setFakeButtonsEnabled(boolean enabled) {
+        fakeButtonsEnabled = enabled;
+        for (FakeButton fake : fakeButtons) fake.setEnabled(enabled);
+        if (obstacleLayer != null) obstacleLayer.setEnabled(enabled);
+    }
+
+    /**
+     * Applies the penalty for a press on a fake button, unless fake buttons
+     * are hidden or disabled. Clicks on fake buttons and obstacles end up
+     * here too.
+     */
+    public void pressFakeButton(int index) {
+        if (!fakeButtonsVisible || !fakeButtonsEnabled || index < 0 || index >= obstacleField.size()) {
+            return;
+        }
+        if (pressListener != null) {
+            pressListener.accept(index);
+        }
+        if (penaltyHandler == null) {
+            penaltyHandler = new FakeButtonClickHandler(gameState, settings, null, moveAllButtons, randomizeColors);
+        }
+        penaltyHandler.applyPenalty(parent,
+            obstacleField.getX(index) + obstacleField.getWidth(index) / 2, obstacleField.getY(index));
+    }
+
+    /**
+     * Fake button components; empty when lightweight obstacles are used
+     */
     public FakeButton[] getFakeButtons() {
         return fakeButtons;
     }
+
+    public ObstacleField getObstacleField() {
+        return obstacleField;
+    }
 }
@@ -0,0 +1,74 @@
+package com.andernet.experiment.logic;
+
+import com.andernet.experiment.ui.AnimatedButton;
+import com.andernet.experiment.ui.Palette;
+import com.andernet.experiment.util.AnimationManager;
+import com.andernet.experiment.util.TweenEngine;
+import java.awt.Dimension;
+import java.util.Random;
+
+/**
+ * What hits and move ticks do to the buttons: moving them, recoloring them
+ * and shrinking the main button as the score grows.
+ *
+ * Every random choice comes from one generator, drawn in the order the
+ * hits and ticks arrive, so reseeding it at the start of a game makes the
+ * buttons' moves and colors a function of the seed and the inputs. That is
+ * what lets {@link com.andernet.experiment.replay.ReplayDriver} replay a
+ * game. Use from the thread that runs the tween engine.
+ */
+public class ButtonRules {
+    private final AnimatedButton mainButton;
+    private final ButtonManager buttons;
+    private final GameState gameState;
+    private final TweenEngine tweens;
+    private final Random random = new Random();
+
+    public ButtonRules(AnimatedButton mainButton, ButtonManager buttons, GameState gameState, TweenEngine tweens) {
+        this.mainButton = mainButton;
+        this.buttons = buttons;
+        this.gameState = gameState;
+        this.tweens = tweens;
+        buttons.setRandom(random);
+    }
+
+    public void reseed(long seed) {
+        random.setSeed(seed);
+    }
+
+    /**
+     * Moves the main button with a fade, and the fake buttons at once
+     */
+    public void moveAll() {
+        AnimationManager.fadeAndMoveButton(mainButton, tweens, random, null);
+        buttons.moveFakeButtons();
+    }
+
+    /**
+     * Gives the main button a new color
+     */
+    public void randomizeColors() {
+        // The content pane paints its cached gradient, not its background
+        // color, so changing it would only force a full-window repaint.
+        // The button paints its base color, not its background either.
+        mainButton.setBaseColor(Palette.color(Palette.randomButtonColor(random)));
+        // Fake buttons keep their warning color; they paint it rather than
+        // their background, so setting one would only re-render their sprites
+    }
+
+    /**
+     * Advances the level by shrinking the main button, but not below its text size.
+     */
+    public void nextLevel() {
+        Dimension minSize = mainButton.getPreferredSize();
+        int minWidth = (int) minSize.getWidth();
+        int minHeight = (int) minSize.getHeight();
+        int newWidth = Math.max(minWidth, GameConstants.MAIN_BUTTON_START_WIDTH - gameState.getScore() * 2);
+        int newHeight = Math.max(minHeight, GameConstants.MAIN_BUTTON_START_HEIGHT - gameState.getScore());
+        mainButton.setSize(newWidth, newHeight);
+    }
+
+    public TweenEngine getTweens() {
+        return tweens;
+    }
+}
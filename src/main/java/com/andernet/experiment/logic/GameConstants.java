@@ -7,6 +7,8 @@ public class GameConstants {
     
     // Game defaults
     public static final int NUM_FAKE_BUTTONS = 2;
+    public static final int MAX_FAKE_BUTTONS = 10;
+    public static final int MAX_LIGHTWEIGHT_OBSTACLES = 10000;
     public static final int GAME_TIME_SECONDS = 30;
     public static final int MOVE_INTERVAL_MS = 1000;
     
@@ -15,6 +17,8 @@ public class GameConstants {
     public static final int MAIN_BUTTON_MIN_HEIGHT = 20;
     public static final int MAIN_BUTTON_START_WIDTH = 100;
     public static final int MAIN_BUTTON_START_HEIGHT = 50;
+    public static final int FAKE_BUTTON_WIDTH = 80;
+    public static final int FAKE_BUTTON_HEIGHT = 40;
     
     // Layout constants
     public static final double LABEL_LEFT_MARGIN_RATIO = 0.025;
@@ -37,6 +41,14 @@ public class GameConstants {
     public static final int UI_FLUSH_DELAY = 30;
     public static final int FADE_ANIMATION_STEPS = 10;
     
+    // Particle effects
+    public static final long COMBO_WINDOW_MS = 1500;
+    public static final int COMBO_BURST_MIN = 3;
+    public static final int COMBO_SPARKS_PER_STEP = 6;
+    public static final int MAX_COMBO_SPARKS = 60;
+    public static final int PENALTY_SPARKS = 16;
+    public static final float BURST_SPEED = 160f;
+    
     // Font sizing
     public static final int FONT_SIZE_DELTA = 2;
     public static final int MIN_FONT_SIZE = 10;
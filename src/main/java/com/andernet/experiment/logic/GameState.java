@@ -100,5 +100,6 @@ public class GameState {
         } catch (Exception e) {
             highScore = 0;
         }
+        notifyScoreChanged();
     }
 }
@@ -0,0 +1,46 @@
+package com.andernet.experiment.logic;
+
+/**
+ * Exact hit testing for rounded-rectangle buttons.
+ */
+public class HitTest {
+
+    /**
+     * Returns whether the point lies inside the rounded rectangle at (x, y) of
+     * size w x h whose corners are quarter ellipses of diameter arc, i.e. the
+     * same shape as {@code new RoundRectangle2D.Float(x, y, w, h, arc, arc)}.
+     * Points on the transparent outside of a corner do not count.
+     */
+    public static boolean roundRectContains(int px, int py, int x, int y, int w, int h, int arc) {
+        if (px < x || py < y || px >= x + w || py >= y + h) {
+            return false;
+        }
+        float rx = Math.min(arc, w) / 2f;
+        float ry = Math.min(arc, h) / 2f;
+        if (rx <= 0 || ry <= 0) {
+            return true;
+        }
+        // Sample the pixel center, like the rasterized shape
+        float cx = px + 0.5f;
+        float cy = py + 0.5f;
+        float dx;
+        if (cx < x + rx) {
+            dx = cx - (x + rx);
+        } else if (cx > x + w - rx) {
+            dx = cx - (x + w - rx);
+        } else {
+            return true;
+        }
+        float dy;
+        if (cy < y + ry) {
+            dy = cy - (y + ry);
+        } else if (cy > y + h - ry) {
+            dy = cy - (y + h - ry);
+        } else {
+            return true;
+        }
+        float nx = dx / rx;
+        float ny = dy / ry;
+        return nx * nx + ny * ny <= 1f;
+    }
+}
@@ -0,0 +1,98 @@
+package com.andernet.experiment.logic;
+
+import java.util.Arrays;
+
+/**
+ * Lightweight obstacle (fake button) entities stored as parallel primitive
+ * arrays instead of Swing components. Obstacle i occupies the rounded
+ * rectangle (x[i], y[i], width[i], height[i]) and is drawn in color argb[i];
+ * later obstacles are drawn on top of earlier ones.
+ *
+ * A {@link SpatialGrid} over the obstacle bounds is kept up to date on every
+ * move, so hit tests only look at the obstacles of a single grid cell.
+ */
+public class ObstacleField {
+    // Grid cell size in pixels, roughly one obstacle
+    private static final int GRID_CELL_SIZE = 64;
+
+    private final SpatialGrid grid = new SpatialGrid(GRID_CELL_SIZE);
+    private int cornerArc = 0;
+    private int count = 0;
+    private int[] x = new int[0];
+    private int[] y = new int[0];
+    private int[] width = new int[0];
+    private int[] height = new int[0];
+    private int[] argb = new int[0];
+
+    /**
+     * Replaces all obstacles with {@code count} obstacles of the given size and
+     * color, stacked at the origin
+     */
+    public void reset(int count, int w, int h, int color) {
+        if (count > x.length) {
+            x = new int[count];
+            y = new int[count];
+            width = new int[count];
+            height = new int[count];
+            argb = new int[count];
+        }
+        this.count = count;
+        Arrays.fill(x, 0, count, 0);
+        Arrays.fill(y, 0, count, 0);
+        Arrays.fill(width, 0, count, w);
+        Arrays.fill(height, 0, count, h);
+        Arrays.fill(argb, 0, count, color);
+        grid.clear();
+        for (int i = 0; i < count; i++) {
+            grid.update(i, 0, 0, w, h);
+        }
+    }
+
+    /**
+     * Sets the corner diameter used for exact hit testing
+     */
+    public void setCornerArc(int arc) {
+        this.cornerArc = arc;
+    }
+
+    /**
+     * Sizes the spatial index for the area the obstacles move in
+     */
+    public void setWorldSize(int worldWidth, int worldHeight) {
+        grid.setWorldSize(worldWidth, worldHeight);
+    }
+
+    public int size() { return count; }
+    public int getX(int i) { return x[i]; }
+    public int getY(int i) { return y[i]; }
+    public int getWidth(int i) { return width[i]; }
+    public int getHeight(int i) { return height[i]; }
+    public int getColor(int i) { return argb[i]; }
+
+    public void setLocation(int i, int newX, int newY) {
+        x[i] = newX;
+        y[i] = newY;
+        grid.update(i, newX, newY, width[i], height[i]);
+    }
+
+    public void setColor(int i, int color) {
+        argb[i] = color;
+    }
+
+    /**
+     * Returns the index of the topmost obstacle whose rounded shape contains
+     * the point, or -1 if there is none. Overlaps always resolve to the highest
+     * index, which is the obstacle drawn last.
+     */
+    public int hitTest(int px, int py) {
+        int cell = grid.cellAt(px, py);
+        int best = -1;
+        for (int k = grid.cellSize(cell) - 1; k >= 0; k--) {
+            int i = grid.cellItem(cell, k);
+            if (i > best && HitTest.roundRectContains(px, py, x[i], y[i], width[i], height[i], cornerArc)) {
+                best = i;
+            }
+        }
+        return best;
+    }
+}
@@ -0,0 +1,155 @@
+package com.andernet.experiment.logic;
+
+import java.util.Random;
+
+/**
+ * Short-lived visual particles (floating scores and sparks) stored as
+ * parallel primitive arrays, preallocated for a fixed capacity.
+ *
+ * Live particles always occupy indices 0 to size() - 1. A particle that
+ * expires is replaced by the last live one, so updating never allocates and
+ * never shifts the arrays. When the system is full, new particles are dropped.
+ */
+public class ParticleSystem {
+    // Particle kinds
+    public static final byte SCORE = 0;
+    public static final byte SPARK = 1;
+
+    // Floating scores rise at a constant speed and fade out
+    private static final float SCORE_RISE_SPEED = 40f;
+    private static final float SCORE_LIFETIME = 1.0f;
+    // Sparks fly out, fall and fade out
+    private static final float SPARK_GRAVITY = 400f;
+    private static final float SPARK_LIFETIME = 0.6f;
+
+    private final int capacity;
+    private int count = 0;
+    private final float[] x;
+    private final float[] y;
+    private final float[] vx;
+    private final float[] vy;
+    private final float[] age;
+    private final float[] lifetime;
+    private final int[] value;
+    private final int[] argb;
+    private final byte[] kind;
+
+    public ParticleSystem(int capacity) {
+        this.capacity = capacity;
+        x = new float[capacity];
+        y = new float[capacity];
+        vx = new float[capacity];
+        vy = new float[capacity];
+        age = new float[capacity];
+        lifetime = new float[capacity];
+        value = new int[capacity];
+        argb = new int[capacity];
+        kind = new byte[capacity];
+    }
+
+    public int size() { return count; }
+    public int capacity() { return capacity; }
+    public float getX(int i) { return x[i]; }
+    public float getY(int i) { return y[i]; }
+    public int getValue(int i) { return value[i]; }
+    public int getColor(int i) { return argb[i]; }
+    public byte getKind(int i) { return kind[i]; }
+
+    /**
+     * Opacity from 1 (just spawned) down to 0 (about to expire)
+     */
+    public float getAlpha(int i) {
+        return Math.max(0f, 1f - age[i] / lifetime[i]);
+    }
+
+    /**
+     * Adds a floating score centered horizontally on x with its top at y
+     *
+     * @return false if the system is full
+     */
+    public boolean spawnScore(float px, float py, int score, int color) {
+        int i = add(px, py, 0f, -SCORE_RISE_SPEED, SCORE_LIFETIME, color, SCORE);
+        if (i < 0) {
+            return false;
+        }
+        value[i] = score;
+        return true;
+    }
+
+    /**
+     * Adds up to {@code sparks} sparks flying out of (x, y) in random
+     * directions at up to {@code speed} pixels per second
+     *
+     * @return how many sparks were added
+     */
+    public int spawnBurst(float px, float py, int sparks, float speed, int color, Random random) {
+        int added = 0;
+        for (int n = 0; n < sparks; n++) {
+            double angle = random.nextDouble() * 2 * Math.PI;
+            // Bias towards full speed so the burst reads as a ring
+            float s = speed * (0.5f + 0.5f * random.nextFloat());
+            int i = add(px, py, (float) (Math.cos(angle) * s), (float) (Math.sin(angle) * s),
+                        SPARK_LIFETIME, color, SPARK);
+            if (i < 0) {
+                break;
+            }
+            added++;
+        }
+        return added;
+    }
+
+    /**
+     * Advances every particle by dt seconds and removes the expired ones
+     */
+    public void update(float dt) {
+        int i = 0;
+        while (i < count) {
+            age[i] += dt;
+            if (age[i] >= lifetime[i]) {
+                remove(i);
+                // Index i now holds the former last particle
+                continue;
+            }
+            if (kind[i] == SPARK) {
+                vy[i] += SPARK_GRAVITY * dt;
+            }
+            x[i] += vx[i] * dt;
+            y[i] += vy[i] * dt;
+            i++;
+        }
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    private int add(float px, float py, float pvx, float pvy, float life, int color, byte k) {
+        if (count == capacity) {
+            return -1;
+        }
+        int i = count++;
+        x[i] = px;
+        y[i] = py;
+        vx[i] = pvx;
+        vy[i] = pvy;
+        age[i] = 0f;
+        lifetime[i] = life;
+        value[i] = 0;
+        argb[i] = color;
+        kind[i] = k;
+        return i;
+    }
+
+    private void remove(int i) {
+        int last = --count;
+        x[i] = x[last];
+        y[i] = y[last];
+        vx[i] = vx[last];
+        vy[i] = vy[last];
+        age[i] = age[last];
+        lifetime[i] = lifetime[last];
+        value[i] = value[last];
+        argb[i] = argb[last];
+        kind[i] = kind[last];
+    }
+}
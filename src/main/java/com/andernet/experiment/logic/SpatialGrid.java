@@ -0,0 +1,165 @@
+package com.andernet.experiment.logic;
+
+import java.util.Arrays;
+
+/**
+ * Uniform grid spatial index over integer ids with rectangular bounds.
+ *
+ * Each id is registered in every cell its bounds overlap, so a point query only
+ * has to look at the ids of a single cell. Bounds outside the world are clamped
+ * into the edge cells, which keeps queries correct for any coordinate.
+ */
+public class SpatialGrid {
+    private static final int INITIAL_CELL_CAPACITY = 4;
+
+    private final int cellSize;
+    private int columns = 1;
+    private int rows = 1;
+    private int[][] cells = new int[1][INITIAL_CELL_CAPACITY];
+    private int[] cellCounts = new int[1];
+
+    // Bounds and covered cell range per id; minColumn[id] < 0 means absent
+    private int[] boundsX = new int[0];
+    private int[] boundsY = new int[0];
+    private int[] boundsW = new int[0];
+    private int[] boundsH = new int[0];
+    private int[] minColumn = new int[0];
+    private int[] minRow = new int[0];
+    private int[] maxColumn = new int[0];
+    private int[] maxRow = new int[0];
+
+    public SpatialGrid(int cellSize) {
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Re-dimensions the grid for a new world size and re-inserts every id
+     */
+    public void setWorldSize(int width, int height) {
+        int newColumns = Math.max(1, (width + cellSize - 1) / cellSize);
+        int newRows = Math.max(1, (height + cellSize - 1) / cellSize);
+        if (newColumns == columns && newRows == rows) {
+            return;
+        }
+        columns = newColumns;
+        rows = newRows;
+        cells = new int[columns * rows][INITIAL_CELL_CAPACITY];
+        cellCounts = new int[columns * rows];
+        for (int id = 0; id < minColumn.length; id++) {
+            if (minColumn[id] >= 0) {
+                insert(id);
+            }
+        }
+    }
+
+    /**
+     * Removes every id
+     */
+    public void clear() {
+        Arrays.fill(cellCounts, 0);
+        Arrays.fill(minColumn, -1);
+    }
+
+    /**
+     * Inserts or moves an id
+     */
+    public void update(int id, int x, int y, int w, int h) {
+        ensureCapacity(id + 1);
+        remove(id);
+        boundsX[id] = x;
+        boundsY[id] = y;
+        boundsW[id] = w;
+        boundsH[id] = h;
+        insert(id);
+    }
+
+    /**
+     * Removes an id; does nothing if it is not present
+     */
+    public void remove(int id) {
+        if (id >= minColumn.length || minColumn[id] < 0) {
+            return;
+        }
+        for (int row = minRow[id]; row <= maxRow[id]; row++) {
+            for (int col = minColumn[id]; col <= maxColumn[id]; col++) {
+                int cell = row * columns + col;
+                int[] items = cells[cell];
+                int count = cellCounts[cell];
+                for (int k = 0; k < count; k++) {
+                    if (items[k] == id) {
+                        items[k] = items[count - 1];
+                        cellCounts[cell] = count - 1;
+                        break;
+                    }
+                }
+            }
+        }
+        minColumn[id] = -1;
+    }
+
+    /**
+     * Returns the index of the cell containing the point
+     */
+    public int cellAt(int x, int y) {
+        return row(y) * columns + column(x);
+    }
+
+    /**
+     * Number of ids registered in a cell
+     */
+    public int cellSize(int cell) {
+        return cellCounts[cell];
+    }
+
+    /**
+     * The k-th id registered in a cell, in no particular order
+     */
+    public int cellItem(int cell, int k) {
+        return cells[cell][k];
+    }
+
+    private void insert(int id) {
+        int x = boundsX[id];
+        int y = boundsY[id];
+        minColumn[id] = column(x);
+        minRow[id] = row(y);
+        maxColumn[id] = column(x + Math.max(0, boundsW[id] - 1));
+        maxRow[id] = row(y + Math.max(0, boundsH[id] - 1));
+        for (int row = minRow[id]; row <= maxRow[id]; row++) {
+            for (int col = minColumn[id]; col <= maxColumn[id]; col++) {
+                int cell = row * columns + col;
+                int count = cellCounts[cell];
+                if (count == cells[cell].length) {
+                    cells[cell] = Arrays.copyOf(cells[cell], count * 2);
+                }
+                cells[cell][count] = id;
+                cellCounts[cell] = count + 1;
+            }
+        }
+    }
+
+    private void ensureCapacity(int ids) {
+        if (ids <= minColumn.length) {
+            return;
+        }
+        int capacity = Math.max(ids, minColumn.length * 2);
+        int oldLength = minColumn.length;
+        boundsX = Arrays.copyOf(boundsX, capacity);
+        boundsY = Arrays.copyOf(boundsY, capacity);
+        boundsW = Arrays.copyOf(boundsW, capacity);
+        boundsH = Arrays.copyOf(boundsH, capacity);
+        minColumn = Arrays.copyOf(minColumn, capacity);
+        minRow = Arrays.copyOf(minRow, capacity);
+        maxColumn = Arrays.copyOf(maxColumn, capacity);
+        maxRow = Arrays.copyOf(maxRow, capacity);
+        Arrays.fill(minColumn, oldLength, capacity, -1);
+    }
+
+    private int column(int x) {
+        return Math.max(0, Math.min(columns - 1, Math.floorDiv(x, cellSize)));
+    }
+
+    private int row(int y) {
+        return Math.max(0, Math.min(rows - 1, Math.floorDiv(y, cellSize)));
+    }
+}
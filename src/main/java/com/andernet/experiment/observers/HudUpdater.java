@@ -0,0 +1,35 @@
+package com.andernet.experiment.observers;
+
+import com.andernet.experiment.ui.HudLabel;
+
+/**
+ * Keeps the score, timer and high score readouts in sync with the game state
+ */
+public class HudUpdater implements GameStateListener {
+    private final HudLabel scoreLabel;
+    private final HudLabel timerLabel;
+    private final HudLabel highScoreLabel;
+
+    public HudUpdater(HudLabel scoreLabel, HudLabel timerLabel, HudLabel highScoreLabel) {
+        this.scoreLabel = scoreLabel;
+        this.timerLabel = timerLabel;
+        this.highScoreLabel = highScoreLabel;
+    }
+
+    @Override
+    public void onScoreChanged(int newScore, int highScore) {
+        scoreLabel.setValue(newScore);
+        highScoreLabel.setValue(highScore);
+    }
+
+    @Override
+    public void onTimeChanged(int timeLeft) {
+        timerLabel.setValue(timeLeft);
+    }
+
+    @Override
+    public void onGameReset(int initialTime) {
+        scoreLabel.setValue(0);
+        timerLabel.setValue(initialTime);
+    }
+}
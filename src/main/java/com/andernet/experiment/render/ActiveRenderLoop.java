@@ -0,0 +1,199 @@
+package com.andernet.experiment.render;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferStrategy;
+import java.lang.reflect.InvocationTargetException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Opt-in active rendering for a Swing frame.
+ *
+ * A dedicated thread paces frames at a fixed target rate. Each frame runs all
+ * registered {@link FrameUpdate}s and then paints the frame's root pane into
+ * the window's {@link BufferStrategy}, as a single pass on the EDT. While the
+ * loop is running, Swing repaint requests for the frame are ignored (see
+ * {@link RepaintCoordinator}) because every frame is redrawn anyway. Frames
+ * the loop falls too far behind on are skipped (see {@link FramePacer}).
+ *
+ * With a {@link TiledFrameRenderer} set, frames are composited by the tiled
+ * renderer instead, and repaint requests mark its tiles dirty.
+ */
+public class ActiveRenderLoop {
+
+    /**
+     * Per-frame update hook, run on the EDT before the frame is painted
+     */
+    public interface FrameUpdate {
+        void update(long frameTimeNanos, long deltaNanos);
+    }
+
+    private final JFrame frame;
+    private final FrameStats stats;
+    private final FramePacer pacer;
+    private final List<FrameUpdate> updates = new CopyOnWriteArrayList<>();
+    private final Runnable frameTask = this::runFrame;
+    private volatile boolean running = false;
+    private Thread thread;
+    private BufferStrategy strategy;
+    private boolean pageFlipping;
+    private TiledFrameRenderer tiled;
+    private long lastFrameTime;
+
+    public ActiveRenderLoop(JFrame frame, int targetFps) {
+        this(frame, targetFps, null);
+    }
+
+    /**
+     * @param stats where frame times are recorded, or null for new stats
+     */
+    public ActiveRenderLoop(JFrame frame, int targetFps, FrameStats stats) {
+        long frameNanos = 1_000_000_000L / Math.max(1, targetFps);
+        this.frame = frame;
+        this.stats = stats != null ? stats : new FrameStats(frameNanos);
+        this.pacer = new FramePacer(System::nanoTime, frameNanos, this.stats);
+    }
+
+    public void addUpdate(FrameUpdate update) {
+        updates.add(update);
+    }
+
+    public void removeUpdate(FrameUpdate update) {
+        updates.remove(update);
+    }
+
+    public FrameStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Composites frames with the given renderer, or paints the root pane
+     * directly if null. Must be set before {@link #start}.
+     */
+    public synchronized void setTiledRenderer(TiledFrameRenderer tiled) {
+        this.tiled = tiled;
+    }
+
+    public TiledFrameRenderer getTiledRenderer() {
+        return tiled;
+    }
+
+    /**
+     * Whether the buffer strategy flips pages rather than blitting
+     */
+    public boolean isPageFlipping() {
+        return pageFlipping;
+    }
+
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Starts the loop. The frame must be displayable.
+     */
+    public synchronized void start() {
+        if (running || !frame.isDisplayable()) {
+            return;
+        }
+        frame.setIgnoreRepaint(true);
+        try {
+            frame.createBufferStrategy(2, new BufferCapabilities(new ImageCapabilities(true),
+                new ImageCapabilities(true), BufferCapabilities.FlipContents.UNDEFINED));
+        } catch (AWTException e) {
+            // No page flipping for this window; let AWT pick a blit strategy
+            frame.createBufferStrategy(2);
+        }
+        strategy = frame.getBufferStrategy();
+        pageFlipping = strategy.getCapabilities().isPageFlipping();
+        if (tiled != null) {
+            tiled.markAllDirty();
+            RepaintCoordinator.install().register(frame, tiled);
+        } else {
+            RepaintCoordinator.install().register(frame);
+        }
+        running = true;
+        thread = new Thread(this::loop, "ctb-render-loop");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stops the loop and hands painting back to Swing
+     */
+    public synchronized void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        if (thread != Thread.currentThread()) {
+            thread.interrupt();
+        }
+        thread = null;
+        RepaintCoordinator.install().unregister(frame);
+        frame.setIgnoreRepaint(false);
+        frame.repaint();
+    }
+
+    private void loop() {
+        pacer.start();
+        lastFrameTime = pacer.nanoTime();
+        while (running) {
+            long start = pacer.nanoTime();
+            try {
+                SwingUtilities.invokeAndWait(frameTask);
+            } catch (InterruptedException e) {
+                break;
+            } catch (InvocationTargetException e) {
+                // A failing frame must not kill the loop; the next frame retries
+            }
+            long end = pacer.nanoTime();
+            long elapsed = end - start;
+            stats.recordFrame(elapsed);
+            QualityGovernor.getShared().recordFrame(elapsed);
+            FrameClock.getShared().framePresented(start, end);
+
+            pacer.advance();
+            long wait;
+            while ((wait = pacer.remaining()) > 0 && running) {
+                LockSupport.parkNanos(wait);
+            }
+        }
+    }
+
+    private void runFrame() {
+        if (!running || !frame.isDisplayable()) {
+            return;
+        }
+        long now = pacer.nanoTime();
+        for (FrameUpdate update : updates) {
+            update.update(now, now - lastFrameTime);
+        }
+        lastFrameTime = now;
+        render();
+    }
+
+    private void render() {
+        JRootPane rootPane = frame.getRootPane();
+        do {
+            do {
+                Graphics g = strategy.getDrawGraphics();
+                try {
+                    g.translate(rootPane.getX(), rootPane.getY());
+                    g.setClip(0, 0, rootPane.getWidth(), rootPane.getHeight());
+                    if (tiled != null) {
+                        tiled.paintFrame(g);
+                    } else {
+                        rootPane.paint(g);
+                    }
+                } finally {
+                    g.dispose();
+                }
+            } while (strategy.contentsRestored());
+            strategy.show();
+        } while (strategy.contentsLost());
+        Toolkit.getDefaultToolkit().sync();
+    }
+}
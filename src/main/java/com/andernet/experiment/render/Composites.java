@@ -0,0 +1,26 @@
+package com.andernet.experiment.render;
+
+import java.awt.AlphaComposite;
+
+/**
+ * Shared SRC_OVER composites for every alpha step, so fades never allocate a
+ * composite per paint. Alpha is quantized to 1/255, which is below what an
+ * 8-bit destination can show anyway.
+ */
+public class Composites {
+    private static final AlphaComposite[] SRC_OVER = new AlphaComposite[256];
+
+    static {
+        for (int i = 0; i < SRC_OVER.length; i++) {
+            SRC_OVER[i] = AlphaComposite.getInstance(AlphaComposite.SRC_OVER, i / 255f);
+        }
+    }
+
+    /**
+     * SRC_OVER with the given extra alpha, clamped to [0, 1]
+     */
+    public static AlphaComposite srcOver(float alpha) {
+        int index = Math.round(alpha * 255f);
+        return SRC_OVER[Math.max(0, Math.min(255, index))];
+    }
+}
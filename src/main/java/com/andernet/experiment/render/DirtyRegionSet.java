@@ -0,0 +1,119 @@
+package com.andernet.experiment.render;
+
+/**
+ * A small set of dirty rectangles that merges overlapping or nearly adjacent
+ * regions as they are added.
+ *
+ * Two rectangles are merged whenever their bounding box is no larger than
+ * their combined areas, so merging never adds painted area. Rectangles that
+ * cross without meeting that test are kept apart, so the regions may
+ * overlap. Once more than {@link #MAX_REGIONS} regions remain they collapse
+ * into one bounding box, which keeps the number of paint passes bounded.
+ */
+public class DirtyRegionSet {
+    public static final int MAX_REGIONS = 8;
+
+    // Regions stored as [x1, y1) - [x2, y2)
+    private final int[] x1 = new int[MAX_REGIONS + 1];
+    private final int[] y1 = new int[MAX_REGIONS + 1];
+    private final int[] x2 = new int[MAX_REGIONS + 1];
+    private final int[] y2 = new int[MAX_REGIONS + 1];
+    private int count = 0;
+
+    /**
+     * Visitor for {@link #forEach}
+     */
+    public interface RegionConsumer {
+        void accept(int x, int y, int w, int h);
+    }
+
+    public void add(int x, int y, int w, int h) {
+        if (w <= 0 || h <= 0) {
+            return;
+        }
+        int ax1 = x;
+        int ay1 = y;
+        int ax2 = x + w;
+        int ay2 = y + h;
+        // Absorb every region that merges cheaply, restarting after each merge
+        // because the grown rectangle may now merge with earlier ones
+        boolean merged = true;
+        while (merged) {
+            merged = false;
+            for (int i = 0; i < count; i++) {
+                int ux1 = Math.min(ax1, x1[i]);
+                int uy1 = Math.min(ay1, y1[i]);
+                int ux2 = Math.max(ax2, x2[i]);
+                int uy2 = Math.max(ay2, y2[i]);
+                long unionArea = (long) (ux2 - ux1) * (uy2 - uy1);
+                long separateArea = (long) (ax2 - ax1) * (ay2 - ay1) + (long) (x2[i] - x1[i]) * (y2[i] - y1[i]);
+                if (unionArea <= separateArea) {
+                    ax1 = ux1;
+                    ay1 = uy1;
+                    ax2 = ux2;
+                    ay2 = uy2;
+                    removeAt(i);
+                    merged = true;
+                    break;
+                }
+            }
+        }
+        x1[count] = ax1;
+        y1[count] = ay1;
+        x2[count] = ax2;
+        y2[count] = ay2;
+        count++;
+        if (count > MAX_REGIONS) {
+            collapse();
+        }
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public boolean isEmpty() {
+        return count == 0;
+    }
+
+    /**
+     * Total area of the regions, counting any overlap once per region. That
+     * is the area painted when each region is painted on its own, and an
+     * upper bound on the area covered.
+     */
+    public long getArea() {
+        long area = 0;
+        for (int i = 0; i < count; i++) {
+            area += (long) (x2[i] - x1[i]) * (y2[i] - y1[i]);
+        }
+        return area;
+    }
+
+    public void forEach(RegionConsumer consumer) {
+        for (int i = 0; i < count; i++) {
+            consumer.accept(x1[i], y1[i], x2[i] - x1[i], y2[i] - y1[i]);
+        }
+    }
+
+    public void clear() {
+        count = 0;
+    }
+
+    private void removeAt(int i) {
+        count--;
+        x1[i] = x1[count];
+        y1[i] = y1[count];
+        x2[i] = x2[count];
+        y2[i] = y2[count];
+    }
+
+    private void collapse() {
+        for (int i = 1; i < count; i++) {
+            x1[0] = Math.min(x1[0], x1[i]);
+            y1[0] = Math.min(y1[0], y1[i]);
+            x2[0] = Math.max(x2[0], x2[i]);
+            y2[0] = Math.max(y2[0], y2[i]);
+        }
+        count = 1;
+    }
+}
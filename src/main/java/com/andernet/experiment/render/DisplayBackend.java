@@ -0,0 +1,50 @@
+package com.andernet.experiment.render;
+
+/**
+ * How the game window reaches the screen.
+ */
+public enum DisplayBackend {
+    /** Let {@link DisplayBackends#resolve} pick; never leaves windowed mode */
+    AUTO("Automatic"),
+    /** Decorated-style window with an opaque background */
+    OPAQUE_WINDOWED("Window"),
+    /** Per-pixel translucent window; every frame goes through window compositing */
+    TRANSLUCENT_WINDOWED("Translucent window"),
+    /** Exclusive fullscreen with page flipping */
+    FULLSCREEN_EXCLUSIVE("Fullscreen");
+
+    private static final DisplayBackend[] BACKENDS = values();
+
+    private final String displayName;
+
+    DisplayBackend(String displayName) {
+        this.displayName = displayName;
+    }
+
+    /**
+     * Name shown in the settings dialog
+     */
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    public boolean isFullscreen() {
+        return this == FULLSCREEN_EXCLUSIVE;
+    }
+
+    public boolean isTranslucent() {
+        return this == TRANSLUCENT_WINDOWED;
+    }
+
+    /**
+     * Parses a persisted backend name, falling back to {@link #AUTO}
+     */
+    public static DisplayBackend fromName(String name) {
+        for (DisplayBackend backend : BACKENDS) {
+            if (backend.name().equals(name)) {
+                return backend;
+            }
+        }
+        return AUTO;
+    }
+}
@@ -0,0 +1,91 @@
+package com.andernet.experiment.render;
+
+import java.awt.DisplayMode;
+import java.awt.GraphicsDevice;
+import java.awt.GraphicsEnvironment;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Resolves a {@link DisplayBackend} against what a screen device supports,
+ * and keeps frame-time stats for each backend.
+ *
+ * {@link DisplayBackend#AUTO} always resolves to an opaque window. Exclusive
+ * fullscreen takes over the whole screen, so only an explicit choice turns
+ * it on, and translucency only adds compositing cost over an opaque
+ * content pane.
+ */
+public class DisplayBackends {
+    private static final Map<DisplayBackend, FrameStats> STATS = new EnumMap<>(DisplayBackend.class);
+
+    private DisplayBackends() {}
+
+    /**
+     * The default screen device, or null when running headless
+     */
+    public static GraphicsDevice defaultDevice() {
+        if (GraphicsEnvironment.isHeadless()) {
+            return null;
+        }
+        return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice();
+    }
+
+    /**
+     * The backend to actually use for a requested one. AUTO, and any mode the
+     * device cannot do, become an opaque window.
+     */
+    public static DisplayBackend resolve(DisplayBackend requested, GraphicsDevice device) {
+        if (requested == null || requested == DisplayBackend.AUTO || device == null) {
+            return DisplayBackend.OPAQUE_WINDOWED;
+        }
+        if (requested.isFullscreen() && !device.isFullScreenSupported()) {
+            return DisplayBackend.OPAQUE_WINDOWED;
+        }
+        if (requested.isTranslucent()
+                && !device.isWindowTranslucencySupported(GraphicsDevice.WindowTranslucency.PERPIXEL_TRANSLUCENT)) {
+            return DisplayBackend.OPAQUE_WINDOWED;
+        }
+        return requested;
+    }
+
+    /**
+     * The device's refresh rate in Hz, or 0 if it is unknown
+     */
+    public static int refreshRate(GraphicsDevice device) {
+        if (device == null) {
+            return 0;
+        }
+        DisplayMode mode = device.getDisplayMode();
+        int rate = mode != null ? mode.getRefreshRate() : DisplayMode.REFRESH_RATE_UNKNOWN;
+        return rate == DisplayMode.REFRESH_RATE_UNKNOWN ? 0 : Math.max(0, rate);
+    }
+
+    /**
+     * Frame rate to pace at so frames line up with the display's refresh:
+     * the refresh rate divided by the whole number that brings it closest
+     * to targetFps. Falls back to targetFps when the refresh rate is unknown.
+     */
+    public static int pacedFps(int refreshRate, int targetFps) {
+        int target = Math.max(1, targetFps);
+        if (refreshRate <= 0) {
+            return target;
+        }
+        int divisor = Math.max(1, Math.round((float) refreshRate / target));
+        return Math.max(1, refreshRate / divisor);
+    }
+
+    /**
+     * Frame-time stats for a backend, created with the given frame rate's
+     * budget on first use
+     */
+    public static synchronized FrameStats statsFor(DisplayBackend backend, int fps) {
+        return STATS.computeIfAbsent(backend, b -> new FrameStats(1_000_000_000L / Math.max(1, fps)));
+    }
+
+    /**
+     * Stats of a backend that has been used, or null
+     */
+    public static synchronized FrameStats getStats(DisplayBackend backend) {
+        return STATS.get(backend);
+    }
+}
@@ -0,0 +1,128 @@
+package com.andernet.experiment.render;
+
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+/**
+ * Flat list of image blits making up one frame, in painting order.
+ *
+ * Item i copies the source rectangle (sx, sy, w, h) of image[i] to (dx, dy)
+ * with an extra alpha, limited to a clip rectangle. The clip is whatever was
+ * set with {@link #setClip} when the item was added. All coordinates are
+ * frame coordinates. Arrays grow as needed and are kept across frames, so
+ * rebuilding the list every frame does not allocate once it is large enough.
+ */
+public class DisplayList {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private int count = 0;
+    private BufferedImage[] images = new BufferedImage[INITIAL_CAPACITY];
+    private int[] sx = new int[INITIAL_CAPACITY];
+    private int[] sy = new int[INITIAL_CAPACITY];
+    private int[] w = new int[INITIAL_CAPACITY];
+    private int[] h = new int[INITIAL_CAPACITY];
+    private int[] dx = new int[INITIAL_CAPACITY];
+    private int[] dy = new int[INITIAL_CAPACITY];
+    private float[] alpha = new float[INITIAL_CAPACITY];
+    // Clip rectangle of each item as x1, y1, x2, y2
+    private int[] clip = new int[INITIAL_CAPACITY * 4];
+
+    private int clipX1;
+    private int clipY1;
+    private int clipX2;
+    private int clipY2;
+
+    public DisplayList() {
+        clear();
+    }
+
+    /**
+     * Empties the list, keeping its capacity, and resets the clip to "none"
+     */
+    public void clear() {
+        Arrays.fill(images, 0, count, null);
+        count = 0;
+        clipX1 = Integer.MIN_VALUE;
+        clipY1 = Integer.MIN_VALUE;
+        clipX2 = Integer.MAX_VALUE;
+        clipY2 = Integer.MAX_VALUE;
+    }
+
+    /**
+     * Sets the clip used by items added from now on
+     */
+    public void setClip(int x, int y, int width, int height) {
+        clipX1 = x;
+        clipY1 = y;
+        clipX2 = x + width;
+        clipY2 = y + height;
+    }
+
+    /**
+     * Adds a blit of the whole image
+     */
+    public void add(BufferedImage image, int x, int y, float extraAlpha) {
+        if (image != null) {
+            add(image, 0, 0, image.getWidth(), image.getHeight(), x, y, extraAlpha);
+        }
+    }
+
+    /**
+     * Adds a blit of part of an image. Items that are invisible or outside the
+     * clip are dropped.
+     */
+    public void add(BufferedImage image, int srcX, int srcY, int width, int height,
+                    int x, int y, float extraAlpha) {
+        if (image == null || width <= 0 || height <= 0 || extraAlpha <= 0f
+                || x >= clipX2 || y >= clipY2 || x + width <= clipX1 || y + height <= clipY1) {
+            return;
+        }
+        if (count == images.length) {
+            grow();
+        }
+        int i = count++;
+        images[i] = image;
+        sx[i] = srcX;
+        sy[i] = srcY;
+        w[i] = width;
+        h[i] = height;
+        dx[i] = x;
+        dy[i] = y;
+        alpha[i] = Math.min(1f, extraAlpha);
+        clip[i * 4] = clipX1;
+        clip[i * 4 + 1] = clipY1;
+        clip[i * 4 + 2] = clipX2;
+        clip[i * 4 + 3] = clipY2;
+    }
+
+    public int size() { return count; }
+    public BufferedImage getImage(int i) { return images[i]; }
+    public int getSrcX(int i) { return sx[i]; }
+    public int getSrcY(int i) { return sy[i]; }
+    public int getWidth(int i) { return w[i]; }
+    public int getHeight(int i) { return h[i]; }
+    public int getX(int i) { return dx[i]; }
+    public int getY(int i) { return dy[i]; }
+    public float getAlpha(int i) { return alpha[i]; }
+
+    /**
+     * Bounds of the part of item i inside its clip, as x1, y1, x2, y2
+     */
+    public int getVisibleX1(int i) { return Math.max(dx[i], clip[i * 4]); }
+    public int getVisibleY1(int i) { return Math.max(dy[i], clip[i * 4 + 1]); }
+    public int getVisibleX2(int i) { return Math.min(dx[i] + w[i], clip[i * 4 + 2]); }
+    public int getVisibleY2(int i) { return Math.min(dy[i] + h[i], clip[i * 4 + 3]); }
+
+    private void grow() {
+        int capacity = images.length * 2;
+        images = Arrays.copyOf(images, capacity);
+        sx = Arrays.copyOf(sx, capacity);
+        sy = Arrays.copyOf(sy, capacity);
+        w = Arrays.copyOf(w, capacity);
+        h = Arrays.copyOf(h, capacity);
+        dx = Arrays.copyOf(dx, capacity);
+        dy = Arrays.copyOf(dy, capacity);
+        alpha = Arrays.copyOf(alpha, capacity);
+        clip = Arrays.copyOf(clip, capacity * 4);
+    }
+}
@@ -0,0 +1,57 @@
+package com.andernet.experiment.render;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Tells listeners when a frame has reached the screen, whether Swing painted
+ * it through the {@link RepaintCoordinator} or the {@link ActiveRenderLoop}
+ * rendered it. Anything changed on the EDT before a frame started is in it.
+ */
+public class FrameClock {
+    private static final FrameClock SHARED = new FrameClock();
+
+    /**
+     * Receives finished frames. Called on the EDT for Swing painting and on
+     * the render loop's thread for active rendering.
+     */
+    public interface Listener {
+        void framePresented(long startNanos, long endNanos);
+    }
+
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+    private volatile long lastPresentedNanos;
+
+    FrameClock() {
+    }
+
+    public static FrameClock getShared() {
+        return SHARED;
+    }
+
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Reports a frame that started rendering at startNanos and was shown at
+     * endNanos, both from {@link System#nanoTime()}
+     */
+    public void framePresented(long startNanos, long endNanos) {
+        lastPresentedNanos = endNanos;
+        for (Listener listener : listeners) {
+            listener.framePresented(startNanos, endNanos);
+        }
+    }
+
+    /**
+     * When the last frame was shown, or 0 before the first one
+     */
+    public long getLastPresentedNanos() {
+        return lastPresentedNanos;
+    }
+}
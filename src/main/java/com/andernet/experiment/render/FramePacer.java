@@ -0,0 +1,54 @@
+package com.andernet.experiment.render;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Fixed-rate frame schedule for {@link ActiveRenderLoop}.
+ *
+ * Each frame is due one interval after the previous one was due, so short
+ * stalls are caught up without drifting. A loop that falls more than a whole
+ * interval behind skips the missed frames, records them as dropped, and
+ * starts counting again from now instead of rendering them back to back.
+ */
+final class FramePacer {
+    private final LongSupplier clock;
+    private final long frameNanos;
+    private final FrameStats stats;
+    private long next;
+
+    FramePacer(LongSupplier clock, long frameNanos, FrameStats stats) {
+        this.clock = clock;
+        this.frameNanos = frameNanos;
+        this.stats = stats;
+    }
+
+    long nanoTime() {
+        return clock.getAsLong();
+    }
+
+    /**
+     * Makes the first frame due now
+     */
+    void start() {
+        next = clock.getAsLong();
+    }
+
+    /**
+     * Moves on to the next frame after one has been rendered
+     */
+    void advance() {
+        next += frameNanos;
+        long now = clock.getAsLong();
+        if (now - next > frameNanos) {
+            stats.recordDropped((now - next) / frameNanos);
+            next = now;
+        }
+    }
+
+    /**
+     * Time left until the next frame is due, or 0 if it already is
+     */
+    long remaining() {
+        return Math.max(0, next - clock.getAsLong());
+    }
+}
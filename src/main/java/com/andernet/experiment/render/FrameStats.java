@@ -0,0 +1,71 @@
+package com.andernet.experiment.render;
+
+/**
+ * Frame-time accounting for a render loop.
+ *
+ * Written by a single rendering thread; readers on other threads may see
+ * slightly stale but never torn values.
+ */
+public class FrameStats {
+    // Weight of the newest sample in the running average
+    private static final double SMOOTHING = 0.1;
+
+    private final long budgetNanos;
+    private volatile long frameCount;
+    private volatile long lateFrames;
+    private volatile long droppedFrames;
+    private volatile long lastFrameNanos;
+    private volatile long maxFrameNanos;
+    private volatile double averageFrameNanos;
+
+    public FrameStats(long budgetNanos) {
+        this.budgetNanos = budgetNanos;
+    }
+
+    /**
+     * Records the time spent updating and rendering one frame
+     */
+    public void recordFrame(long frameNanos) {
+        frameCount++;
+        lastFrameNanos = frameNanos;
+        if (frameNanos > maxFrameNanos) {
+            maxFrameNanos = frameNanos;
+        }
+        if (frameNanos > budgetNanos) {
+            lateFrames++;
+        }
+        averageFrameNanos = frameCount == 1
+            ? frameNanos
+            : averageFrameNanos + SMOOTHING * (frameNanos - averageFrameNanos);
+    }
+
+    /**
+     * Records frames skipped because the loop fell behind its schedule
+     */
+    public void recordDropped(long frames) {
+        droppedFrames += frames;
+    }
+
+    public void reset() {
+        frameCount = 0;
+        lateFrames = 0;
+        droppedFrames = 0;
+        lastFrameNanos = 0;
+        maxFrameNanos = 0;
+        averageFrameNanos = 0;
+    }
+
+    public long getBudgetNanos() { return budgetNanos; }
+    public long getFrameCount() { return frameCount; }
+    public long getLateFrames() { return lateFrames; }
+    public long getDroppedFrames() { return droppedFrames; }
+    public long getLastFrameNanos() { return lastFrameNanos; }
+    public long getMaxFrameNanos() { return maxFrameNanos; }
+    public double getAverageFrameMillis() { return averageFrameNanos / 1_000_000.0; }
+
+    @Override
+    public String toString() {
+        return String.format("frames=%d avg=%.2fms max=%.2fms late=%d dropped=%d",
+            frameCount, getAverageFrameMillis(), maxFrameNanos / 1_000_000.0, lateFrames, droppedFrames);
+    }
+}
@@ -0,0 +1,156 @@
+package com.andernet.experiment.render;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Adapts the {@link RenderQuality} level to the measured frame time.
+ *
+ * Frame (or paint pass) times are averaged over windows of
+ * {@link #WINDOW_FRAMES} samples. A window whose average misses the frame
+ * budget drops one level; the level is raised again only after
+ * {@link #UPGRADE_WINDOWS} consecutive windows finish within half the budget.
+ * The window right after a change is ignored, because it includes re-rendering
+ * every cached sprite at the new level. The gap between the two thresholds
+ * keeps the level from oscillating.
+ *
+ * Paint code reads the level through {@link #currentLevel()}.
+ */
+public class QualityGovernor {
+    static final int WINDOW_FRAMES = 30;
+    static final int UPGRADE_WINDOWS = 3;
+    private static final double HEADROOM = 0.5;
+
+    private static final QualityGovernor SHARED = new QualityGovernor(1_000_000_000L / 60);
+
+    private final List<Consumer<RenderQuality>> listeners = new CopyOnWriteArrayList<>();
+    private volatile RenderQuality level = RenderQuality.FULL;
+    private volatile boolean adaptive = true;
+    private volatile long budgetNanos;
+    private RenderQuality baseLevel = RenderQuality.FULL;
+
+    // Current measuring window, guarded by this
+    private int windowFrames;
+    private long windowNanos;
+    private int fastWindows;
+    private boolean settling;
+    private double lastWindowMillis;
+    private long changes;
+
+    public QualityGovernor(long budgetNanos) {
+        this.budgetNanos = budgetNanos;
+    }
+
+    /**
+     * The governor used by all paint code
+     */
+    public static QualityGovernor getShared() {
+        return SHARED;
+    }
+
+    /**
+     * Level paint code should render at right now
+     */
+    public static RenderQuality currentLevel() {
+        return SHARED.level;
+    }
+
+    /**
+     * @param adaptive  whether to adjust the level from measurements
+     * @param level     the fixed level, or the best level allowed when adaptive
+     * @param targetFps frame rate whose interval is the frame budget
+     */
+    public void configure(boolean adaptive, RenderQuality level, int targetFps) {
+        synchronized (this) {
+            this.adaptive = adaptive;
+            this.baseLevel = level;
+            this.budgetNanos = 1_000_000_000L / Math.max(1, targetFps);
+            resetWindow();
+            fastWindows = 0;
+        }
+        changeLevel(level);
+    }
+
+    public void addListener(Consumer<RenderQuality> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeListener(Consumer<RenderQuality> listener) {
+        listeners.remove(listener);
+    }
+
+    public RenderQuality getLevel() {
+        return level;
+    }
+
+    public boolean isAdaptive() {
+        return adaptive;
+    }
+
+    /**
+     * Records the time taken by one frame or paint pass
+     */
+    public void recordFrame(long nanos) {
+        if (!adaptive) {
+            return;
+        }
+        RenderQuality changed = null;
+        synchronized (this) {
+            windowFrames++;
+            windowNanos += nanos;
+            if (windowFrames < WINDOW_FRAMES) {
+                return;
+            }
+            double average = (double) windowNanos / windowFrames;
+            lastWindowMillis = average / 1_000_000.0;
+            resetWindow();
+            if (settling) {
+                settling = false;
+                return;
+            }
+            if (average > budgetNanos) {
+                fastWindows = 0;
+                changed = level.lower();
+            } else if (average < budgetNanos * HEADROOM && level.ordinal() > baseLevel.ordinal()) {
+                if (++fastWindows >= UPGRADE_WINDOWS) {
+                    fastWindows = 0;
+                    changed = level.higher();
+                }
+            } else {
+                fastWindows = 0;
+            }
+            if (changed == level) {
+                return;
+            }
+        }
+        if (changed != null) {
+            changeLevel(changed);
+        }
+    }
+
+    private void changeLevel(RenderQuality newLevel) {
+        synchronized (this) {
+            if (newLevel == level) {
+                return;
+            }
+            level = newLevel;
+            settling = true;
+            changes++;
+        }
+        for (Consumer<RenderQuality> listener : listeners) {
+            listener.accept(newLevel);
+        }
+    }
+
+    private void resetWindow() {
+        windowFrames = 0;
+        windowNanos = 0;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("level=%s adaptive=%b lastWindow=%.2fms budget=%.2fms changes=%d",
+            level, adaptive, lastWindowMillis, budgetNanos / 1_000_000.0, changes);
+    }
+}
@@ -0,0 +1,49 @@
+package com.andernet.experiment.render;
+
+/**
+ * Pixel kernels for filling and compositing rows of premultiplied ARGB
+ * pixels, as stored by {@link java.awt.image.BufferedImage#TYPE_INT_ARGB_PRE}.
+ *
+ * Every implementation must produce bit-identical results, so backends can be
+ * swapped freely. Use {@link RasterBackends#get()} to obtain the active one.
+ */
+public interface RasterBackend {
+
+    /**
+     * Short name for logs and settings, e.g. "vector"
+     */
+    String getName();
+
+    /**
+     * Sets {@code length} pixels starting at {@code offset} to one color
+     */
+    void fill(int[] dst, int offset, int length, int argbPre);
+
+    /**
+     * Composites {@code length} source pixels over the destination (Porter-Duff
+     * SRC_OVER), with the source scaled by an extra alpha in [0, 255]
+     */
+    void blend(int[] dst, int dstOffset, int[] src, int srcOffset, int length, int extraAlpha);
+
+    /**
+     * a * b / 255, correctly rounded, for a and b in [0, 255]
+     */
+    static int mul255(int a, int b) {
+        int t = a * b + 128;
+        return (t + (t >>> 8)) >>> 8;
+    }
+
+    /**
+     * Converts a non-premultiplied ARGB color to premultiplied form
+     */
+    static int premultiply(int argb) {
+        int a = argb >>> 24;
+        if (a == 255) {
+            return argb;
+        }
+        int r = mul255((argb >> 16) & 0xFF, a);
+        int g = mul255((argb >> 8) & 0xFF, a);
+        int b = mul255(argb & 0xFF, a);
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+}
@@ -0,0 +1,66 @@
+package com.andernet.experiment.render;
+
+/**
+ * Picks the {@link RasterBackend} used for software-rendered fills.
+ *
+ * The choice comes from the {@code ctb.raster.backend} system property:
+ * "vector", "scalar", "java2d" (no raster backend, paint through Java2D) or
+ * "auto" (the default: vector if the JVM provides the Vector API, scalar
+ * otherwise). The vector backend is loaded reflectively so that a JVM started
+ * without {@code --add-modules jdk.incubator.vector} never links against it.
+ */
+public class RasterBackends {
+    public static final String PROPERTY = "ctb.raster.backend";
+    public static final String JAVA2D = "java2d";
+
+    private static final String VECTOR_CLASS = "com.andernet.experiment.render.VectorRasterBackend";
+    private static volatile RasterBackend active;
+    private static volatile boolean resolved = false;
+
+    private RasterBackends() {}
+
+    /**
+     * The configured backend, or null if fills should go through Java2D
+     */
+    public static RasterBackend get() {
+        if (!resolved) {
+            synchronized (RasterBackends.class) {
+                if (!resolved) {
+                    active = forName(System.getProperty(PROPERTY, "auto"));
+                    resolved = true;
+                }
+            }
+        }
+        return active;
+    }
+
+    /**
+     * Resolves a backend name; unknown names behave like "auto"
+     */
+    public static RasterBackend forName(String name) {
+        if (JAVA2D.equalsIgnoreCase(name)) {
+            return null;
+        }
+        if ("scalar".equalsIgnoreCase(name)) {
+            return new ScalarRasterBackend();
+        }
+        RasterBackend vector = loadVector();
+        return vector != null ? vector : new ScalarRasterBackend();
+    }
+
+    /**
+     * The vector backend, or null if the Vector API is not available
+     */
+    public static RasterBackend loadVector() {
+        try {
+            Class<?> type = Class.forName(VECTOR_CLASS);
+            RasterBackend backend = (RasterBackend) type.getDeclaredConstructor().newInstance();
+            // Touch the API once so a missing module fails here, not mid-paint
+            backend.fill(new int[1], 0, 1, 0);
+            return backend;
+        } catch (ReflectiveOperationException | LinkageError e) {
+            // Vector API module not present in this JVM
+            return null;
+        }
+    }
+}
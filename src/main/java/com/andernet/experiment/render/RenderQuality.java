@@ -0,0 +1,76 @@
+package com.andernet.experiment.render;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+
+/**
+ * Rendering quality levels, from best looking to cheapest. Each level drops
+ * one more effect on top of everything the previous level already dropped.
+ */
+public enum RenderQuality {
+    FULL,
+    NO_SHADOWS,
+    NO_GRADIENTS,
+    NO_ANTIALIAS,
+    FLAT_SPRITES;
+
+    private static final RenderQuality[] LEVELS = values();
+
+    public boolean hasShadows() {
+        return this == FULL;
+    }
+
+    public boolean hasGradients() {
+        return ordinal() < NO_GRADIENTS.ordinal();
+    }
+
+    public boolean isAntialiased() {
+        return ordinal() < NO_ANTIALIAS.ordinal();
+    }
+
+    /**
+     * Plain rectangles without rounded corners, borders or texture
+     */
+    public boolean isFlat() {
+        return this == FLAT_SPRITES;
+    }
+
+    /**
+     * The next cheaper level, or this one if it is already the cheapest
+     */
+    public RenderQuality lower() {
+        return this == FLAT_SPRITES ? this : LEVELS[ordinal() + 1];
+    }
+
+    /**
+     * The next better level, or this one if it is already the best
+     */
+    public RenderQuality higher() {
+        return this == FULL ? this : LEVELS[ordinal() - 1];
+    }
+
+    /**
+     * Sets the antialiasing and rendering hints for this level
+     */
+    public void applyHints(Graphics2D g2) {
+        if (isAntialiased()) {
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+            g2.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+        } else {
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_OFF);
+            g2.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_SPEED);
+        }
+    }
+
+    /**
+     * Parses a persisted level name, falling back to {@link #FULL}
+     */
+    public static RenderQuality fromName(String name) {
+        for (RenderQuality level : LEVELS) {
+            if (level.name().equals(name)) {
+                return level;
+            }
+        }
+        return FULL;
+    }
+}
@@ -0,0 +1,251 @@
+package com.andernet.experiment.render;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+
+/**
+ * RepaintManager that batches every repaint request made during an event or
+ * frame tick and hands Swing one minimal set of regions per root pane.
+ *
+ * A single click moves, resizes and recolors several components, and each
+ * change asks for its old and new bounds to be repainted. Instead of letting
+ * each request through, they are translated into root pane coordinates and
+ * merged in a {@link DirtyRegionSet}. The merged regions are flushed at most
+ * once per frame interval, so one burst of changes costs one paint pass.
+ * The coordinator paints each region itself: handing them to Swing's
+ * painter would union them back into one rectangle per root pane.
+ *
+ * Paint passes are timed for the {@link QualityGovernor} and reported to the
+ * {@link FrameClock}. Windows registered with {@link #register} are actively
+ * rendered (see {@link ActiveRenderLoop}); their repaint requests never reach
+ * Swing's painter and are only passed on to the window's
+ * {@link DirtyListener}, if it has one.
+ */
+public class RepaintCoordinator extends RepaintManager {
+    private static final int DEFAULT_TARGET_FPS = 60;
+
+    /**
+     * Receives the repaint requests of an actively rendered window. May be
+     * called on any thread.
+     */
+    public interface DirtyListener {
+        /**
+         * @param c the component to repaint, or the window itself, with the
+         *          region in its own coordinates
+         */
+        void regionDirty(Component c, int x, int y, int w, int h);
+    }
+
+    private final Set<Window> activeWindows = new CopyOnWriteArraySet<>();
+    private final Map<Window, DirtyListener> dirtyListeners = new ConcurrentHashMap<>();
+    private final Map<JRootPane, DirtyRegionSet> pending = new IdentityHashMap<>();
+    // Regions taken from pending for the paint pass in progress, EDT only
+    private final Map<JRootPane, DirtyRegionSet> painting = new IdentityHashMap<>();
+    private final RepaintStats stats = new RepaintStats();
+    private volatile FrameStats frameStats;
+    private final Runnable flushTask = this::flush;
+    private final DirtyRegionSet.RegionConsumer paintSink = this::paintRootRegion;
+    private final Timer flushTimer;
+    private volatile long frameNanos = 1_000_000_000L / DEFAULT_TARGET_FPS;
+    private boolean flushScheduled = false;
+    private long lastFlushTime;
+
+    // Root pane currently being painted, read by paintRootRegion
+    private JRootPane paintingRoot;
+
+    protected RepaintCoordinator() {
+        flushTimer = new Timer(0, e -> flush());
+        flushTimer.setRepeats(false);
+    }
+
+    /**
+     * Installs the coordinator as the current RepaintManager, or returns the
+     * one already installed
+     */
+    public static synchronized RepaintCoordinator install() {
+        RepaintManager current = RepaintManager.currentManager((JComponent) null);
+        if (current instanceof RepaintCoordinator) {
+            return (RepaintCoordinator) current;
+        }
+        RepaintCoordinator coordinator = new RepaintCoordinator();
+        RepaintManager.setCurrentManager(coordinator);
+        return coordinator;
+    }
+
+    /**
+     * Limits flushes to the given rate
+     */
+    public void setTargetFps(int targetFps) {
+        frameNanos = 1_000_000_000L / Math.max(1, targetFps);
+    }
+
+    public RepaintStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Also records the time of each paint pass in the given stats, or stops
+     * doing so if null
+     */
+    public void setFrameStats(FrameStats frameStats) {
+        this.frameStats = frameStats;
+    }
+
+    /**
+     * Drops all repaint requests for an actively rendered window
+     */
+    public void register(Window window) {
+        activeWindows.add(window);
+    }
+
+    /**
+     * Like {@link #register(Window)}, but hands the window's repaint requests
+     * to a listener instead of dropping them
+     */
+    public void register(Window window, DirtyListener listener) {
+        dirtyListeners.put(window, listener);
+        activeWindows.add(window);
+    }
+
+    public void unregister(Window window) {
+        activeWindows.remove(window);
+        dirtyListeners.remove(window);
+    }
+
+    @Override
+    public void addDirtyRegion(JComponent c, int x, int y, int w, int h) {
+        if (!activeWindows.isEmpty()) {
+            Window window = SwingUtilities.getWindowAncestor(c);
+            if (activeWindows.contains(window)) {
+                DirtyListener listener = dirtyListeners.get(window);
+                if (listener != null) {
+                    listener.regionDirty(c, x, y, w, h);
+                }
+                return;
+            }
+        }
+        JRootPane root = c.getRootPane();
+        if (root == null) {
+            super.addDirtyRegion(c, x, y, w, h);
+            return;
+        }
+
+        // Clip to the component, as Swing would
+        int cx1 = Math.max(x, 0);
+        int cy1 = Math.max(y, 0);
+        int cx2 = (int) Math.min((long) x + w, c.getWidth());
+        int cy2 = (int) Math.min((long) y + h, c.getHeight());
+        if (cx2 <= cx1 || cy2 <= cy1) {
+            return;
+        }
+
+        // Translate into root pane coordinates
+        int dx = 0;
+        int dy = 0;
+        for (Component p = c; p != root; p = p.getParent()) {
+            if (p == null) {
+                // Not a descendant of its root pane (e.g. mid-removal)
+                super.addDirtyRegion(c, x, y, w, h);
+                return;
+            }
+            dx += p.getX();
+            dy += p.getY();
+        }
+
+        synchronized (this) {
+            stats.recordRequest((long) (cx2 - cx1) * (cy2 - cy1));
+            pending.computeIfAbsent(root, r -> new DirtyRegionSet())
+                   .add(cx1 + dx, cy1 + dy, cx2 - cx1, cy2 - cy1);
+            if (!flushScheduled) {
+                flushScheduled = true;
+                scheduleFlush();
+            }
+        }
+    }
+
+    @Override
+    public void addDirtyRegion(Window window, int x, int y, int w, int h) {
+        if (activeWindows.contains(window)) {
+            DirtyListener listener = dirtyListeners.get(window);
+            if (listener != null) {
+                listener.regionDirty(window, x, y, w, h);
+            }
+            return;
+        }
+        super.addDirtyRegion(window, x, y, w, h);
+    }
+
+    private void scheduleFlush() {
+        long wait = lastFlushTime + frameNanos - System.nanoTime();
+        if (wait <= 0) {
+            // Runs after the current event, so the whole event is batched
+            SwingUtilities.invokeLater(flushTask);
+        } else {
+            int delayMs = (int) Math.max(1, wait / 1_000_000L);
+            SwingUtilities.invokeLater(() -> {
+                flushTimer.setInitialDelay(delayMs);
+                flushTimer.restart();
+            });
+        }
+    }
+
+    /**
+     * Paints the merged regions, one at a time, and times the pass. Runs on
+     * the EDT.
+     */
+    private void flush() {
+        synchronized (this) {
+            flushScheduled = false;
+            lastFlushTime = System.nanoTime();
+            for (Map.Entry<JRootPane, DirtyRegionSet> entry : pending.entrySet()) {
+                DirtyRegionSet regions = entry.getValue();
+                if (regions.isEmpty()) {
+                    continue;
+                }
+                // Swap in the set emptied by the last pass, so requests made
+                // while painting queue up for the next flush
+                DirtyRegionSet spare = painting.put(entry.getKey(), regions);
+                entry.setValue(spare != null ? spare : new DirtyRegionSet());
+            }
+            // Forget roots that were disposed in the meantime
+            pending.keySet().removeIf(root -> !root.isDisplayable());
+        }
+
+        long start = System.nanoTime();
+        boolean painted = false;
+        for (Map.Entry<JRootPane, DirtyRegionSet> entry : painting.entrySet()) {
+            DirtyRegionSet regions = entry.getValue();
+            if (regions.isEmpty()) {
+                continue;
+            }
+            stats.recordFlush(regions.size(), regions.getArea());
+            paintingRoot = entry.getKey();
+            regions.forEach(paintSink);
+            paintingRoot = null;
+            regions.clear();
+            painted = true;
+        }
+        painting.keySet().removeIf(root -> !root.isDisplayable());
+        if (!painted) {
+            return;
+        }
+        long end = System.nanoTime();
+        long elapsed = end - start;
+        QualityGovernor.getShared().recordFrame(elapsed);
+        FrameStats frames = frameStats;
+        if (frames != null) {
+            frames.recordFrame(elapsed);
+        }
+        FrameClock.getShared().framePresented(start, end);
+    }
+
+    private void paintRootRegion(int x, int y, int w, int h) {
+        // Does nothing while the root pane is not showing
+        paintingRoot.paintImmediately(x, y, w, h);
+    }
+}
@@ -0,0 +1,44 @@
+package com.andernet.experiment.render;
+
+/**
+ * Counters for {@link RepaintCoordinator}: how much area Swing asked to
+ * repaint compared to how much was actually painted.
+ */
+public class RepaintStats {
+    private volatile long requests;
+    private volatile long requestedArea;
+    private volatile long flushes;
+    private volatile long paintedRegions;
+    private volatile long paintedArea;
+
+    void recordRequest(long area) {
+        requests++;
+        requestedArea += area;
+    }
+
+    void recordFlush(int regions, long area) {
+        flushes++;
+        paintedRegions += regions;
+        paintedArea += area;
+    }
+
+    public void reset() {
+        requests = 0;
+        requestedArea = 0;
+        flushes = 0;
+        paintedRegions = 0;
+        paintedArea = 0;
+    }
+
+    public long getRequests() { return requests; }
+    public long getRequestedArea() { return requestedArea; }
+    public long getFlushes() { return flushes; }
+    public long getPaintedRegions() { return paintedRegions; }
+    public long getPaintedArea() { return paintedArea; }
+
+    @Override
+    public String toString() {
+        return String.format("requests=%d requestedArea=%dpx flushes=%d regions=%d paintedArea=%dpx",
+            requests, requestedArea, flushes, paintedRegions, paintedArea);
+    }
+}
@@ -0,0 +1,46 @@
+package com.andernet.experiment.render;
+
+import java.util.Arrays;
+
+/**
+ * Plain Java {@link RasterBackend}, available everywhere. Also the reference
+ * the vector backend is tested against.
+ */
+public class ScalarRasterBackend implements RasterBackend {
+
+    @Override
+    public String getName() {
+        return "scalar";
+    }
+
+    @Override
+    public void fill(int[] dst, int offset, int length, int argbPre) {
+        Arrays.fill(dst, offset, offset + length, argbPre);
+    }
+
+    @Override
+    public void blend(int[] dst, int dstOffset, int[] src, int srcOffset, int length, int extraAlpha) {
+        for (int i = 0; i < length; i++) {
+            dst[dstOffset + i] = blendPixel(dst[dstOffset + i], src[srcOffset + i], extraAlpha);
+        }
+    }
+
+    /**
+     * SRC_OVER of one premultiplied pixel; shared with the vector backend for
+     * the elements that do not fill a whole vector
+     */
+    static int blendPixel(int d, int s, int extraAlpha) {
+        if (extraAlpha != 255) {
+            s = (RasterBackend.mul255(s >>> 24, extraAlpha) << 24)
+              | (RasterBackend.mul255((s >> 16) & 0xFF, extraAlpha) << 16)
+              | (RasterBackend.mul255((s >> 8) & 0xFF, extraAlpha) << 8)
+              | RasterBackend.mul255(s & 0xFF, extraAlpha);
+        }
+        int inv = 255 - (s >>> 24);
+        int a = (s >>> 24) + RasterBackend.mul255(d >>> 24, inv);
+        int r = ((s >> 16) & 0xFF) + RasterBackend.mul255((d >> 16) & 0xFF, inv);
+        int g = ((s >> 8) & 0xFF) + RasterBackend.mul255((d >> 8) & 0xFF, inv);
+        int b = (s & 0xFF) + RasterBackend.mul255(d & 0xFF, inv);
+        return (a << 24) | (r << 16) | (g << 8) | b;
+    }
+}
@@ -0,0 +1,265 @@
+package com.andernet.experiment.render;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.AbstractMultiResolutionImage;
+import java.awt.image.BufferedImage;
+import java.awt.image.ImageObserver;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Rendered asset that keeps one image per device scale factor.
+ *
+ * Java2D picks the variant matching the destination transform whenever the
+ * image is drawn, so art drawn on a 150% or 200% display is rasterized at
+ * that resolution instead of being stretched from a 100% image. Variants are
+ * rendered on first use, at scales rounded to the nearest quarter, and are
+ * accounted for in a {@link ScaledImageCache}, which drops the least recently
+ * drawn variants of a scale once that scale is over its memory budget.
+ * The {@link #draw} methods pick the variant for the graphics' scale directly;
+ * they give the same result as drawImage but skip Java2D's generic
+ * multi-resolution path, which allocates on every call.
+ *
+ * Variants are premultiplied int images, the format compatible translucent
+ * images have on every Java2D pipeline. Not thread-safe; use from the thread
+ * that paints its component, normally the EDT.
+ */
+public class ScaledImage extends AbstractMultiResolutionImage {
+    public static final double MAX_SCALE = 4.0;
+    // Distinct scales kept at once; a window rarely sees more than two
+    private static final int MAX_VARIANTS = 4;
+
+    /**
+     * Draws the asset into a variant
+     */
+    public interface Renderer {
+        /**
+         * @param target cleared image of the logical size times scale
+         * @param scale  device pixels per logical pixel
+         */
+        void render(BufferedImage target, double scale);
+    }
+
+    private final Renderer renderer;
+    private final ScaledImageCache cache;
+    private int width;
+    private int height;
+    private int count = 0;
+    private final double[] scales = new double[MAX_VARIANTS];
+    private final BufferedImage[] images = new BufferedImage[MAX_VARIANTS];
+    private final ScaledImageCache.Entry[] entries = new ScaledImageCache.Entry[MAX_VARIANTS];
+    private final boolean[] stale = new boolean[MAX_VARIANTS];
+
+    public ScaledImage(int width, int height, Renderer renderer) {
+        this(width, height, renderer, ScaledImageCache.getShared());
+    }
+
+    public ScaledImage(int width, int height, Renderer renderer, ScaledImageCache cache) {
+        this.width = Math.max(1, width);
+        this.height = Math.max(1, height);
+        this.renderer = renderer;
+        this.cache = cache;
+    }
+
+    /**
+     * Rounds a device scale to a supported variant scale
+     */
+    public static double quantize(double scale) {
+        if (!(scale > 1.0)) {
+            return 1.0;
+        }
+        return Math.min(MAX_SCALE, Math.max(1.0, Math.round(scale * 4) / 4.0));
+    }
+
+    /**
+     * Changes the logical size; all variants are dropped if it differs
+     */
+    public void setSize(int width, int height) {
+        width = Math.max(1, width);
+        height = Math.max(1, height);
+        if (width != this.width || height != this.height) {
+            this.width = width;
+            this.height = height;
+            releaseAll();
+        }
+    }
+
+    /**
+     * Re-renders each variant the next time it is drawn. The variant images
+     * are kept and drawn into again.
+     */
+    public void invalidate() {
+        Arrays.fill(stale, 0, count, true);
+    }
+
+    /**
+     * Drops every variant now, returning its memory to the cache
+     */
+    public void releaseAll() {
+        while (count > 0) {
+            release(count - 1);
+        }
+    }
+
+    /**
+     * Drops the variants of every scale other than the given one and 1x
+     */
+    public void retainScale(double scale) {
+        double keep = quantize(scale);
+        for (int i = count - 1; i >= 0; i--) {
+            if (scales[i] != keep && scales[i] != 1.0) {
+                release(i);
+            }
+        }
+    }
+
+    /**
+     * The variant for a device scale, rendered now if needed
+     */
+    public BufferedImage getVariant(double deviceScale) {
+        double scale = quantize(deviceScale);
+        for (int i = 0; i < count; i++) {
+            if (scales[i] == scale) {
+                if (entries[i].evicted) {
+                    remove(i);
+                    break;
+                }
+                if (stale[i]) {
+                    redraw(images[i], scale);
+                    stale[i] = false;
+                }
+                cache.touch(entries[i]);
+                return images[i];
+            }
+        }
+        if (count == MAX_VARIANTS) {
+            release(0);
+        }
+        int w = (int) Math.ceil(width * scale);
+        int h = (int) Math.ceil(height * scale);
+        BufferedImage image = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB_PRE);
+        renderer.render(image, scale);
+        // Room is made before the new variant is counted, so it is never evicted here
+        ScaledImageCache.Entry entry = cache.add(this, scale, (long) w * h * 4);
+        int i = count++;
+        scales[i] = scale;
+        images[i] = image;
+        entries[i] = entry;
+        stale[i] = false;
+        return image;
+    }
+
+    /**
+     * Draws the image with its top-left corner at (x, y)
+     */
+    public void draw(Graphics g, int x, int y) {
+        draw(g, x, y, x + width, y + height, 0, 0, width, height);
+    }
+
+    /**
+     * Draws a part of the image, given in logical coordinates, like the
+     * matching {@link Graphics#drawImage} overload
+     */
+    public void draw(Graphics g, int dx1, int dy1, int dx2, int dy2, int sx1, int sy1, int sx2, int sy2) {
+        double scale = quantize(ScaledImageCache.deviceScale(g));
+        BufferedImage variant = getVariant(scale);
+        if (scale == 1.0) {
+            g.drawImage(variant, dx1, dy1, dx2, dy2, sx1, sy1, sx2, sy2, null);
+        } else {
+            g.drawImage(variant, dx1, dy1, dx2, dy2,
+                        (int) Math.round(sx1 * scale), (int) Math.round(sy1 * scale),
+                        (int) Math.round(sx2 * scale), (int) Math.round(sy2 * scale), null);
+        }
+    }
+
+    /**
+     * The 1x variant, for consumers that composite in logical pixels
+     */
+    public BufferedImage getBaseVariant() {
+        return getVariant(1.0);
+    }
+
+    public int getVariantCount() {
+        return count;
+    }
+
+    public boolean hasVariant(double scale) {
+        double s = quantize(scale);
+        for (int i = 0; i < count; i++) {
+            if (scales[i] == s && !entries[i].evicted) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public int getWidth(ImageObserver observer) {
+        return width;
+    }
+
+    @Override
+    public int getHeight(ImageObserver observer) {
+        return height;
+    }
+
+    @Override
+    public Image getResolutionVariant(double destImageWidth, double destImageHeight) {
+        return getVariant(Math.max(destImageWidth / width, destImageHeight / height));
+    }
+
+    @Override
+    public List<Image> getResolutionVariants() {
+        if (count == 0) {
+            getBaseVariant();
+        }
+        return List.of(Arrays.copyOf(images, count, Image[].class));
+    }
+
+    @Override
+    protected Image getBaseImage() {
+        return getBaseVariant();
+    }
+
+    /**
+     * Called by the cache when it evicts one of this image's variants
+     */
+    void drop(ScaledImageCache.Entry entry) {
+        for (int i = 0; i < count; i++) {
+            if (entries[i] == entry) {
+                remove(i);
+                return;
+            }
+        }
+    }
+
+    private void release(int i) {
+        cache.remove(entries[i]);
+        remove(i);
+    }
+
+    private void remove(int i) {
+        int last = count - 1;
+        System.arraycopy(scales, i + 1, scales, i, last - i);
+        System.arraycopy(images, i + 1, images, i, last - i);
+        System.arraycopy(entries, i + 1, entries, i, last - i);
+        System.arraycopy(stale, i + 1, stale, i, last - i);
+        images[last] = null;
+        entries[last] = null;
+        count = last;
+    }
+
+    private void redraw(BufferedImage image, double scale) {
+        Graphics2D g2 = image.createGraphics();
+        try {
+            g2.setComposite(AlphaComposite.Clear);
+            g2.fillRect(0, 0, image.getWidth(), image.getHeight());
+        } finally {
+            g2.dispose();
+        }
+        renderer.render(image, scale);
+    }
+}
@@ -0,0 +1,218 @@
+package com.andernet.experiment.render;
+
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.geom.AffineTransform;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Memory accounting for {@link ScaledImage} variants, with a budget per
+ * device scale.
+ *
+ * Every variant is registered here in least-recently-drawn order. When a new
+ * variant would push its scale over budget, the oldest variants of that scale
+ * are dropped; they are rendered again if they are drawn again. Variants of
+ * other scales are never evicted for it, so a window on a 200% monitor cannot
+ * push out the 100% assets of another. A variant larger than the whole budget
+ * is still kept, since it is in use.
+ *
+ * The budget comes from the {@code ctb.image.budget.mb} system property and
+ * defaults to 128 MB per scale. Entries only weakly reference their image,
+ * so sprites of components that are gone stop counting once collected.
+ *
+ * Images painted on different threads, such as the offline exporter's
+ * workers, may share the cache. A variant evicted by a thread other than the
+ * one that rendered it stops counting at once but is only dropped by its
+ * image on that image's next draw, since images are not thread-safe.
+ */
+public class ScaledImageCache {
+    public static final String BUDGET_PROPERTY = "ctb.image.budget.mb";
+    private static final long DEFAULT_BUDGET_MB = 128;
+    private static final long MB = 1024 * 1024;
+
+    private static final ScaledImageCache SHARED =
+        new ScaledImageCache(Math.max(1, Long.getLong(BUDGET_PROPERTY, DEFAULT_BUDGET_MB)) * MB);
+
+    static final class Entry extends WeakReference<ScaledImage> {
+        final double scale;
+        final long bytes;
+        final Thread thread;
+        // Set when another thread evicted the variant; its image drops it when next drawn
+        volatile boolean evicted;
+
+        Entry(ScaledImage owner, double scale, long bytes, ReferenceQueue<ScaledImage> queue) {
+            super(owner, queue);
+            this.scale = scale;
+            this.bytes = bytes;
+            this.thread = Thread.currentThread();
+        }
+    }
+
+    private static final class Usage {
+        long bytes;
+        int images;
+        long renders;
+        long evictions;
+    }
+
+    private final long budgetBytes;
+    // Access ordered, so iteration starts at the least recently drawn variant
+    private final Map<Entry, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private final Map<Double, Usage> usage = new TreeMap<>();
+    private final ReferenceQueue<ScaledImage> collected = new ReferenceQueue<>();
+
+    /**
+     * @param budgetBytes memory allowed for the variants of each scale
+     */
+    public ScaledImageCache(long budgetBytes) {
+        this.budgetBytes = budgetBytes;
+    }
+
+    public static ScaledImageCache getShared() {
+        return SHARED;
+    }
+
+    /**
+     * Device pixels per logical pixel on a screen, 1 if unknown
+     */
+    public static double deviceScale(GraphicsConfiguration gc) {
+        return gc != null ? Math.max(1.0, gc.getDefaultTransform().getScaleX()) : 1.0;
+    }
+
+    /**
+     * Device pixels per user-space pixel of a graphics: the screen's scale
+     * on a HiDPI window, or the export scale when painting into a scaled image
+     */
+    public static double deviceScale(Graphics g) {
+        if (!(g instanceof Graphics2D)) {
+            return 1.0;
+        }
+        // Short-lived copy; escape analysis keeps it off the heap on the paint path
+        AffineTransform tx = ((Graphics2D) g).getTransform();
+        return Math.max(1.0, Math.hypot(tx.getScaleX(), tx.getShearY()));
+    }
+
+    synchronized Entry add(ScaledImage owner, double scale, long bytes) {
+        expunge();
+        Usage u = usageFor(scale);
+        Iterator<Entry> it = entries.keySet().iterator();
+        while (u.bytes + bytes > budgetBytes && it.hasNext()) {
+            Entry old = it.next();
+            if (old.scale == scale) {
+                it.remove();
+                u.bytes -= old.bytes;
+                u.images--;
+                u.evictions++;
+                release(old);
+            }
+        }
+        Entry entry = new Entry(owner, scale, bytes, collected);
+        entries.put(entry, entry);
+        u.bytes += bytes;
+        u.images++;
+        u.renders++;
+        return entry;
+    }
+
+    synchronized void touch(Entry entry) {
+        // Moves the entry to the most recently drawn end
+        entries.get(entry);
+    }
+
+    synchronized void remove(Entry entry) {
+        if (entries.remove(entry) != null) {
+            Usage u = usageFor(entry.scale);
+            u.bytes -= entry.bytes;
+            u.images--;
+        }
+    }
+
+    /**
+     * Drops every variant of any scale other than the given one and 1x, e.g.
+     * after the window moved to a monitor with a different scale
+     */
+    public synchronized void retainScale(double scale) {
+        expunge();
+        double keep = ScaledImage.quantize(scale);
+        Iterator<Entry> it = entries.keySet().iterator();
+        while (it.hasNext()) {
+            Entry entry = it.next();
+            if (entry.scale != keep && entry.scale != 1.0) {
+                it.remove();
+                Usage u = usageFor(entry.scale);
+                u.bytes -= entry.bytes;
+                u.images--;
+                release(entry);
+            }
+        }
+    }
+
+    public long getBudgetBytes() {
+        return budgetBytes;
+    }
+
+    public synchronized long getBytes(double scale) {
+        expunge();
+        Usage u = usage.get(ScaledImage.quantize(scale));
+        return u != null ? u.bytes : 0;
+    }
+
+    public synchronized int getImageCount(double scale) {
+        expunge();
+        Usage u = usage.get(ScaledImage.quantize(scale));
+        return u != null ? u.images : 0;
+    }
+
+    public synchronized long getEvictions(double scale) {
+        Usage u = usage.get(ScaledImage.quantize(scale));
+        return u != null ? u.evictions : 0;
+    }
+
+    /**
+     * Makes the image of an entry that is no longer counted let go of it
+     */
+    private static void release(Entry entry) {
+        ScaledImage image = entry.get();
+        if (image == null) {
+            return;
+        }
+        if (entry.thread == Thread.currentThread()) {
+            image.drop(entry);
+        } else {
+            entry.evicted = true;
+        }
+    }
+
+    private Usage usageFor(double scale) {
+        return usage.computeIfAbsent(scale, s -> new Usage());
+    }
+
+    /**
+     * Forgets the variants of images that have been garbage collected
+     */
+    private void expunge() {
+        Reference<? extends ScaledImage> ref;
+        while ((ref = collected.poll()) != null) {
+            remove((Entry) ref);
+        }
+    }
+
+    @Override
+    public synchronized String toString() {
+        expunge();
+        StringBuilder sb = new StringBuilder(String.format("budget=%.1fMB/scale", budgetBytes / (double) MB));
+        for (Map.Entry<Double, Usage> e : usage.entrySet()) {
+            Usage u = e.getValue();
+            sb.append(String.format(" | %.2fx: images=%d %.1fMB renders=%d evicted=%d",
+                e.getKey(), u.images, u.bytes / (double) MB, u.renders, u.evictions));
+        }
+        return sb.toString();
+    }
+}
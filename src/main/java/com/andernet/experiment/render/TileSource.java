@@ -0,0 +1,16 @@
+package com.andernet.experiment.render;
+
+/**
+ * A component that can describe its own painting as image blits, so the
+ * {@link TiledFrameRenderer} can composite it off the EDT instead of calling
+ * its paint methods.
+ */
+public interface TileSource {
+
+    /**
+     * Adds this component's own painting, not its children's, to the list.
+     * (x, y) is the component's origin in frame coordinates. Called on the
+     * EDT; the images added must stay unchanged until the frame is rendered.
+     */
+    void addTo(DisplayList list, int x, int y);
+}
@@ -0,0 +1,60 @@
+package com.andernet.experiment.render;
+
+/**
+ * Counters for {@link TiledFrameRenderer}: how many tiles were redrawn
+ * compared to how many the frames had, and how long compositing took.
+ */
+public class TileStats {
+    private volatile long frames;
+    private volatile long unchangedFrames;
+    private volatile long tilesRendered;
+    private volatile long tilesTotal;
+    private volatile long items;
+    private volatile long composeNanos;
+    private volatile long snapshots;
+
+    void recordFrame(int rendered, int total, int itemCount, long nanos) {
+        frames++;
+        tilesRendered += rendered;
+        tilesTotal += total;
+        items += itemCount;
+        composeNanos += nanos;
+    }
+
+    void recordUnchangedFrame(int total) {
+        frames++;
+        unchangedFrames++;
+        tilesTotal += total;
+    }
+
+    void recordSnapshot() {
+        snapshots++;
+    }
+
+    public void reset() {
+        frames = 0;
+        unchangedFrames = 0;
+        tilesRendered = 0;
+        tilesTotal = 0;
+        items = 0;
+        composeNanos = 0;
+        snapshots = 0;
+    }
+
+    public long getFrames() { return frames; }
+    public long getUnchangedFrames() { return unchangedFrames; }
+    public long getTilesRendered() { return tilesRendered; }
+    public long getTilesTotal() { return tilesTotal; }
+    public long getItems() { return items; }
+    public long getComposeNanos() { return composeNanos; }
+    public long getSnapshots() { return snapshots; }
+
+    @Override
+    public String toString() {
+        long drawn = frames - unchangedFrames;
+        return String.format("frames=%d unchanged=%d tiles=%d/%d avgItems=%.1f avgCompose=%.2fms snapshots=%d",
+            frames, unchangedFrames, tilesRendered, tilesTotal,
+            drawn == 0 ? 0.0 : (double) items / drawn,
+            drawn == 0 ? 0.0 : composeNanos / 1_000_000.0 / drawn, snapshots);
+    }
+}
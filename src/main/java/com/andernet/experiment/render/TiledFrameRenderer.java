@@ -0,0 +1,431 @@
+package com.andernet.experiment.render;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Frame renderer for {@link ActiveRenderLoop} that composites the frame in
+ * tiles on several cores.
+ *
+ * Swing components may only be painted on the EDT, and painting one
+ * component from several threads at once is not safe. Each frame therefore
+ * has two phases:
+ * <ol>
+ * <li>On the EDT, the component tree is flattened into a {@link DisplayList}
+ *     of image blits. Components implementing {@link TileSource} add their
+ *     cached sprites. Any other component is painted on the EDT into a
+ *     snapshot image, which is kept until the component asks to be
+ *     repainted.</li>
+ * <li>The tiles that changed since the last frame are composited from the
+ *     display list into a shared back buffer on a ForkJoin pool. Each tile
+ *     only touches its own pixels. The EDT waits for the tiles, so nothing
+ *     can change the images while they are read.</li>
+ * </ol>
+ * The back buffer is then presented with a single blit.
+ *
+ * Tiles become dirty through the window's repaint requests, which the
+ * {@link RepaintCoordinator} passes to {@link #regionDirty}.
+ */
+public class TiledFrameRenderer implements RepaintCoordinator.DirtyListener {
+    public static final int TILE_SIZE = 128;
+    // Tiles per fork-join leaf task
+    private static final int TILES_PER_TASK = 2;
+    private static final int INITIAL_TILE_ITEMS = 16;
+
+    private final JRootPane root;
+    private final ForkJoinPool pool;
+    private final DisplayList list = new DisplayList();
+    private final TileStats stats = new TileStats();
+    private final Map<Component, Snapshot> snapshots = new IdentityHashMap<>();
+    private int generation = 0;
+
+    private BufferedImage buffer;
+    private int width;
+    private int height;
+    private int columns;
+    private int rows;
+    private Color background = Color.BLACK;
+
+    // Shared with the threads calling regionDirty; guarded by "this"
+    private final BitSet dirtyTiles = new BitSet();
+    private boolean allDirty = true;
+    private List<Component> changed = new ArrayList<>();
+
+    // Per frame, EDT and tile workers only
+    private List<Component> changedInFrame = new ArrayList<>();
+    private final BitSet frameTiles = new BitSet();
+    private int[][] tileItems = new int[0][];
+    private int[] tileItemCounts = new int[0];
+    private int[] renderTiles = new int[0];
+
+    private static final class Snapshot {
+        BufferedImage image;
+        boolean stale = true;
+        int generation;
+    }
+
+    /**
+     * @param threads number of tile workers
+     */
+    public TiledFrameRenderer(JRootPane root, int threads) {
+        this.root = root;
+        this.pool = new ForkJoinPool(Math.max(1, threads), p -> {
+            ForkJoinWorkerThread worker = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(p);
+            worker.setName("ctb-tile-" + worker.getPoolIndex());
+            return worker;
+        }, null, false);
+    }
+
+    public TileStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Stops the tile workers; the renderer cannot be used afterwards
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * Redraws everything on the next frame
+     */
+    public synchronized void markAllDirty() {
+        allDirty = true;
+    }
+
+    /**
+     * Redraws the tiles touching a region in root pane coordinates
+     */
+    public synchronized void markDirty(int x, int y, int w, int h) {
+        if (allDirty || columns == 0) {
+            allDirty = true;
+            return;
+        }
+        int c1 = Math.max(0, x) / TILE_SIZE;
+        int r1 = Math.max(0, y) / TILE_SIZE;
+        int c2 = Math.min(columns - 1, (int) Math.min(Integer.MAX_VALUE, (long) x + w - 1) / TILE_SIZE);
+        int r2 = Math.min(rows - 1, (int) Math.min(Integer.MAX_VALUE, (long) y + h - 1) / TILE_SIZE);
+        if (c1 > c2 || r1 > r2 || x + w <= 0 || y + h <= 0) {
+            return;
+        }
+        for (int r = r1; r <= r2; r++) {
+            dirtyTiles.set(r * columns + c1, r * columns + c2 + 1);
+        }
+    }
+
+    @Override
+    public void regionDirty(Component c, int x, int y, int w, int h) {
+        if (w <= 0 || h <= 0) {
+            return;
+        }
+        if (c instanceof Window) {
+            markAllDirty();
+            return;
+        }
+        // Translate into root pane coordinates
+        int dx = 0;
+        int dy = 0;
+        for (Component p = c; p != root; p = p.getParent()) {
+            if (p == null) {
+                // Not (or no longer) inside this root pane
+                markAllDirty();
+                return;
+            }
+            dx += p.getX();
+            dy += p.getY();
+        }
+        // Clip to the component, as Swing would
+        int x1 = Math.max(x, 0);
+        int y1 = Math.max(y, 0);
+        int x2 = (int) Math.min((long) x + w, c.getWidth());
+        int y2 = (int) Math.min((long) y + h, c.getHeight());
+        if (x2 <= x1 || y2 <= y1) {
+            return;
+        }
+        synchronized (this) {
+            changed.add(c);
+            markDirty(x1 + dx, y1 + dy, x2 - x1, y2 - y1);
+        }
+    }
+
+    /**
+     * Renders the dirty tiles and draws the whole frame at (0, 0). Must be
+     * called on the EDT.
+     */
+    public void paintFrame(Graphics g) {
+        int w = root.getWidth();
+        int h = root.getHeight();
+        if (w <= 0 || h <= 0) {
+            return;
+        }
+        if (buffer == null || w != width || h != height) {
+            resize(w, h);
+        }
+        takeDirtyState();
+
+        int total = columns * rows;
+        if (frameTiles.isEmpty()) {
+            stats.recordUnchangedFrame(total);
+        } else {
+            generation++;
+            background = root.getBackground() != null ? root.getBackground() : Color.BLACK;
+            list.clear();
+            addComponent(root, 0, 0, 0, 0, width, height);
+            pruneSnapshots();
+            int tileCount = binItems();
+
+            long start = System.nanoTime();
+            pool.invoke(new TileTask(0, tileCount));
+            stats.recordFrame(tileCount, total, list.size(), System.nanoTime() - start);
+            frameTiles.clear();
+            // Drop image references so released sprites can be collected
+            list.clear();
+        }
+        g.drawImage(buffer, 0, 0, null);
+    }
+
+    private void resize(int w, int h) {
+        width = w;
+        height = h;
+        GraphicsConfiguration gc = root.getGraphicsConfiguration();
+        buffer = gc != null ? gc.createCompatibleImage(w, h) : new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        synchronized (this) {
+            columns = (w + TILE_SIZE - 1) / TILE_SIZE;
+            rows = (h + TILE_SIZE - 1) / TILE_SIZE;
+            dirtyTiles.clear();
+            allDirty = true;
+        }
+        int total = columns * rows;
+        tileItems = new int[total][];
+        tileItemCounts = new int[total];
+        renderTiles = new int[total];
+    }
+
+    /**
+     * Moves the tiles and components reported since the last frame into this
+     * frame, and marks the snapshots of changed components as stale
+     */
+    private void takeDirtyState() {
+        synchronized (this) {
+            if (allDirty) {
+                frameTiles.set(0, columns * rows);
+                allDirty = false;
+            } else {
+                frameTiles.or(dirtyTiles);
+            }
+            dirtyTiles.clear();
+            List<Component> swap = changedInFrame;
+            changedInFrame = changed;
+            changed = swap;
+        }
+        for (Component c : changedInFrame) {
+            // A repaint anywhere inside a snapshot invalidates it
+            for (Component p = c; p != null; p = p.getParent()) {
+                Snapshot snapshot = snapshots.get(p);
+                if (snapshot != null) {
+                    snapshot.stale = true;
+                    break;
+                }
+            }
+        }
+        changedInFrame.clear();
+    }
+
+    /**
+     * Adds c and its children, in painting order. (x, y) is c's origin and
+     * the clip is its parent's visible area, both in root pane coordinates.
+     */
+    private void addComponent(Component c, int x, int y, int clipX1, int clipY1, int clipX2, int clipY2) {
+        int w = c.getWidth();
+        int h = c.getHeight();
+        if (!c.isVisible() || w <= 0 || h <= 0 || c instanceof Box.Filler) {
+            return;
+        }
+        int x1 = Math.max(clipX1, x);
+        int y1 = Math.max(clipY1, y);
+        int x2 = Math.min(clipX2, x + w);
+        int y2 = Math.min(clipY2, y + h);
+        if (x1 >= x2 || y1 >= y2) {
+            return;
+        }
+        list.setClip(x1, y1, x2 - x1, y2 - y1);
+
+        if (c instanceof TileSource) {
+            ((TileSource) c).addTo(list, x, y);
+        } else if (!isTransparentContainer(c)) {
+            // Painted as a whole, children included
+            list.add(snapshot(c, w, h), x, y, 1f);
+            return;
+        }
+        if (c instanceof Container) {
+            Container container = (Container) c;
+            // Swing paints the last child first, so index 0 ends up on top
+            for (int i = container.getComponentCount() - 1; i >= 0; i--) {
+                Component child = container.getComponent(i);
+                addComponent(child, x + child.getX(), y + child.getY(), x1, y1, x2, y2);
+            }
+        }
+    }
+
+    /**
+     * Containers that paint nothing of their own, so only their children
+     * need to be drawn
+     */
+    private static boolean isTransparentContainer(Component c) {
+        if (c instanceof JRootPane || c instanceof JLayeredPane) {
+            return true;
+        }
+        return c.getClass() == JPanel.class && !((JPanel) c).isOpaque() && ((JPanel) c).getBorder() == null;
+    }
+
+    private BufferedImage snapshot(Component c, int w, int h) {
+        Snapshot snapshot = snapshots.get(c);
+        if (snapshot == null) {
+            snapshot = new Snapshot();
+            snapshots.put(c, snapshot);
+        }
+        snapshot.generation = generation;
+        if (snapshot.stale || snapshot.image == null
+                || snapshot.image.getWidth() != w || snapshot.image.getHeight() != h) {
+            if (snapshot.image == null || snapshot.image.getWidth() != w || snapshot.image.getHeight() != h) {
+                GraphicsConfiguration gc = c.getGraphicsConfiguration();
+                snapshot.image = gc != null ? gc.createCompatibleImage(w, h, Transparency.TRANSLUCENT)
+                                            : new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB_PRE);
+            }
+            Graphics2D g2 = snapshot.image.createGraphics();
+            try {
+                g2.setComposite(AlphaComposite.Clear);
+                g2.fillRect(0, 0, w, h);
+                g2.setComposite(AlphaComposite.SrcOver);
+                g2.setClip(0, 0, w, h);
+                c.paint(g2);
+            } finally {
+                g2.dispose();
+            }
+            snapshot.stale = false;
+            stats.recordSnapshot();
+        }
+        return snapshot.image;
+    }
+
+    /**
+     * Forgets snapshots of components that were not drawn this frame
+     */
+    private void pruneSnapshots() {
+        snapshots.values().removeIf(s -> s.generation != generation);
+    }
+
+    /**
+     * Sorts the display list items into the tiles being rendered, keeping
+     * painting order, and returns how many tiles are rendered
+     */
+    private int binItems() {
+        int tileCount = 0;
+        for (int t = frameTiles.nextSetBit(0); t >= 0; t = frameTiles.nextSetBit(t + 1)) {
+            renderTiles[tileCount++] = t;
+            tileItemCounts[t] = 0;
+        }
+        for (int i = 0; i < list.size(); i++) {
+            int x1 = list.getVisibleX1(i);
+            int y1 = list.getVisibleY1(i);
+            int x2 = list.getVisibleX2(i);
+            int y2 = list.getVisibleY2(i);
+            if (x1 >= x2 || y1 >= y2 || x2 <= 0 || y2 <= 0 || x1 >= width || y1 >= height) {
+                continue;
+            }
+            int c1 = Math.max(0, x1) / TILE_SIZE;
+            int r1 = Math.max(0, y1) / TILE_SIZE;
+            int c2 = Math.min(columns - 1, (x2 - 1) / TILE_SIZE);
+            int r2 = Math.min(rows - 1, (y2 - 1) / TILE_SIZE);
+            for (int r = r1; r <= r2; r++) {
+                for (int c = c1; c <= c2; c++) {
+                    int t = r * columns + c;
+                    if (frameTiles.get(t)) {
+                        addTileItem(t, i);
+                    }
+                }
+            }
+        }
+        return tileCount;
+    }
+
+    private void addTileItem(int tile, int item) {
+        int[] items = tileItems[tile];
+        int count = tileItemCounts[tile];
+        if (items == null) {
+            items = new int[INITIAL_TILE_ITEMS];
+            tileItems[tile] = items;
+        } else if (count == items.length) {
+            items = Arrays.copyOf(items, count * 2);
+            tileItems[tile] = items;
+        }
+        items[count] = item;
+        tileItemCounts[tile] = count + 1;
+    }
+
+    private void renderTile(int tile) {
+        int tx1 = (tile % columns) * TILE_SIZE;
+        int ty1 = (tile / columns) * TILE_SIZE;
+        int tx2 = Math.min(width, tx1 + TILE_SIZE);
+        int ty2 = Math.min(height, ty1 + TILE_SIZE);
+        Graphics2D g2 = buffer.createGraphics();
+        try {
+            g2.setColor(background);
+            g2.fillRect(tx1, ty1, tx2 - tx1, ty2 - ty1);
+            int[] items = tileItems[tile];
+            int count = tileItemCounts[tile];
+            for (int k = 0; k < count; k++) {
+                int i = items[k];
+                int x1 = Math.max(tx1, list.getVisibleX1(i));
+                int y1 = Math.max(ty1, list.getVisibleY1(i));
+                int x2 = Math.min(tx2, list.getVisibleX2(i));
+                int y2 = Math.min(ty2, list.getVisibleY2(i));
+                if (x1 >= x2 || y1 >= y2) {
+                    continue;
+                }
+                int sx = list.getSrcX(i) - list.getX(i);
+                int sy = list.getSrcY(i) - list.getY(i);
+                g2.setComposite(Composites.srcOver(list.getAlpha(i)));
+                g2.drawImage(list.getImage(i), x1, y1, x2, y2, x1 + sx, y1 + sy, x2 + sx, y2 + sy, null);
+            }
+        } finally {
+            g2.dispose();
+        }
+    }
+
+    /**
+     * Renders renderTiles[from, to), splitting the range across workers
+     */
+    private final class TileTask extends RecursiveAction {
+        private final int from;
+        private final int to;
+
+        TileTask(int from, int to) {
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= TILES_PER_TASK) {
+                for (int i = from; i < to; i++) {
+                    renderTile(renderTiles[i]);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new TileTask(from, mid), new TileTask(mid, to));
+        }
+    }
+}
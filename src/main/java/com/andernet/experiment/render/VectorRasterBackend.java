@@ -0,0 +1,83 @@
+package com.andernet.experiment.render;
+
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * {@link RasterBackend} using the incubating Vector API, processing as many
+ * pixels per instruction as the CPU's widest vector registers hold.
+ *
+ * Only usable when the JVM runs with {@code --add-modules
+ * jdk.incubator.vector}; {@link RasterBackends} loads it reflectively and
+ * falls back to {@link ScalarRasterBackend} otherwise.
+ */
+final class VectorRasterBackend implements RasterBackend {
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+
+    @Override
+    public String getName() {
+        return "vector";
+    }
+
+    @Override
+    public void fill(int[] dst, int offset, int length, int argbPre) {
+        IntVector color = IntVector.broadcast(SPECIES, argbPre);
+        int i = 0;
+        int bound = SPECIES.loopBound(length);
+        for (; i < bound; i += SPECIES.length()) {
+            color.intoArray(dst, offset + i);
+        }
+        for (; i < length; i++) {
+            dst[offset + i] = argbPre;
+        }
+    }
+
+    @Override
+    public void blend(int[] dst, int dstOffset, int[] src, int srcOffset, int length, int extraAlpha) {
+        int i = 0;
+        int bound = SPECIES.loopBound(length);
+        for (; i < bound; i += SPECIES.length()) {
+            IntVector s = IntVector.fromArray(SPECIES, src, srcOffset + i);
+            IntVector d = IntVector.fromArray(SPECIES, dst, dstOffset + i);
+            IntVector sa = channel(s, 24);
+            IntVector sr = channel(s, 16);
+            IntVector sg = channel(s, 8);
+            IntVector sb = channel(s, 0);
+            if (extraAlpha != 255) {
+                sa = mul255(sa, extraAlpha);
+                sr = mul255(sr, extraAlpha);
+                sg = mul255(sg, extraAlpha);
+                sb = mul255(sb, extraAlpha);
+            }
+            IntVector inv = sa.neg().add(255);
+            IntVector a = sa.add(mul255(channel(d, 24), inv));
+            IntVector r = sr.add(mul255(channel(d, 16), inv));
+            IntVector g = sg.add(mul255(channel(d, 8), inv));
+            IntVector b = sb.add(mul255(channel(d, 0), inv));
+            a.lanewise(VectorOperators.LSHL, 24)
+             .or(r.lanewise(VectorOperators.LSHL, 16))
+             .or(g.lanewise(VectorOperators.LSHL, 8))
+             .or(b)
+             .intoArray(dst, dstOffset + i);
+        }
+        for (; i < length; i++) {
+            dst[dstOffset + i] = ScalarRasterBackend.blendPixel(dst[dstOffset + i], src[srcOffset + i], extraAlpha);
+        }
+    }
+
+    private static IntVector channel(IntVector v, int shift) {
+        return v.lanewise(VectorOperators.LSHR, shift).and(0xFF);
+    }
+
+    // Same rounding as RasterBackend.mul255
+    private static IntVector mul255(IntVector a, IntVector b) {
+        IntVector t = a.mul(b).add(128);
+        return t.add(t.lanewise(VectorOperators.LSHR, 8)).lanewise(VectorOperators.LSHR, 8);
+    }
+
+    private static IntVector mul255(IntVector a, int b) {
+        IntVector t = a.mul(b).add(128);
+        return t.add(t.lanewise(VectorOperators.LSHR, 8)).lanewise(VectorOperators.LSHR, 8);
+    }
+}
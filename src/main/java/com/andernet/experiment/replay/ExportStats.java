@@ -0,0 +1,41 @@
+package com.andernet.experiment.replay;
+
+/**
+ * Outcome of a {@link FrameSequenceExporter} run
+ */
+public class ExportStats {
+    private final int frames;
+    private final long sessionMillis;
+    private final long elapsedNanos;
+    private final int threads;
+
+    ExportStats(int frames, long sessionMillis, long elapsedNanos, int threads) {
+        this.frames = frames;
+        this.sessionMillis = sessionMillis;
+        this.elapsedNanos = elapsedNanos;
+        this.threads = threads;
+    }
+
+    public int getFrames() { return frames; }
+    public long getSessionMillis() { return sessionMillis; }
+    public long getElapsedNanos() { return elapsedNanos; }
+    public int getThreads() { return threads; }
+
+    public double getFramesPerSecond() {
+        return elapsedNanos > 0 ? frames * 1_000_000_000.0 / elapsedNanos : 0;
+    }
+
+    /**
+     * Session time exported per second of wall time; above 1 is faster than real time
+     */
+    public double getSpeedup() {
+        return elapsedNanos > 0 ? sessionMillis * 1_000_000.0 / elapsedNanos : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("frames=%d session=%.1fs took=%.1fs fps=%.1f speedup=%.1fx threads=%d",
+            frames, sessionMillis / 1000.0, elapsedNanos / 1_000_000_000.0, getFramesPerSecond(), getSpeedup(),
+            threads);
+    }
+}
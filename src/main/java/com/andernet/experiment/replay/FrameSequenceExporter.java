@@ -0,0 +1,238 @@
+package com.andernet.experiment.replay;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import com.andernet.experiment.bench.OffscreenScene;
+import com.andernet.experiment.render.ScaledImage;
+
+/**
+ * Renders a recorded {@link SessionLog} to a numbered PNG sequence, e.g. for
+ * highlight reels.
+ *
+ * The calling thread walks the log once and paints every frame with a single
+ * {@link OffscreenScene}, built from the same components the game paints, so
+ * the Swing components are only ever touched by one thread. Each painted
+ * frame buffer goes to a pool of workers that only encode it: PNG encoding,
+ * several times the cost of painting at video sizes, is what scales with the
+ * number of cores. Frames reach the sink in order, and at most two frames per
+ * worker are painted but not yet written, which bounds memory however long
+ * the session is.
+ *
+ * The game area is scaled to fit the output size at a scale its sprites
+ * have variants for, centered on black.
+ * Obstacles and particles are not part of the log and are not drawn.
+ */
+public class FrameSequenceExporter {
+    public static final int DEFAULT_FPS = 60;
+    // Frames painted ahead of the writer, per worker
+    private static final int IN_FLIGHT_PER_THREAD = 2;
+
+    /**
+     * Receives encoded frames, in frame order, on the exporting thread
+     */
+    public interface FrameSink {
+        void accept(int frame, byte[] png) throws IOException;
+    }
+
+    private final int width;
+    private final int height;
+    private final int fps;
+    private final int threads;
+
+    /**
+     * @param width   output width in pixels
+     * @param height  output height in pixels
+     * @param fps     frames per second of session time
+     * @param threads encoding threads, normally one per core
+     */
+    public FrameSequenceExporter(int width, int height, int fps, int threads) {
+        if (width <= 0 || height <= 0 || fps <= 0 || threads <= 0) {
+            throw new IllegalArgumentException("Invalid export " + width + "x" + height + "@" + fps
+                                               + " on " + threads + " threads");
+        }
+        this.width = width;
+        this.height = height;
+        this.fps = fps;
+        this.threads = threads;
+    }
+
+    public FrameSequenceExporter(int width, int height, int fps) {
+        this(width, height, fps, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Frames needed for a session, including the one at time zero
+     */
+    public int frameCount(SessionLog log) {
+        return (int) (log.getDuration() * fps / 1000) + 1;
+    }
+
+    /**
+     * Writes frame_00000.png, frame_00001.png, ... into a directory
+     */
+    public ExportStats exportTo(SessionLog log, Path directory) throws IOException, InterruptedException {
+        Files.createDirectories(directory);
+        return export(log, (frame, png) -> Files.write(directory.resolve(String.format("frame_%05d.png", frame)), png));
+    }
+
+    public ExportStats export(SessionLog log, FrameSink sink) throws IOException, InterruptedException {
+        int frames = frameCount(log);
+        int maxInFlight = threads * IN_FLIGHT_PER_THREAD;
+        OffscreenScene scene = new OffscreenScene(log.getWidth(), log.getHeight(), log.getFakeButtonCount(), 0);
+        Queue<Frame> idle = new ConcurrentLinkedQueue<>();
+        ExecutorService executor = Executors.newFixedThreadPool(threads, new WorkerThreadFactory());
+        ArrayDeque<Future<byte[]>> pending = new ArrayDeque<>();
+        long start = System.nanoTime();
+        try {
+            SessionLog.State state = log.newState();
+            int written = 0;
+            for (int frame = 0; frame < frames; frame++) {
+                log.applyUntil(state, frame * 1000L / fps);
+                Frame buffer = idle.poll();
+                if (buffer == null) {
+                    // Buffers return before their frame is written, so there are never more than maxInFlight
+                    buffer = new Frame(log);
+                }
+                scene.apply(state);
+                scene.paint(buffer.g);
+                Frame painted = buffer;
+                pending.add(executor.submit(() -> painted.encode(idle)));
+                if (pending.size() >= maxInFlight) {
+                    sink.accept(written++, next(pending));
+                }
+            }
+            while (!pending.isEmpty()) {
+                sink.accept(written++, next(pending));
+            }
+        } finally {
+            executor.shutdownNow();
+            for (Frame buffer : idle) {
+                buffer.dispose();
+            }
+        }
+        return new ExportStats(frames, log.getDuration(), System.nanoTime() - start, threads);
+    }
+
+    /**
+     * Largest scale at which the game area fits the output. Above 1x it is
+     * rounded down to a variant scale, so sprites are rendered for the
+     * output and blitted 1:1 instead of resampled.
+     */
+    double fitScale(SessionLog log) {
+        double fit = Math.min(width / (double) log.getWidth(), height / (double) log.getHeight());
+        if (fit <= 1.0) {
+            return fit;
+        }
+        return Math.min(ScaledImage.MAX_SCALE, Math.floor(fit * 4) / 4.0);
+    }
+
+    private static byte[] next(ArrayDeque<Future<byte[]>> pending) throws IOException, InterruptedException {
+        try {
+            return pending.poll().get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException("Frame encoding failed", cause);
+        }
+    }
+
+    /**
+     * A frame buffer, painted on the exporting thread and encoded on a worker
+     */
+    private final class Frame {
+        private final BufferedImage image;
+        private final Graphics2D g;
+        private final ByteArrayOutputStream png = new ByteArrayOutputStream(1 << 16);
+
+        Frame(SessionLog log) {
+            image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            g = image.createGraphics();
+            // Bars around a game area of another aspect ratio stay black
+            g.setColor(Color.BLACK);
+            g.fillRect(0, 0, width, height);
+            double scale = fitScale(log);
+            g.translate((int) ((width - log.getWidth() * scale) / 2), (int) ((height - log.getHeight() * scale) / 2));
+            g.scale(scale, scale);
+        }
+
+        byte[] encode(Queue<Frame> idle) throws IOException {
+            try {
+                png.reset();
+                ImageIO.write(image, "png", png);
+                return png.toByteArray();
+            } finally {
+                idle.add(this);
+            }
+        }
+
+        void dispose() {
+            g.dispose();
+        }
+    }
+
+    private static final class WorkerThreadFactory implements ThreadFactory {
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, "ctb-export-" + count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+
+    /**
+     * Exports a saved session: {@code <session file> <output directory>
+     * [--width w] [--height h] [--fps n] [--threads n]}
+     */
+    public static void main(String[] args) throws Exception {
+        if (args.length < 2) {
+            System.err.println("Usage: FrameSequenceExporter <session> <output dir> "
+                               + "[--width w] [--height h] [--fps n] [--threads n]");
+            System.exit(2);
+        }
+        if (System.getProperty("java.awt.headless") == null) {
+            System.setProperty("java.awt.headless", "true");
+        }
+        int width = 1920;
+        int height = 1080;
+        int fps = DEFAULT_FPS;
+        int threads = Runtime.getRuntime().availableProcessors();
+        for (int i = 2; i + 1 < args.length; i += 2) {
+            int value = Integer.parseInt(args[i + 1]);
+            switch (args[i]) {
+                case "--width" -> width = value;
+                case "--height" -> height = value;
+                case "--fps" -> fps = value;
+                case "--threads" -> threads = value;
+                default -> throw new IllegalArgumentException("Unknown option: " + args[i]);
+            }
+        }
+        SessionLog log = SessionLog.readFrom(Paths.get(args[0]));
+        ExportStats stats = new FrameSequenceExporter(width, height, fps, threads).exportTo(log, Paths.get(args[1]));
+        System.out.println(stats);
+    }
+}
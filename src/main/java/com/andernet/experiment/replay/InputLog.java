@@ -0,0 +1,271 @@
+package com.andernet.experiment.replay;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import com.andernet.experiment.logic.ButtonManager;
+import com.andernet.experiment.logic.GameConstants;
+
+/**
+ * Everything that drove one game, in the order it happened: the seed of the
+ * game's random choices, where the buttons started, and every press, clock
+ * tick, move tick and pause after that. Replaying it with a {@link ReplayDriver}
+ * plays the same game again.
+ *
+ * Events are packed into one byte array: the milliseconds since the previous
+ * event as a varint, usually one byte, then a fixed {@link #RECORD_BYTES}
+ * byte record of kind, target and position. A minute of frantic clicking is
+ * a few kilobytes, and appending an event allocates nothing. Read the events
+ * back with a {@link Cursor}.
+ */
+public class InputLog {
+    // Kinds of event
+    public static final int PRESS = 0;       // target = hit, x and y where
+    public static final int CLOCK_TICK = 1;  // the game clock lost a second
+    public static final int MOVE_TICK = 2;   // the buttons moved on their own
+    public static final int END = 3;         // x = final score
+    public static final int PAUSE = 4;       // the game froze
+    public static final int RESUME = 5;
+
+    /**
+     * Kind, target and position after the time delta
+     */
+    public static final int RECORD_BYTES = 7;
+
+    private static final int MAGIC = 0x43544249; // "CTBI"
+    private static final int VERSION = 1;
+
+    private final Setup setup;
+    private byte[] data = new byte[1024];
+    private int length;
+    private int eventCount;
+    private long lastTime;
+
+    /**
+     * How the game stood when the recording started
+     *
+     * @param fakeLocations x and y of each fake button, interleaved
+     */
+    public record Setup(long seed, int durationSeconds, int width, int height, boolean lightweightObstacles,
+                        int mainX, int mainY, int mainWidth, int mainHeight, int mainColor,
+                        int[] fakeLocations) {
+
+        public Setup {
+            if (fakeLocations.length % 2 != 0
+                    || fakeLocations.length / 2 > GameConstants.MAX_LIGHTWEIGHT_OBSTACLES) {
+                throw new IllegalArgumentException("Invalid fake button locations: " + fakeLocations.length);
+            }
+        }
+
+        public int getFakeButtonCount() {
+            return fakeLocations.length / 2;
+        }
+    }
+
+    public InputLog(Setup setup) {
+        this.setup = setup;
+    }
+
+    public Setup getSetup() {
+        return setup;
+    }
+
+    public int getEventCount() {
+        return eventCount;
+    }
+
+    /**
+     * Bytes taken by the events
+     */
+    public int getEventBytes() {
+        return length;
+    }
+
+    /**
+     * Time of the last event
+     */
+    public long getDuration() {
+        return lastTime;
+    }
+
+    /**
+     * Appends an event
+     *
+     * @param time   milliseconds since the recording started; an earlier
+     *               time than the last event's is taken as the same time
+     * @param target for presses, the {@link ButtonManager#hitTest} result
+     */
+    public void record(long time, int kind, int target, int x, int y) {
+        if (kind < PRESS || kind > RESUME) {
+            throw new IllegalArgumentException("Invalid event kind " + kind);
+        }
+        long delta = Math.max(0, time - lastTime);
+        if (length + 10 + RECORD_BYTES > data.length) {
+            data = Arrays.copyOf(data, data.length * 2);
+        }
+        while (delta >= 0x80) {
+            data[length++] = (byte) (delta | 0x80);
+            delta >>>= 7;
+        }
+        data[length++] = (byte) delta;
+        data[length++] = (byte) kind;
+        putShort(target);
+        putShort(x);
+        putShort(y);
+        lastTime += Math.max(0, time - lastTime);
+        eventCount++;
+    }
+
+    private void putShort(int value) {
+        data[length++] = (byte) (value >> 8);
+        data[length++] = (byte) value;
+    }
+
+    public Cursor cursor() {
+        return new Cursor();
+    }
+
+    public void writeTo(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(setup.seed());
+            out.writeInt(setup.durationSeconds());
+            out.writeInt(setup.width());
+            out.writeInt(setup.height());
+            out.writeBoolean(setup.lightweightObstacles());
+            out.writeInt(setup.mainX());
+            out.writeInt(setup.mainY());
+            out.writeInt(setup.mainWidth());
+            out.writeInt(setup.mainHeight());
+            out.writeInt(setup.mainColor());
+            out.writeInt(setup.getFakeButtonCount());
+            for (int value : setup.fakeLocations()) {
+                out.writeShort(value);
+            }
+            out.writeInt(eventCount);
+            out.writeInt(length);
+            out.write(data, 0, length);
+        }
+    }
+
+    public static InputLog readFrom(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not an input log: " + file);
+            }
+            long seed = in.readLong();
+            int duration = in.readInt();
+            int width = in.readInt();
+            int height = in.readInt();
+            boolean lightweight = in.readBoolean();
+            int mainX = in.readInt();
+            int mainY = in.readInt();
+            int mainWidth = in.readInt();
+            int mainHeight = in.readInt();
+            int mainColor = in.readInt();
+            int fakes = in.readInt();
+            if (fakes < 0 || fakes > GameConstants.MAX_LIGHTWEIGHT_OBSTACLES) {
+                throw new IOException("Corrupt input log: " + file);
+            }
+            int[] locations = new int[fakes * 2];
+            for (int i = 0; i < locations.length; i++) {
+                locations[i] = in.readShort();
+            }
+            InputLog log = new InputLog(new Setup(seed, duration, width, height, lightweight,
+                mainX, mainY, mainWidth, mainHeight, mainColor, locations));
+            int events = in.readInt();
+            int bytes = in.readInt();
+            if (events < 0 || bytes < 0 || bytes > events * (10 + RECORD_BYTES)) {
+                throw new IOException("Corrupt input log: " + file);
+            }
+            byte[] data = new byte[bytes];
+            in.readFully(data);
+            // Re-append rather than trust the bytes, so a bad log fails here
+            Cursor cursor = log.new Cursor(data, bytes);
+            for (int i = 0; i < events; i++) {
+                if (!cursor.next()) {
+                    throw new IOException("Corrupt input log: " + file);
+                }
+                try {
+                    log.record(cursor.time(), cursor.kind(), cursor.target(), cursor.x(), cursor.y());
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Corrupt input log: " + file, e);
+                }
+            }
+            return log;
+        }
+    }
+
+    /**
+     * Reads the events in order. Each {@link #next} decodes one event into
+     * the cursor's fields, allocating nothing.
+     */
+    public final class Cursor {
+        private final byte[] bytes;
+        private final int end;
+        private int position;
+        private long time;
+        private int kind;
+        private int target;
+        private int x;
+        private int y;
+
+        private Cursor() {
+            this(data, length);
+        }
+
+        private Cursor(byte[] bytes, int end) {
+            this.bytes = bytes;
+            this.end = end;
+        }
+
+        /**
+         * Moves to the next event; false at the end, or if the bytes are cut short
+         */
+        public boolean next() {
+            long delta = 0;
+            int shift = 0;
+            while (true) {
+                if (position >= end || shift > 56) {
+                    return false;
+                }
+                int b = bytes[position++];
+                delta |= (long) (b & 0x7F) << shift;
+                if (b >= 0) {
+                    break;
+                }
+                shift += 7;
+            }
+            if (position + RECORD_BYTES > end) {
+                return false;
+            }
+            time += delta;
+            kind = bytes[position++];
+            target = getShort();
+            x = getShort();
+            y = getShort();
+            return true;
+        }
+
+        private int getShort() {
+            int value = (short) ((bytes[position] << 8) | (bytes[position + 1] & 0xFF));
+            position += 2;
+            return value;
+        }
+
+        /**
+         * Milliseconds since the recording started
+         */
+        public long time() { return time; }
+        public int kind() { return kind; }
+        public int target() { return target; }
+        public int x() { return x; }
+        public int y() { return y; }
+    }
+}
@@ -0,0 +1,94 @@
+package com.andernet.experiment.replay;
+
+import java.awt.Container;
+import com.andernet.experiment.logic.ButtonManager;
+import com.andernet.experiment.logic.ObstacleField;
+import com.andernet.experiment.ui.AnimatedButton;
+
+/**
+ * Records an {@link InputLog} of a game as it is played.
+ *
+ * The game calls in from its press handling, its clock and move tasks and
+ * its pause key.
+ * Each call takes the time and appends one event, so recording costs a few
+ * array writes per input. Calls between games are ignored. Use from the EDT.
+ */
+public class InputRecorder {
+    private InputLog log;
+    private long startNanos;
+
+    public boolean isRecording() {
+        return log != null;
+    }
+
+    /**
+     * Starts a new recording, dropping any unfinished one
+     *
+     * @param seed            the seed the game's random choices were just reset to
+     * @param durationSeconds length of the game
+     * @param area            the container the buttons move in
+     */
+    public void start(long seed, int durationSeconds, Container area, AnimatedButton mainButton,
+                      ButtonManager buttons, boolean lightweightObstacles) {
+        ObstacleField field = buttons.getObstacleField();
+        int[] locations = new int[field.size() * 2];
+        for (int i = 0; i < field.size(); i++) {
+            locations[i * 2] = field.getX(i);
+            locations[i * 2 + 1] = field.getY(i);
+        }
+        log = new InputLog(new InputLog.Setup(seed, durationSeconds, area.getWidth(), area.getHeight(),
+            lightweightObstacles, mainButton.getX(), mainButton.getY(), mainButton.getWidth(),
+            mainButton.getHeight(), mainButton.getBaseColor().getRGB(), locations));
+        startNanos = System.nanoTime();
+    }
+
+    /**
+     * Records a press that reached the game
+     *
+     * @param hit what it hit, as from {@link ButtonManager#hitTest}
+     */
+    public void recordPress(int hit, int x, int y) {
+        if (log != null) {
+            log.record(now(), InputLog.PRESS, hit, x, y);
+        }
+    }
+
+    public void recordClockTick() {
+        if (log != null) {
+            log.record(now(), InputLog.CLOCK_TICK, 0, 0, 0);
+        }
+    }
+
+    public void recordMoveTick() {
+        if (log != null) {
+            log.record(now(), InputLog.MOVE_TICK, 0, 0, 0);
+        }
+    }
+
+    /**
+     * Records the game freezing, or carrying on if paused is false
+     */
+    public void recordPause(boolean paused) {
+        if (log != null) {
+            log.record(now(), paused ? InputLog.PAUSE : InputLog.RESUME, 0, 0, 0);
+        }
+    }
+
+    /**
+     * Ends the recording
+     *
+     * @return the finished log, or null if nothing was being recorded
+     */
+    public InputLog stop(int finalScore) {
+        InputLog finished = log;
+        if (finished != null) {
+            finished.record(now(), InputLog.END, 0, finalScore, 0);
+        }
+        log = null;
+        return finished;
+    }
+
+    private long now() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+}
@@ -0,0 +1,197 @@
+package com.andernet.experiment.replay;
+
+import javax.swing.*;
+import java.awt.Color;
+import java.util.concurrent.locks.LockSupport;
+import com.andernet.experiment.handlers.MainButtonClickHandler;
+import com.andernet.experiment.logic.ButtonManager;
+import com.andernet.experiment.logic.ButtonRules;
+import com.andernet.experiment.logic.GameState;
+import com.andernet.experiment.settings.Settings;
+import com.andernet.experiment.ui.AnimatedButton;
+import com.andernet.experiment.ui.ComponentFactory;
+import com.andernet.experiment.util.Constants;
+import com.andernet.experiment.util.GameScheduler;
+import com.andernet.experiment.util.TweenEngine;
+
+/**
+ * Plays an {@link InputLog} back through the game's own logic: a
+ * {@link GameState}, a {@link ButtonManager} and the main button's
+ * {@link MainButtonClickHandler}, with {@link ButtonRules} seeded from the
+ * log, on a playfield laid out as the recording started. No window is
+ * needed.
+ *
+ * Fades and highlights run on a scheduler of the driver's own whose clock is
+ * the log's time, advanced to each event before it is applied. A real-time
+ * replay just waits for each event's time before that, so a replay ends in
+ * the same state whether it runs at the recorded pace or as fast as it can,
+ * which makes real sessions usable as regression benchmarks.
+ *
+ * A driver replays once. Use it from one thread.
+ */
+public class ReplayDriver {
+    // Presses carry wall clock times; any fixed start will do
+    private static final long EPOCH_MILLIS = 1_000_000_000_000L;
+
+    /**
+     * How a replay went
+     *
+     * @param recordedScore the score the log ended with, or -1 if it has no end
+     */
+    public record Result(int events, long elapsedNanos, int score, int recordedScore) {
+
+        /**
+         * Whether the replay scored what the recorded game did
+         */
+        public boolean matches() {
+            return score == recordedScore;
+        }
+    }
+
+    private final InputLog log;
+    private final GameScheduler scheduler;
+    private final GameState gameState;
+    private final JPanel playfield;
+    private final AnimatedButton mainButton;
+    private final ButtonManager buttons;
+    private final ButtonRules rules;
+    private final MainButtonClickHandler mainHandler;
+    private long virtualNanos;
+    private boolean used;
+
+    public ReplayDriver(InputLog log) {
+        this.log = log;
+        InputLog.Setup setup = log.getSetup();
+        scheduler = GameScheduler.withClock(() -> virtualNanos);
+        TweenEngine tweens = new TweenEngine(scheduler, scheduler.getGameGroup());
+
+        Settings settings = new Settings();
+        settings.setSoundEnabled(false);
+        settings.setLightweightObstacles(setup.lightweightObstacles());
+        settings.setNumFakeButtons(setup.getFakeButtonCount());
+        gameState = new GameState(setup.durationSeconds());
+        gameState.reset(setup.durationSeconds());
+
+        playfield = new JPanel(null);
+        playfield.setSize(setup.width(), setup.height());
+        mainButton = ComponentFactory.createMainButton(Constants.CLICK_ME, setup.mainWidth(), setup.mainHeight());
+        mainButton.setBounds(setup.mainX(), setup.mainY(), setup.mainWidth(), setup.mainHeight());
+        mainButton.setBaseColor(new Color(setup.mainColor(), true));
+        playfield.add(mainButton);
+
+        buttons = new ButtonManager(settings, gameState, this::moveAll, this::randomizeColors, playfield);
+        buttons.setMainButton(mainButton);
+        buttons.createFakeButtons();
+        int[] locations = setup.fakeLocations();
+        for (int i = 0; i < Math.min(setup.getFakeButtonCount(), buttons.getObstacleField().size()); i++) {
+            buttons.getObstacleField().setLocation(i, locations[i * 2], locations[i * 2 + 1]);
+            if (i < buttons.getFakeButtons().length) {
+                buttons.getFakeButtons()[i].setLocation(locations[i * 2], locations[i * 2 + 1]);
+            }
+        }
+
+        rules = new ButtonRules(mainButton, buttons, gameState, tweens);
+        rules.reseed(setup.seed());
+        mainHandler = new MainButtonClickHandler(gameState, settings, mainButton,
+            rules::moveAll, rules::randomizeColors, rules::nextLevel, tweens);
+    }
+
+    private void moveAll() {
+        rules.moveAll();
+    }
+
+    private void randomizeColors() {
+        rules.randomizeColors();
+    }
+
+    /**
+     * Replays every event as soon as the last one is done
+     */
+    public Result replayFast() {
+        try {
+            return replay(false);
+        } catch (InterruptedException e) {
+            // Only the real-time replay waits
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Replays every event at the time it happened in the recording
+     */
+    public Result replayRealTime() throws InterruptedException {
+        return replay(true);
+    }
+
+    private Result replay(boolean realTime) throws InterruptedException {
+        if (used) {
+            throw new IllegalStateException("A driver replays once");
+        }
+        used = true;
+        long wallStart = System.nanoTime();
+        int events = 0;
+        int recordedScore = -1;
+        InputLog.Cursor cursor = log.cursor();
+        while (cursor.next()) {
+            advanceTo(cursor.time() * 1_000_000L, realTime, wallStart);
+            events++;
+            switch (cursor.kind()) {
+                case InputLog.PRESS -> press(cursor.target(), cursor.time());
+                case InputLog.CLOCK_TICK -> gameState.decrementTime();
+                case InputLog.MOVE_TICK -> rules.moveAll();
+                case InputLog.PAUSE -> scheduler.getGameGroup().pause();
+                case InputLog.RESUME -> scheduler.getGameGroup().resume();
+                case InputLog.END -> recordedScore = cursor.x();
+                default -> { }
+            }
+        }
+        return new Result(events, System.nanoTime() - wallStart, gameState.getScore(), recordedScore);
+    }
+
+    private void press(int hit, long time) {
+        if (hit == ButtonManager.HIT_MAIN_BUTTON) {
+            mainHandler.hit(EPOCH_MILLIS + time);
+        } else if (hit >= 0) {
+            buttons.pressFakeButton(hit);
+        }
+    }
+
+    /**
+     * Runs the fades and highlights due by the given log time, waiting for
+     * it first in a real-time replay. The scheduler only ever sees event
+     * times, so both kinds of replay step the animations identically.
+     */
+    private void advanceTo(long targetNanos, boolean realTime, long wallStart) throws InterruptedException {
+        while (realTime) {
+            long wait = targetNanos - (System.nanoTime() - wallStart);
+            if (wait <= 0) {
+                break;
+            }
+            LockSupport.parkNanos(wait);
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+        }
+        virtualNanos = Math.max(virtualNanos, targetNanos);
+        scheduler.tick();
+    }
+
+    public GameState getGameState() {
+        return gameState;
+    }
+
+    public ButtonManager getButtonManager() {
+        return buttons;
+    }
+
+    public AnimatedButton getMainButton() {
+        return mainButton;
+    }
+
+    /**
+     * The container the replayed buttons live in
+     */
+    public JPanel getPlayfield() {
+        return playfield;
+    }
+}
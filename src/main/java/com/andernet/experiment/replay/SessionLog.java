@@ -0,0 +1,307 @@
+package com.andernet.experiment.replay;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import com.andernet.experiment.logic.GameConstants;
+
+/**
+ * Time-ordered log of everything that changed on screen during one game:
+ * where each button was, its color and fade, the HUD readouts and the
+ * overlay. {@link #applyUntil} rebuilds what the window showed at any time,
+ * which is all the offline renderer needs to draw a frame.
+ *
+ * Events are kept in parallel arrays, one slot per event, so a minute of
+ * play costs a few kilobytes. Times are milliseconds since the recording
+ * started and never decrease.
+ */
+public class SessionLog {
+    // What changed
+    public static final int MOVE = 0;      // a = x, b = y
+    public static final int SIZE = 1;      // a = width, b = height
+    public static final int COLOR = 2;     // a = ARGB
+    public static final int ALPHA = 3;     // a = float bits
+    public static final int VISIBLE = 4;   // a = 1 if shown
+    public static final int VALUE = 5;     // a = HUD readout
+    public static final int TEXT = 6;      // a = index into the string table
+
+    // What it changed on; fake button i is FAKE_BUTTON + i
+    public static final int MAIN_BUTTON = 0;
+    public static final int SCORE_LABEL = 1;
+    public static final int TIMER_LABEL = 2;
+    public static final int HIGH_SCORE_LABEL = 3;
+    public static final int OVERLAY = 4;
+    public static final int OVERLAY_LABEL = 5;
+    public static final int OVERLAY_BUTTON = 6;
+    public static final int FAKE_BUTTON = 7;
+
+    private static final int MAGIC = 0x43544253; // "CTBS"
+    private static final int VERSION = 1;
+
+    private final int width;
+    private final int height;
+    private final int fakeButtonCount;
+    private long endTime;
+    private int count = 0;
+    private long[] times = new long[256];
+    private byte[] kinds = new byte[256];
+    private short[] targets = new short[256];
+    private int[] as = new int[256];
+    private int[] bs = new int[256];
+    private final List<String> strings = new ArrayList<>();
+
+    /**
+     * @param width           logical width of the game area
+     * @param height          logical height of the game area
+     * @param fakeButtonCount fake buttons in play, at most {@link GameConstants#MAX_FAKE_BUTTONS}
+     */
+    public SessionLog(int width, int height, int fakeButtonCount) {
+        if (fakeButtonCount < 0 || fakeButtonCount > GameConstants.MAX_FAKE_BUTTONS) {
+            throw new IllegalArgumentException("Invalid fake button count: " + fakeButtonCount);
+        }
+        this.width = width;
+        this.height = height;
+        this.fakeButtonCount = fakeButtonCount;
+    }
+
+    public int getWidth() {
+        return width;
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    public int getFakeButtonCount() {
+        return fakeButtonCount;
+    }
+
+    public int getTargetCount() {
+        return FAKE_BUTTON + fakeButtonCount;
+    }
+
+    public int getEventCount() {
+        return count;
+    }
+
+    /**
+     * Length of the session; the last recorded state holds until then
+     */
+    public long getDuration() {
+        return Math.max(endTime, count > 0 ? times[count - 1] : 0);
+    }
+
+    public void setDuration(long millis) {
+        endTime = millis;
+    }
+
+    public void record(long time, int kind, int target, int a, int b) {
+        if (kind < MOVE || kind > TEXT || target < 0 || target >= getTargetCount()) {
+            throw new IllegalArgumentException("Invalid event " + kind + " on " + target);
+        }
+        if (count == times.length) {
+            int capacity = count * 2;
+            times = Arrays.copyOf(times, capacity);
+            kinds = Arrays.copyOf(kinds, capacity);
+            targets = Arrays.copyOf(targets, capacity);
+            as = Arrays.copyOf(as, capacity);
+            bs = Arrays.copyOf(bs, capacity);
+        }
+        // Listeners may report a change a moment after a later one was logged
+        times[count] = count > 0 ? Math.max(time, times[count - 1]) : Math.max(0, time);
+        kinds[count] = (byte) kind;
+        targets[count] = (short) target;
+        as[count] = a;
+        bs[count] = b;
+        count++;
+    }
+
+    public void recordText(long time, int target, String text) {
+        int index = strings.indexOf(text);
+        if (index < 0) {
+            index = strings.size();
+            strings.add(text);
+        }
+        record(time, TEXT, target, index, 0);
+    }
+
+    /**
+     * A blank state sized for this log, before any event
+     */
+    public State newState() {
+        return new State(getTargetCount());
+    }
+
+    /**
+     * Advances a state to the given time. Going forward continues from where
+     * the state stopped; going back replays from the start.
+     */
+    public void applyUntil(State state, long time) {
+        if (time < state.time) {
+            state.clear();
+        }
+        int i = state.cursor;
+        while (i < count && times[i] <= time) {
+            int t = targets[i];
+            switch (kinds[i]) {
+                case MOVE -> { state.x[t] = as[i]; state.y[t] = bs[i]; }
+                case SIZE -> { state.width[t] = as[i]; state.height[t] = bs[i]; }
+                case COLOR -> state.color[t] = as[i];
+                case ALPHA -> state.alpha[t] = Float.intBitsToFloat(as[i]);
+                case VISIBLE -> state.visible[t] = as[i] != 0;
+                case VALUE -> state.value[t] = as[i];
+                case TEXT -> state.text[t] = strings.get(as[i]);
+                default -> { }
+            }
+            i++;
+        }
+        state.cursor = i;
+        state.time = time;
+    }
+
+    public void writeTo(Path file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(width);
+            out.writeInt(height);
+            out.writeInt(fakeButtonCount);
+            out.writeLong(getDuration());
+            out.writeInt(strings.size());
+            for (String s : strings) {
+                out.writeUTF(s);
+            }
+            out.writeInt(count);
+            long last = 0;
+            for (int i = 0; i < count; i++) {
+                out.writeInt((int) (times[i] - last));
+                last = times[i];
+                out.writeByte(kinds[i]);
+                out.writeShort(targets[i]);
+                out.writeInt(as[i]);
+                out.writeInt(bs[i]);
+            }
+        }
+    }
+
+    public static SessionLog readFrom(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("Not a session log: " + file);
+            }
+            SessionLog log;
+            try {
+                log = new SessionLog(in.readInt(), in.readInt(), in.readInt());
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Corrupt session log: " + file, e);
+            }
+            log.endTime = in.readLong();
+            int stringCount = in.readInt();
+            for (int i = 0; i < stringCount; i++) {
+                log.strings.add(in.readUTF());
+            }
+            int events = in.readInt();
+            long time = 0;
+            for (int i = 0; i < events; i++) {
+                time += in.readInt();
+                int kind = in.readByte();
+                int target = in.readShort();
+                int a = in.readInt();
+                int b = in.readInt();
+                if (kind == TEXT && (a < 0 || a >= stringCount)) {
+                    throw new IOException("Corrupt session log: " + file);
+                }
+                try {
+                    log.record(time, kind, target, a, b);
+                } catch (IllegalArgumentException e) {
+                    throw new IOException("Corrupt session log: " + file, e);
+                }
+            }
+            return log;
+        }
+    }
+
+    /**
+     * What every tracked component looked like at one point in time
+     */
+    public static final class State {
+        private final int[] x;
+        private final int[] y;
+        private final int[] width;
+        private final int[] height;
+        private final int[] color;
+        private final float[] alpha;
+        private final boolean[] visible;
+        private final int[] value;
+        private final String[] text;
+        private int cursor;
+        private long time;
+
+        State(int targets) {
+            x = new int[targets];
+            y = new int[targets];
+            width = new int[targets];
+            height = new int[targets];
+            color = new int[targets];
+            alpha = new float[targets];
+            visible = new boolean[targets];
+            value = new int[targets];
+            text = new String[targets];
+            clear();
+        }
+
+        private State(State other) {
+            x = other.x.clone();
+            y = other.y.clone();
+            width = other.width.clone();
+            height = other.height.clone();
+            color = other.color.clone();
+            alpha = other.alpha.clone();
+            visible = other.visible.clone();
+            value = other.value.clone();
+            text = other.text.clone();
+            cursor = other.cursor;
+            time = other.time;
+        }
+
+        private void clear() {
+            Arrays.fill(x, 0);
+            Arrays.fill(y, 0);
+            Arrays.fill(width, 0);
+            Arrays.fill(height, 0);
+            Arrays.fill(color, 0);
+            Arrays.fill(alpha, 1f);
+            Arrays.fill(visible, false);
+            Arrays.fill(value, 0);
+            Arrays.fill(text, null);
+            cursor = 0;
+            time = 0;
+        }
+
+        /**
+         * An independent copy, e.g. to hand a frame to another thread
+         */
+        public State copy() {
+            return new State(this);
+        }
+
+        public int getTargetCount() { return x.length; }
+        public long getTime() { return time; }
+        public int getX(int target) { return x[target]; }
+        public int getY(int target) { return y[target]; }
+        public int getWidth(int target) { return width[target]; }
+        public int getHeight(int target) { return height[target]; }
+        public int getColor(int target) { return color[target]; }
+        public float getAlpha(int target) { return alpha[target]; }
+        public boolean isVisible(int target) { return visible[target]; }
+        public int getValue(int target) { return value[target]; }
+        public String getText(int target) { return text[target]; }
+    }
+}
@@ -0,0 +1,175 @@
+package com.andernet.experiment.replay;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ComponentEvent;
+import java.awt.event.ComponentListener;
+import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
+import java.util.List;
+import com.andernet.experiment.logic.GameConstants;
+import com.andernet.experiment.ui.AnimatedButton;
+import com.andernet.experiment.ui.FakeButton;
+import com.andernet.experiment.ui.GameOverlayPanel;
+import com.andernet.experiment.ui.HudLabel;
+
+/**
+ * Records a {@link SessionLog} of a game as it is played.
+ *
+ * Listens to the components themselves (bounds, visibility, colors, the
+ * main button's fade, HUD values and overlay text) instead of the code that
+ * changes them, so timers and animations are captured without touching
+ * them. Each recording starts with a full snapshot of the tracked components.
+ * Use from the EDT.
+ */
+public class SessionTracker {
+    private final AnimatedButton mainButton;
+    private final HudLabel scoreLabel;
+    private final HudLabel timerLabel;
+    private final HudLabel highScoreLabel;
+    private final GameOverlayPanel overlay;
+    private final List<Runnable> detachers = new ArrayList<>();
+    private SessionLog log;
+    private long startNanos;
+
+    public SessionTracker(AnimatedButton mainButton, HudLabel scoreLabel, HudLabel timerLabel,
+                          HudLabel highScoreLabel, GameOverlayPanel overlay) {
+        this.mainButton = mainButton;
+        this.scoreLabel = scoreLabel;
+        this.timerLabel = timerLabel;
+        this.highScoreLabel = highScoreLabel;
+        this.overlay = overlay;
+    }
+
+    public boolean isRecording() {
+        return log != null;
+    }
+
+    /**
+     * Starts a new recording, dropping any unfinished one
+     *
+     * @param area        the container the buttons move in
+     * @param fakeButtons the fake buttons currently in play
+     */
+    public void start(Container area, FakeButton[] fakeButtons) {
+        detach();
+        int fakes = Math.min(fakeButtons.length, GameConstants.MAX_FAKE_BUTTONS);
+        log = new SessionLog(area.getWidth(), area.getHeight(), fakes);
+        startNanos = System.nanoTime();
+
+        track(mainButton, SessionLog.MAIN_BUTTON, true);
+        trackValue(scoreLabel, SessionLog.SCORE_LABEL);
+        trackValue(timerLabel, SessionLog.TIMER_LABEL);
+        trackValue(highScoreLabel, SessionLog.HIGH_SCORE_LABEL);
+        trackVisibility(overlay, SessionLog.OVERLAY);
+        trackText(overlay.getOverlayLabel(), SessionLog.OVERLAY_LABEL);
+        trackText(overlay.getOverlayButton(), SessionLog.OVERLAY_BUTTON);
+        trackVisibility(overlay.getOverlayButton(), SessionLog.OVERLAY_BUTTON);
+        for (int i = 0; i < fakes; i++) {
+            track(fakeButtons[i], SessionLog.FAKE_BUTTON + i, false);
+        }
+    }
+
+    /**
+     * Ends the recording
+     *
+     * @param tailMillis how long the final frame stays on screen in the log
+     * @return the finished log, or null if nothing was being recorded
+     */
+    public SessionLog stop(long tailMillis) {
+        SessionLog finished = log;
+        detach();
+        if (finished != null) {
+            finished.setDuration(now() + tailMillis);
+        }
+        return finished;
+    }
+
+    private long now() {
+        return (System.nanoTime() - startNanos) / 1_000_000;
+    }
+
+    private void detach() {
+        for (Runnable detacher : detachers) {
+            detacher.run();
+        }
+        detachers.clear();
+        log = null;
+    }
+
+    private void track(AbstractButton button, int target, boolean fades) {
+        SessionLog current = log;
+        // The main button paints its base color; fake buttons paint theirs
+        // from the background they are given
+        Color color = fades ? ((AnimatedButton) button).getBaseColor() : button.getBackground();
+        current.record(0, SessionLog.COLOR, target, color.getRGB(), 0);
+        if (fades) {
+            current.record(0, SessionLog.ALPHA, target, Float.floatToIntBits(((AnimatedButton) button).getAlpha()), 0);
+        }
+        trackVisibility(button, target);
+        listen(button, fades ? "baseColor" : "background",
+               e -> current.record(now(), SessionLog.COLOR, target, ((Color) e.getNewValue()).getRGB(), 0));
+        if (fades) {
+            AnimatedButton fading = (AnimatedButton) button;
+            fading.setAlphaListener(a -> current.record(now(), SessionLog.ALPHA, target, Float.floatToIntBits(a), 0));
+            detachers.add(() -> fading.setAlphaListener(null));
+        }
+    }
+
+    private void trackValue(HudLabel label, int target) {
+        SessionLog current = log;
+        current.record(0, SessionLog.VALUE, target, label.getValue(), 0);
+        trackVisibility(label, target);
+        listen(label, "value", e -> current.record(now(), SessionLog.VALUE, target, (Integer) e.getNewValue(), 0));
+    }
+
+    private void trackText(JComponent c, int target) {
+        SessionLog current = log;
+        current.recordText(0, target, text(c));
+        listen(c, "text", e -> current.recordText(now(), target, text(c)));
+    }
+
+    private static String text(JComponent c) {
+        String text = c instanceof JLabel ? ((JLabel) c).getText() : ((AbstractButton) c).getText();
+        return text != null ? text : "";
+    }
+
+    /**
+     * Records bounds and visibility. Component events arrive through the
+     * event queue, so each is logged with the state at delivery.
+     */
+    private void trackVisibility(Component c, int target) {
+        SessionLog current = log;
+        current.record(0, SessionLog.MOVE, target, c.getX(), c.getY());
+        current.record(0, SessionLog.SIZE, target, c.getWidth(), c.getHeight());
+        current.record(0, SessionLog.VISIBLE, target, c.isVisible() ? 1 : 0, 0);
+        ComponentListener listener = new ComponentListener() {
+            @Override
+            public void componentMoved(ComponentEvent e) {
+                current.record(now(), SessionLog.MOVE, target, c.getX(), c.getY());
+            }
+
+            @Override
+            public void componentResized(ComponentEvent e) {
+                current.record(now(), SessionLog.SIZE, target, c.getWidth(), c.getHeight());
+            }
+
+            @Override
+            public void componentShown(ComponentEvent e) {
+                current.record(now(), SessionLog.VISIBLE, target, 1, 0);
+            }
+
+            @Override
+            public void componentHidden(ComponentEvent e) {
+                current.record(now(), SessionLog.VISIBLE, target, 0, 0);
+            }
+        };
+        c.addComponentListener(listener);
+        detachers.add(() -> c.removeComponentListener(listener));
+    }
+
+    private void listen(Component c, String property, PropertyChangeListener listener) {
+        c.addPropertyChangeListener(property, listener);
+        detachers.add(() -> c.removePropertyChangeListener(property, listener));
+    }
+}
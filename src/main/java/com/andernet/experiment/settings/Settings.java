@@ -1,5 +1,9 @@
 package com.andernet.experiment.settings;
 
+import com.andernet.experiment.audio.AudioBackendType;
+import com.andernet.experiment.render.DisplayBackend;
+import com.andernet.experiment.render.RenderQuality;
+
 /**
  * Settings holds user-customizable gameplay options for ClickTheButtonGame.
  */
@@ -10,6 +14,15 @@ public class Settings {
     private boolean soundEnabled = true;
     private int mainButtonStartWidth = 140;
     private int mainButtonStartHeight = 60;
+    private boolean activeRendering = false;
+    private int targetFps = 60;
+    private boolean tiledRendering = false;
+    private boolean lightweightObstacles = false;
+    private boolean adaptiveQuality = true;
+    private RenderQuality renderQuality = RenderQuality.FULL;
+    private DisplayBackend displayBackend = DisplayBackend.OPAQUE_WINDOWED;
+    private AudioBackendType audioBackend = AudioBackendType.DEVICE;
+    private boolean rawInput = false;
     // Future: color theme, etc.
 
     public int getGameDurationSeconds() { return gameDurationSeconds; }
@@ -29,4 +42,36 @@ public class Settings {
 
     public int getMainButtonStartHeight() { return mainButtonStartHeight; }
     public void setMainButtonStartHeight(int height) { this.mainButtonStartHeight = height; }
+
+    public boolean isActiveRendering() { return activeRendering; }
+    public void setActiveRendering(boolean enabled) { this.activeRendering = enabled; }
+
+    public int getTargetFps() { return targetFps; }
+    public void setTargetFps(int fps) { this.targetFps = fps; }
+
+    /** Composite actively rendered frames in parallel tiles */
+    public boolean isTiledRendering() { return tiledRendering; }
+    public void setTiledRendering(boolean enabled) { this.tiledRendering = enabled; }
+
+    public boolean isLightweightObstacles() { return lightweightObstacles; }
+    public void setLightweightObstacles(boolean enabled) { this.lightweightObstacles = enabled; }
+
+    public boolean isAdaptiveQuality() { return adaptiveQuality; }
+    public void setAdaptiveQuality(boolean enabled) { this.adaptiveQuality = enabled; }
+
+    /** Fixed quality level, or the best level allowed when adaptive quality is on */
+    public RenderQuality getRenderQuality() { return renderQuality; }
+    public void setRenderQuality(RenderQuality quality) { this.renderQuality = quality; }
+
+    /** Requested display mode; AUTO probes for the fastest one at startup */
+    public DisplayBackend getDisplayBackend() { return displayBackend; }
+    public void setDisplayBackend(DisplayBackend backend) { this.displayBackend = backend; }
+
+    /** Where sound goes; the ctb.audio.backend system property overrides it */
+    public AudioBackendType getAudioBackend() { return audioBackend; }
+    public void setAudioBackend(AudioBackendType backend) { this.audioBackend = backend; }
+
+    /** Score mouse presses as they happen instead of on button release */
+    public boolean isRawInput() { return rawInput; }
+    public void setRawInput(boolean enabled) { this.rawInput = enabled; }
 }
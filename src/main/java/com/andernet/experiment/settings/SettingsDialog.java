@@ -3,6 +3,8 @@ package com.andernet.experiment.settings;
 import javax.swing.*;
 import java.awt.*;
 import com.andernet.experiment.util.Constants;
+import com.andernet.experiment.logic.GameConstants;
+import com.andernet.experiment.render.DisplayBackend;
 import com.andernet.experiment.ui.ComponentFactory;
 import com.andernet.experiment.ui.Theme;
 import com.andernet.experiment.ui.ModernPanel;
@@ -19,6 +21,9 @@ public class SettingsDialog extends JDialog {
     private JCheckBox soundCheckBox;
     private JSpinner buttonWidthSpinner;
     private JSpinner buttonHeightSpinner;
+    private JCheckBox lightweightObstaclesCheckBox;
+    private JCheckBox adaptiveQualityCheckBox;
+    private JComboBox<DisplayBackend> displayBackendCombo;
     private boolean confirmed = false;
 
     public SettingsDialog(JFrame parent, Settings settings) {
@@ -77,7 +82,8 @@ public class SettingsDialog extends JDialog {
         gbc.gridx = 0; gbc.gridy = 2;
         mainPanel.add(createLabel(Constants.FAKE_BUTTONS_LABEL), gbc);
         gbc.gridx = 1;
-        fakeButtonsSpinner = createModernSpinner(settings.getNumFakeButtons(), 0, 10, 1);
+        fakeButtonsSpinner = createModernSpinner(settings.getNumFakeButtons(), 0,
+            settings.isLightweightObstacles() ? GameConstants.MAX_LIGHTWEIGHT_OBSTACLES : GameConstants.MAX_FAKE_BUTTONS, 1);
         mainPanel.add(fakeButtonsSpinner, gbc);
         
         // Move Interval
@@ -108,8 +114,30 @@ public class SettingsDialog extends JDialog {
         buttonHeightSpinner = createModernSpinner(settings.getMainButtonStartHeight(), 30, 150, 5);
         mainPanel.add(buttonHeightSpinner, gbc);
         
-        // Button Panel
+        // Lightweight Obstacles
         gbc.gridx = 0; gbc.gridy = 7;
+        mainPanel.add(createLabel(Constants.LIGHTWEIGHT_OBSTACLES_LABEL), gbc);
+        gbc.gridx = 1;
+        lightweightObstaclesCheckBox = createModernCheckBox(Constants.ENABLED_LABEL, settings.isLightweightObstacles());
+        lightweightObstaclesCheckBox.addActionListener(e -> updateFakeButtonLimit());
+        mainPanel.add(lightweightObstaclesCheckBox, gbc);
+        
+        // Adaptive Quality
+        gbc.gridx = 0; gbc.gridy = 8;
+        mainPanel.add(createLabel(Constants.ADAPTIVE_QUALITY_LABEL), gbc);
+        gbc.gridx = 1;
+        adaptiveQualityCheckBox = createModernCheckBox(Constants.ENABLED_LABEL, settings.isAdaptiveQuality());
+        mainPanel.add(adaptiveQualityCheckBox, gbc);
+        
+        // Display Backend
+        gbc.gridx = 0; gbc.gridy = 9;
+        mainPanel.add(createLabel(Constants.DISPLAY_BACKEND_LABEL), gbc);
+        gbc.gridx = 1;
+        displayBackendCombo = createDisplayBackendCombo(settings.getDisplayBackend());
+        mainPanel.add(displayBackendCombo, gbc);
+        
+        // Button Panel
+        gbc.gridx = 0; gbc.gridy = 10;
         gbc.gridwidth = 2;
         gbc.insets = new Insets(Theme.SPACING_XL, Theme.SPACING_MD, Theme.SPACING_MD, Theme.SPACING_MD);
         
@@ -135,6 +163,58 @@ public class SettingsDialog extends JDialog {
         setLocationRelativeTo(getParent());
     }
 
+    private JLabel createLabel(String text) {
+        JLabel label = new JLabel(text);
+        label.setFont(Theme.BODY_MEDIUM_FONT);
+        label.setForeground(Theme.TEXT_PRIMARY);
+        return label;
+    }
+    
+    private JSpinner createModernSpinner(int value, int min, int max, int step) {
+        JSpinner spinner = new JSpinner(new SpinnerNumberModel(Math.max(min, Math.min(max, value)), min, max, step));
+        spinner.setFont(Theme.BODY_MEDIUM_FONT);
+        return spinner;
+    }
+    
+    private JCheckBox createModernCheckBox(String text, boolean selected) {
+        JCheckBox checkBox = new JCheckBox(text, selected);
+        checkBox.setFont(Theme.BODY_MEDIUM_FONT);
+        checkBox.setForeground(Theme.TEXT_PRIMARY);
+        checkBox.setOpaque(false);
+        checkBox.setFocusPainted(false);
+        return checkBox;
+    }
+    
+    private JComboBox<DisplayBackend> createDisplayBackendCombo(DisplayBackend selected) {
+        JComboBox<DisplayBackend> combo = new JComboBox<>(DisplayBackend.values());
+        combo.setName("displayBackendCombo");
+        combo.setFont(Theme.BODY_MEDIUM_FONT);
+        combo.setSelectedItem(selected);
+        combo.setToolTipText(Constants.DISPLAY_BACKEND_TOOLTIP);
+        combo.setRenderer(new DefaultListCellRenderer() {
+            @Override
+            public Component getListCellRendererComponent(JList<?> list, Object value, int index,
+                                                          boolean isSelected, boolean cellHasFocus) {
+                Object text = value != null ? ((DisplayBackend) value).getDisplayName() : null;
+                return super.getListCellRendererComponent(list, text, index, isSelected, cellHasFocus);
+            }
+        });
+        return combo;
+    }
+    
+    /**
+     * Lightweight obstacles allow far more fake buttons than Swing components
+     */
+    private void updateFakeButtonLimit() {
+        SpinnerNumberModel model = (SpinnerNumberModel) fakeButtonsSpinner.getModel();
+        int max = lightweightObstaclesCheckBox.isSelected()
+            ? GameConstants.MAX_LIGHTWEIGHT_OBSTACLES : GameConstants.MAX_FAKE_BUTTONS;
+        model.setMaximum(max);
+        if ((Integer) model.getValue() > max) {
+            model.setValue(max);
+        }
+    }
+
     private void applySettings() {
         settings.setGameDurationSeconds((Integer) durationSpinner.getValue());
         settings.setNumFakeButtons((Integer) fakeButtonsSpinner.getValue());
@@ -142,6 +222,9 @@ public class SettingsDialog extends JDialog {
         settings.setSoundEnabled(soundCheckBox.isSelected());
         settings.setMainButtonStartWidth((Integer) buttonWidthSpinner.getValue());
         settings.setMainButtonStartHeight((Integer) buttonHeightSpinner.getValue());
+        settings.setLightweightObstacles(lightweightObstaclesCheckBox.isSelected());
+        settings.setAdaptiveQuality(adaptiveQualityCheckBox.isSelected());
+        settings.setDisplayBackend((DisplayBackend) displayBackendCombo.getSelectedItem());
     }
 
     public boolean isConfirmed() {
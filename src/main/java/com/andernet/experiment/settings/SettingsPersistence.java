@@ -4,6 +4,9 @@ import java.io.*;
 import java.util.Properties;
 import javax.swing.*;
 import com.andernet.experiment.util.Constants;
+import com.andernet.experiment.audio.AudioBackendType;
+import com.andernet.experiment.render.DisplayBackend;
+import com.andernet.experiment.render.RenderQuality;
 
 /**
  * SettingsPersistence handles saving and loading user settings to a properties file.
@@ -19,6 +22,15 @@ public class SettingsPersistence {
         props.setProperty("soundEnabled", String.valueOf(settings.isSoundEnabled()));
         props.setProperty("mainButtonStartWidth", String.valueOf(settings.getMainButtonStartWidth()));
         props.setProperty("mainButtonStartHeight", String.valueOf(settings.getMainButtonStartHeight()));
+        props.setProperty("activeRendering", String.valueOf(settings.isActiveRendering()));
+        props.setProperty("targetFps", String.valueOf(settings.getTargetFps()));
+        props.setProperty("tiledRendering", String.valueOf(settings.isTiledRendering()));
+        props.setProperty("lightweightObstacles", String.valueOf(settings.isLightweightObstacles()));
+        props.setProperty("adaptiveQuality", String.valueOf(settings.isAdaptiveQuality()));
+        props.setProperty("renderQuality", settings.getRenderQuality().name());
+        props.setProperty("displayBackend", settings.getDisplayBackend().name());
+        props.setProperty("audioBackend", settings.getAudioBackend().name());
+        props.setProperty("rawInput", String.valueOf(settings.isRawInput()));
         
         try (FileOutputStream out = new FileOutputStream(SETTINGS_FILE)) {
             props.store(out, Constants.SETTINGS_COMMENT);
@@ -46,6 +58,24 @@ public class SettingsPersistence {
                 settings.setMainButtonStartWidth(Integer.parseInt(props.getProperty("mainButtonStartWidth")));
             if (props.getProperty("mainButtonStartHeight") != null)
                 settings.setMainButtonStartHeight(Integer.parseInt(props.getProperty("mainButtonStartHeight")));
+            if (props.getProperty("activeRendering") != null)
+                settings.setActiveRendering(Boolean.parseBoolean(props.getProperty("activeRendering")));
+            if (props.getProperty("targetFps") != null)
+                settings.setTargetFps(Integer.parseInt(props.getProperty("targetFps")));
+            if (props.getProperty("tiledRendering") != null)
+                settings.setTiledRendering(Boolean.parseBoolean(props.getProperty("tiledRendering")));
+            if (props.getProperty("lightweightObstacles") != null)
+                settings.setLightweightObstacles(Boolean.parseBoolean(props.getProperty("lightweightObstacles")));
+            if (props.getProperty("adaptiveQuality") != null)
+                settings.setAdaptiveQuality(Boolean.parseBoolean(props.getProperty("adaptiveQuality")));
+            if (props.getProperty("renderQuality") != null)
+                settings.setRenderQuality(RenderQuality.fromName(props.getProperty("renderQuality")));
+            if (props.getProperty("displayBackend") != null)
+                settings.setDisplayBackend(DisplayBackend.fromName(props.getProperty("displayBackend")));
+            if (props.getProperty("audioBackend") != null)
+                settings.setAudioBackend(AudioBackendType.fromName(props.getProperty("audioBackend")));
+            if (props.getProperty("rawInput") != null)
+                settings.setRawInput(Boolean.parseBoolean(props.getProperty("rawInput")));
         } catch (IOException | NumberFormatException e) {
             SwingUtilities.invokeLater(() -> JOptionPane.showMessageDialog(null, 
                 Constants.LOAD_ERROR, Constants.FILE_ERROR_TITLE, JOptionPane.ERROR_MESSAGE));
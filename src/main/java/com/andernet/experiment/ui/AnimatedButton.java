@@ -2,15 +2,29 @@ package com.andernet.experiment.ui;
 
 import javax.swing.*;
 import java.awt.*;
-import java.awt.geom.RoundRectangle2D;
+import com.andernet.experiment.logic.HitTest;
+import com.andernet.experiment.render.DisplayList;
+import com.andernet.experiment.render.TileSource;
 
 /**
  * Enhanced animated button with modern styling and smooth animations
  */
-public class AnimatedButton extends JButton {
+public class AnimatedButton extends JButton implements TileSource {
     private float alpha = 1.0f;
     private Color baseColor = Theme.MAIN_BUTTON_COLOR;
     private int borderRadius = Theme.BORDER_RADIUS_LG;
+    private AlphaListener alphaListener;
+    // Pre-rendered appearance, re-rendered only when size, color or text change
+    private final ButtonSprite sprite = new ButtonSprite(ButtonStyle.MAIN);
+    
+    /**
+     * Told about every fade step. A plain callback rather than a property
+     * change, because Swing's UI delegate listens to every property and an
+     * event per step would allocate on each frame of a fade.
+     */
+    public interface AlphaListener {
+        void alphaChanged(float alpha);
+    }
     
     public AnimatedButton(String text) { 
         super(text);
@@ -36,68 +50,72 @@ public class AnimatedButton extends JButton {
     public void setAlpha(float a) { 
         alpha = a; 
         repaint(); 
+        AlphaListener listener = alphaListener;
+        if (listener != null) {
+            listener.alphaChanged(a);
+        }
+    }
+    
+    /**
+     * Sets the one listener told about alpha changes, or none if null
+     */
+    public void setAlphaListener(AlphaListener listener) {
+        this.alphaListener = listener;
     }
     
     public float getAlpha() { 
         return alpha; 
     }
     
+    /**
+     * Sets the color the button is painted in, firing a "baseColor" property
+     * change. The background is not painted, so this is the only color
+     * change that re-renders the sprite.
+     */
     public void setBaseColor(Color color) {
+        Color old = baseColor;
+        if (color.equals(old)) {
+            return;
+        }
         this.baseColor = color;
+        sprite.invalidate();
         repaint();
+        firePropertyChange("baseColor", old, color);
+    }
+    
+    public Color getBaseColor() {
+        return baseColor;
     }
     
     public void setBorderRadius(int radius) {
+        if (radius == borderRadius) {
+            return;
+        }
         this.borderRadius = radius;
+        sprite.invalidate();
         repaint();
     }
     
+    public int getBorderRadius() {
+        return borderRadius;
+    }
+    
+    /**
+     * Only the rounded shape is clickable, not the transparent corners
+     */
+    @Override
+    public boolean contains(int x, int y) {
+        return HitTest.roundRectContains(x, y, 0, 0, getWidth(), getHeight(), borderRadius);
+    }
+    
     @Override
     protected void paintComponent(Graphics g) {
-        Graphics2D g2 = (Graphics2D) g.create();
-        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        g2.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-        g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha));
-        
-        int width = getWidth();
-        int height = getHeight();
-        
-        // Create rounded rectangle shape
-        RoundRectangle2D roundRect = new RoundRectangle2D.Float(0, 0, width, height, 
-                                                               borderRadius, borderRadius);
-        
-        // Draw enhanced shadow
-        g2.setColor(new Color(0, 0, 0, 30));
-        g2.fill(new RoundRectangle2D.Float(0, 4, width, height, borderRadius, borderRadius));
-        
-        // Create gradient background
-        GradientPaint gradient = new GradientPaint(0, 0, 
-                                                  Theme.brightenColor(baseColor, 0.15f), 
-                                                  0, height, 
-                                                  Theme.darkenColor(baseColor, 0.1f));
-        g2.setPaint(gradient);
-        g2.fill(roundRect);
-        
-        // Add subtle border highlight
-        g2.setColor(new Color(255, 255, 255, 40));
-        g2.setStroke(new BasicStroke(1.5f));
-        g2.draw(roundRect);
-        
-        // Draw text with better positioning
-        g2.setColor(getForeground());
-        g2.setFont(getFont());
-        FontMetrics fm = g2.getFontMetrics();
-        
-        String text = getText();
-        if (text != null && !text.isEmpty()) {
-            int textWidth = fm.stringWidth(text);
-            int textHeight = fm.getHeight();
-            int x = (width - textWidth) / 2;
-            int y = (height - textHeight) / 2 + fm.getAscent();
-            
-            g2.drawString(text, x, y);
-        }
-        
-        g2.dispose();
+        // The sprite restores everything it changes, so no graphics copy is needed
+        sprite.paint((Graphics2D) g, this, getText(), baseColor, borderRadius, alpha);
+    }
+    
+    @Override
+    public void addTo(DisplayList list, int x, int y) {
+        list.add(sprite.getImage(this, getText(), baseColor, borderRadius), x, y, alpha);
     }
 }
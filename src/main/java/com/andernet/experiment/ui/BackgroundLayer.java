@@ -0,0 +1,243 @@
+package com.andernet.experiment.ui;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+import java.util.Objects;
+import com.andernet.experiment.render.QualityGovernor;
+import com.andernet.experiment.render.RasterBackend;
+import com.andernet.experiment.render.RasterBackends;
+import com.andernet.experiment.render.RenderQuality;
+import com.andernet.experiment.render.ScaledImage;
+
+/**
+ * Cached background made of an optional vertical gradient and a dot texture.
+ *
+ * The layer is rendered once into a {@link ScaledImage} for the current size,
+ * colors and {@link RenderQuality} level and re-rendered only when one of them
+ * changes. Each display scale gets its own variant, so the dots stay sharp on
+ * scaled displays. Each paint copies just the part of the image that
+ * intersects the clip, so small dirty regions stay cheap.
+ *
+ * When a {@link RasterBackend} is active, the variants are rendered row by row
+ * with the backend's kernels instead of Java2D's generic paint pipeline; at 1x
+ * the result matches the Java2D rendering to within rounding.
+ */
+public class BackgroundLayer {
+    // Share of each pixel an antialiased 2x2 dot covers (pi / 4)
+    private static final int DOT_COVERAGE = 201;
+
+    private Color topColor;
+    private Color bottomColor;
+    private final Color dotColor;
+    private final int dotSpacing;
+    private ScaledImage image;
+    private boolean valid = false;
+    private RenderQuality quality;
+    private int width;
+    private int height;
+    // Reused for clip queries so painting does not allocate
+    private final Rectangle clip = new Rectangle();
+    // Row buffers for the raster path
+    private int[] row = new int[0];
+    private int[] dotRow = new int[0];
+
+    /**
+     * @param topColor    gradient start color, or null for a transparent layer
+     * @param bottomColor gradient end color, or null for a transparent layer
+     * @param dotColor    color of the dot texture
+     * @param dotSpacing  distance in pixels between dots
+     */
+    public BackgroundLayer(Color topColor, Color bottomColor, Color dotColor, int dotSpacing) {
+        this.topColor = topColor;
+        this.bottomColor = bottomColor;
+        this.dotColor = dotColor;
+        this.dotSpacing = dotSpacing;
+    }
+
+    /**
+     * Changes the gradient colors; the image is rebuilt on the next paint only
+     * if they actually differ
+     */
+    public void setGradient(Color top, Color bottom) {
+        if (!Objects.equals(top, topColor) || !Objects.equals(bottom, bottomColor)) {
+            this.topColor = top;
+            this.bottomColor = bottom;
+            invalidate();
+        }
+    }
+
+    /**
+     * Forces the next paint to re-render the image
+     */
+    public void invalidate() {
+        valid = false;
+    }
+
+    /**
+     * Paints the part of the layer covered by the graphics clip
+     */
+    public void paint(Graphics g, Component c) {
+        int width = c.getWidth();
+        int height = c.getHeight();
+        ScaledImage current = getScaledImage(c);
+        if (current == null) {
+            return;
+        }
+
+        // Left unchanged by getClipBounds when there is no clip
+        clip.setBounds(0, 0, width, height);
+        g.getClipBounds(clip);
+        int x1 = Math.max(0, clip.x);
+        int y1 = Math.max(0, clip.y);
+        int x2 = Math.min(width, clip.x + clip.width);
+        int y2 = Math.min(height, clip.y + clip.height);
+        if (x1 < x2 && y1 < y2) {
+            current.draw(g, x1, y1, x2, y2, x1, y1, x2, y2);
+        }
+    }
+
+    /**
+     * The layer rendered at 1x for the component's size, or null if it has no
+     * area
+     */
+    public BufferedImage getImage(Component c) {
+        ScaledImage current = getScaledImage(c);
+        return current != null ? current.getBaseVariant() : null;
+    }
+
+    /**
+     * The layer for the component's size at every display scale, or null if
+     * it has no area
+     */
+    public ScaledImage getScaledImage(Component c) {
+        int w = c.getWidth();
+        int h = c.getHeight();
+        if (w <= 0 || h <= 0) {
+            return null;
+        }
+        RenderQuality level = QualityGovernor.currentLevel();
+        if (image == null) {
+            image = new ScaledImage(w, h, this::renderVariant);
+        } else if (!valid || level != quality || w != width || h != height) {
+            image.setSize(w, h);
+            image.invalidate();
+        }
+        width = w;
+        height = h;
+        quality = level;
+        valid = true;
+        return image;
+    }
+
+    private void renderVariant(BufferedImage target, double scale) {
+        RasterBackend backend = RasterBackends.get();
+        if (backend != null && target.getType() == BufferedImage.TYPE_INT_ARGB_PRE) {
+            renderRaster(backend, target, scale, quality);
+        } else {
+            renderJava2D(target, scale, quality);
+        }
+    }
+
+    private void renderJava2D(BufferedImage target, double scale, RenderQuality level) {
+        Graphics2D g2 = target.createGraphics();
+        try {
+            g2.scale(scale, scale);
+            level.applyHints(g2);
+
+            // Gradient background
+            if (topColor != null && bottomColor != null) {
+                if (level.hasGradients()) {
+                    g2.setPaint(new GradientPaint(0, 0, topColor, 0, height, bottomColor));
+                } else {
+                    g2.setColor(topColor);
+                }
+                g2.fillRect(0, 0, width, height);
+            }
+
+            // Subtle dot texture
+            if (!level.isFlat()) {
+                g2.setColor(dotColor);
+                for (int x = 0; x < width; x += dotSpacing) {
+                    for (int y = 0; y < height; y += dotSpacing) {
+                        g2.fillOval(x, y, 2, 2);
+                    }
+                }
+            }
+        } finally {
+            g2.dispose();
+        }
+    }
+
+    /**
+     * Builds each row in an int buffer, blends the dot texture into the rows
+     * that have dots, and stores the row in the image. Writing through the
+     * raster keeps the image eligible for accelerated blits. Above 1x the dots
+     * are squares of the scaled size with the same average coverage.
+     */
+    private void renderRaster(RasterBackend backend, BufferedImage target, double scale, RenderQuality level) {
+        int width = target.getWidth();
+        int height = target.getHeight();
+        double step = dotSpacing * scale;
+        int dotSize = Math.max(1, (int) Math.round(2 * scale));
+        if (row.length < width) {
+            row = new int[width];
+            dotRow = new int[width];
+        }
+        boolean filled = topColor != null && bottomColor != null;
+        int solid = filled ? RasterBackend.premultiply(topColor.getRGB()) : 0;
+        boolean dots = !level.isFlat();
+        if (dots) {
+            int argb = dotColor.getRGB();
+            if (level.isAntialiased()) {
+                argb = (RasterBackend.mul255(argb >>> 24, DOT_COVERAGE) << 24) | (argb & 0xFFFFFF);
+            }
+            int dot = RasterBackend.premultiply(argb);
+            backend.fill(dotRow, 0, width, 0);
+            for (int k = 0; ; k++) {
+                int x = (int) Math.round(k * step);
+                if (x >= width) {
+                    break;
+                }
+                backend.fill(dotRow, x, Math.min(dotSize, width - x), dot);
+            }
+        }
+
+        WritableRaster raster = target.getRaster();
+        // First row of the current row of dots, and index of the next one
+        int dotTop = 0;
+        int nextDots = 1;
+        for (int y = 0; y < height; y++) {
+            if (y >= (int) Math.round(nextDots * step)) {
+                dotTop = (int) Math.round(nextDots * step);
+                nextDots++;
+            }
+            int color = solid;
+            if (filled && level.hasGradients()) {
+                color = gradientAt(y, height);
+            }
+            backend.fill(row, 0, width, color);
+            if (dots && y - dotTop < dotSize) {
+                backend.blend(row, 0, dotRow, 0, width, 255);
+            }
+            raster.setDataElements(0, y, width, 1, row);
+        }
+    }
+
+    /**
+     * Premultiplied color of the vertical gradient at the center of row y,
+     * interpolated like {@link GradientPaint}
+     */
+    private int gradientAt(int y, int height) {
+        float t = (y + 0.5f) / height;
+        int top = topColor.getRGB();
+        int bottom = bottomColor.getRGB();
+        int argb = 0;
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            int from = (top >>> shift) & 0xFF;
+            int to = (bottom >>> shift) & 0xFF;
+            argb |= Math.round(from + (to - from) * t) << shift;
+        }
+        return RasterBackend.premultiply(argb);
+    }
+}
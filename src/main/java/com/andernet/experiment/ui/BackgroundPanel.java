@@ -0,0 +1,34 @@
+package com.andernet.experiment.ui;
+
+import javax.swing.*;
+import java.awt.*;
+import com.andernet.experiment.render.DisplayList;
+import com.andernet.experiment.render.TileSource;
+
+/**
+ * Game content pane with the themed gradient and dot texture background.
+ * The background is served from a {@link BackgroundLayer}.
+ */
+public class BackgroundPanel extends JPanel implements TileSource {
+    private final BackgroundLayer backgroundLayer = new BackgroundLayer(
+        Theme.BACKGROUND_GRADIENT_TOP, Theme.BACKGROUND_GRADIENT_BOTTOM,
+        new Color(255, 255, 255, 10), 60);
+
+    public BackgroundPanel() {
+        super(null);
+    }
+
+    public BackgroundLayer getBackgroundLayer() {
+        return backgroundLayer;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        backgroundLayer.paint(g, this);
+    }
+
+    @Override
+    public void addTo(DisplayList list, int x, int y) {
+        list.add(backgroundLayer.getImage(this), x, y, 1f);
+    }
+}
@@ -0,0 +1,180 @@
+package com.andernet.experiment.ui;
+
+import java.awt.*;
+import java.awt.geom.RoundRectangle2D;
+import java.awt.image.BufferedImage;
+import java.util.Objects;
+import com.andernet.experiment.render.Composites;
+import com.andernet.experiment.render.QualityGovernor;
+import com.andernet.experiment.render.RenderQuality;
+import com.andernet.experiment.render.ScaledImage;
+
+/**
+ * Pre-rendered image of a styled button.
+ *
+ * The shadow, gradient, border and label are rendered once into a
+ * {@link ScaledImage} and re-used until one of the inputs (size, color, corner
+ * radius, text, font, text color or {@link RenderQuality} level) changes.
+ * Painting draws the variant for the display's scale, so the art stays sharp
+ * on scaled displays. Alpha is applied when the image is blitted, so fade
+ * animations never trigger a re-render.
+ */
+public class ButtonSprite {
+    private final ButtonStyle style;
+    private ScaledImage image;
+    private boolean valid = false;
+
+    // Inputs the current image was rendered from
+    private int width;
+    private int height;
+    private int radius;
+    private Color color;
+    private Color foreground;
+    private String text;
+    private Font font;
+    private RenderQuality quality;
+
+    public ButtonSprite(ButtonStyle style) {
+        this.style = style;
+    }
+
+    /**
+     * Forces the next paint to re-render the image
+     */
+    public void invalidate() {
+        valid = false;
+    }
+
+    /**
+     * Draws the sprite for the given component at (0, 0) with the given alpha
+     */
+    public void paint(Graphics2D g2, Component c, String text, Color color, int radius, float alpha) {
+        ScaledImage sprite = getScaledImage(c, c.getWidth(), c.getHeight(), text, color, radius,
+                                      c.getFont(), c.getForeground());
+        if (sprite == null || alpha <= 0f) {
+            return;
+        }
+        if (alpha >= 1f) {
+            sprite.draw(g2, 0, 0);
+        } else {
+            Composite previous = g2.getComposite();
+            g2.setComposite(Composites.srcOver(alpha));
+            sprite.draw(g2, 0, 0);
+            g2.setComposite(previous);
+        }
+    }
+
+    /**
+     * Returns the 1x image, re-rendering it if any input changed. Returns null
+     * when the component has no area yet.
+     */
+    public BufferedImage getImage(Component c, String text, Color color, int radius) {
+        return getImage(c, c.getWidth(), c.getHeight(), text, color, radius, c.getFont(), c.getForeground());
+    }
+
+    /**
+     * Returns the 1x image for explicit inputs, for callers that draw buttons
+     * without a backing component. The component may be null.
+     */
+    public BufferedImage getImage(Component c, int w, int h, String text, Color color, int radius,
+                                  Font f, Color fg) {
+        ScaledImage scaled = getScaledImage(c, w, h, text, color, radius, f, fg);
+        return scaled != null ? scaled.getBaseVariant() : null;
+    }
+
+    /**
+     * Returns the multi-resolution image for explicit inputs; drawing it picks
+     * the variant for the destination's scale. Returns null for an empty size.
+     */
+    public ScaledImage getScaledImage(Component c, int w, int h, String text, Color color, int radius,
+                                      Font f, Color fg) {
+        if (w <= 0 || h <= 0) {
+            return null;
+        }
+        RenderQuality level = QualityGovernor.currentLevel();
+        if (!valid || level != quality || w != width || h != height || radius != this.radius
+                || !Objects.equals(color, this.color) || !Objects.equals(fg, foreground)
+                || !Objects.equals(text, this.text) || !Objects.equals(f, font)) {
+            update(w, h, text, color, radius, f, fg, level);
+        }
+        return image;
+    }
+
+    /**
+     * Records new inputs; variants are re-rendered when next drawn
+     */
+    private void update(int w, int h, String text, Color color, int radius, Font f, Color fg,
+                        RenderQuality level) {
+        if (image == null) {
+            image = new ScaledImage(w, h, this::renderVariant);
+        } else {
+            image.setSize(w, h);
+            image.invalidate();
+        }
+        this.width = w;
+        this.height = h;
+        this.radius = radius;
+        this.color = color;
+        this.foreground = fg;
+        this.text = text;
+        this.font = f;
+        this.quality = level;
+        this.valid = true;
+    }
+
+    private void renderVariant(BufferedImage target, double scale) {
+        Graphics2D g2 = target.createGraphics();
+        try {
+            g2.scale(scale, scale);
+            paintButton(g2, width, height, text, color, radius, font, foreground, quality);
+        } finally {
+            g2.dispose();
+        }
+    }
+
+    private void paintButton(Graphics2D g2, int width, int height, String text, Color color,
+                             int radius, Font f, Color fg, RenderQuality level) {
+        level.applyHints(g2);
+
+        if (level.isFlat()) {
+            if (color != null) {
+                g2.setColor(color);
+                g2.fillRect(0, 0, width, height);
+            }
+        } else {
+            RoundRectangle2D roundRect = new RoundRectangle2D.Float(0, 0, width, height, radius, radius);
+
+            // Shadow
+            if (level.hasShadows()) {
+                g2.setColor(style.getShadowColor());
+                g2.fill(new RoundRectangle2D.Float(0, style.getShadowOffset(), width, height, radius, radius));
+            }
+
+            // Gradient fill
+            if (color != null) {
+                if (level.hasGradients()) {
+                    g2.setPaint(new GradientPaint(0, 0, Theme.brightenColor(color, style.getBrightenFactor()),
+                                                  0, height, Theme.darkenColor(color, style.getDarkenFactor())));
+                } else {
+                    g2.setColor(color);
+                }
+                g2.fill(roundRect);
+            }
+
+            // Border highlight
+            g2.setColor(style.getBorderColor());
+            g2.setStroke(style.getBorderStroke());
+            g2.draw(roundRect);
+        }
+
+        // Centered label
+        if (text != null && !text.isEmpty() && f != null) {
+            g2.setColor(fg);
+            g2.setFont(f);
+            FontMetrics fm = g2.getFontMetrics();
+            int x = (width - fm.stringWidth(text)) / 2;
+            int y = (height - fm.getHeight()) / 2 + fm.getAscent();
+            g2.drawString(text, x, y);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.andernet.experiment.ui;
+
+import java.awt.*;
+
+/**
+ * Immutable description of how a rounded, gradient-filled button is drawn.
+ * Shared by the button components and {@link ButtonSprite}.
+ */
+public final class ButtonStyle {
+
+    // Main game button (AnimatedButton)
+    public static final ButtonStyle MAIN = new ButtonStyle(
+        new Color(0, 0, 0, 30), 4, 0.15f, 0.1f, new Color(255, 255, 255, 40), 1.5f);
+
+    // Obstacle button (FakeButton)
+    public static final ButtonStyle FAKE = new ButtonStyle(
+        new Color(0, 0, 0, 40), 3, 0.1f, 0.1f, new Color(255, 255, 255, 50), 1.5f);
+
+    // General purpose button (ModernButton)
+    public static final ButtonStyle MODERN = new ButtonStyle(
+        new Color(0, 0, 0, 20), 2, 0.1f, 0.1f, new Color(255, 255, 255, 30), 1.0f);
+
+    private final Color shadowColor;
+    private final int shadowOffset;
+    private final float brightenFactor;
+    private final float darkenFactor;
+    private final Color borderColor;
+    private final BasicStroke borderStroke;
+
+    public ButtonStyle(Color shadowColor, int shadowOffset, float brightenFactor, float darkenFactor,
+                       Color borderColor, float borderWidth) {
+        this.shadowColor = shadowColor;
+        this.shadowOffset = shadowOffset;
+        this.brightenFactor = brightenFactor;
+        this.darkenFactor = darkenFactor;
+        this.borderColor = borderColor;
+        this.borderStroke = new BasicStroke(borderWidth);
+    }
+
+    public Color getShadowColor() { return shadowColor; }
+    public int getShadowOffset() { return shadowOffset; }
+    public float getBrightenFactor() { return brightenFactor; }
+    public float getDarkenFactor() { return darkenFactor; }
+    public Color getBorderColor() { return borderColor; }
+    public BasicStroke getBorderStroke() { return borderStroke; }
+}
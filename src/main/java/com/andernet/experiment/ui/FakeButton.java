@@ -2,14 +2,18 @@ package com.andernet.experiment.ui;
 
 import javax.swing.*;
 import java.awt.*;
-import java.awt.geom.RoundRectangle2D;
+import com.andernet.experiment.logic.HitTest;
+import com.andernet.experiment.render.DisplayList;
+import com.andernet.experiment.render.TileSource;
 
 /**
  * Modern fake button with enhanced styling and warning appearance
  */
-public class FakeButton extends JButton {
+public class FakeButton extends JButton implements TileSource {
     private Color baseColor = Theme.FAKE_BUTTON_COLOR;
     private int borderRadius = Theme.BORDER_RADIUS_MD;
+    // Pre-rendered appearance, re-rendered only when size, color or text change
+    private final ButtonSprite sprite = new ButtonSprite(ButtonStyle.FAKE);
     
     public FakeButton(String text) {
         super(text);
@@ -27,51 +31,22 @@ public class FakeButton extends JButton {
         setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
     }
     
+    /**
+     * Only the rounded shape is clickable, not the transparent corners
+     */
+    @Override
+    public boolean contains(int x, int y) {
+        return HitTest.roundRectContains(x, y, 0, 0, getWidth(), getHeight(), borderRadius);
+    }
+    
     @Override
     protected void paintComponent(Graphics g) {
-        Graphics2D g2 = (Graphics2D) g.create();
-        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        g2.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-        
-        int width = getWidth();
-        int height = getHeight();
-        
-        // Create rounded rectangle shape
-        RoundRectangle2D roundRect = new RoundRectangle2D.Float(0, 0, width, height, 
-                                                               borderRadius, borderRadius);
-        
-        // Draw enhanced shadow
-        g2.setColor(new Color(0, 0, 0, 40));
-        g2.fill(new RoundRectangle2D.Float(0, 3, width, height, borderRadius, borderRadius));
-        
-        // Create warning gradient (red to slightly darker red)
-        GradientPaint gradient = new GradientPaint(0, 0, 
-                                                  Theme.brightenColor(baseColor, 0.1f), 
-                                                  0, height, 
-                                                  Theme.darkenColor(baseColor, 0.1f));
-        g2.setPaint(gradient);
-        g2.fill(roundRect);
-        
-        // Add warning border
-        g2.setColor(new Color(255, 255, 255, 50));
-        g2.setStroke(new BasicStroke(1.5f));
-        g2.draw(roundRect);
-        
-        // Draw text
-        g2.setColor(getForeground());
-        g2.setFont(getFont());
-        FontMetrics fm = g2.getFontMetrics();
-        
-        String text = getText();
-        if (text != null && !text.isEmpty()) {
-            int textWidth = fm.stringWidth(text);
-            int textHeight = fm.getHeight();
-            int x = (width - textWidth) / 2;
-            int y = (height - textHeight) / 2 + fm.getAscent();
-            
-            g2.drawString(text, x, y);
-        }
-        
-        g2.dispose();
+        // The sprite restores everything it changes, so no graphics copy is needed
+        sprite.paint((Graphics2D) g, this, getText(), baseColor, borderRadius, 1.0f);
+    }
+    
+    @Override
+    public void addTo(DisplayList list, int x, int y) {
+        list.add(sprite.getImage(this, getText(), baseColor, borderRadius), x, y, 1f);
     }
 }
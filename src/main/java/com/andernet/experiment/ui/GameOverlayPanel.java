@@ -2,40 +2,34 @@ package com.andernet.experiment.ui;
 
 import javax.swing.*;
 import java.awt.*;
+import com.andernet.experiment.render.DisplayList;
+import com.andernet.experiment.render.TileSource;
 import com.andernet.experiment.util.Constants;
 
 /**
  * Modern game overlay panel with enhanced visual styling
  */
-public class GameOverlayPanel extends JPanel {
-    private final JLabel overlayLabel;
+public class GameOverlayPanel extends JPanel implements TileSource {
+    private final RichTextLabel overlayLabel;
     private final ModernButton overlayButton;
     private final ModernButton settingsButton;
-    private final JLabel instructions;
-    private ModernPanel backgroundPanel;
+    private final RichTextLabel instructions;
+    // Cached semi-transparent dimming and dot pattern drawn behind the content
+    private final BackgroundLayer backgroundLayer = new BackgroundLayer(
+        new Color(0, 0, 0, 120), new Color(0, 0, 0, 80), new Color(255, 255, 255, 20), 40);
     
     public GameOverlayPanel(int width, int height) {
         setLayout(new BorderLayout());
         setOpaque(false);
         setBounds(0, 0, width, height);
         
-        // Create semi-transparent background
-        backgroundPanel = new ModernPanel();
-        backgroundPanel.setGradient(
-            new Color(0, 0, 0, 120), 
-            new Color(0, 0, 0, 80)
-        );
-        backgroundPanel.setBorderRadius(0);
-        backgroundPanel.setShadow(false);
-        backgroundPanel.setSize(width, height);
-        
         // Create main content panel
         JPanel contentPanel = new JPanel();
         contentPanel.setLayout(new BoxLayout(contentPanel, BoxLayout.Y_AXIS));
         contentPanel.setOpaque(false);
         
         // Title label with modern styling
-        overlayLabel = new JLabel(Constants.APP_TITLE, SwingConstants.CENTER);
+        overlayLabel = new RichTextLabel(Constants.APP_TITLE);
         overlayLabel.setFont(Theme.TITLE_LARGE_FONT);
         overlayLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
         overlayLabel.setForeground(Color.WHITE);
@@ -48,7 +42,7 @@ public class GameOverlayPanel extends JPanel {
         settingsButton.setFocusable(false);
         
         // Instructions with modern styling
-        instructions = new JLabel(Constants.INSTRUCTIONS, SwingConstants.CENTER);
+        instructions = new RichTextLabel(Constants.INSTRUCTIONS);
         instructions.setFont(Theme.BODY_LARGE_FONT);
         instructions.setAlignmentX(Component.CENTER_ALIGNMENT);
         instructions.setForeground(new Color(255, 255, 255, 180));
@@ -65,7 +59,6 @@ public class GameOverlayPanel extends JPanel {
         contentPanel.add(Box.createVerticalGlue());
         
         // Add everything to the panel
-        add(backgroundPanel, BorderLayout.CENTER);
         add(contentPanel, BorderLayout.CENTER);
     }
     
@@ -77,7 +70,10 @@ public class GameOverlayPanel extends JPanel {
         return settingsButton;
     }
     
-    public JLabel getOverlayLabel() {
+    /**
+     * The message label; its text is {@link RichText} markup
+     */
+    public RichTextLabel getOverlayLabel() {
         return overlayLabel;
     }
     
@@ -85,18 +81,12 @@ public class GameOverlayPanel extends JPanel {
     protected void paintComponent(Graphics g) {
         super.paintComponent(g);
         
-        // Add subtle pattern overlay for visual interest
-        Graphics2D g2 = (Graphics2D) g.create();
-        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        
-        // Create a subtle dot pattern
-        g2.setColor(new Color(255, 255, 255, 20));
-        for (int x = 0; x < getWidth(); x += 40) {
-            for (int y = 0; y < getHeight(); y += 40) {
-                g2.fillOval(x, y, 2, 2);
-            }
-        }
-        
-        g2.dispose();
+        // Dim the game behind the overlay and add a subtle pattern
+        backgroundLayer.paint(g, this);
+    }
+    
+    @Override
+    public void addTo(DisplayList list, int x, int y) {
+        list.add(backgroundLayer.getImage(this), x, y, 1f);
     }
 }
@@ -0,0 +1,179 @@
+package com.andernet.experiment.ui;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import com.andernet.experiment.render.DisplayList;
+import com.andernet.experiment.render.RenderQuality;
+import com.andernet.experiment.render.ScaledImage;
+
+/**
+ * Pre-rendered text for a numeric readout such as "Score: 42".
+ *
+ * The fixed prefix and the glyphs '0'-'9' and '-' are rendered once, side by
+ * side, into a single {@link ScaledImage}, at the resolution of each display
+ * scale it is drawn at. Drawing a value then copies the prefix and one
+ * cell per digit out of that image, so no strings are built and no text is
+ * laid out per update. Not thread-safe; use from the EDT.
+ */
+public class GlyphAtlas {
+    private static final String GLYPHS = "0123456789-";
+    private static final int MINUS = 10;
+    // Room for every digit of Integer.MIN_VALUE
+    private static final int MAX_DIGITS = 10;
+    // Keeps neighbouring glyphs from bleeding into each other when scaled
+    private static final int CELL_GAP = 1;
+
+    private final String prefix;
+    private final Font font;
+    private final Color color;
+    private final RenderQuality quality;
+    private final ScaledImage image;
+    private final int ascent;
+    private final int prefixWidth;
+    private final int[] glyphX = new int[GLYPHS.length()];
+    private final int[] glyphWidth = new int[GLYPHS.length()];
+    private final int height;
+    private final int[] digits = new int[MAX_DIGITS];
+
+    /**
+     * @param c component used for font metrics, may be null
+     */
+    public GlyphAtlas(Component c, String prefix, Font font, Color color, RenderQuality quality) {
+        this.prefix = prefix;
+        this.font = font;
+        this.color = color;
+        this.quality = quality;
+
+        FontMetrics fm = c != null ? c.getFontMetrics(font) : metricsFor(font);
+        this.height = Math.max(1, fm.getHeight());
+        this.prefixWidth = fm.stringWidth(prefix);
+        int x = prefixWidth + CELL_GAP;
+        for (int i = 0; i < GLYPHS.length(); i++) {
+            glyphX[i] = x;
+            glyphWidth[i] = fm.charWidth(GLYPHS.charAt(i));
+            x += glyphWidth[i] + CELL_GAP;
+        }
+
+        this.ascent = fm.getAscent();
+        image = new ScaledImage(Math.max(1, x), height, this::renderVariant);
+    }
+
+    private void renderVariant(BufferedImage target, double scale) {
+        Graphics2D g2 = target.createGraphics();
+        try {
+            g2.scale(scale, scale);
+            g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, quality.isAntialiased()
+                ? RenderingHints.VALUE_TEXT_ANTIALIAS_ON : RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
+            g2.setFont(font);
+            g2.setColor(color);
+            g2.drawString(prefix, 0, ascent);
+            for (int i = 0; i < GLYPHS.length(); i++) {
+                g2.drawString(GLYPHS.substring(i, i + 1), glyphX[i], ascent);
+            }
+        } finally {
+            g2.dispose();
+        }
+    }
+
+    /**
+     * Whether this atlas was rendered for the given inputs
+     */
+    public boolean matches(String prefix, Font font, Color color, RenderQuality quality) {
+        return this.quality == quality && this.prefix.equals(prefix)
+            && this.font.equals(font) && this.color.equals(color);
+    }
+
+    public int getHeight() {
+        return height;
+    }
+
+    /**
+     * Width of the prefix followed by the value
+     */
+    public int measure(int value) {
+        int count = toDigits(value);
+        int width = prefixWidth;
+        if (value < 0) {
+            width += glyphWidth[MINUS];
+        }
+        for (int i = 0; i < count; i++) {
+            width += glyphWidth[digits[i]];
+        }
+        return width;
+    }
+
+    /**
+     * Draws the prefix and value with the top-left corner at (x, y)
+     */
+    public void draw(Graphics g, int value, int x, int y) {
+        if (prefixWidth > 0) {
+            image.draw(g, x, y, x + prefixWidth, y + height, 0, 0, prefixWidth, height);
+            x += prefixWidth;
+        }
+        int count = toDigits(value);
+        if (value < 0) {
+            x = drawGlyph(g, MINUS, x, y);
+        }
+        for (int i = 0; i < count; i++) {
+            x = drawGlyph(g, digits[i], x, y);
+        }
+    }
+
+    /**
+     * Adds the blits that {@link #draw} would make to a display list
+     */
+    public void addTo(DisplayList list, int value, int x, int y, float alpha) {
+        BufferedImage base = image.getBaseVariant();
+        if (prefixWidth > 0) {
+            list.add(base, 0, 0, prefixWidth, height, x, y, alpha);
+            x += prefixWidth;
+        }
+        int count = toDigits(value);
+        if (value < 0) {
+            list.add(base, glyphX[MINUS], 0, glyphWidth[MINUS], height, x, y, alpha);
+            x += glyphWidth[MINUS];
+        }
+        for (int i = 0; i < count; i++) {
+            int glyph = digits[i];
+            list.add(base, glyphX[glyph], 0, glyphWidth[glyph], height, x, y, alpha);
+            x += glyphWidth[glyph];
+        }
+    }
+
+    private int drawGlyph(Graphics g, int glyph, int x, int y) {
+        int sx = glyphX[glyph];
+        int w = glyphWidth[glyph];
+        image.draw(g, x, y, x + w, y + height, sx, 0, sx + w, height);
+        return x + w;
+    }
+
+    /**
+     * Fills {@link #digits} with the decimal digits of |value|, most
+     * significant first, and returns how many there are
+     */
+    private int toDigits(int value) {
+        // Work with the negative magnitude so Integer.MIN_VALUE cannot overflow
+        int n = value < 0 ? value : -value;
+        int count = 0;
+        do {
+            digits[count++] = -(n % 10);
+            n /= 10;
+        } while (n != 0);
+        for (int i = 0, j = count - 1; i < j; i++, j--) {
+            int t = digits[i];
+            digits[i] = digits[j];
+            digits[j] = t;
+        }
+        return count;
+    }
+
+    private static FontMetrics metricsFor(Font font) {
+        BufferedImage scratch = new BufferedImage(1, 1, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2 = scratch.createGraphics();
+        try {
+            return g2.getFontMetrics(font);
+        } finally {
+            g2.dispose();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.andernet.experiment.ui;
+
+import javax.swing.*;
+import java.awt.*;
+import com.andernet.experiment.render.QualityGovernor;
+import com.andernet.experiment.render.RenderQuality;
+
+/**
+ * Numeric HUD readout ("Score: 42") drawn from a {@link GlyphAtlas}.
+ *
+ * {@link #setValue} only stores the number and repaints the label's own
+ * bounds: unlike {@link JLabel#setText} it builds no string and does not
+ * invalidate the layout. Repaints go through the installed RepaintManager, so
+ * several updates in one frame cost a single paint. The label text is only
+ * composed when someone asks for it through {@link #getText()}.
+ */
+public class HudLabel extends JLabel {
+    private String prefix;
+    private int value;
+    private String composedText;
+    private GlyphAtlas atlas;
+
+    public HudLabel(String prefix, int value) {
+        super("", SwingConstants.CENTER);
+        this.prefix = prefix;
+        this.value = value;
+    }
+
+    public String getPrefix() {
+        return prefix;
+    }
+
+    public int getValue() {
+        return value;
+    }
+
+    /**
+     * Shows a new value; does nothing if it is unchanged
+     */
+    public void setValue(int value) {
+        if (value == this.value) {
+            return;
+        }
+        int old = this.value;
+        this.value = value;
+        composedText = null;
+        repaint();
+        firePropertyChange("value", old, value);
+    }
+
+    @Override
+    public String getText() {
+        if (prefix == null) {
+            // Still inside the JLabel constructor
+            return super.getText();
+        }
+        if (composedText == null) {
+            composedText = prefix + value;
+        }
+        return composedText;
+    }
+
+    /**
+     * Accepts "prefix + number" for callers that still use the JLabel API;
+     * any other text replaces the prefix and clears the number
+     */
+    @Override
+    public void setText(String text) {
+        if (prefix == null) {
+            super.setText(text);
+            return;
+        }
+        if (text != null && text.startsWith(prefix)) {
+            try {
+                setValue(Integer.parseInt(text.substring(prefix.length()).trim()));
+                return;
+            } catch (NumberFormatException e) {
+                // Not a readout; fall through to a plain prefix change
+            }
+        }
+        prefix = text == null ? "" : text;
+        value = 0;
+        composedText = null;
+        atlas = null;
+        revalidate();
+        repaint();
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        if (isPreferredSizeSet() || getFont() == null) {
+            return super.getPreferredSize();
+        }
+        GlyphAtlas current = getAtlas();
+        Insets insets = getInsets();
+        return new Dimension(current.measure(value) + insets.left + insets.right,
+                             current.getHeight() + insets.top + insets.bottom);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        if (getFont() == null) {
+            return;
+        }
+        GlyphAtlas current = getAtlas();
+        int x = (getWidth() - current.measure(value)) / 2;
+        int y = (getHeight() - current.getHeight()) / 2;
+        current.draw(g, value, x, y);
+    }
+
+    private GlyphAtlas getAtlas() {
+        RenderQuality quality = QualityGovernor.currentLevel();
+        Font font = getFont();
+        Color color = getForeground();
+        if (atlas == null || !atlas.matches(prefix, font, color, quality)) {
+            atlas = new GlyphAtlas(this, prefix, font, color, quality);
+        }
+        return atlas;
+    }
+}
@@ -4,13 +4,32 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.awt.geom.RoundRectangle2D;
+import com.andernet.experiment.render.DisplayList;
+import com.andernet.experiment.render.TileSource;
+import com.andernet.experiment.util.Easing;
+import com.andernet.experiment.util.TweenEngine;
 
 /**
  * Modern button component with gradient backgrounds, smooth animations,
  * and enhanced visual effects.
  */
-public class ModernButton extends JButton {
+public class ModernButton extends JButton implements TileSource {
+    // Time for a full change between the base and hover look
+    private static final int HOVER_MS = 110;
+    
+    private static final TweenEngine.Property<ModernButton> HOVER_PROGRESS = new TweenEngine.Property<>() {
+        @Override
+        public float get(ModernButton button) {
+            return button.animationProgress;
+        }
+        
+        @Override
+        public void set(ModernButton button, float value) {
+            button.animationProgress = value;
+            button.repaint();
+        }
+    };
+    
     private float alpha = 1.0f;
     private boolean isHovered = false;
     private boolean isPressed = false;
@@ -18,8 +37,11 @@ public class ModernButton extends JButton {
     private Color hoverColor;
     private Color pressedColor;
     private int borderRadius;
-    private Timer animationTimer;
     private float animationProgress = 0.0f;
+    // Pre-rendered appearance for each visual state
+    private final ButtonSprite baseSprite = new ButtonSprite(ButtonStyle.MODERN);
+    private final ButtonSprite hoverSprite = new ButtonSprite(ButtonStyle.MODERN);
+    private final ButtonSprite pressedSprite = new ButtonSprite(ButtonStyle.MODERN);
     
     public ModernButton(String text, Color baseColor) {
         super(text);
@@ -79,25 +101,10 @@ public class ModernButton extends JButton {
     }
     
     private void animateToState(boolean toHover) {
-        if (animationTimer != null && animationTimer.isRunning()) {
-            animationTimer.stop();
-        }
-        
-        animationTimer = new Timer(16, e -> {
-            if (toHover) {
-                animationProgress = Math.min(1.0f, animationProgress + 0.15f);
-            } else {
-                animationProgress = Math.max(0.0f, animationProgress - 0.15f);
-            }
-            
-            repaint();
-            
-            if ((toHover && animationProgress >= 1.0f) || (!toHover && animationProgress <= 0.0f)) {
-                animationTimer.stop();
-            }
-        });
-        
-        animationTimer.start();
+        float target = toHover ? 1.0f : 0.0f;
+        // Reversing half way takes half as long
+        long duration = (long) (HOVER_MS * Math.abs(target - animationProgress));
+        TweenEngine.getUi().animate(this, HOVER_PROGRESS, target, duration, Easing.EASE_OUT, null);
     }
     
     public void setAlpha(float alpha) {
@@ -116,73 +123,37 @@ public class ModernButton extends JButton {
     
     @Override
     protected void paintComponent(Graphics g) {
-        Graphics2D g2 = (Graphics2D) g.create();
-        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        g2.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-        g2.setComposite(AlphaComposite.getInstance(AlphaComposite.SRC_OVER, alpha));
-        
-        int width = getWidth();
-        int height = getHeight();
-        
-        // Create rounded rectangle shape
-        RoundRectangle2D roundRect = new RoundRectangle2D.Float(0, 0, width, height, 
-                                                               borderRadius, borderRadius);
-        RoundRectangle2D shadowRect = new RoundRectangle2D.Float(0, 2, width, height, 
-                                                                borderRadius, borderRadius);
-        
-        // Draw shadow
-        g2.setColor(new Color(0, 0, 0, 20));
-        g2.fill(shadowRect);
+        // Sprites restore everything they change, so no graphics copy is needed
+        Graphics2D g2 = (Graphics2D) g;
+        String text = getText();
         
-        // Calculate button color based on state
-        Color buttonColor = baseColor;
         if (isPressed) {
-            buttonColor = pressedColor;
-        } else if (animationProgress > 0) {
-            buttonColor = interpolateColor(baseColor, hoverColor, animationProgress);
-        }
-        
-        // Create gradient
-        GradientPaint gradient = new GradientPaint(0, 0, 
-                                                  Theme.brightenColor(buttonColor, 0.1f), 
-                                                  0, height, 
-                                                  Theme.darkenColor(buttonColor, 0.1f));
-        g2.setPaint(gradient);
-        g2.fill(roundRect);
-        
-        // Add subtle border
-        g2.setColor(new Color(255, 255, 255, 30));
-        g2.setStroke(new BasicStroke(1.0f));
-        g2.draw(roundRect);
-        
-        // Draw text
-        g2.setColor(getForeground());
-        g2.setFont(getFont());
-        FontMetrics fm = g2.getFontMetrics();
-        
-        String text = getText();
-        if (text != null) {
-            int textWidth = fm.stringWidth(text);
-            int textHeight = fm.getHeight();
-            int x = (width - textWidth) / 2;
-            int y = (height - textHeight) / 2 + fm.getAscent();
-            
-            g2.drawString(text, x, y);
+            pressedSprite.paint(g2, this, text, pressedColor, borderRadius, alpha);
+        } else {
+            // Blend the hover sprite over the base sprite instead of
+            // re-rendering an interpolated color on every animation step
+            if (animationProgress < 1.0f) {
+                baseSprite.paint(g2, this, text, baseColor, borderRadius, alpha);
+            }
+            if (animationProgress > 0) {
+                hoverSprite.paint(g2, this, text, hoverColor, borderRadius, alpha * animationProgress);
+            }
         }
-        
-        g2.dispose();
     }
     
-    private Color interpolateColor(Color color1, Color color2, float factor) {
-        if (factor <= 0) return color1;
-        if (factor >= 1) return color2;
-        
-        int r = (int) (color1.getRed() + factor * (color2.getRed() - color1.getRed()));
-        int g = (int) (color1.getGreen() + factor * (color2.getGreen() - color1.getGreen()));
-        int b = (int) (color1.getBlue() + factor * (color2.getBlue() - color1.getBlue()));
-        int a = (int) (color1.getAlpha() + factor * (color2.getAlpha() - color1.getAlpha()));
-        
-        return new Color(r, g, b, a);
+    @Override
+    public void addTo(DisplayList list, int x, int y) {
+        String text = getText();
+        if (isPressed) {
+            list.add(pressedSprite.getImage(this, text, pressedColor, borderRadius), x, y, alpha);
+        } else {
+            if (animationProgress < 1.0f) {
+                list.add(baseSprite.getImage(this, text, baseColor, borderRadius), x, y, alpha);
+            }
+            if (animationProgress > 0) {
+                list.add(hoverSprite.getImage(this, text, hoverColor, borderRadius), x, y, alpha * animationProgress);
+            }
+        }
     }
     
     @Override
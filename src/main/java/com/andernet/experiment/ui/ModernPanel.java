@@ -3,17 +3,33 @@ package com.andernet.experiment.ui;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.geom.RoundRectangle2D;
+import java.awt.image.BufferedImage;
+import com.andernet.experiment.render.DisplayList;
+import com.andernet.experiment.render.QualityGovernor;
+import com.andernet.experiment.render.RenderQuality;
+import com.andernet.experiment.render.ScaledImage;
+import com.andernet.experiment.render.TileSource;
 
 /**
  * Modern panel component with rounded corners, subtle shadows, and gradient backgrounds.
+ * The background is rendered once per display scale and blitted on every paint.
  */
-public class ModernPanel extends JPanel {
+public class ModernPanel extends JPanel implements TileSource {
+    private static final Color BORDER_COLOR = new Color(255, 255, 255, 50);
+    private static final BasicStroke BORDER_STROKE = new BasicStroke(1.0f);
+
     private boolean hasGradient = false;
     private Color gradientColor1;
     private Color gradientColor2;
     private int borderRadius = Theme.BORDER_RADIUS_MD;
     private boolean hasShadow = true;
     private Color backgroundColor = Theme.SURFACE_PRIMARY;
+    // Pre-rendered background, rebuilt when the size, look or quality changes
+    private ScaledImage image;
+    private boolean valid = false;
+    private RenderQuality quality;
+    private int imageWidth;
+    private int imageHeight;
     
     public ModernPanel() {
         super();
@@ -29,63 +45,113 @@ public class ModernPanel extends JPanel {
         this.gradientColor1 = color1;
         this.gradientColor2 = color2;
         this.hasGradient = true;
+        valid = false;
         repaint();
     }
     
     public void setBackgroundColor(Color color) {
         this.backgroundColor = color;
         this.hasGradient = false;
+        valid = false;
         repaint();
     }
     
     public void setBorderRadius(int radius) {
         this.borderRadius = radius;
+        valid = false;
         repaint();
     }
     
     public void setShadow(boolean shadow) {
         this.hasShadow = shadow;
+        valid = false;
         repaint();
     }
     
     @Override
     protected void paintComponent(Graphics g) {
-        Graphics2D g2 = (Graphics2D) g.create();
-        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        g2.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
-        
+        ScaledImage current = getImage();
+        if (current != null) {
+            current.draw(g, 0, 0);
+        }
+        // The UI delegate only fills opaque panels, and calling it copies the
+        // Graphics on every paint once the JIT has seen several UI classes
+        if (isOpaque()) {
+            super.paintComponent(g);
+        }
+    }
+    
+    @Override
+    public void addTo(DisplayList list, int x, int y) {
+        ScaledImage current = getImage();
+        if (current != null) {
+            list.add(current.getBaseVariant(), x, y, 1f);
+        }
+    }
+    
+    /**
+     * The background at the current size, or null if the panel has no area
+     */
+    private ScaledImage getImage() {
         int width = getWidth();
         int height = getHeight();
-        
-        // Create rounded rectangle shape
-        RoundRectangle2D roundRect = new RoundRectangle2D.Float(0, 0, width, height, 
-                                                               borderRadius, borderRadius);
-        
-        // Draw shadow
-        if (hasShadow) {
-            RoundRectangle2D shadowRect = new RoundRectangle2D.Float(0, 2, width, height, 
-                                                                    borderRadius, borderRadius);
-            g2.setColor(Theme.SHADOW_COLOR);
-            g2.fill(shadowRect);
+        if (width <= 0 || height <= 0) {
+            return null;
         }
-        
-        // Fill background
-        if (hasGradient && gradientColor1 != null && gradientColor2 != null) {
-            GradientPaint gradient = new GradientPaint(0, 0, gradientColor1, 
-                                                      0, height, gradientColor2);
-            g2.setPaint(gradient);
-        } else {
-            g2.setColor(backgroundColor);
+        RenderQuality level = QualityGovernor.currentLevel();
+        if (image == null) {
+            image = new ScaledImage(width, height, this::renderVariant);
+        } else if (!valid || level != quality || width != imageWidth || height != imageHeight) {
+            image.setSize(width, height);
+            image.invalidate();
+        }
+        imageWidth = width;
+        imageHeight = height;
+        quality = level;
+        valid = true;
+        return image;
+    }
+    
+    private void renderVariant(BufferedImage target, double scale) {
+        int width = imageWidth;
+        int height = imageHeight;
+        RenderQuality level = quality;
+        Graphics2D g2 = target.createGraphics();
+        try {
+            g2.scale(scale, scale);
+            level.applyHints(g2);
+            
+            // Create rounded rectangle shape
+            RoundRectangle2D roundRect = new RoundRectangle2D.Float(0, 0, width, height, 
+                                                                   borderRadius, borderRadius);
+            
+            // Draw shadow
+            if (hasShadow && level.hasShadows()) {
+                RoundRectangle2D shadowRect = new RoundRectangle2D.Float(0, 2, width, height, 
+                                                                        borderRadius, borderRadius);
+                g2.setColor(Theme.SHADOW_COLOR);
+                g2.fill(shadowRect);
+            }
+            
+            // Fill background
+            if (hasGradient && gradientColor1 != null && gradientColor2 != null && level.hasGradients()) {
+                GradientPaint gradient = new GradientPaint(0, 0, gradientColor1, 
+                                                          0, height, gradientColor2);
+                g2.setPaint(gradient);
+            } else if (hasGradient && gradientColor1 != null) {
+                g2.setColor(gradientColor1);
+            } else {
+                g2.setColor(backgroundColor);
+            }
+            
+            g2.fill(roundRect);
+            
+            // Add subtle border
+            g2.setColor(BORDER_COLOR);
+            g2.setStroke(BORDER_STROKE);
+            g2.draw(roundRect);
+        } finally {
+            g2.dispose();
         }
-        
-        g2.fill(roundRect);
-        
-        // Add subtle border
-        g2.setColor(new Color(255, 255, 255, 50));
-        g2.setStroke(new BasicStroke(1.0f));
-        g2.draw(roundRect);
-        
-        g2.dispose();
-        super.paintComponent(g);
     }
 }
@@ -0,0 +1,130 @@
+package com.andernet.experiment.ui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntConsumer;
+import com.andernet.experiment.logic.ObstacleField;
+import com.andernet.experiment.render.DisplayList;
+import com.andernet.experiment.render.ScaledImage;
+import com.andernet.experiment.render.TileSource;
+
+/**
+ * Draws every obstacle of an {@link ObstacleField} in a single pass and
+ * hit-tests clicks against the entities itself, so thousands of obstacles cost
+ * one component instead of one JButton each.
+ */
+public class ObstacleLayer extends JComponent implements TileSource {
+    // Distinct (size, color) sprites kept at once
+    private static final int MAX_SPRITES = 32;
+
+    private final ObstacleField field;
+    private final String text;
+    private final Map<Long, CachedSprite> sprites = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, CachedSprite> eldest) {
+            return size() > MAX_SPRITES;
+        }
+    };
+    // Most obstacles share one sprite; remembering it skips the boxed map lookup
+    private long lastKey;
+    private CachedSprite lastSprite;
+    private IntConsumer clickListener;
+    private int pressedIndex = -1;
+    // Reused for clip queries so painting does not allocate
+    private final Rectangle clip = new Rectangle();
+
+    private record CachedSprite(ButtonSprite sprite, Color color) {}
+
+    public ObstacleLayer(ObstacleField field, String text) {
+        this.field = field;
+        this.text = text;
+        setOpaque(false);
+        setFont(Theme.BODY_LARGE_FONT);
+        setForeground(Theme.TEXT_ON_ACCENT);
+        setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                pressedIndex = isEnabled() ? field.hitTest(e.getX(), e.getY()) : -1;
+            }
+
+            @Override
+            public void mouseReleased(MouseEvent e) {
+                // Behave like a button: press and release on the same obstacle
+                int index = field.hitTest(e.getX(), e.getY());
+                if (index >= 0 && index == pressedIndex && isEnabled() && clickListener != null) {
+                    clickListener.accept(index);
+                }
+                pressedIndex = -1;
+            }
+        });
+    }
+
+    /**
+     * Sets the callback invoked with the obstacle index when one is clicked
+     */
+    public void setClickListener(IntConsumer listener) {
+        this.clickListener = listener;
+    }
+
+    /**
+     * Only points over an obstacle belong to the layer, so clicks and the
+     * cursor pass through to whatever lies underneath elsewhere
+     */
+    @Override
+    public boolean contains(int x, int y) {
+        return field.hitTest(x, y) >= 0;
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        // Left unchanged by getClipBounds when there is no clip
+        clip.setBounds(0, 0, getWidth(), getHeight());
+        g.getClipBounds(clip);
+        int count = field.size();
+        for (int i = 0; i < count; i++) {
+            int x = field.getX(i);
+            int y = field.getY(i);
+            int w = field.getWidth(i);
+            int h = field.getHeight(i);
+            if (x >= clip.x + clip.width || y >= clip.y + clip.height
+                    || x + w <= clip.x || y + h <= clip.y) {
+                continue;
+            }
+            ScaledImage sprite = getSprite(w, h, field.getColor(i));
+            if (sprite != null) {
+                sprite.draw(g, x, y);
+            }
+        }
+    }
+
+    @Override
+    public void addTo(DisplayList list, int x, int y) {
+        int count = field.size();
+        for (int i = 0; i < count; i++) {
+            int w = field.getWidth(i);
+            int h = field.getHeight(i);
+            ScaledImage sprite = getSprite(w, h, field.getColor(i));
+            if (sprite != null) {
+                list.add(sprite.getBaseVariant(), 0, 0, w, h, x + field.getX(i), y + field.getY(i), 1f);
+            }
+        }
+    }
+
+    private ScaledImage getSprite(int w, int h, int argb) {
+        long key = ((long) (w & 0xFFFF) << 48) | ((long) (h & 0xFFFF) << 32) | (argb & 0xFFFFFFFFL);
+        CachedSprite cached = lastSprite != null && key == lastKey ? lastSprite : sprites.get(key);
+        if (cached == null) {
+            cached = new CachedSprite(new ButtonSprite(ButtonStyle.FAKE), new Color(argb, true));
+            sprites.put(key, cached);
+        }
+        lastKey = key;
+        lastSprite = cached;
+        return cached.sprite().getScaledImage(this, w, h, text, cached.color(), Theme.BORDER_RADIUS_MD,
+                                        getFont(), getForeground());
+    }
+}
@@ -0,0 +1,198 @@
+package com.andernet.experiment.ui;
+
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * The colors the game paints with and every shade derived from them,
+ * computed once into int ARGB tables when the class loads.
+ *
+ * Each palette color owns a block of slots holding its brightness moved
+ * from -1 to +1 in steps of 1/{@link #STEPS}, the way
+ * {@link Theme#brightenColor} and {@link Theme#darkenColor} compute it,
+ * with the color itself in the middle. Code that keeps a slot index gets
+ * shades, hover and pressed variants and {@link Color#darker()} or
+ * {@link Color#brighter()} by index arithmetic and array lookups; the Color
+ * objects for all slots are created up front too. Colors that are not in the
+ * palette go through {@link com.andernet.experiment.util.ColorCache}.
+ *
+ * The tables are never written after loading, so they can be read from any
+ * thread.
+ */
+public final class Palette {
+    // Brightness steps per unit, either way from the color itself
+    public static final int STEPS = 20;
+
+    private static final int SHADES = 2 * STEPS + 1;
+
+    private static final int[] ARGB;
+    private static final Color[] COLORS;
+    // Per palette color: slot of its Color.darker() or brighter(), or -1
+    private static final int[] DARKER;
+    private static final int[] BRIGHTER;
+    // Slots of the random button colors, in UIUtils.MODERN_COLORS order
+    private static final int[] BUTTON_COLORS;
+
+    // Open addressing from ARGB value to the slot of the color itself
+    private static final int[] LOOKUP_KEYS;
+    private static final int[] LOOKUP_SLOTS;
+    private static final int LOOKUP_MASK;
+
+    static {
+        List<Color> base = new ArrayList<>(List.of(
+            Theme.PRIMARY_BLUE, Theme.PRIMARY_BLUE_DARK, Theme.PRIMARY_BLUE_LIGHT,
+            Theme.SECONDARY_PURPLE, Theme.SECONDARY_PINK,
+            Theme.ACCENT_GREEN, Theme.ACCENT_ORANGE, Theme.ACCENT_RED,
+            Theme.NEUTRAL_100, Theme.NEUTRAL_200, Theme.NEUTRAL_300, Theme.NEUTRAL_400, Theme.NEUTRAL_500,
+            Theme.NEUTRAL_600, Theme.NEUTRAL_700, Theme.NEUTRAL_800, Theme.NEUTRAL_900,
+            Theme.MAIN_BUTTON_PRESSED, Theme.FAKE_BUTTON_HOVER,
+            Theme.BACKGROUND_GRADIENT_TOP, Theme.BACKGROUND_GRADIENT_BOTTOM));
+        base.addAll(Arrays.asList(UIUtils.MODERN_COLORS));
+        // Buttons are given the darker variant of a random color, and
+        // highlighted with the brighter variant of their color
+        List<Integer> colors = new ArrayList<>();
+        for (Color c : base) {
+            addDistinct(colors, c.getRGB());
+        }
+        int baseCount = colors.size();
+        for (int e = 0; e < baseCount; e++) {
+            Color c = new Color(colors.get(e), true);
+            addDistinct(colors, c.darker().getRGB());
+            addDistinct(colors, c.brighter().getRGB());
+        }
+
+        int count = colors.size();
+        ARGB = new int[count * SHADES];
+        COLORS = new Color[count * SHADES];
+        for (int e = 0; e < count; e++) {
+            int argb = colors.get(e);
+            for (int s = 0; s < SHADES; s++) {
+                int slot = e * SHADES + s;
+                ARGB[slot] = s == STEPS ? argb : shade(argb, (s - STEPS) / (float) STEPS);
+                COLORS[slot] = new Color(ARGB[slot], true);
+            }
+        }
+
+        int size = Integer.highestOneBit(count * 2 - 1) << 1;
+        LOOKUP_KEYS = new int[size];
+        LOOKUP_SLOTS = new int[size];
+        LOOKUP_MASK = size - 1;
+        Arrays.fill(LOOKUP_SLOTS, -1);
+        for (int e = 0; e < count; e++) {
+            int argb = colors.get(e);
+            int i = hash(argb) & LOOKUP_MASK;
+            while (LOOKUP_SLOTS[i] >= 0) {
+                i = (i + 1) & LOOKUP_MASK;
+            }
+            LOOKUP_KEYS[i] = argb;
+            LOOKUP_SLOTS[i] = e * SHADES + STEPS;
+        }
+
+        DARKER = new int[count];
+        BRIGHTER = new int[count];
+        for (int e = 0; e < count; e++) {
+            Color c = new Color(colors.get(e), true);
+            DARKER[e] = indexOf(c.darker().getRGB());
+            BRIGHTER[e] = indexOf(c.brighter().getRGB());
+        }
+
+        BUTTON_COLORS = new int[UIUtils.MODERN_COLORS.length];
+        for (int i = 0; i < BUTTON_COLORS.length; i++) {
+            BUTTON_COLORS[i] = indexOf(UIUtils.MODERN_COLORS[i].darker().getRGB());
+        }
+    }
+
+    private Palette() {}
+
+    private static void addDistinct(List<Integer> colors, int argb) {
+        if (!colors.contains(argb)) {
+            colors.add(argb);
+        }
+    }
+
+    private static int hash(int argb) {
+        int h = argb * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * An opaque color with its HSB brightness moved by delta and clamped,
+     * as {@link Theme#brightenColor} has always computed it
+     */
+    public static int shade(int argb, float delta) {
+        float[] hsb = Color.RGBtoHSB((argb >> 16) & 0xFF, (argb >> 8) & 0xFF, argb & 0xFF, null);
+        hsb[2] = Math.max(0f, Math.min(1f, hsb[2] + delta));
+        return 0xFF000000 | Color.HSBtoRGB(hsb[0], hsb[1], hsb[2]);
+    }
+
+    /**
+     * The slot of a color in the palette, or -1 if it is not there
+     */
+    public static int indexOf(int argb) {
+        int i = hash(argb) & LOOKUP_MASK;
+        while (LOOKUP_SLOTS[i] >= 0) {
+            if (LOOKUP_KEYS[i] == argb) {
+                return LOOKUP_SLOTS[i];
+            }
+            i = (i + 1) & LOOKUP_MASK;
+        }
+        return -1;
+    }
+
+    public static int indexOf(Color color) {
+        return indexOf(color.getRGB());
+    }
+
+    public static int argb(int slot) {
+        return ARGB[slot];
+    }
+
+    public static Color color(int slot) {
+        return COLORS[slot];
+    }
+
+    /**
+     * The slot of a color moved by a number of brightness steps; stops at
+     * full brightness and at black
+     */
+    public static int shade(int slot, int steps) {
+        int block = slot / SHADES * SHADES;
+        int s = Math.max(0, Math.min(SHADES - 1, slot - block + steps));
+        return block + s;
+    }
+
+    /**
+     * The slot of the {@link Color#darker()} variant of a slot's color, or -1
+     * if it is not in the palette
+     */
+    public static int darker(int slot) {
+        return slot % SHADES == STEPS ? DARKER[slot / SHADES] : -1;
+    }
+
+    /**
+     * The slot of the {@link Color#brighter()} variant of a slot's color, or
+     * -1 if it is not in the palette
+     */
+    public static int brighter(int slot) {
+        return slot % SHADES == STEPS ? BRIGHTER[slot / SHADES] : -1;
+    }
+
+    /**
+     * A random button color: the darker variant of one of
+     * {@link UIUtils#MODERN_COLORS}, drawn the same way as
+     * {@link UIUtils#getRandomModernColor}
+     */
+    public static int randomButtonColor(Random random) {
+        return BUTTON_COLORS[random.nextInt(BUTTON_COLORS.length)];
+    }
+
+    /**
+     * Slots in use, for diagnostics
+     */
+    public static int size() {
+        return ARGB.length;
+    }
+}
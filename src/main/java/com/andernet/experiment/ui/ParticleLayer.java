@@ -0,0 +1,318 @@
+package com.andernet.experiment.ui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Random;
+import com.andernet.experiment.logic.ParticleSystem;
+import com.andernet.experiment.render.Composites;
+import com.andernet.experiment.render.DisplayList;
+import com.andernet.experiment.render.QualityGovernor;
+import com.andernet.experiment.render.RenderQuality;
+import com.andernet.experiment.render.TileSource;
+import com.andernet.experiment.util.GameScheduler;
+
+/**
+ * Draws every particle of a {@link ParticleSystem} in a single pass on top of
+ * the playfield.
+ *
+ * One layer sits in each window's layered pane, above the content and below
+ * popups, and is added once. Effects only add particles to the system, so no
+ * components are added or removed per effect. A single task on the game
+ * scheduler advances all particles while any are alive and repaints just the
+ * area they cover, and freezes them while the game is paused. The layer never
+ * takes mouse input.
+ */
+public class ParticleLayer extends JComponent implements TileSource {
+    private static final String CLIENT_PROPERTY = "ctb.particleLayer";
+    private static final int CAPACITY = 4096;
+    private static final int TICK_MS = 16;
+    // Longest step simulated at once, so a stalled EDT does not teleport particles
+    private static final float MAX_STEP_SECONDS = 0.1f;
+    private static final int SPARK_SIZE = 6;
+    // Distinct spark colors kept as images at once
+    private static final int MAX_SPARK_COLORS = 16;
+
+    private final ParticleSystem particles = new ParticleSystem(CAPACITY);
+    private final Random random = new Random();
+    private GameScheduler.Handle ticker;
+    private long lastTick;
+    // Area covered by the particles at the last tick, in layer coordinates
+    private final Rectangle covered = new Rectangle();
+    // Reused for clip queries so painting does not allocate
+    private final Rectangle clip = new Rectangle();
+
+    private GlyphAtlas gainAtlas;
+    private GlyphAtlas lossAtlas;
+    private final int[] sparkColors = new int[MAX_SPARK_COLORS];
+    private final BufferedImage[] sparkImages = new BufferedImage[MAX_SPARK_COLORS];
+    private int sparkCount = 0;
+    private RenderQuality sparkQuality;
+
+    public ParticleLayer() {
+        setOpaque(false);
+        setFont(Theme.FLOATING_SCORE_FONT);
+    }
+
+    /**
+     * Returns the particle layer of the window containing c, adding one on
+     * first use, or null if c is not in a window yet
+     */
+    public static ParticleLayer forComponent(Component c) {
+        JRootPane root = c != null ? SwingUtilities.getRootPane(c) : null;
+        return root != null ? install(root) : null;
+    }
+
+    /**
+     * Adds a particle layer to the root pane's layered pane, or returns the
+     * one already there
+     */
+    public static ParticleLayer install(JRootPane root) {
+        Object existing = root.getClientProperty(CLIENT_PROPERTY);
+        if (existing instanceof ParticleLayer) {
+            return (ParticleLayer) existing;
+        }
+        JLayeredPane layeredPane = root.getLayeredPane();
+        ParticleLayer layer = new ParticleLayer();
+        layer.setName("particleLayer");
+        layer.setBounds(0, 0, layeredPane.getWidth(), layeredPane.getHeight());
+        layeredPane.add(layer, JLayeredPane.PALETTE_LAYER);
+        layeredPane.addComponentListener(new java.awt.event.ComponentAdapter() {
+            @Override
+            public void componentResized(java.awt.event.ComponentEvent e) {
+                layer.setSize(layeredPane.getSize());
+            }
+        });
+        root.putClientProperty(CLIENT_PROPERTY, layer);
+        return layer;
+    }
+
+    public ParticleSystem getParticles() {
+        return particles;
+    }
+
+    /**
+     * Floats a score up from (x, y) in source coordinates
+     */
+    public void spawnScore(Component source, int value, int x, int y) {
+        Point p = SwingUtilities.convertPoint(source, x, y, this);
+        int color = value > 0 ? Color.GREEN.getRGB() : Color.RED.getRGB();
+        if (particles.spawnScore(p.x, p.y, value, color)) {
+            start();
+        }
+    }
+
+    /**
+     * Throws sparks out of (x, y) in source coordinates
+     */
+    public void spawnBurst(Component source, int x, int y, int sparks, float speed, Color color) {
+        Point p = SwingUtilities.convertPoint(source, x, y, this);
+        if (particles.spawnBurst(p.x, p.y, sparks, speed, color.getRGB(), random) > 0) {
+            start();
+        }
+    }
+
+    /**
+     * Particles never capture clicks or the cursor
+     */
+    @Override
+    public boolean contains(int x, int y) {
+        return false;
+    }
+
+    @Override
+    public void removeNotify() {
+        stop();
+        particles.clear();
+        covered.setBounds(0, 0, 0, 0);
+        super.removeNotify();
+    }
+
+    private void start() {
+        if (ticker == null) {
+            lastTick = System.nanoTime();
+            GameScheduler scheduler = GameScheduler.getShared();
+            ticker = scheduler.scheduleAtFixedRate(scheduler.getGameGroup(), TICK_MS, TICK_MS, this::tick);
+        }
+        // Show new particles right away rather than on the next tick
+        repaintCovered();
+    }
+
+    private void tick() {
+        long now = System.nanoTime();
+        float dt = Math.min(MAX_STEP_SECONDS, (now - lastTick) / 1_000_000_000f);
+        lastTick = now;
+        particles.update(dt);
+        repaintCovered();
+        if (particles.size() == 0) {
+            stop();
+        }
+    }
+
+    private void stop() {
+        if (ticker != null) {
+            ticker.cancel();
+            ticker = null;
+        }
+    }
+
+    /**
+     * Repaints where the particles were and where they are now
+     */
+    private void repaintCovered() {
+        int oldX = covered.x;
+        int oldY = covered.y;
+        int oldW = covered.width;
+        int oldH = covered.height;
+        computeCovered();
+        if (oldW > 0 && oldH > 0) {
+            repaint(oldX, oldY, oldW, oldH);
+        }
+        if (!covered.isEmpty()) {
+            repaint(covered.x, covered.y, covered.width, covered.height);
+        }
+    }
+
+    private void computeCovered() {
+        int count = particles.size();
+        if (count == 0 || getFont() == null) {
+            covered.setBounds(0, 0, 0, 0);
+            return;
+        }
+        int minX = Integer.MAX_VALUE;
+        int minY = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE;
+        int maxY = Integer.MIN_VALUE;
+        for (int i = 0; i < count; i++) {
+            int x = particleX(i);
+            int y = (int) particles.getY(i);
+            int w;
+            int h;
+            if (particles.getKind(i) == ParticleSystem.SCORE) {
+                GlyphAtlas atlas = scoreAtlas(particles.getValue(i));
+                w = atlas.measure(particles.getValue(i));
+                h = atlas.getHeight();
+            } else {
+                w = SPARK_SIZE;
+                h = SPARK_SIZE;
+            }
+            minX = Math.min(minX, x);
+            minY = Math.min(minY, y);
+            maxX = Math.max(maxX, x + w);
+            maxY = Math.max(maxY, y + h);
+        }
+        // One pixel of slack for rounding
+        covered.setBounds(minX - 1, minY - 1, maxX - minX + 2, maxY - minY + 2);
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        int count = particles.size();
+        if (count == 0 || getFont() == null) {
+            return;
+        }
+        // Left unchanged by getClipBounds when there is no clip
+        clip.setBounds(0, 0, getWidth(), getHeight());
+        g.getClipBounds(clip);
+
+        Graphics2D g2 = (Graphics2D) g;
+        Composite saved = g2.getComposite();
+        for (int i = 0; i < count; i++) {
+            int x = particleX(i);
+            int y = (int) particles.getY(i);
+            if (x >= clip.x + clip.width || y >= clip.y + clip.height) {
+                continue;
+            }
+            g2.setComposite(Composites.srcOver(particles.getAlpha(i)));
+            if (particles.getKind(i) == ParticleSystem.SCORE) {
+                int value = particles.getValue(i);
+                scoreAtlas(value).draw(g2, value, x, y);
+            } else {
+                g2.drawImage(sparkImage(particles.getColor(i)), x, y, null);
+            }
+        }
+        g2.setComposite(saved);
+    }
+
+    @Override
+    public void addTo(DisplayList list, int x, int y) {
+        int count = particles.size();
+        if (getFont() == null) {
+            return;
+        }
+        for (int i = 0; i < count; i++) {
+            int px = x + particleX(i);
+            int py = y + (int) particles.getY(i);
+            float alpha = particles.getAlpha(i);
+            if (particles.getKind(i) == ParticleSystem.SCORE) {
+                int value = particles.getValue(i);
+                scoreAtlas(value).addTo(list, value, px, py, alpha);
+            } else {
+                list.add(sparkImage(particles.getColor(i)), px, py, alpha);
+            }
+        }
+    }
+
+    /**
+     * Left edge of particle i; scores are centered on their position
+     */
+    private int particleX(int i) {
+        int x = (int) particles.getX(i);
+        if (particles.getKind(i) == ParticleSystem.SCORE) {
+            int value = particles.getValue(i);
+            return x - scoreAtlas(value).measure(value) / 2;
+        }
+        return x - SPARK_SIZE / 2;
+    }
+
+    private GlyphAtlas scoreAtlas(int value) {
+        RenderQuality quality = QualityGovernor.currentLevel();
+        Font font = getFont();
+        if (value > 0) {
+            if (gainAtlas == null || !gainAtlas.matches("+", font, Color.GREEN, quality)) {
+                gainAtlas = new GlyphAtlas(this, "+", font, Color.GREEN, quality);
+            }
+            return gainAtlas;
+        }
+        if (lossAtlas == null || !lossAtlas.matches("", font, Color.RED, quality)) {
+            lossAtlas = new GlyphAtlas(this, "", font, Color.RED, quality);
+        }
+        return lossAtlas;
+    }
+
+    private BufferedImage sparkImage(int argb) {
+        RenderQuality quality = QualityGovernor.currentLevel();
+        if (quality != sparkQuality) {
+            sparkCount = 0;
+            sparkQuality = quality;
+        }
+        for (int i = 0; i < sparkCount; i++) {
+            if (sparkColors[i] == argb) {
+                return sparkImages[i];
+            }
+        }
+        // Replace the oldest color once the cache is full
+        int slot = sparkCount < MAX_SPARK_COLORS ? sparkCount++ : 0;
+        if (slot == 0 && sparkCount == MAX_SPARK_COLORS) {
+            System.arraycopy(sparkColors, 1, sparkColors, 0, MAX_SPARK_COLORS - 1);
+            System.arraycopy(sparkImages, 1, sparkImages, 0, MAX_SPARK_COLORS - 1);
+            slot = MAX_SPARK_COLORS - 1;
+        }
+        BufferedImage image = UIUtils.createCompatibleImage(this, SPARK_SIZE, SPARK_SIZE);
+        Graphics2D g2 = image.createGraphics();
+        try {
+            quality.applyHints(g2);
+            g2.setColor(new Color(argb, true));
+            if (quality.isFlat()) {
+                g2.fillRect(0, 0, SPARK_SIZE, SPARK_SIZE);
+            } else {
+                g2.fillOval(0, 0, SPARK_SIZE, SPARK_SIZE);
+            }
+        } finally {
+            g2.dispose();
+        }
+        sparkColors[slot] = argb;
+        sparkImages[slot] = image;
+        return image;
+    }
+}
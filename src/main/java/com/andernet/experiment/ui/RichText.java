@@ -0,0 +1,226 @@
+package com.andernet.experiment.ui;
+
+import java.awt.*;
+import java.awt.font.FontRenderContext;
+import java.awt.font.LineMetrics;
+import java.awt.font.TextAttribute;
+import java.awt.font.TextLayout;
+import java.text.AttributedString;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Centered multi-line text with bold and size runs, laid out with
+ * {@link TextLayout} instead of Swing's HTML renderer.
+ *
+ * The markup is plain text in which a newline breaks the line, {@code {b}}
+ * and {@code {/b}} switch bold on and off, {@code {size N}} and
+ * {@code {/size}} switch to N points and back to the base size, and a
+ * doubled opening brace stands for a single one. Anything else in braces is
+ * kept as text. For sessions recorded before the overlay used this markup,
+ * text starting with {@code <html>} has its line breaks and bold tags
+ * converted and any other tags dropped.
+ */
+public final class RichText {
+    // Metrics independent of any screen, so layouts can be shared
+    private static final FontRenderContext FRC = new FontRenderContext(null, true, true);
+
+    private record Run(String text, boolean bold, float size) {}
+
+    private final String markup;
+    private final List<List<Run>> lines;
+
+    private RichText(String markup, List<List<Run>> lines) {
+        this.markup = markup;
+        this.lines = lines;
+    }
+
+    public static RichText parse(String markup) {
+        String source = markup.regionMatches(true, 0, "<html>", 0, 6) ? fromHtml(markup) : markup;
+        List<List<Run>> lines = new ArrayList<>();
+        List<Run> line = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        boolean bold = false;
+        float size = 0;
+        int i = 0;
+        while (i < source.length()) {
+            char c = source.charAt(i);
+            if (c == '\n') {
+                flush(line, text, bold, size);
+                lines.add(line);
+                line = new ArrayList<>();
+                i++;
+                continue;
+            }
+            if (c == '{' && source.startsWith("{", i + 1)) {
+                text.append('{');
+                i += 2;
+                continue;
+            }
+            int end = c == '{' ? source.indexOf('}', i) : -1;
+            if (end < 0) {
+                text.append(c);
+                i++;
+                continue;
+            }
+            String tag = source.substring(i + 1, end);
+            boolean newBold = bold;
+            float newSize = size;
+            if (tag.equals("b")) {
+                newBold = true;
+            } else if (tag.equals("/b")) {
+                newBold = false;
+            } else if (tag.equals("/size")) {
+                newSize = 0;
+            } else if (tag.startsWith("size ") && parseSize(tag) > 0) {
+                newSize = parseSize(tag);
+            } else {
+                text.append(source, i, end + 1);
+            }
+            if (newBold != bold || newSize != size) {
+                flush(line, text, bold, size);
+                bold = newBold;
+                size = newSize;
+            }
+            i = end + 1;
+        }
+        flush(line, text, bold, size);
+        lines.add(line);
+        return new RichText(markup, lines);
+    }
+
+    private static float parseSize(String tag) {
+        try {
+            return Float.parseFloat(tag.substring(5).trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static void flush(List<Run> line, StringBuilder text, boolean bold, float size) {
+        if (text.length() > 0) {
+            line.add(new Run(text.toString(), bold, size));
+            text.setLength(0);
+        }
+    }
+
+    private static String fromHtml(String html) {
+        String text = html.replaceAll("(?i)<br\\s*/?>", "\n")
+                          .replaceAll("(?i)<b>", "{b}")
+                          .replaceAll("(?i)</b>", "{/b}")
+                          .replaceAll("<[^>]*>", "");
+        return text.replace("&lt;", "<").replace("&gt;", ">").replace("&amp;", "&");
+    }
+
+    public String getMarkup() {
+        return markup;
+    }
+
+    /**
+     * The text without markup, lines separated by newlines
+     */
+    public String getPlainText() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < lines.size(); i++) {
+            if (i > 0) {
+                sb.append('\n');
+            }
+            for (Run run : lines.get(i)) {
+                sb.append(run.text());
+            }
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Lays the text out in a base font; runs without a size use its size
+     */
+    public Layout layout(Font base) {
+        int count = lines.size();
+        TextLayout[] layouts = new TextLayout[count];
+        float[] offsets = new float[count];
+        float[] baselines = new float[count];
+        float width = 0;
+        float y = 0;
+        LineMetrics empty = base.getLineMetrics(" ", FRC);
+        for (int i = 0; i < count; i++) {
+            List<Run> line = lines.get(i);
+            if (line.isEmpty()) {
+                y += empty.getAscent() + empty.getDescent() + empty.getLeading();
+                continue;
+            }
+            TextLayout layout = new TextLayout(attributed(line, base).getIterator(), FRC);
+            layouts[i] = layout;
+            baselines[i] = y + layout.getAscent();
+            y += layout.getAscent() + layout.getDescent() + layout.getLeading();
+            width = Math.max(width, layout.getAdvance());
+        }
+        for (int i = 0; i < count; i++) {
+            if (layouts[i] != null) {
+                offsets[i] = (width - layouts[i].getAdvance()) / 2;
+            }
+        }
+        return new Layout(layouts, offsets, baselines, (int) Math.ceil(width), (int) Math.ceil(y));
+    }
+
+    private static AttributedString attributed(List<Run> line, Font base) {
+        StringBuilder sb = new StringBuilder();
+        for (Run run : line) {
+            sb.append(run.text());
+        }
+        AttributedString text = new AttributedString(sb.toString());
+        int start = 0;
+        for (Run run : line) {
+            int end = start + run.text().length();
+            Font font = base;
+            if (run.bold()) {
+                font = font.deriveFont(font.getStyle() | Font.BOLD);
+            }
+            if (run.size() > 0) {
+                font = font.deriveFont(run.size());
+            }
+            text.addAttribute(TextAttribute.FONT, font, start, end);
+            start = end;
+        }
+        return text;
+    }
+
+    /**
+     * Text laid out once, ready to be drawn any number of times
+     */
+    public static final class Layout {
+        private final TextLayout[] lines;
+        private final float[] offsets;
+        private final float[] baselines;
+        private final int width;
+        private final int height;
+
+        private Layout(TextLayout[] lines, float[] offsets, float[] baselines, int width, int height) {
+            this.lines = lines;
+            this.offsets = offsets;
+            this.baselines = baselines;
+            this.width = width;
+            this.height = height;
+        }
+
+        public int getWidth() {
+            return width;
+        }
+
+        public int getHeight() {
+            return height;
+        }
+
+        /**
+         * Draws every line centered within the layout's width, with the
+         * top-left corner at (x, y), in the graphics' color
+         */
+        public void draw(Graphics2D g, float x, float y) {
+            for (int i = 0; i < lines.length; i++) {
+                if (lines[i] != null) {
+                    lines[i].draw(g, x + offsets[i], y + baselines[i]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package com.andernet.experiment.ui;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import com.andernet.experiment.render.DisplayList;
+import com.andernet.experiment.render.QualityGovernor;
+import com.andernet.experiment.render.RenderQuality;
+import com.andernet.experiment.render.ScaledImage;
+import com.andernet.experiment.render.TileSource;
+
+/**
+ * Label for overlay messages, whose text is {@link RichText} markup rather
+ * than HTML.
+ *
+ * Setting HTML on a JLabel runs Swing's HTML parser and builds a view tree
+ * every time. Here each message is parsed and laid out once, and rendered
+ * once per display scale into a {@link ScaledImage}; both are kept in a
+ * cache shared by all labels painted on the same thread, so a message shown
+ * again, such as a countdown step in the next game, costs a single blit.
+ * The text stays readable through {@link #getText()} as the markup, and text
+ * changes fire the usual "text" property change. Use from the EDT.
+ */
+public class RichTextLabel extends JLabel implements TileSource {
+    // Distinct (message, font, color) combinations kept at once
+    private static final int MAX_MESSAGES = 32;
+    // Room around the layout for antialiasing and glyph overhang
+    private static final int PAD = 2;
+
+    // Per painting thread, since scaled images belong to the thread that
+    // paints them; in the game that is the EDT
+    private static final ThreadLocal<Map<Key, Message>> MESSAGES = ThreadLocal.withInitial(() ->
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Message> eldest) {
+                if (size() > MAX_MESSAGES) {
+                    eldest.getValue().image.releaseAll();
+                    return true;
+                }
+                return false;
+            }
+        });
+
+    private record Key(String markup, Font font, Color color) {}
+
+    /**
+     * A laid out message and its rendered image
+     */
+    private static final class Message {
+        private final RichText.Layout layout;
+        private final Color color;
+        private final ScaledImage image;
+        private RenderQuality quality;
+
+        Message(RichText.Layout layout, Color color) {
+            this.layout = layout;
+            this.color = color;
+            this.image = new ScaledImage(layout.getWidth() + 2 * PAD, layout.getHeight() + 2 * PAD, this::render);
+        }
+
+        ScaledImage getImage() {
+            RenderQuality level = QualityGovernor.currentLevel();
+            if (level != quality) {
+                quality = level;
+                image.invalidate();
+            }
+            return image;
+        }
+
+        private void render(BufferedImage target, double scale) {
+            Graphics2D g2 = target.createGraphics();
+            try {
+                g2.scale(scale, scale);
+                quality.applyHints(g2);
+                g2.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, quality.isAntialiased()
+                    ? RenderingHints.VALUE_TEXT_ANTIALIAS_ON : RenderingHints.VALUE_TEXT_ANTIALIAS_OFF);
+                g2.setColor(color);
+                layout.draw(g2, PAD, PAD);
+            } finally {
+                g2.dispose();
+            }
+        }
+    }
+
+    // Message for the current text, font and color; skips the cache lookup on repaints
+    private Message current;
+    private String currentText;
+    private Font currentFont;
+    private Color currentColor;
+
+    public RichTextLabel(String markup) {
+        super(markup, SwingConstants.CENTER);
+    }
+
+    /**
+     * Parses and lays out a message ahead of time, e.g. before the moment
+     * it has to appear without a hitch
+     */
+    public void prepare(String markup) {
+        messageFor(markup);
+    }
+
+    /**
+     * Messages cached for the calling thread
+     */
+    static int getCachedCount() {
+        return MESSAGES.get().size();
+    }
+
+    private Message message() {
+        String text = getText();
+        if (text == null || text.isEmpty()) {
+            return null;
+        }
+        Message m = current;
+        if (m == null || !isCurrent(text)) {
+            m = messageFor(text);
+            current = m;
+            currentText = text;
+            currentFont = getFont();
+            currentColor = getForeground();
+        }
+        return m;
+    }
+
+    private boolean isCurrent(String text) {
+        return text == currentText && getFont() == currentFont && getForeground() == currentColor;
+    }
+
+    private Message messageFor(String markup) {
+        Key key = new Key(markup, getFont(), getForeground());
+        Map<Key, Message> messages = MESSAGES.get();
+        Message m = messages.get(key);
+        if (m == null) {
+            m = new Message(RichText.parse(markup).layout(getFont()), getForeground());
+            messages.put(key, m);
+        }
+        return m;
+    }
+
+    @Override
+    public Dimension getPreferredSize() {
+        if (isPreferredSizeSet()) {
+            return super.getPreferredSize();
+        }
+        Message m = message();
+        Insets insets = getInsets();
+        int width = insets.left + insets.right;
+        int height = insets.top + insets.bottom;
+        if (m != null) {
+            width += m.layout.getWidth();
+            height += m.layout.getHeight();
+        }
+        return new Dimension(width, height);
+    }
+
+    @Override
+    public Dimension getMinimumSize() {
+        return isMinimumSizeSet() ? super.getMinimumSize() : getPreferredSize();
+    }
+
+    @Override
+    public Dimension getMaximumSize() {
+        return isMaximumSizeSet() ? super.getMaximumSize() : getPreferredSize();
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        Message m = message();
+        if (m != null) {
+            m.getImage().draw(g, originX(m), originY(m));
+        }
+    }
+
+    @Override
+    public void addTo(DisplayList list, int x, int y) {
+        Message m = message();
+        if (m != null) {
+            list.add(m.getImage().getBaseVariant(), x + originX(m), y + originY(m), 1f);
+        }
+    }
+
+    private int originX(Message m) {
+        return (getWidth() - m.layout.getWidth()) / 2 - PAD;
+    }
+
+    private int originY(Message m) {
+        return (getHeight() - m.layout.getHeight()) / 2 - PAD;
+    }
+}
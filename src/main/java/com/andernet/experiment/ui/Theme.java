@@ -2,6 +2,7 @@ package com.andernet.experiment.ui;
 
 import java.awt.*;
 import java.util.Arrays;
+import com.andernet.experiment.util.ColorCache;
 
 /**
  * Modern theme with contemporary colors, gradients, and typography.
@@ -95,6 +96,7 @@ public class Theme {
     public static final Font BUTTON_FONT = BODY_LARGE_FONT;
     public static final Font OVERLAY_TITLE_FONT = TITLE_LARGE_FONT;
     public static final Font OVERLAY_BUTTON_FONT = TITLE_SMALL_FONT;
+    public static final Font FLOATING_SCORE_FONT = getModernFont(Font.BOLD, 20);
     
     // ========== MODERN SPACING & DIMENSIONS ==========
     
@@ -139,16 +141,22 @@ public class Theme {
         return new GradientPaint(0, 0, lighter, 0, component.getHeight(), darker);
     }
     
-    // Color utility methods
+    // Color utility methods; palette colors moved by whole palette steps
+    // are table lookups, anything else is computed once and cached
     public static Color brightenColor(Color color, float factor) {
-        float[] hsb = Color.RGBtoHSB(color.getRed(), color.getGreen(), color.getBlue(), null);
-        hsb[2] = Math.min(1.0f, hsb[2] + factor);
-        return Color.getHSBColor(hsb[0], hsb[1], hsb[2]);
+        return shadeColor(color, factor);
     }
     
     public static Color darkenColor(Color color, float factor) {
-        float[] hsb = Color.RGBtoHSB(color.getRed(), color.getGreen(), color.getBlue(), null);
-        hsb[2] = Math.max(0.0f, hsb[2] - factor);
-        return Color.getHSBColor(hsb[0], hsb[1], hsb[2]);
+        return shadeColor(color, -factor);
+    }
+    
+    private static Color shadeColor(Color color, float delta) {
+        int slot = Palette.indexOf(color);
+        int steps = Math.round(delta * Palette.STEPS);
+        if (slot >= 0 && steps / (float) Palette.STEPS == delta) {
+            return Palette.color(Palette.shade(slot, steps));
+        }
+        return ColorCache.getShadedColor(color, delta);
     }
 }
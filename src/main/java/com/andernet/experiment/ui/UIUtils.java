@@ -1,6 +1,7 @@
 package com.andernet.experiment.ui;
 
 import java.awt.*;
+import java.awt.image.BufferedImage;
 import javax.swing.*;
 import java.util.Random;
 
@@ -65,6 +66,26 @@ public class UIUtils {
         return panel;
     }
     
+    /**
+     * Creates an info panel around a {@link HudLabel} readout
+     */
+    public static ModernPanel createHudPanel(String prefix, int value, int x, int y, int width, int height, Font font) {
+        ModernPanel panel = new ModernPanel();
+        panel.setBounds(x, y, width, height);
+        panel.setBackgroundColor(Theme.SURFACE_ELEVATED);
+        panel.setBorderRadius(Theme.BORDER_RADIUS_MD);
+        panel.setShadow(true);
+        
+        HudLabel label = new HudLabel(prefix, value);
+        label.setFont(font);
+        label.setForeground(Theme.TEXT_PRIMARY);
+        
+        panel.setLayout(new BorderLayout());
+        panel.add(label, BorderLayout.CENTER);
+        
+        return panel;
+    }
+    
     // Legacy method for backward compatibility
     public static JLabel createLabel(String text, int x, int y, int width, int height, Font font) {
         return createModernLabel(text, x, y, width, height, font);
@@ -188,4 +209,20 @@ public class UIUtils {
         int y = (int) (height * yRatio);
         component.setLocation(x, y);
     }
+    
+    /**
+     * Creates a translucent image compatible with the component's screen so that
+     * Java2D can keep it in accelerated memory. Falls back to a plain ARGB image
+     * when no screen is available (headless or not yet displayable).
+     */
+    public static BufferedImage createCompatibleImage(Component component, int width, int height) {
+        GraphicsConfiguration gc = component != null ? component.getGraphicsConfiguration() : null;
+        if (gc == null && !GraphicsEnvironment.isHeadless()) {
+            gc = GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+        }
+        if (gc != null) {
+            return gc.createCompatibleImage(width, height, Transparency.TRANSLUCENT);
+        }
+        return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB_PRE);
+    }
 }
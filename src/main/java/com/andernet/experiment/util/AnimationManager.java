@@ -1,73 +1,99 @@
 package com.andernet.experiment.util;
 
-import javax.swing.*;
+import javax.swing.JButton;
+import javax.swing.JLabel;
 import java.awt.*;
+import java.util.Random;
 import com.andernet.experiment.ui.AnimatedButton;
+import com.andernet.experiment.ui.ParticleLayer;
+import com.andernet.experiment.ui.RichTextLabel;
+import com.andernet.experiment.ui.Theme;
 import com.andernet.experiment.logic.GameConstants;
 
 /**
- * AnimationManager handles all animation logic for the game
+ * AnimationManager handles all animation logic for the game. Animations run
+ * on the game {@link TweenEngine}, so they are timed by the clock rather than
+ * by tick counts and stop while the game is paused.
  */
 public class AnimationManager {
+    // Combo bursts cycle through these
+    private static final Color[] COMBO_COLORS = {
+        Theme.PRIMARY_BLUE_LIGHT, Theme.ACCENT_GREEN, Theme.ACCENT_ORANGE, Theme.SECONDARY_PINK
+    };
+    // Each half of a fade-and-move
+    private static final int FADE_MS = 500;
+    // Where buttons move to, unless the caller brings its own generator
+    private static final Random MOVE_RANDOM = new Random();
+    // RichText markup for the overlay label
+    private static final String[] COUNTDOWN_TEXTS = {"3", "2", "1", "GO!"};
+    
+    private static final TweenEngine.Property<AnimatedButton> ALPHA = new TweenEngine.Property<>() {
+        @Override
+        public float get(AnimatedButton button) {
+            return button.getAlpha();
+        }
+        
+        @Override
+        public void set(AnimatedButton button, float value) {
+            button.setAlpha(value);
+        }
+    };
+    
+    // Position in the countdown; the whole part picks the text shown
+    private static final TweenEngine.Property<JLabel> COUNTDOWN_STEP = new TweenEngine.Property<>() {
+        @Override
+        public float get(JLabel label) {
+            return 0;
+        }
+        
+        @Override
+        public void set(JLabel label, float value) {
+            String text = COUNTDOWN_TEXTS[Math.min(COUNTDOWN_TEXTS.length - 1, (int) value)];
+            if (!text.equals(label.getText())) {
+                label.setText(text);
+            }
+        }
+    };
     
     /**
-     * Animates a button with fade out, move, then fade in effect
+     * Animates a button with fade out, move, then fade in effect. A button
+     * already fading keeps its current move, so overlapping calls neither
+     * flicker nor move it twice.
      */
     public static void fadeAndMoveButton(AnimatedButton button, Runnable onComplete) {
-        // Fade out
-        Timer fadeOut = new Timer(50, null);
-        fadeOut.addActionListener(e -> {
-            float alpha = button.getAlpha() - 0.1f;
-            if (alpha <= 0) {
-                alpha = 0;
-                button.setAlpha(alpha);
-                fadeOut.stop();
-                
-                // Move button to new position
-                moveButtonToRandomLocation(button);
-                
-                // Fade in
-                fadeInButton(button, onComplete);
-            } else {
-                button.setAlpha(alpha);
-            }
-        });
-        fadeOut.start();
+        fadeAndMoveButton(button, TweenEngine.getGame(), MOVE_RANDOM, onComplete);
     }
     
     /**
-     * Fades a button in from transparent to opaque
+     * Like {@link #fadeAndMoveButton(AnimatedButton, Runnable)}, on the given
+     * engine and picking the spot from the given generator. The spot is drawn
+     * even when the call is ignored, so the generator's sequence does not
+     * depend on how the fades happened to overlap.
      */
-    private static void fadeInButton(AnimatedButton button, Runnable onComplete) {
-        Timer fadeIn = new Timer(50, null);
-        fadeIn.addActionListener(e -> {
-            float alpha = button.getAlpha() + 0.1f;
-            if (alpha >= 1.0f) {
-                alpha = 1.0f;
-                button.setAlpha(alpha);
-                fadeIn.stop();
-                if (onComplete != null) {
-                    onComplete.run();
-                }
-            } else {
-                button.setAlpha(alpha);
-            }
-        });
-        fadeIn.start();
+    public static void fadeAndMoveButton(AnimatedButton button, TweenEngine tweens, Random random,
+                                         Runnable onComplete) {
+        double fx = random.nextDouble();
+        double fy = random.nextDouble();
+        if (tweens.isAnimating(button, ALPHA)) {
+            return;
+        }
+        tweens.animate(button, ALPHA, 0f, FADE_MS, Easing.EASE_IN, () -> moveButton(button, fx, fy));
+        tweens.chain(button, ALPHA, 1f, FADE_MS, Easing.EASE_OUT, onComplete);
     }
     
     /**
-     * Moves button to a random location within its parent container
+     * Moves button to a spot within its parent container, given as fractions
+     * of the free space
      */
-    private static void moveButtonToRandomLocation(AnimatedButton button) {
+    private static void moveButton(AnimatedButton button, double fx, double fy) {
         Container parent = button.getParent();
         if (parent != null) {
             int maxX = parent.getWidth() - button.getWidth();
             int maxY = parent.getHeight() - button.getHeight() - GameConstants.FAKE_BUTTON_MARGIN_BOTTOM;
             
             if (maxX > 0 && maxY > GameConstants.FAKE_BUTTON_MARGIN_TOP) {
-                int x = (int) (Math.random() * maxX);
-                int y = (int) (Math.random() * (maxY - GameConstants.FAKE_BUTTON_MARGIN_TOP)) + GameConstants.FAKE_BUTTON_MARGIN_TOP;
+                int x = (int) (fx * maxX);
+                int y = (int) (fy * (maxY - GameConstants.FAKE_BUTTON_MARGIN_TOP)) + GameConstants.FAKE_BUTTON_MARGIN_TOP;
                 button.setLocation(x, y);
             }
         }
@@ -77,92 +103,72 @@ public class AnimationManager {
      * Creates a button highlight effect that brightens then returns to original color
      */
     public static void highlightButton(JButton button) {
+        highlightButton(button, TweenEngine.getGame());
+    }
+    
+    /**
+     * Like {@link #highlightButton(JButton)}, timed on the given engine's
+     * scheduler group
+     */
+    public static void highlightButton(JButton button, TweenEngine tweens) {
         Color originalColor = button.getBackground();
-        Color brightColor = originalColor.brighter();
+        Color brightColor = ColorCache.getBrighterColor(originalColor);
         
         button.setBackground(brightColor);
         
-        Timer highlightTimer = new Timer(GameConstants.BUTTON_HIGHLIGHT_DURATION, e -> {
-            button.setBackground(originalColor);
-        });
-        highlightTimer.setRepeats(false);
-        highlightTimer.start();
+        tweens.getScheduler().schedule(tweens.getGroup(),
+            GameConstants.BUTTON_HIGHLIGHT_DURATION, () -> button.setBackground(originalColor));
     }
     
     /**
-     * Shows a floating score label that moves up and fades out
+     * Shows a floating score that moves up and fades out
      */
     public static void showFloatingScore(Container parent, int value, int x, int y) {
-        JLabel floatingLabel = LabelPool.getLabel();
-        floatingLabel.setText((value > 0 ? "+" : "") + value);
-        floatingLabel.setForeground(value > 0 ? Color.GREEN : Color.RED);
-        floatingLabel.setBounds(x - 15, y - 20, 50, 30);
-        
-        parent.add(floatingLabel, 0); // Add to front
-        parent.repaint();
-        
-        // Animate floating up and fading out
-        Timer floatTimer = new Timer(50, null);
-        final int[] steps = {0};
-        final int maxSteps = 20;
-        
-        floatTimer.addActionListener(e -> {
-            steps[0]++;
-            
-            // Move up
-            floatingLabel.setLocation(floatingLabel.getX(), floatingLabel.getY() - 2);
-            
-            // Fade out
-            float alpha = 1.0f - (float) steps[0] / maxSteps;
-            Color currentColor = floatingLabel.getForeground();
-            Color fadedColor = new Color(
-                currentColor.getRed(),
-                currentColor.getGreen(),
-                currentColor.getBlue(),
-                Math.max(0, (int) (255 * alpha))
-            );
-            floatingLabel.setForeground(fadedColor);
-            
-            if (steps[0] >= maxSteps) {
-                floatTimer.stop();
-                parent.remove(floatingLabel);
-                parent.repaint();
-                // Return label to pool for reuse
-                LabelPool.returnLabel(floatingLabel);
-            }
-        });
-        floatTimer.start();
+        ParticleLayer layer = ParticleLayer.forComponent(parent);
+        if (layer != null) {
+            layer.spawnScore(parent, value, x, y);
+        }
+    }
+    
+    /**
+     * Throws a burst of sparks that grows with the combo count
+     */
+    public static void showComboBurst(Container parent, int combo, int x, int y) {
+        ParticleLayer layer = ParticleLayer.forComponent(parent);
+        if (layer != null) {
+            int sparks = Math.min(GameConstants.MAX_COMBO_SPARKS, combo * GameConstants.COMBO_SPARKS_PER_STEP);
+            Color color = COMBO_COLORS[combo % COMBO_COLORS.length];
+            layer.spawnBurst(parent, x, y, sparks, GameConstants.BURST_SPEED, color);
+        }
+    }
+    
+    /**
+     * Throws a small burst of warning-colored sparks for a penalty
+     */
+    public static void showPenaltyBurst(Container parent, int x, int y) {
+        ParticleLayer layer = ParticleLayer.forComponent(parent);
+        if (layer != null) {
+            layer.spawnBurst(parent, x, y, GameConstants.PENALTY_SPARKS, GameConstants.BURST_SPEED, Theme.ACCENT_RED);
+        }
+    }
+    
+    /**
+     * Lays out the countdown texts ahead of the first game, so its first
+     * step is drawn from the cache like every later one
+     */
+    public static void prepareCountdown(RichTextLabel label) {
+        for (String text : COUNTDOWN_TEXTS) {
+            label.prepare(text);
+        }
     }
     
     /**
      * Creates a smooth countdown animation for game start
      */
     public static void animateCountdown(JLabel label, Runnable onComplete) {
-        final String[] countdownTexts = {
-            "<html><div style='text-align:center;font-size:36px;'>3</div></html>",
-            "<html><div style='text-align:center;font-size:36px;'>2</div></html>",
-            "<html><div style='text-align:center;font-size:36px;'>1</div></html>",
-            "<html><div style='text-align:center;font-size:36px;'>GO!</div></html>"
-        };
-        
-        final int[] currentIndex = {0};
-        
-        Timer countdownTimer = new Timer(GameConstants.COUNTDOWN_TIMER_DELAY, null);
-        countdownTimer.addActionListener(e -> {
-            if (currentIndex[0] < countdownTexts.length) {
-                label.setText(countdownTexts[currentIndex[0]]);
-                currentIndex[0]++;
-            } else {
-                countdownTimer.stop();
-                if (onComplete != null) {
-                    onComplete.run();
-                }
-            }
-        });
-        
         // Start with first countdown number
-        label.setText(countdownTexts[0]);
-        currentIndex[0] = 1;
-        countdownTimer.start();
+        label.setText(COUNTDOWN_TEXTS[0]);
+        TweenEngine.getGame().animate(label, COUNTDOWN_STEP, 0f, COUNTDOWN_TEXTS.length,
+            (long) GameConstants.COUNTDOWN_TIMER_DELAY * COUNTDOWN_TEXTS.length, Easing.LINEAR, onComplete);
     }
 }
@@ -1,47 +1,94 @@
 package com.andernet.experiment.util;
 
 import java.awt.Color;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Arrays;
+import com.andernet.experiment.ui.Palette;
 
 /**
  * Color cache for performance optimization
+ *
+ * Palette colors are answered from the {@link Palette} tables. Anything else
+ * goes into a fixed number of entries keyed by a long made of the ARGB value
+ * and the derivation's parameter; a new entry replaces whatever hashed to the
+ * same place, so the cache stays bounded however many colors pass through.
  */
 public class ColorCache {
-    private static final ConcurrentHashMap<String, Color> colorCache = new ConcurrentHashMap<>();
-    
+    private static final int SIZE = 256;
+
+    private static final int DARKER = 0;
+    private static final int BRIGHTER = 1;
+    private static final int TRANSLUCENT = 2;
+    private static final int SHADE = 3;
+
+    // Immutable, so an entry read by another thread is always whole
+    private record Entry(int kind, long key, Color color) {}
+
+    private static final Entry[] entries = new Entry[SIZE];
+
     /**
      * Gets a cached darker version of a color
      */
     public static Color getDarkerColor(Color original) {
-        String key = "darker_" + original.getRGB();
-        return colorCache.computeIfAbsent(key, k -> original.darker());
+        int slot = Palette.indexOf(original);
+        if (slot >= 0 && Palette.darker(slot) >= 0) {
+            return Palette.color(Palette.darker(slot));
+        }
+        return get(DARKER, key(original, 0), original, 0);
     }
-    
+
     /**
      * Gets a cached brighter version of a color
      */
     public static Color getBrighterColor(Color original) {
-        String key = "brighter_" + original.getRGB();
-        return colorCache.computeIfAbsent(key, k -> original.brighter());
+        int slot = Palette.indexOf(original);
+        if (slot >= 0 && Palette.brighter(slot) >= 0) {
+            return Palette.color(Palette.brighter(slot));
+        }
+        return get(BRIGHTER, key(original, 0), original, 0);
     }
-    
+
     /**
      * Gets a cached translucent version of a color
      */
     public static Color getTranslucentColor(Color original, int alpha) {
-        String key = "translucent_" + original.getRGB() + "_" + alpha;
-        return colorCache.computeIfAbsent(key, k -> new Color(
-            original.getRed(), 
-            original.getGreen(), 
-            original.getBlue(), 
-            alpha
-        ));
+        return get(TRANSLUCENT, key(original, alpha), original, alpha);
     }
-    
+
+    /**
+     * Gets a cached version of a color with its brightness moved by delta,
+     * for {@link com.andernet.experiment.ui.Theme} when the color or the
+     * amount is not in the palette
+     */
+    public static Color getShadedColor(Color original, float delta) {
+        int bits = Float.floatToIntBits(delta);
+        return get(SHADE, key(original, bits), original, bits);
+    }
+
     /**
      * Clears the color cache (useful for memory management)
      */
     public static void clearCache() {
-        colorCache.clear();
+        Arrays.fill(entries, null);
+    }
+
+    private static long key(Color color, int parameter) {
+        return ((long) color.getRGB() << 32) | (parameter & 0xFFFFFFFFL);
+    }
+
+    private static Color get(int kind, long key, Color original, int parameter) {
+        long h = (key ^ (key >>> 29)) * 0x9E3779B97F4A7C15L + kind;
+        int i = (int) (h >>> 56) & (SIZE - 1);
+        Entry entry = entries[i];
+        if (entry != null && entry.kind() == kind && entry.key() == key) {
+            return entry.color();
+        }
+        Color color = switch (kind) {
+            case DARKER -> original.darker();
+            case BRIGHTER -> original.brighter();
+            case TRANSLUCENT -> new Color(original.getRed(), original.getGreen(), original.getBlue(), parameter);
+            default -> new Color(Palette.shade(original.getRGB(), Float.intBitsToFloat(parameter)), true);
+        };
+        entries[i] = new Entry(kind, key, color);
+        return color;
     }
 }
@@ -37,6 +37,10 @@ public class Constants {
     public static final String ENABLED_LABEL = "Enabled";
     public static final String MAIN_BUTTON_WIDTH_LABEL = "Main Button Width:";
     public static final String MAIN_BUTTON_HEIGHT_LABEL = "Main Button Height:";
+    public static final String LIGHTWEIGHT_OBSTACLES_LABEL = "Lightweight Obstacles:";
+    public static final String ADAPTIVE_QUALITY_LABEL = "Adaptive Quality:";
+    public static final String DISPLAY_BACKEND_LABEL = "Display:";
+    public static final String DISPLAY_BACKEND_TOOLTIP = "Takes effect the next time the game starts";
     
     // Tooltips
     public static final String SCORE_TOOLTIP = "Your current score";
@@ -50,7 +54,7 @@ public class Constants {
     public static final String HELP_BUTTON_TOOLTIP = "How to play";
     
     // Help text
-    public static final String INSTRUCTIONS = "<html><div style='text-align:center;'>Click the blue button as many times as you can in 30 seconds!<br>Avoid the red fake buttons.</div></html>";
+    public static final String INSTRUCTIONS = "Click the blue button as many times as you can in 30 seconds!\nAvoid the red fake buttons.";
     public static final String HELP_MESSAGE = 
         "Click the blue button as many times as you can before time runs out!\n" +
         "Avoid the fake buttons—they subtract points.\n" +
@@ -74,6 +78,9 @@ public class Constants {
     // File names
     public static final String HIGH_SCORE_FILE = ".ctb_highscore";
     public static final String SETTINGS_FILE = ".ctb_settings";
+    public static final String LAST_SESSION_FILE = ".ctb_last_session";
+    public static final String BEST_SESSION_FILE = ".ctb_best_session";
+    public static final String LAST_INPUT_FILE = ".ctb_last_input";
     public static final String SETTINGS_COMMENT = "ClickTheButtonGame User Settings";
     
     // Audio files
@@ -84,4 +91,5 @@ public class Constants {
     
     // System properties
     public static final String TEST_MODE_PROPERTY = "ctb.testmode";
+    public static final String RECORD_SESSIONS_PROPERTY = "ctb.record.sessions";
 }
@@ -0,0 +1,41 @@
+package com.andernet.experiment.util;
+
+/**
+ * Easing curves for {@link TweenEngine}, mapping linear progress in [0, 1]
+ * to eased progress with the same end points
+ */
+public enum Easing {
+    LINEAR {
+        @Override
+        public float apply(float t) {
+            return t;
+        }
+    },
+    // Starts slowly, e.g. for fading out
+    EASE_IN {
+        @Override
+        public float apply(float t) {
+            return t * t;
+        }
+    },
+    // Ends slowly, e.g. for fading in
+    EASE_OUT {
+        @Override
+        public float apply(float t) {
+            float u = 1 - t;
+            return 1 - u * u;
+        }
+    },
+    EASE_IN_OUT {
+        @Override
+        public float apply(float t) {
+            if (t < 0.5f) {
+                return 2 * t * t;
+            }
+            float u = 1 - t;
+            return 1 - 2 * u * u;
+        }
+    };
+
+    public abstract float apply(float t);
+}
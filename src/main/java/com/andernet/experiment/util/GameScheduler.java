@@ -0,0 +1,429 @@
+package com.andernet.experiment.util;
+
+import javax.swing.Timer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Runs the game's timed work (clock, button moves, fades, countdown, hover
+ * animations, particles) from one tick source instead of a Swing Timer each.
+ *
+ * Tasks sit in a hashed timing wheel of {@link #WHEEL_SIZE} slots, one per
+ * {@link #TICK_MS} tick, so scheduling and cancelling are constant time and a
+ * tick only looks at the tasks hashed to its slot. Tasks further out than one
+ * turn of the wheel stay in their slot until their turn comes round.
+ * Deadlines are kept in nanoseconds, so a fixed-rate task keeps its average
+ * rate even when its period is not a whole number of ticks; runs missed while
+ * the EDT was stalled are skipped rather than fired back to back, as Swing
+ * Timers coalesce them.
+ *
+ * Every task belongs to a {@link Group}. Pausing a group takes its tasks off
+ * the wheel with the time they had left, and resuming puts them back with
+ * the same time left, so everything in the group freezes and thaws together.
+ * The tick source stops while the wheel is empty. An active render loop can
+ * take over ticking with {@link #setExternallyDriven}, so the game updates
+ * once per frame, right before it is drawn.
+ *
+ * Tasks run on the EDT; use the scheduler from the EDT only.
+ */
+public class GameScheduler {
+    public static final int TICK_MS = 8;
+    // Power of two; one turn covers about four seconds
+    static final int WHEEL_SIZE = 512;
+    private static final int MASK = WHEEL_SIZE - 1;
+    private static final long TICK_NANOS = TICK_MS * 1_000_000L;
+
+    private static final GameScheduler SHARED = new GameScheduler();
+
+    private final LongSupplier clock;
+    private final long origin;
+    private final Timer ticker;
+    private final Handle[] wheel = new Handle[WHEEL_SIZE];
+    private final List<Handle> due = new ArrayList<>();
+    private final SchedulerStats stats = new SchedulerStats();
+    private final Group gameGroup = new Group("game");
+    private final Group uiGroup = new Group("ui");
+    // Last tick whose slot has been run
+    private long currentTick;
+    private int scheduled;
+    private boolean externallyDriven;
+
+    public GameScheduler() {
+        this(System::nanoTime, true);
+    }
+
+    /**
+     * @param clock     nanosecond time source
+     * @param ownTicker whether a Swing Timer drives {@link #tick()}; tests
+     *                  call it themselves
+     */
+    GameScheduler(LongSupplier clock, boolean ownTicker) {
+        this.clock = clock;
+        this.origin = clock.getAsLong();
+        if (ownTicker) {
+            ticker = new Timer(TICK_MS, e -> tick());
+            ticker.setCoalesce(true);
+        } else {
+            ticker = null;
+        }
+    }
+
+    /**
+     * A scheduler on its own clock that runs only when {@link #tick()} is
+     * called, for replaying a game in simulated time
+     */
+    public static GameScheduler withClock(LongSupplier clock) {
+        return new GameScheduler(clock, false);
+    }
+
+    /**
+     * Stops the scheduler's own timer so that only explicit calls to
+     * {@link #tick()} run tasks, or hands ticking back to the timer
+     */
+    public void setExternallyDriven(boolean externallyDriven) {
+        this.externallyDriven = externallyDriven;
+        if (ticker == null) {
+            return;
+        }
+        if (externallyDriven) {
+            ticker.stop();
+        } else if (scheduled > 0) {
+            ticker.start();
+        }
+    }
+
+    public boolean isExternallyDriven() {
+        return externallyDriven;
+    }
+
+    /**
+     * The scheduler all game code uses
+     */
+    public static GameScheduler getShared() {
+        return SHARED;
+    }
+
+    /**
+     * Tasks that stop while the game is paused
+     */
+    public Group getGameGroup() {
+        return gameGroup;
+    }
+
+    /**
+     * Tasks that keep running while the game is paused, such as menus
+     */
+    public Group getUiGroup() {
+        return uiGroup;
+    }
+
+    public SchedulerStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Runs a task once after a delay
+     */
+    public Handle schedule(Group group, long delayMillis, Runnable task) {
+        return add(group, delayMillis, 0, task);
+    }
+
+    /**
+     * Runs a task every period, starting after the initial delay
+     */
+    public Handle scheduleAtFixedRate(Group group, long initialDelayMillis, long periodMillis, Runnable task) {
+        if (periodMillis <= 0) {
+            throw new IllegalArgumentException("Period must be positive: " + periodMillis);
+        }
+        return add(group, initialDelayMillis, periodMillis * 1_000_000L, task);
+    }
+
+    private Handle add(Group group, long delayMillis, long periodNanos, Runnable task) {
+        if (group.scheduler() != this) {
+            throw new IllegalArgumentException("Group " + group.name + " belongs to another scheduler");
+        }
+        long now = elapsed();
+        if (scheduled == 0) {
+            // Nothing ran while the wheel was empty, so skip the idle ticks
+            currentTick = Math.max(currentTick, now / TICK_NANOS);
+        }
+        Handle handle = new Handle(group, task, periodNanos);
+        handle.deadline = now + Math.max(0, delayMillis) * 1_000_000L;
+        group.join(handle);
+        stats.recordScheduled();
+        if (group.paused) {
+            handle.remaining = handle.deadline - now;
+            stats.setCounts(scheduled, countPaused());
+        } else {
+            insert(handle);
+        }
+        return handle;
+    }
+
+    private long elapsed() {
+        return clock.getAsLong() - origin;
+    }
+
+    /**
+     * Runs the slots of every tick that has passed since the last call
+     */
+    public void tick() {
+        long now = elapsed();
+        long target = now / TICK_NANOS;
+        stats.recordTick();
+        while (currentTick < target && scheduled > 0) {
+            currentTick++;
+            runSlot(currentTick, now);
+        }
+        if (scheduled == 0) {
+            currentTick = Math.max(currentTick, target);
+            if (ticker != null) {
+                ticker.stop();
+            }
+        }
+    }
+
+    private void runSlot(long tick, long now) {
+        // Take everything due off the wheel before running anything, so tasks
+        // may schedule and cancel freely
+        Handle h = wheel[(int) (tick & MASK)];
+        while (h != null) {
+            Handle next = h.next;
+            if (h.tick <= tick) {
+                unlink(h);
+                due.add(h);
+            }
+            h = next;
+        }
+        for (int i = 0; i < due.size(); i++) {
+            Handle task = due.get(i);
+            // An earlier task in this batch may have cancelled it, or paused
+            // its group, which then resumes it with the time it has left
+            if (task.state != Handle.DUE || task.group.paused) {
+                continue;
+            }
+            stats.recordRun(now - task.deadline);
+            if (task.period > 0) {
+                task.deadline += task.period;
+                while (task.deadline <= now) {
+                    task.deadline += task.period;
+                    stats.recordSkipped();
+                }
+                insert(task);
+            } else {
+                task.state = Handle.DONE;
+                task.group.leave(task);
+            }
+            run(task.task);
+        }
+        due.clear();
+        stats.setCounts(scheduled, countPaused());
+    }
+
+    private static void run(Runnable task) {
+        try {
+            task.run();
+        } catch (RuntimeException e) {
+            // Report it like the EDT would, without losing the rest of the tick
+            Thread t = Thread.currentThread();
+            t.getUncaughtExceptionHandler().uncaughtException(t, e);
+        }
+    }
+
+    private void insert(Handle h) {
+        // Never into a slot that has already been run this turn
+        h.tick = Math.max((h.deadline + TICK_NANOS - 1) / TICK_NANOS, currentTick + 1);
+        int slot = (int) (h.tick & MASK);
+        h.prev = null;
+        h.next = wheel[slot];
+        if (h.next != null) {
+            h.next.prev = h;
+        }
+        wheel[slot] = h;
+        h.state = Handle.SCHEDULED;
+        if (scheduled++ == 0 && ticker != null && !externallyDriven) {
+            ticker.start();
+        }
+    }
+
+    private void unlink(Handle h) {
+        if (h.prev != null) {
+            h.prev.next = h.next;
+        } else {
+            wheel[(int) (h.tick & MASK)] = h.next;
+        }
+        if (h.next != null) {
+            h.next.prev = h.prev;
+        }
+        h.prev = null;
+        h.next = null;
+        h.state = Handle.DUE;
+        scheduled--;
+    }
+
+    private int countPaused() {
+        return (gameGroup.paused ? gameGroup.size : 0) + (uiGroup.paused ? uiGroup.size : 0);
+    }
+
+    /**
+     * A scheduled task
+     */
+    public final class Handle {
+        static final int SCHEDULED = 0;
+        // Off the wheel: about to run, or paused
+        static final int DUE = 1;
+        static final int DONE = 2;
+
+        private final Group group;
+        private final Runnable task;
+        private final long period;
+        private int state;
+        private long deadline;
+        private long tick;
+        // Time left when the group was paused
+        private long remaining;
+        // Wheel slot list
+        private Handle prev;
+        private Handle next;
+        // Group list
+        private Handle groupPrev;
+        private Handle groupNext;
+
+        private Handle(Group group, Runnable task, long period) {
+            this.group = group;
+            this.task = task;
+            this.period = period;
+            this.state = DUE;
+        }
+
+        /**
+         * Whether the task will still run, possibly after its group resumes
+         */
+        public boolean isActive() {
+            return state != DONE;
+        }
+
+        /**
+         * Stops the task; safe to call from the task itself and more than once
+         */
+        public void cancel() {
+            if (state == DONE) {
+                return;
+            }
+            if (state == SCHEDULED) {
+                unlink(this);
+            }
+            state = DONE;
+            group.leave(this);
+            stats.recordCancelled();
+            stats.setCounts(scheduled, countPaused());
+        }
+    }
+
+    /**
+     * Tasks paused and resumed together
+     */
+    public final class Group {
+        private final String name;
+        private boolean paused;
+        private Handle head;
+        private int size;
+        // Scheduler time spent paused, and when the current pause began
+        private long pausedNanos;
+        private long pausedAt;
+
+        private Group(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public boolean isPaused() {
+            return paused;
+        }
+
+        /**
+         * Nanoseconds that have passed while the group was running; stands
+         * still while it is paused
+         */
+        public long nanoTime() {
+            return (paused ? pausedAt : elapsed()) - pausedNanos;
+        }
+
+        /**
+         * Active tasks in the group, paused or not
+         */
+        public int getActiveCount() {
+            return size;
+        }
+
+        /**
+         * Freezes every task in the group where it is
+         */
+        public void pause() {
+            if (paused) {
+                return;
+            }
+            paused = true;
+            long now = elapsed();
+            pausedAt = now;
+            for (Handle h = head; h != null; h = h.groupNext) {
+                if (h.state == Handle.SCHEDULED) {
+                    unlink(h);
+                }
+                h.remaining = Math.max(0, h.deadline - now);
+            }
+            stats.setCounts(scheduled, countPaused());
+        }
+
+        /**
+         * Continues every task with the time it had left when paused
+         */
+        public void resume() {
+            if (!paused) {
+                return;
+            }
+            paused = false;
+            long now = elapsed();
+            pausedNanos += now - pausedAt;
+            if (scheduled == 0) {
+                currentTick = Math.max(currentTick, now / TICK_NANOS);
+            }
+            for (Handle h = head; h != null; h = h.groupNext) {
+                h.deadline = now + h.remaining;
+                insert(h);
+            }
+            stats.setCounts(scheduled, countPaused());
+        }
+
+        private GameScheduler scheduler() {
+            return GameScheduler.this;
+        }
+
+        private void join(Handle h) {
+            h.groupNext = head;
+            if (head != null) {
+                head.groupPrev = h;
+            }
+            head = h;
+            size++;
+        }
+
+        private void leave(Handle h) {
+            if (h.groupPrev != null) {
+                h.groupPrev.groupNext = h.groupNext;
+            } else {
+                head = h.groupNext;
+            }
+            if (h.groupNext != null) {
+                h.groupNext.groupPrev = h.groupPrev;
+            }
+            h.groupPrev = null;
+            h.groupNext = null;
+            size--;
+        }
+    }
+}
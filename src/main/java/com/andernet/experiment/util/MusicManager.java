@@ -1,51 +1,29 @@
 package com.andernet.experiment.util;
 
-import javax.sound.sampled.*;
-import java.io.IOException;
-import java.net.URL;
+import com.andernet.experiment.audio.AudioBackends;
+import com.andernet.experiment.audio.MusicStreamer;
 
+/**
+ * Background music, through the {@link AudioBackends audio backend}; on the
+ * sound device it is streamed by {@link MusicStreamer}
+ */
 public class MusicManager {
-    private static volatile Clip backgroundClip;
-    private static final Object lock = new Object();
-
+    /**
+     * Starts a track, crossfading from the one playing; a track that is
+     * already on keeps playing, or resumes if it was paused
+     */
     public static void playBackgroundMusic(String resourcePath, boolean loop) {
-        synchronized (lock) {
-            stopBackgroundMusic();
-            try {
-                URL url = MusicManager.class.getResource(resourcePath);
-                if (url == null) {
-                    return;
-                }
-                try (AudioInputStream audioIn = AudioSystem.getAudioInputStream(url)) {
-                    backgroundClip = AudioSystem.getClip();
-                    backgroundClip.open(audioIn);
-                    if (loop) {
-                        backgroundClip.loop(Clip.LOOP_CONTINUOUSLY);
-                    } else {
-                        backgroundClip.start();
-                    }
-                }
-            } catch (UnsupportedAudioFileException e) {
-                // Silently ignore audio errors
-            } catch (LineUnavailableException e) {
-                // Silently ignore audio errors
-            } catch (IOException e) {
-                // Silently ignore audio errors
-            } catch (Exception e) {
-                if (Boolean.getBoolean("ctb.testmode")) {
-                    return;
-                }
-            }
-        }
+        AudioBackends.get().playMusic(resourcePath, loop);
+    }
+
+    /**
+     * Holds the music where it is, to be picked up by the next play
+     */
+    public static void pauseBackgroundMusic() {
+        AudioBackends.get().pauseMusic();
     }
 
     public static void stopBackgroundMusic() {
-        synchronized (lock) {
-            if (backgroundClip != null && backgroundClip.isRunning()) {
-                backgroundClip.stop();
-                backgroundClip.close();
-                backgroundClip = null;
-            }
-        }
+        AudioBackends.get().stopMusic();
     }
 }
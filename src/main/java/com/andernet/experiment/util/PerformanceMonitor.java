@@ -46,4 +46,20 @@ public class PerformanceMonitor {
                              "Total: " + (totalMemory / 1024 / 1024) + " MB");
         }
     }
+    
+    /**
+     * Log a named statistics snapshot (frame times, cache sizes, ...)
+     */
+    public static void logStats(String name, Object stats) {
+        if (ENABLED) {
+            System.out.println("[STATS] " + name + ": " + stats);
+        }
+    }
+    
+    /**
+     * Whether monitoring is enabled via the ctb.perf.monitor system property
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
 }
@@ -1,31 +1,39 @@
 package com.andernet.experiment.util;
 
-import javax.sound.sampled.*;
-import java.net.URL;
+import com.andernet.experiment.audio.AudioBackends;
+import com.andernet.experiment.audio.AudioMixer;
+import com.andernet.experiment.audio.Sound;
 
 public class ResourceManager {
     public static void playBeep() {
-        playSound(Constants.CLICK_SOUND);
+        AudioBackends.get().play(Sound.CLICK);
     }
     
     public static void playFakeBeep() {
-        playSound(Constants.FAKE_SOUND);
+        AudioBackends.get().play(Sound.FAKE);
     }
     
     public static void playEndBeep() {
-        playSound(Constants.GAMEOVER_SOUND);
+        AudioBackends.get().play(Sound.GAME_OVER);
     }
     
+    /**
+     * Plays one of the sound effects the mixer decodes at startup; other
+     * resource paths are ignored
+     */
     public static void playSound(String resourcePath) {
-        new Thread(() -> {
-            try {
-                URL url = ResourceManager.class.getResource(resourcePath);
-                if (url == null) return;
-                AudioInputStream audioIn = AudioSystem.getAudioInputStream(url);
-                Clip clip = AudioSystem.getClip();
-                clip.open(audioIn);
-                clip.start();
-            } catch (Exception ignored) {}
-        }).start();
+        Sound sound = Sound.forPath(resourcePath);
+        if (sound != null) {
+            AudioBackends.get().play(sound);
+        }
+    }
+    
+    /**
+     * Creates the audio backend; on the sound device that starts the
+     * {@link AudioMixer}, which decodes the sound effects and opens the audio
+     * line on its own thread, so the first click is not the one to wait
+     */
+    public static void preloadSounds() {
+        AudioBackends.get();
     }
 }
@@ -0,0 +1,89 @@
+package com.andernet.experiment.util;
+
+/**
+ * Counters for {@link GameScheduler}: how many tasks are waiting, how many
+ * ran, and how late they ran compared to their deadlines.
+ */
+public class SchedulerStats {
+    private volatile int activeTasks;
+    private volatile int pausedTasks;
+    private volatile long scheduled;
+    private volatile long runs;
+    private volatile long cancelled;
+    private volatile long skipped;
+    private volatile long ticks;
+    private volatile long totalLagNanos;
+    private volatile long maxLagNanos;
+
+    void setCounts(int active, int paused) {
+        activeTasks = active;
+        pausedTasks = paused;
+    }
+
+    void recordScheduled() {
+        scheduled++;
+    }
+
+    void recordRun(long lagNanos) {
+        runs++;
+        totalLagNanos += lagNanos;
+        if (lagNanos > maxLagNanos) {
+            maxLagNanos = lagNanos;
+        }
+    }
+
+    void recordCancelled() {
+        cancelled++;
+    }
+
+    void recordSkipped() {
+        skipped++;
+    }
+
+    void recordTick() {
+        ticks++;
+    }
+
+    public void reset() {
+        scheduled = 0;
+        runs = 0;
+        cancelled = 0;
+        skipped = 0;
+        ticks = 0;
+        totalLagNanos = 0;
+        maxLagNanos = 0;
+    }
+
+    /**
+     * Tasks waiting on the wheel
+     */
+    public int getActiveTasks() { return activeTasks; }
+    /**
+     * Tasks held by a paused group
+     */
+    public int getPausedTasks() { return pausedTasks; }
+    public long getScheduled() { return scheduled; }
+    public long getRuns() { return runs; }
+    public long getCancelled() { return cancelled; }
+    /**
+     * Fixed-rate runs dropped because the EDT fell a whole period behind
+     */
+    public long getSkipped() { return skipped; }
+    public long getTicks() { return ticks; }
+    public long getMaxLagNanos() { return maxLagNanos; }
+
+    /**
+     * Average time from a task's deadline to when it ran
+     */
+    public double getAverageLagMillis() {
+        return runs > 0 ? totalLagNanos / (double) runs / 1_000_000.0 : 0;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("active=%d paused=%d scheduled=%d runs=%d cancelled=%d skipped=%d ticks=%d "
+            + "avgLag=%.2fms maxLag=%.2fms",
+            activeTasks, pausedTasks, scheduled, runs, cancelled, skipped, ticks,
+            getAverageLagMillis(), maxLagNanos / 1_000_000.0);
+    }
+}
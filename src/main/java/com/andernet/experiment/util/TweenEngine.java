@@ -0,0 +1,267 @@
+package com.andernet.experiment.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Animates float properties over time.
+ *
+ * A tween sets its property from the time passed since it started, measured
+ * on its scheduler group's clock, so an animation takes as long as asked
+ * however late the ticks are, and stands still while the group is paused.
+ * All tweens of an engine share one {@link #FRAME_MS} task on the group,
+ * which runs only while tweens are active.
+ *
+ * There is at most one running tween per target and property. Starting
+ * another replaces it, starting from the current value; chaining queues one
+ * behind it instead. Tweens come from a pool and go back to it when done, so
+ * running animations allocate nothing once the pool has grown to the number
+ * in use.
+ *
+ * Use from the EDT, like the scheduler.
+ */
+public class TweenEngine {
+    public static final int FRAME_MS = 16;
+
+    private static final TweenEngine GAME =
+        new TweenEngine(GameScheduler.getShared(), GameScheduler.getShared().getGameGroup());
+    private static final TweenEngine UI =
+        new TweenEngine(GameScheduler.getShared(), GameScheduler.getShared().getUiGroup());
+
+    /**
+     * A float property of a target. Implementations are shared constants,
+     * and the same instance must be passed to identify the same property.
+     */
+    public interface Property<T> {
+        float get(T target);
+
+        void set(T target, float value);
+    }
+
+    private final GameScheduler scheduler;
+    private final GameScheduler.Group group;
+    private final List<Tween> active = new ArrayList<>();
+    private final ArrayDeque<Tween> pool = new ArrayDeque<>();
+    private final Runnable tickTask = this::tick;
+    private GameScheduler.Handle ticker;
+
+    public TweenEngine(GameScheduler scheduler, GameScheduler.Group group) {
+        this.scheduler = scheduler;
+        this.group = group;
+    }
+
+    public GameScheduler getScheduler() {
+        return scheduler;
+    }
+
+    /**
+     * The group the engine's tweens run in
+     */
+    public GameScheduler.Group getGroup() {
+        return group;
+    }
+
+    /**
+     * Tweens that stop while the game is paused
+     */
+    public static TweenEngine getGame() {
+        return GAME;
+    }
+
+    /**
+     * Tweens that keep running while the game is paused, such as menus
+     */
+    public static TweenEngine getUi() {
+        return UI;
+    }
+
+    /**
+     * Animates from the current value, replacing the tween running on the
+     * same target and property and anything chained behind it. A replaced
+     * tween's completion does not run.
+     *
+     * @param onComplete run once the value is reached, or null
+     */
+    public <T> void animate(T target, Property<? super T> property, float to, long durationMillis,
+                            Easing easing, Runnable onComplete) {
+        animate(target, property, Float.NaN, to, durationMillis, easing, onComplete);
+    }
+
+    /**
+     * Animates between two values, replacing the tween running on the same
+     * target and property
+     */
+    public <T> void animate(T target, Property<? super T> property, float from, float to, long durationMillis,
+                            Easing easing, Runnable onComplete) {
+        Tween tween = find(target, property);
+        if (tween != null) {
+            recycleChain(tween.next);
+            tween.next = null;
+        } else {
+            tween = obtain(target, property);
+            active.add(tween);
+        }
+        tween.set(to, durationMillis, easing, onComplete);
+        tween.start = group.nanoTime();
+        tween.from = Float.isNaN(from) ? tween.property.get(target) : from;
+        ensureTicking();
+    }
+
+    /**
+     * Animates from wherever the tweens already running on the same target
+     * and property end, once they have finished; starts now if there are none
+     */
+    public <T> void chain(T target, Property<? super T> property, float to, long durationMillis,
+                          Easing easing, Runnable onComplete) {
+        Tween last = find(target, property);
+        if (last == null) {
+            animate(target, property, to, durationMillis, easing, onComplete);
+            return;
+        }
+        while (last.next != null) {
+            last = last.next;
+        }
+        Tween tween = obtain(target, property);
+        tween.set(to, durationMillis, easing, onComplete);
+        last.next = tween;
+    }
+
+    public boolean isAnimating(Object target, Property<?> property) {
+        return find(target, property) != null;
+    }
+
+    /**
+     * Stops the tweens on a target and property where they are, without
+     * running their completions
+     */
+    public void cancel(Object target, Property<?> property) {
+        for (int i = 0; i < active.size(); i++) {
+            Tween tween = active.get(i);
+            if (tween.target == target && tween.property == property) {
+                removeAt(i);
+                recycleChain(tween);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Targets being animated, not counting chained tweens
+     */
+    public int getActiveCount() {
+        return active.size();
+    }
+
+    /**
+     * Tweens waiting in the pool for reuse
+     */
+    public int getPooledCount() {
+        return pool.size();
+    }
+
+    void tick() {
+        long now = group.nanoTime();
+        // Index-based, since completions may start and cancel tweens
+        for (int i = 0; i < active.size(); ) {
+            Tween tween = active.get(i);
+            long elapsed = now - tween.start;
+            float progress = tween.duration > 0 ? Math.min(1f, elapsed / (float) tween.duration) : 1f;
+            tween.property.set(tween.target, tween.from + (tween.to - tween.from) * tween.easing.apply(progress));
+            if (progress < 1f) {
+                i++;
+                continue;
+            }
+            Runnable onComplete = tween.onComplete;
+            Tween next = tween.next;
+            if (next != null) {
+                // Starts where this one ended, in value and in time, and is
+                // stepped right away in case it is already under way
+                next.start = tween.start + tween.duration;
+                next.from = tween.to;
+                active.set(i, next);
+                tween.next = null;
+            } else {
+                removeAt(i);
+            }
+            recycle(tween);
+            if (onComplete != null) {
+                onComplete.run();
+            }
+        }
+        if (active.isEmpty() && ticker != null) {
+            ticker.cancel();
+            ticker = null;
+        }
+    }
+
+    private void ensureTicking() {
+        if (ticker == null) {
+            ticker = scheduler.scheduleAtFixedRate(group, FRAME_MS, FRAME_MS, tickTask);
+        }
+    }
+
+    private Tween find(Object target, Property<?> property) {
+        for (int i = 0; i < active.size(); i++) {
+            Tween tween = active.get(i);
+            if (tween.target == target && tween.property == property) {
+                return tween;
+            }
+        }
+        return null;
+    }
+
+    private void removeAt(int i) {
+        int last = active.size() - 1;
+        active.set(i, active.get(last));
+        active.remove(last);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Tween obtain(Object target, Property<?> property) {
+        Tween tween = pool.poll();
+        if (tween == null) {
+            tween = new Tween();
+        }
+        tween.target = target;
+        tween.property = (Property<Object>) property;
+        return tween;
+    }
+
+    private void recycleChain(Tween tween) {
+        while (tween != null) {
+            Tween next = tween.next;
+            recycle(tween);
+            tween = next;
+        }
+    }
+
+    private void recycle(Tween tween) {
+        tween.target = null;
+        tween.property = null;
+        tween.easing = null;
+        tween.onComplete = null;
+        tween.next = null;
+        pool.push(tween);
+    }
+
+    private static final class Tween {
+        private Object target;
+        private Property<Object> property;
+        private float from;
+        private float to;
+        private long start;
+        private long duration;
+        private Easing easing;
+        private Runnable onComplete;
+        // Queued to run after this one
+        private Tween next;
+
+        void set(float to, long durationMillis, Easing easing, Runnable onComplete) {
+            this.to = to;
+            this.duration = Math.max(0, durationMillis) * 1_000_000L;
+            this.easing = easing;
+            this.onComplete = onComplete;
+        }
+    }
+}
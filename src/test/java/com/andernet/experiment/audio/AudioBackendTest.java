@@ -0,0 +1,177 @@
+package com.andernet.experiment.audio;
+
+import com.andernet.experiment.util.Constants;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.File;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+class AudioBackendTest {
+    private static final long BLOCK_NANOS = AudioMixer.BLOCK_FRAMES * 1_000_000_000L / AudioMixer.SAMPLE_RATE;
+
+    private final AtomicLong clock = new AtomicLong();
+    private String backendProperty;
+    private String testModeProperty;
+
+    @BeforeEach
+    void saveProperties() {
+        backendProperty = System.getProperty(AudioBackends.PROPERTY);
+        testModeProperty = System.getProperty(Constants.TEST_MODE_PROPERTY);
+    }
+
+    @AfterEach
+    void restoreProperties() {
+        restore(AudioBackends.PROPERTY, backendProperty);
+        restore(Constants.TEST_MODE_PROPERTY, testModeProperty);
+    }
+
+    private static void restore(String key, String value) {
+        if (value == null) {
+            System.clearProperty(key);
+        } else {
+            System.setProperty(key, value);
+        }
+    }
+
+    private static PcmClip constant(int frames, short value) {
+        short[] samples = new short[frames * 2];
+        java.util.Arrays.fill(samples, value);
+        return new PcmClip(samples);
+    }
+
+    private static short left(byte[] pcm, int frame) {
+        return (short) ((pcm[frame * 4] & 0xFF) | (pcm[frame * 4 + 1] << 8));
+    }
+
+    @Test
+    void testPropertyOverridesTestModeAndSettings() {
+        System.setProperty(AudioBackends.PROPERTY, "Capture");
+        System.setProperty(Constants.TEST_MODE_PROPERTY, "true");
+        assertEquals(AudioBackendType.CAPTURE, AudioBackends.resolve(AudioBackendType.DEVICE));
+
+        System.clearProperty(AudioBackends.PROPERTY);
+        assertEquals(AudioBackendType.NULL, AudioBackends.resolve(AudioBackendType.DEVICE));
+
+        System.clearProperty(Constants.TEST_MODE_PROPERTY);
+        assertEquals(AudioBackendType.CAPTURE, AudioBackends.resolve(AudioBackendType.CAPTURE));
+        assertEquals(AudioBackendType.DEVICE, AudioBackends.resolve(null));
+        assertEquals(AudioBackendType.DEVICE, AudioBackendType.fromName("speakers"));
+    }
+
+    @Test
+    void testNullBackendIgnoresEverything() {
+        AudioBackend backend = AudioBackends.create(AudioBackendType.NULL);
+        assertEquals("null", backend.getName());
+        backend.play(Sound.CLICK);
+        backend.playMusic(Constants.BACKGROUND_MUSIC, true);
+        backend.stopMusic();
+        backend.close();
+        assertEquals(0, backend.getStats().getTriggers());
+    }
+
+    @Test
+    void testCaptureStartsTriggerInNextBlock() {
+        CaptureAudioBackend capture = new CaptureAudioBackend(clock::get);
+        capture.setClip(Sound.CLICK, constant(10, (short) 500));
+        clock.set(1_000_000);
+        capture.play(Sound.CLICK);
+        clock.set(3 * BLOCK_NANOS + 1000);
+        byte[] pcm = capture.getPcm();
+
+        assertEquals(4 * AudioMixer.BLOCK_FRAMES * 4, pcm.length);
+        assertEquals(0, left(pcm, AudioMixer.BLOCK_FRAMES - 1));
+        assertEquals(500, left(pcm, AudioMixer.BLOCK_FRAMES));
+        assertEquals(500, left(pcm, AudioMixer.BLOCK_FRAMES + 9));
+        assertEquals(0, left(pcm, AudioMixer.BLOCK_FRAMES + 10));
+        assertEquals(BLOCK_NANOS - 1_000_000, capture.getStats().getMaxLatencyNanos());
+        assertEquals(List.of(new CaptureAudioBackend.Trigger(Sound.CLICK, null, 1_000_000)),
+                     capture.getTriggers());
+    }
+
+    @Test
+    void testCaptureIsRepeatable() {
+        byte[][] runs = new byte[2][];
+        for (int run = 0; run < 2; run++) {
+            clock.set(0);
+            CaptureAudioBackend capture = new CaptureAudioBackend(clock::get);
+            for (int i = 0; i < 20; i++) {
+                clock.addAndGet(3_000_000);
+                capture.play(i % 3 == 0 ? Sound.FAKE : Sound.CLICK);
+            }
+            clock.addAndGet(200_000_000);
+            runs[run] = capture.getPcm();
+            capture.close();
+        }
+        assertArrayEquals(runs[0], runs[1]);
+    }
+
+    @Test
+    void testFileCaptureIsReadableWav() throws Exception {
+        File file = Files.createTempFile("capture", ".wav").toFile();
+        try {
+            CaptureAudioBackend capture = CaptureAudioBackend.toFile(file, clock::get, false);
+            capture.setClip(Sound.CLICK, constant(10, (short) -700));
+            capture.play(Sound.CLICK);
+            capture.playMusic(Constants.BACKGROUND_MUSIC, true);
+            clock.set(10 * BLOCK_NANOS + 1000);
+            capture.close();
+            // Closed captures ignore further calls
+            capture.play(Sound.CLICK);
+            assertEquals(2, capture.getTriggers().size());
+
+            try (AudioInputStream in = AudioSystem.getAudioInputStream(file)) {
+                AudioFormat format = in.getFormat();
+                assertEquals(AudioMixer.SAMPLE_RATE, (int) format.getSampleRate());
+                assertEquals(2, format.getChannels());
+                assertEquals(11 * AudioMixer.BLOCK_FRAMES, in.getFrameLength());
+                byte[] pcm = in.readAllBytes();
+                assertEquals(-700, left(pcm, AudioMixer.BLOCK_FRAMES));
+            }
+        } finally {
+            Files.deleteIfExists(file.toPath());
+        }
+    }
+
+    @Test
+    void testMemoryCaptureKeepsOnlyTheLatestAudio() {
+        int blockBytes = AudioMixer.BLOCK_FRAMES * 4;
+        CaptureAudioBackend capture = new CaptureAudioBackend(clock::get, null, 3 * blockBytes, false);
+        capture.setClip(Sound.CLICK, constant(10, (short) 900));
+        clock.set(4 * BLOCK_NANOS + 1000);
+        capture.play(Sound.CLICK);
+        clock.set(6 * BLOCK_NANOS + 1000);
+        byte[] pcm = capture.getPcm();
+
+        assertEquals(7 * AudioMixer.BLOCK_FRAMES, capture.getFrames());
+        assertEquals(3 * blockBytes, pcm.length);
+        // Blocks 4 to 6 are kept; the click starts in block 5
+        assertEquals(0, left(pcm, AudioMixer.BLOCK_FRAMES - 1));
+        assertEquals(900, left(pcm, AudioMixer.BLOCK_FRAMES));
+        capture.close();
+    }
+
+    @Test
+    void testRealTimeCaptureMixesOnItsOwnThread() throws Exception {
+        CaptureAudioBackend capture = new CaptureAudioBackend();
+        try {
+            long deadline = System.nanoTime() + 2_000_000_000L;
+            // Nothing here reads or flushes the capture
+            while (capture.getFrames() < 4 * AudioMixer.BLOCK_FRAMES && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertTrue(capture.getFrames() >= 4 * AudioMixer.BLOCK_FRAMES);
+        } finally {
+            capture.close();
+        }
+        long frames = capture.getFrames();
+        Thread.sleep(30);
+        assertEquals(frames, capture.getFrames());
+    }
+}
@@ -0,0 +1,161 @@
+package com.andernet.experiment.audio;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+class AudioMixerTest {
+    private final byte[] out = new byte[AudioMixer.BLOCK_FRAMES * 4];
+
+    private static PcmClip constant(int frames, short value) {
+        short[] samples = new short[frames * 2];
+        java.util.Arrays.fill(samples, value);
+        return new PcmClip(samples);
+    }
+
+    private short left(int frame) {
+        return (short) ((out[frame * 4] & 0xFF) | (out[frame * 4 + 1] << 8));
+    }
+
+    @Test
+    void testVoicesAreSummedAndClamped() {
+        AudioMixer mixer = new AudioMixer(4);
+        mixer.setClip(Sound.CLICK, constant(AudioMixer.BLOCK_FRAMES + 10, (short) 1000));
+        mixer.setClip(Sound.FAKE, constant(10, (short) 32000));
+        mixer.play(Sound.CLICK);
+        mixer.play(Sound.CLICK);
+        mixer.mixBlock(out, System.nanoTime(), 0);
+        assertEquals(2000, left(0));
+        mixer.play(Sound.FAKE);
+        mixer.mixBlock(out, System.nanoTime(), 0);
+        assertEquals(Short.MAX_VALUE, left(0));
+        // The clicks end ten frames into the block, the fake sound too
+        assertEquals(0, left(10));
+        mixer.mixBlock(out, System.nanoTime(), 0);
+        assertEquals(0, left(0));
+        assertEquals(3, mixer.getStats().getPeakVoices());
+    }
+
+    @Test
+    void testOldestVoiceIsStolen() {
+        AudioMixer mixer = new AudioMixer(2);
+        mixer.setClip(Sound.CLICK, constant(4 * AudioMixer.BLOCK_FRAMES, (short) 100));
+        mixer.setClip(Sound.FAKE, constant(4 * AudioMixer.BLOCK_FRAMES, (short) 1));
+        mixer.play(Sound.CLICK);
+        mixer.play(Sound.CLICK);
+        mixer.mixBlock(out, System.nanoTime(), 0);
+        mixer.play(Sound.FAKE);
+        mixer.mixBlock(out, System.nanoTime(), 0);
+        assertEquals(101, left(0));
+        assertEquals(1, mixer.getStats().getStolen());
+        assertEquals(2, mixer.getStats().getPeakVoices());
+    }
+
+    @Test
+    void testLatencyCountsQueuedAudio() {
+        AudioMixer mixer = new AudioMixer(2);
+        mixer.setClip(Sound.CLICK, constant(10, (short) 1));
+        long before = System.nanoTime();
+        mixer.play(Sound.CLICK);
+        long now = System.nanoTime();
+        mixer.mixBlock(out, now, AudioMixer.SAMPLE_RATE / 100);
+        AudioStats stats = mixer.getStats();
+        assertEquals(1, stats.getStarted());
+        assertTrue(stats.getMaxLatencyNanos() >= 10_000_000L);
+        assertTrue(stats.getMaxLatencyNanos() <= 10_000_000L + (now - before));
+    }
+
+    @Test
+    void testStaleAndExcessTriggersAreDropped() {
+        AudioMixer mixer = new AudioMixer(2);
+        mixer.setClip(Sound.CLICK, constant(10, (short) 1));
+        for (int i = 0; i < AudioMixer.QUEUE_CAPACITY + 5; i++) {
+            mixer.play(Sound.CLICK);
+        }
+        assertEquals(5, mixer.getStats().getDropped());
+        mixer.mixBlock(out, System.nanoTime() + (AudioMixer.MAX_TRIGGER_AGE_MILLIS + 1) * 1_000_000L, 0);
+        assertEquals(5 + AudioMixer.QUEUE_CAPACITY, mixer.getStats().getDropped());
+        assertEquals(0, mixer.getStats().getStarted());
+        assertEquals(0, left(0));
+    }
+
+    @Test
+    void testConcurrentTriggersAreAllCounted() throws Exception {
+        AudioMixer mixer = new AudioMixer(2);
+        int threads = 4;
+        int plays = 5000;
+        Thread[] players = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            players[t] = new Thread(() -> {
+                for (int i = 0; i < plays; i++) {
+                    mixer.play(Sound.CLICK);
+                    if (i % 100 == 0) {
+                        Thread.yield();
+                    }
+                }
+            });
+            players[t].start();
+        }
+        for (Thread player : players) {
+            player.join();
+        }
+        // Nothing mixes, so all but a queue's worth are dropped
+        assertEquals(threads * plays, mixer.getStats().getTriggers());
+        assertEquals(threads * plays - AudioMixer.QUEUE_CAPACITY, mixer.getStats().getDropped());
+    }
+
+    @Test
+    void testQueueDeliversEveryTriggerOnceAcrossThreads() throws Exception {
+        TriggerQueue queue = new TriggerQueue(16);
+        int producers = 4;
+        int perProducer = 5_000;
+        AtomicBoolean failed = new AtomicBoolean();
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            int id = p;
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    while (!queue.offer(id, i)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            threads[p].start();
+        }
+        long[] next = new long[producers];
+        int received = 0;
+        while (received < producers * perProducer) {
+            if (queue.poll()) {
+                int id = queue.polledSound();
+                // Each producer's triggers arrive in order
+                if (queue.polledTime() != next[id]++) {
+                    failed.set(true);
+                }
+                received++;
+            } else {
+                Thread.yield();
+            }
+        }
+        for (Thread t : threads) {
+            t.join();
+        }
+        assertFalse(failed.get());
+        assertFalse(queue.poll());
+    }
+
+    @Test
+    void testDecodedClipsAreResampledToStereo() {
+        // Mono ramp at half the mixer's rate
+        byte[] data = new byte[8];
+        for (int i = 0; i < 4; i++) {
+            data[i * 2] = (byte) (i * 50);
+        }
+        PcmClip clip = PcmClip.fromPcm16(data, 1, AudioMixer.SAMPLE_RATE / 2f);
+        assertEquals(7, clip.getFrames());
+        short[] samples = clip.samples();
+        assertEquals(0, samples[0]);
+        assertEquals(25, samples[2]);
+        assertEquals(25, samples[3]);
+        assertEquals(150, samples[12]);
+    }
+}
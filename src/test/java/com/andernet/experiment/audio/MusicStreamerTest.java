@@ -0,0 +1,127 @@
+package com.andernet.experiment.audio;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import javax.sound.sampled.AudioFileFormat;
+import javax.sound.sampled.AudioFormat;
+import javax.sound.sampled.AudioInputStream;
+import javax.sound.sampled.AudioSystem;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+class MusicStreamerTest {
+    private static final int CHUNK = MusicStreamer.CHUNK_FRAMES;
+
+    private Path dir;
+
+    @BeforeEach
+    void createDirectory() throws Exception {
+        dir = Files.createTempDirectory("tracks");
+    }
+
+    @AfterEach
+    void deleteDirectory() throws Exception {
+        try (var files = Files.list(dir)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(dir);
+    }
+
+    /**
+     * A mono track at the mixer's rate with every sample set to value
+     */
+    private URL track(String name, int frames, short value) throws Exception {
+        byte[] data = new byte[frames * 2];
+        for (int i = 0; i < frames; i++) {
+            data[i * 2] = (byte) value;
+            data[i * 2 + 1] = (byte) (value >> 8);
+        }
+        AudioFormat format = new AudioFormat(AudioMixer.SAMPLE_RATE, 16, 1, true, false);
+        File file = dir.resolve(name).toFile();
+        try (AudioInputStream in = new AudioInputStream(new ByteArrayInputStream(data), format, frames)) {
+            AudioSystem.write(in, AudioFileFormat.Type.WAVE, file);
+        }
+        return file.toURI().toURL();
+    }
+
+    private static short left(byte[] out, int frame) {
+        return (short) ((out[frame * 4] & 0xFF) | (out[frame * 4 + 1] << 8));
+    }
+
+    @Test
+    void testTrackEndsAfterItsLastFrame() throws Exception {
+        try (TrackStream stream = new TrackStream(track("short.wav", 3000, (short) 500), false, CHUNK)) {
+            short[] chunk = new short[CHUNK * 2];
+            assertEquals(CHUNK, stream.read(chunk, CHUNK));
+            assertEquals(3000 - CHUNK, stream.read(chunk, CHUNK));
+            assertEquals(500, chunk[0]);
+            assertEquals(500, chunk[(3000 - CHUNK) * 2 - 1]);
+            assertEquals(0, stream.read(chunk, CHUNK));
+        }
+    }
+
+    @Test
+    void testLoopingHasNoGap() throws Exception {
+        try (TrackStream stream = new TrackStream(track("loop.wav", 1000, (short) 700), true, CHUNK)) {
+            short[] chunk = new short[CHUNK * 2];
+            for (int round = 0; round < 4; round++) {
+                assertEquals(CHUNK, stream.read(chunk, CHUNK));
+                for (short sample : chunk) {
+                    assertEquals(700, sample);
+                }
+            }
+            assertTrue(stream.getLaps() >= 7);
+        }
+    }
+
+    @Test
+    void testStreamingMemoryDoesNotGrowWithLength() throws Exception {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(bean.isThreadAllocatedMemorySupported());
+        int frames = 30 * AudioMixer.SAMPLE_RATE;
+        URL url = track("long.wav", frames, (short) 1);
+        short[] chunk = new short[CHUNK * 2];
+        long before = bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        int total = 0;
+        try (TrackStream stream = new TrackStream(url, false, CHUNK)) {
+            int n;
+            while ((n = stream.read(chunk, CHUNK)) > 0) {
+                total += n;
+            }
+        }
+        long allocated = bean.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+        assertEquals(frames, total);
+        // The whole track would be 2.6 MB of samples
+        assertTrue(allocated < 512 * 1024, "allocated " + allocated + " bytes");
+    }
+
+    @Test
+    void testCrossfadeMovesFromOldTrackToNew() throws Exception {
+        MusicStreamer streamer = new MusicStreamer();
+        byte[] out = new byte[CHUNK * 4];
+        streamer.switchTo(new TrackStream(track("a.wav", 10 * CHUNK, (short) 1000), true, CHUNK), 0);
+        assertEquals(CHUNK, streamer.render(out));
+        assertEquals(1000, left(out, 0));
+        // Just under two chunks of crossfade
+        int fadeMillis = (int) (2L * CHUNK * 1000 / AudioMixer.SAMPLE_RATE);
+        int fadeFrames = fadeMillis * AudioMixer.SAMPLE_RATE / 1000;
+        streamer.switchTo(new TrackStream(track("b.wav", 10 * CHUNK, (short) 3000), true, CHUNK), fadeMillis);
+        assertEquals(CHUNK, streamer.render(out));
+        assertEquals(1000, left(out, 0));
+        assertEquals(1000 + 2000f * (CHUNK - 1) / fadeFrames, left(out, CHUNK - 1), 1);
+        assertEquals(CHUNK, streamer.render(out));
+        assertEquals(3000, left(out, CHUNK - 1));
+        assertEquals(CHUNK, streamer.render(out));
+        assertEquals(3000, left(out, 0));
+    }
+}
@@ -0,0 +1,104 @@
+package com.andernet.experiment.bench;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+class HeadlessBenchmarkTest {
+    private static final int WIDTH = 400;
+    private static final int HEIGHT = 400;
+
+    @Test
+    void testReportsFpsAndEveryComponentGroup() throws Exception {
+        AtomicReference<BenchmarkResult> result = new AtomicReference<>();
+        // Long enough for the overlay to be shown during the measured frames
+        SwingUtilities.invokeAndWait(() -> result.set(
+            new HeadlessBenchmark(WIDTH, HEIGHT, 5, 1).run(10, OffscreenScene.CYCLE_FRAMES)));
+        BenchmarkResult r = result.get();
+
+        assertEquals(OffscreenScene.CYCLE_FRAMES, r.getFrames());
+        assertEquals(OffscreenScene.CYCLE_FRAMES, r.getFrameStats().getFrameCount());
+        assertTrue(r.getFramesPerSecond() > 0);
+        assertEquals(List.of("background", "hud", "mainButton", "fakeButtons", "overlay"),
+                     List.copyOf(r.getComponentNanos().keySet()));
+        assertTrue(r.getComponentNanos().get("overlay") > 0);
+        assertTrue(r.toString().contains("fps"));
+    }
+
+    @Test
+    void testScriptIsDeterministic() throws Exception {
+        AtomicReference<int[]> first = new AtomicReference<>();
+        AtomicReference<int[]> second = new AtomicReference<>();
+        SwingUtilities.invokeAndWait(() -> {
+            first.set(renderFrames(7));
+            second.set(renderFrames(7));
+        });
+        assertArrayEquals(first.get(), second.get());
+    }
+
+    @Test
+    void testScriptChangesTheScene() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            OffscreenScene scene = new OffscreenScene(WIDTH, HEIGHT, 3, 7);
+            scene.step(0);
+            Point start = scene.getMainButton().getLocation();
+            int[] painted = paintComponent(scene.getMainButton());
+            scene.step(OffscreenScene.MOVE_EVERY);
+            assertNotEquals(start, scene.getMainButton().getLocation());
+            // Same size, text and alpha, so only a new color can change the
+            // pixels; the palette is small enough to pick the same color twice
+            boolean recolored = false;
+            for (int i = 1; i <= 4 && !recolored; i++) {
+                scene.step(OffscreenScene.COLOR_EVERY * i);
+                recolored = !Arrays.equals(painted, paintComponent(scene.getMainButton()));
+            }
+            assertTrue(recolored);
+
+            scene.step(OffscreenScene.FADE_FRAMES);
+            assertTrue(scene.getMainButton().getAlpha() < 1f);
+            assertFalse(scene.getOverlay().isVisible());
+            scene.step(OffscreenScene.OVERLAY_FROM);
+            assertTrue(scene.getOverlay().isVisible());
+        });
+    }
+
+    /**
+     * Pixels of a component painted on its own
+     */
+    private static int[] paintComponent(JComponent c) {
+        BufferedImage image = new BufferedImage(c.getWidth(), c.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            c.paint(g);
+        } finally {
+            g.dispose();
+        }
+        return image.getRGB(0, 0, c.getWidth(), c.getHeight(), null, 0, c.getWidth());
+    }
+
+    /**
+     * Pixels of the frame painted after the given number of script steps
+     */
+    private static int[] renderFrames(int frames) {
+        OffscreenScene scene = new OffscreenScene(WIDTH, HEIGHT, 3, 99);
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            for (int frame = 0; frame <= frames * OffscreenScene.MOVE_EVERY; frame++) {
+                scene.step(frame);
+                scene.paint(g);
+            }
+        } finally {
+            g.dispose();
+        }
+        int[] pixels = image.getRGB(0, 0, WIDTH, HEIGHT, null, 0, WIDTH);
+        // Something other than the background was painted
+        assertTrue(Arrays.stream(pixels).distinct().count() > 10);
+        return pixels;
+    }
+}
@@ -0,0 +1,134 @@
+package com.andernet.experiment.input;
+
+import com.andernet.experiment.logic.ButtonManager;
+import com.andernet.experiment.logic.GameState;
+import com.andernet.experiment.settings.Settings;
+import com.andernet.experiment.ui.AnimatedButton;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import javax.swing.*;
+import java.awt.event.InputEvent;
+import java.awt.event.MouseEvent;
+import java.util.ArrayList;
+import java.util.List;
+
+class InputPipelineTest {
+    private final List<PointerInput> handled = new ArrayList<>();
+    private JPanel panel;
+    private ButtonManager buttons;
+    private InputPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        Settings settings = new Settings();
+        settings.setNumFakeButtons(1);
+        settings.setRawInput(true);
+        panel = new JPanel(null);
+        panel.setSize(400, 400);
+        buttons = new ButtonManager(settings, new GameState(30), () -> {}, () -> {}, panel);
+        buttons.createFakeButtons();
+        buttons.getObstacleField().setLocation(0, 300, 300);
+        AnimatedButton main = new AnimatedButton("main");
+        main.setBounds(100, 100, 100, 50);
+        panel.add(main);
+        buttons.setMainButton(main);
+        pipeline = new InputPipeline(panel, buttons, handled::add);
+    }
+
+    private MouseEvent press(java.awt.Component source, int x, int y, int button) {
+        int mask = button == MouseEvent.BUTTON1 ? InputEvent.BUTTON1_DOWN_MASK : InputEvent.BUTTON3_DOWN_MASK;
+        return new MouseEvent(source, MouseEvent.MOUSE_PRESSED, System.currentTimeMillis(), mask,
+                              x, y, 1, false, button);
+    }
+
+    @Test
+    void testPressesAreResolvedInPlayfieldCoordinates() {
+        AnimatedButton main = (AnimatedButton) panel.getComponent(panel.getComponentCount() - 1);
+        pipeline.eventDispatched(press(main, 10, 10, MouseEvent.BUTTON1));
+        pipeline.eventDispatched(press(panel, 320, 310, MouseEvent.BUTTON1));
+        pipeline.eventDispatched(press(panel, 10, 390, MouseEvent.BUTTON1));
+
+        assertEquals(3, handled.size());
+        assertEquals(PointerInput.Kind.MAIN_BUTTON, handled.get(0).kind());
+        assertEquals(110, handled.get(0).x());
+        assertEquals(PointerInput.Kind.FAKE_BUTTON, handled.get(1).kind());
+        assertEquals(0, handled.get(1).index());
+        assertEquals(PointerInput.Kind.MISS, handled.get(2).kind());
+        assertEquals(-1, handled.get(2).index());
+        assertEquals(1, pipeline.getStats().getMainHits());
+        assertEquals(1, pipeline.getStats().getFakeHits());
+        assertEquals(1, pipeline.getStats().getMisses());
+    }
+
+    @Test
+    void testOtherButtonsAndOutsidePressesAreIgnored() {
+        pipeline.eventDispatched(press(panel, 150, 120, MouseEvent.BUTTON3));
+        pipeline.eventDispatched(press(new JPanel(), 150, 120, MouseEvent.BUTTON1));
+        assertTrue(handled.isEmpty());
+        assertEquals(0, pipeline.getStats().getPresses());
+    }
+
+    @Test
+    void testQueuedPressesAreHandledInOrder() {
+        long now = System.nanoTime();
+        pipeline.post(pipeline.resolve(150, 120, 1, now));
+        pipeline.post(pipeline.resolve(320, 310, 2, now));
+        assertTrue(handled.isEmpty());
+        pipeline.dispatch();
+        assertEquals(2, handled.size());
+        assertEquals(1, handled.get(0).whenMillis());
+        assertEquals(2, handled.get(1).whenMillis());
+    }
+
+    @Test
+    void testFrameCompletesTrailsHandledBeforeIt() {
+        pipeline.post(pipeline.resolve(150, 120, System.currentTimeMillis(), System.nanoTime()));
+        pipeline.dispatch();
+        long frameStart = System.nanoTime();
+        while (System.nanoTime() == frameStart) {
+            Thread.onSpinWait();
+        }
+        pipeline.post(pipeline.resolve(320, 310, System.currentTimeMillis(), System.nanoTime()));
+        pipeline.dispatch();
+        pipeline.framePresented(frameStart, frameStart + 1_000_000);
+
+        List<LatencyTrail> trails = pipeline.getTrails();
+        assertEquals(2, trails.size());
+        assertEquals(frameStart + 1_000_000, trails.get(0).presentedNanos());
+        assertTrue(trails.get(0).renderNanos() > 0);
+        assertTrue(trails.get(0).logicNanos() >= 0);
+        // Handled after the frame started, so it waits for the next one
+        assertEquals(-1, trails.get(1).renderNanos());
+        assertEquals(1, pipeline.getStats().getPresented());
+
+        long next = System.nanoTime();
+        pipeline.framePresented(next, next + 5);
+        assertEquals(next + 5, pipeline.getTrails().get(1).presentedNanos());
+        assertEquals(2, pipeline.getStats().getPresented());
+    }
+
+    @Test
+    void testOnlyRecentTrailsAreKept() {
+        for (int i = 0; i < InputPipeline.TRAIL_LENGTH + 5; i++) {
+            pipeline.post(pipeline.resolve(10, 390, i, System.nanoTime()));
+        }
+        pipeline.dispatch();
+        List<LatencyTrail> trails = pipeline.getTrails();
+        assertEquals(InputPipeline.TRAIL_LENGTH, trails.size());
+        assertEquals(5, trails.get(0).input().whenMillis());
+        assertEquals(InputPipeline.TRAIL_LENGTH + 4, trails.get(trails.size() - 1).input().whenMillis());
+        long now = System.nanoTime();
+        pipeline.framePresented(now, now);
+        assertEquals(InputPipeline.TRAIL_LENGTH, pipeline.getStats().getPresented());
+    }
+
+    @Test
+    void testKeyboardOnlyPassesActionsOutsideMouseEvents() {
+        int[] calls = new int[1];
+        JButton button = new JButton();
+        button.addActionListener(InputPipeline.keyboardOnly(e -> calls[0]++));
+        button.doClick(0);
+        assertEquals(1, calls[0]);
+    }
+}
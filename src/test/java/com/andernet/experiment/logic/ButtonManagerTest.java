@@ -1,6 +1,8 @@
 package com.andernet.experiment.logic;
 
 import com.andernet.experiment.settings.Settings;
+import com.andernet.experiment.ui.AnimatedButton;
+import com.andernet.experiment.ui.FakeButton;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 import javax.swing.*;
@@ -10,9 +12,8 @@ class ButtonManagerTest {
     void testCreateFakeButtons() {
         Settings s = new Settings();
         GameState gs = new GameState(30);
-        JLabel scoreLabel = new JLabel();
         JPanel panel = new JPanel();
-        ButtonManager bm = new ButtonManager(s, gs, scoreLabel, ()->{}, ()->{}, panel);
+        ButtonManager bm = new ButtonManager(s, gs, ()->{}, ()->{}, panel);
         bm.createFakeButtons();
         assertEquals(s.getNumFakeButtons(), bm.getFakeButtons().length);
         for (var fake : bm.getFakeButtons()) {
@@ -20,4 +21,103 @@ class ButtonManagerTest {
             assertTrue(panel.isAncestorOf(fake));
         }
     }
+
+    @Test
+    void testCreateLightweightObstacles() {
+        Settings s = new Settings();
+        s.setLightweightObstacles(true);
+        s.setNumFakeButtons(5000);
+        GameState gs = new GameState(30);
+        JPanel panel = new JPanel(null);
+        panel.setSize(400, 400);
+        ButtonManager bm = new ButtonManager(s, gs, ()->{}, ()->{}, panel);
+        bm.createFakeButtons();
+        assertEquals(0, bm.getFakeButtons().length);
+        assertEquals(5000, bm.getObstacleField().size());
+        // A single layer component replaces the individual buttons
+        assertEquals(1, panel.getComponentCount());
+        bm.moveFakeButtons();
+        for (int i = 0; i < bm.getObstacleField().size(); i++) {
+            assertTrue(bm.getObstacleField().getY(i) >= GameConstants.FAKE_BUTTON_MARGIN_TOP);
+        }
+    }
+
+    @Test
+    void testHitTestPrefersMainButton() {
+        Settings s = new Settings();
+        s.setNumFakeButtons(2);
+        JPanel panel = new JPanel(null);
+        panel.setSize(400, 400);
+        ButtonManager bm = new ButtonManager(s, new GameState(30), ()->{}, ()->{}, panel);
+        bm.createFakeButtons();
+        AnimatedButton main = new AnimatedButton("main");
+        main.setBounds(100, 100, 100, 50);
+        bm.setMainButton(main);
+
+        bm.getObstacleField().setLocation(0, 90, 90);
+        bm.getObstacleField().setLocation(1, 300, 300);
+        assertEquals(ButtonManager.HIT_MAIN_BUTTON, bm.hitTest(150, 120));
+        assertEquals(0, bm.hitTest(95, 100));
+        assertEquals(1, bm.hitTest(340, 320));
+        assertEquals(ButtonManager.HIT_NONE, bm.hitTest(10, 390));
+        bm.setFakeButtonsVisible(false);
+        assertEquals(ButtonManager.HIT_NONE, bm.hitTest(340, 320));
+    }
+
+    @Test
+    void testHitTestAgreesWithSwingOnOverlappingFakes() {
+        Settings s = new Settings();
+        s.setNumFakeButtons(3);
+        JPanel panel = new JPanel(null);
+        panel.setSize(400, 400);
+        panel.add(new JLabel("score"));
+        ButtonManager bm = new ButtonManager(s, new GameState(30), ()->{}, ()->{}, panel);
+        bm.createFakeButtons();
+        // Each fake a little further right and down than the one before
+        double[] draws = {0.30, 0.30, 0.35, 0.35, 0.40, 0.40};
+        bm.setRandom(new java.util.Random() {
+            private int next;
+
+            @Override
+            public double nextDouble() {
+                return draws[next++];
+            }
+        });
+        bm.moveFakeButtons();
+
+        FakeButton[] fakes = bm.getFakeButtons();
+        for (int a = 0; a < fakes.length; a++) {
+            for (int b = a + 1; b < fakes.length; b++) {
+                java.awt.Rectangle overlap = fakes[a].getBounds().intersection(fakes[b].getBounds());
+                assertFalse(overlap.isEmpty());
+                int x = (int) overlap.getCenterX();
+                int y = (int) overlap.getCenterY();
+                java.awt.Component hit = SwingUtilities.getDeepestComponentAt(panel, x, y);
+                int index = java.util.Arrays.asList(fakes).indexOf(hit);
+                assertTrue(index >= 0, "Swing resolved " + hit);
+                assertEquals(index, bm.hitTest(x, y));
+            }
+        }
+    }
+
+    @Test
+    void testPressFakeButtonAppliesPenaltyWhenEnabled() {
+        Settings s = new Settings();
+        s.setNumFakeButtons(1);
+        s.setSoundEnabled(false);
+        GameState gs = new GameState(30);
+        JPanel panel = new JPanel(null);
+        panel.setSize(400, 400);
+        ButtonManager bm = new ButtonManager(s, gs, ()->{}, ()->{}, panel);
+        bm.createFakeButtons();
+        for (int i = 0; i < 5; i++) gs.incrementScore();
+
+        bm.pressFakeButton(0);
+        assertEquals(5 - GameConstants.FAKE_BUTTON_PENALTY, gs.getScore());
+        bm.setFakeButtonsEnabled(false);
+        bm.pressFakeButton(0);
+        bm.setFakeButtonsEnabled(true);
+        bm.pressFakeButton(1);
+        assertEquals(5 - GameConstants.FAKE_BUTTON_PENALTY, gs.getScore());
+    }
 }
@@ -0,0 +1,46 @@
+package com.andernet.experiment.logic;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ObstacleFieldTest {
+    @Test
+    void testResetAndHitTest() {
+        ObstacleField field = new ObstacleField();
+        field.reset(3, 80, 40, 0xFFFF0000);
+        assertEquals(3, field.size());
+        field.setLocation(0, 0, 0);
+        field.setLocation(1, 50, 20);
+        field.setLocation(2, 200, 200);
+
+        assertEquals(0, field.hitTest(10, 10));
+        // Overlap of 0 and 1 resolves to the one drawn last
+        assertEquals(1, field.hitTest(60, 30));
+        assertEquals(2, field.hitTest(279, 239));
+        assertEquals(-1, field.hitTest(280, 240));
+        assertEquals(-1, field.hitTest(150, 150));
+    }
+
+    @Test
+    void testShrinkKeepsCapacity() {
+        ObstacleField field = new ObstacleField();
+        field.reset(10, 80, 40, 0);
+        field.reset(2, 10, 10, 0);
+        assertEquals(2, field.size());
+        assertEquals(10, field.getWidth(1));
+        assertEquals(-1, field.hitTest(15, 5));
+    }
+
+    @Test
+    void testRoundedCornersAreNotHit() {
+        ObstacleField field = new ObstacleField();
+        field.setCornerArc(16);
+        field.setWorldSize(400, 400);
+        field.reset(1, 80, 40, 0);
+        field.setLocation(0, 100, 100);
+        assertEquals(-1, field.hitTest(100, 100));
+        assertEquals(-1, field.hitTest(179, 139));
+        assertEquals(0, field.hitTest(104, 104));
+        assertEquals(0, field.hitTest(140, 100));
+    }
+}
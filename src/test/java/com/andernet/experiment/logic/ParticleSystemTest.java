@@ -0,0 +1,48 @@
+package com.andernet.experiment.logic;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.Random;
+
+class ParticleSystemTest {
+    @Test
+    void testScoreRisesFadesAndExpires() {
+        ParticleSystem particles = new ParticleSystem(8);
+        assertTrue(particles.spawnScore(100, 200, 5, 0xFF00FF00));
+        assertEquals(1, particles.size());
+        assertEquals(1f, particles.getAlpha(0), 0.0001f);
+
+        particles.update(0.5f);
+        assertEquals(100f, particles.getX(0), 0.0001f);
+        assertTrue(particles.getY(0) < 200f);
+        assertEquals(0.5f, particles.getAlpha(0), 0.0001f);
+        assertEquals(5, particles.getValue(0));
+
+        particles.update(0.6f);
+        assertEquals(0, particles.size());
+    }
+
+    @Test
+    void testExpiredParticlesAreReplacedByTheLast() {
+        ParticleSystem particles = new ParticleSystem(8);
+        particles.spawnBurst(0, 0, 2, 100f, 0xFFFF0000, new Random(1));
+        particles.spawnScore(50, 50, 7, 0xFF00FF00);
+        // Sparks expire before scores
+        particles.update(0.7f);
+        assertEquals(1, particles.size());
+        assertEquals(ParticleSystem.SCORE, particles.getKind(0));
+        assertEquals(7, particles.getValue(0));
+    }
+
+    @Test
+    void testFullSystemDropsNewParticles() {
+        ParticleSystem particles = new ParticleSystem(10);
+        assertEquals(10, particles.spawnBurst(0, 0, 25, 100f, 0, new Random(1)));
+        assertFalse(particles.spawnScore(0, 0, 1, 0));
+        assertEquals(10, particles.size());
+
+        particles.clear();
+        assertEquals(0, particles.size());
+        assertEquals(10, particles.capacity());
+    }
+}
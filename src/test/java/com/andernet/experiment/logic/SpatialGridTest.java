@@ -0,0 +1,47 @@
+package com.andernet.experiment.logic;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpatialGridTest {
+    private static boolean cellHas(SpatialGrid grid, int cell, int id) {
+        for (int k = 0; k < grid.cellSize(cell); k++) {
+            if (grid.cellItem(cell, k) == id) return true;
+        }
+        return false;
+    }
+
+    @Test
+    void testUpdateSpansCells() {
+        SpatialGrid grid = new SpatialGrid(64);
+        grid.setWorldSize(256, 256);
+        grid.update(0, 60, 60, 10, 10);
+        assertTrue(cellHas(grid, grid.cellAt(60, 60), 0));
+        assertTrue(cellHas(grid, grid.cellAt(65, 65), 0));
+        assertFalse(cellHas(grid, grid.cellAt(200, 200), 0));
+    }
+
+    @Test
+    void testMoveAndRemove() {
+        SpatialGrid grid = new SpatialGrid(64);
+        grid.setWorldSize(256, 256);
+        grid.update(3, 0, 0, 10, 10);
+        grid.update(3, 200, 200, 10, 10);
+        assertEquals(0, grid.cellSize(grid.cellAt(5, 5)));
+        assertTrue(cellHas(grid, grid.cellAt(205, 205), 3));
+        grid.remove(3);
+        assertEquals(0, grid.cellSize(grid.cellAt(205, 205)));
+    }
+
+    @Test
+    void testResizeKeepsIdsAndClampsOutside() {
+        SpatialGrid grid = new SpatialGrid(64);
+        grid.update(1, 500, 500, 10, 10);
+        grid.setWorldSize(1024, 1024);
+        assertTrue(cellHas(grid, grid.cellAt(505, 505), 1));
+        grid.update(2, -50, 2000, 10, 10);
+        assertTrue(cellHas(grid, grid.cellAt(-45, 2005), 2));
+        grid.clear();
+        assertEquals(0, grid.cellSize(grid.cellAt(505, 505)));
+    }
+}
@@ -0,0 +1,84 @@
+package com.andernet.experiment.render;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.concurrent.TimeUnit;
+import com.andernet.experiment.ui.BackgroundLayer;
+import com.andernet.experiment.ui.Theme;
+
+/**
+ * Full-window background render at 4K, through Java2D's paint pipeline
+ * versus the scalar and vector raster backends. The backends only render the
+ * cached layer; compositing it onto the frame is a Java2D blit either way,
+ * so that is not measured here.
+ *
+ * JMH runs every backend in its own fork, so each fork resolves
+ * {@link RasterBackends#get()} once for its backend, and fails if that is
+ * not the backend asked for. Run with
+ * {@code mvn test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=com.andernet.experiment.render.BackgroundFillBenchmark}
+ * or from the IDE.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector", "-Djava.awt.headless=true"})
+public class BackgroundFillBenchmark {
+    private static final int WIDTH = 3840;
+    private static final int HEIGHT = 2160;
+
+    @Param({RasterBackends.JAVA2D, "scalar", "vector"})
+    public String backend;
+
+    private BackgroundLayer background;
+    private JComponent target;
+    private BufferedImage frame;
+    private Graphics2D frameGraphics;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        System.setProperty(RasterBackends.PROPERTY, backend);
+        RasterBackend raster = RasterBackends.get();
+        String resolved = raster != null ? raster.getName() : RasterBackends.JAVA2D;
+        // "vector" quietly becomes scalar without the Vector API module
+        if (!resolved.equals(backend)) {
+            throw new IllegalStateException("Backend " + backend + " is not available, got " + resolved);
+        }
+        background = new BackgroundLayer(Theme.BACKGROUND_GRADIENT_TOP, Theme.BACKGROUND_GRADIENT_BOTTOM,
+                                         new Color(255, 255, 255, 10), 60);
+        target = new JPanel();
+        target.setSize(WIDTH, HEIGHT);
+
+        frame = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_ARGB_PRE);
+        frameGraphics = frame.createGraphics();
+        frameGraphics.setClip(0, 0, WIDTH, HEIGHT);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        frameGraphics.dispose();
+    }
+
+    /**
+     * Re-renders the cached game background (gradient plus dot texture)
+     */
+    @Benchmark
+    public BufferedImage renderBackground() {
+        background.invalidate();
+        background.paint(frameGraphics, target);
+        return frame;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(BackgroundFillBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,52 @@
+package com.andernet.experiment.render;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class DirtyRegionSetTest {
+    @Test
+    void testOverlappingRegionsMerge() {
+        DirtyRegionSet set = new DirtyRegionSet();
+        // Old and new bounds of a button moved by a few pixels
+        set.add(100, 100, 80, 40);
+        set.add(104, 102, 80, 40);
+        assertEquals(1, set.size());
+        assertEquals(84L * 42, set.getArea());
+    }
+
+    @Test
+    void testDistantRegionsStaySeparate() {
+        DirtyRegionSet set = new DirtyRegionSet();
+        set.add(0, 0, 10, 10);
+        set.add(500, 500, 10, 10);
+        assertEquals(2, set.size());
+        assertEquals(200, set.getArea());
+        set.add(0, 0, 10, 10);
+        assertEquals(2, set.size());
+    }
+
+    @Test
+    void testCrossingRegionsCountTheirOverlapTwice() {
+        DirtyRegionSet set = new DirtyRegionSet();
+        // A plus sign: the bounding box would be 10000px for 3600px covered
+        set.add(0, 40, 100, 20);
+        set.add(40, 0, 20, 100);
+        assertEquals(2, set.size());
+        // Both arms are painted, so the 400px center counts twice
+        assertEquals(4000, set.getArea());
+    }
+
+    @Test
+    void testCollapsesWhenFull() {
+        DirtyRegionSet set = new DirtyRegionSet();
+        for (int i = 0; i <= DirtyRegionSet.MAX_REGIONS; i++) {
+            set.add(i * 100, 0, 10, 10);
+        }
+        assertEquals(1, set.size());
+        int[] bounds = new int[4];
+        set.forEach((x, y, w, h) -> { bounds[0] = x; bounds[1] = y; bounds[2] = w; bounds[3] = h; });
+        assertArrayEquals(new int[] {0, 0, DirtyRegionSet.MAX_REGIONS * 100 + 10, 10}, bounds);
+        set.clear();
+        assertTrue(set.isEmpty());
+    }
+}
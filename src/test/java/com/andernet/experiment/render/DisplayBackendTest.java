@@ -0,0 +1,63 @@
+package com.andernet.experiment.render;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsDevice;
+
+class DisplayBackendTest {
+    @Test
+    void testFromName() {
+        assertEquals(DisplayBackend.FULLSCREEN_EXCLUSIVE, DisplayBackend.fromName("FULLSCREEN_EXCLUSIVE"));
+        assertEquals(DisplayBackend.TRANSLUCENT_WINDOWED, DisplayBackend.fromName("TRANSLUCENT_WINDOWED"));
+        assertEquals(DisplayBackend.AUTO, DisplayBackend.fromName("bogus"));
+        assertEquals(DisplayBackend.AUTO, DisplayBackend.fromName(null));
+    }
+
+    @Test
+    void testWithoutScreenFallsBackToOpaqueWindow() {
+        for (DisplayBackend requested : DisplayBackend.values()) {
+            assertEquals(DisplayBackend.OPAQUE_WINDOWED, DisplayBackends.resolve(requested, null));
+        }
+        assertEquals(0, DisplayBackends.refreshRate(null));
+    }
+
+    @Test
+    void testAutoStaysWindowedWhenFullscreenIsSupported() {
+        GraphicsDevice device = new GraphicsDevice() {
+            @Override public int getType() { return TYPE_RASTER_SCREEN; }
+            @Override public String getIDstring() { return "test"; }
+            @Override public GraphicsConfiguration[] getConfigurations() { return new GraphicsConfiguration[0]; }
+            @Override public GraphicsConfiguration getDefaultConfiguration() { return null; }
+            @Override public boolean isFullScreenSupported() { return true; }
+        };
+        assertEquals(DisplayBackend.OPAQUE_WINDOWED, DisplayBackends.resolve(DisplayBackend.AUTO, device));
+        assertEquals(DisplayBackend.OPAQUE_WINDOWED, DisplayBackends.resolve(null, device));
+        // Fullscreen only when asked for
+        assertEquals(DisplayBackend.FULLSCREEN_EXCLUSIVE,
+            DisplayBackends.resolve(DisplayBackend.FULLSCREEN_EXCLUSIVE, device));
+    }
+
+    @Test
+    void testPacingFollowsRefreshRate() {
+        // Unknown refresh rate: the configured target
+        assertEquals(60, DisplayBackends.pacedFps(0, 60));
+        assertEquals(60, DisplayBackends.pacedFps(60, 60));
+        assertEquals(60, DisplayBackends.pacedFps(120, 60));
+        assertEquals(72, DisplayBackends.pacedFps(144, 60));
+        assertEquals(75, DisplayBackends.pacedFps(75, 60));
+        assertEquals(30, DisplayBackends.pacedFps(60, 30));
+        // Never faster than the display
+        assertEquals(60, DisplayBackends.pacedFps(60, 240));
+    }
+
+    @Test
+    void testStatsArePerBackend() {
+        FrameStats windowed = DisplayBackends.statsFor(DisplayBackend.OPAQUE_WINDOWED, 60);
+        FrameStats fullscreen = DisplayBackends.statsFor(DisplayBackend.FULLSCREEN_EXCLUSIVE, 120);
+        assertNotSame(windowed, fullscreen);
+        assertSame(windowed, DisplayBackends.statsFor(DisplayBackend.OPAQUE_WINDOWED, 30));
+        assertSame(fullscreen, DisplayBackends.getStats(DisplayBackend.FULLSCREEN_EXCLUSIVE));
+        assertEquals(1_000_000_000L / 120, fullscreen.getBudgetNanos());
+    }
+}
@@ -0,0 +1,52 @@
+package com.andernet.experiment.render;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FramePacerTest {
+    private static final long FRAME = 16_000_000L;
+
+    private long nanos = 5_000_000_000L;
+    private final FrameStats stats = new FrameStats(FRAME);
+    private final FramePacer pacer = new FramePacer(() -> nanos, FRAME, stats);
+
+    @Test
+    void testWaitsOutTheRestOfTheFrame() {
+        pacer.start();
+        nanos += 6_000_000L;
+        pacer.advance();
+        assertEquals(10_000_000L, pacer.remaining());
+        nanos += 10_000_000L;
+        assertEquals(0, pacer.remaining());
+        assertEquals(0, stats.getDroppedFrames());
+    }
+
+    @Test
+    void testLateFrameIsCaughtUpWithoutDrifting() {
+        pacer.start();
+        // Overruns into the next frame, but by less than a whole one
+        nanos += 20_000_000L;
+        pacer.advance();
+        assertEquals(0, pacer.remaining());
+        // So the next frame is still due on the original schedule
+        nanos += 4_000_000L;
+        pacer.advance();
+        assertEquals(8_000_000L, pacer.remaining());
+        assertEquals(0, stats.getDroppedFrames());
+    }
+
+    @Test
+    void testLongStallDropsTheMissedFrames() {
+        pacer.start();
+        nanos += 100_000_000L;
+        pacer.advance();
+        // 84ms behind the second frame: five whole frames are skipped
+        assertEquals(5, stats.getDroppedFrames());
+        // and the schedule restarts from now
+        assertEquals(0, pacer.remaining());
+        nanos += 1_000_000L;
+        pacer.advance();
+        assertEquals(15_000_000L, pacer.remaining());
+        assertEquals(5, stats.getDroppedFrames());
+    }
+}
@@ -0,0 +1,45 @@
+package com.andernet.experiment.render;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class FrameStatsTest {
+    private static final long BUDGET = 16_000_000L;
+
+    @Test
+    void testCountsLateFramesAndKeepsTheMax() {
+        FrameStats stats = new FrameStats(BUDGET);
+        stats.recordFrame(10_000_000L);
+        stats.recordFrame(BUDGET);
+        stats.recordFrame(30_000_000L);
+        stats.recordFrame(12_000_000L);
+        assertEquals(4, stats.getFrameCount());
+        // Exactly on budget is not late
+        assertEquals(1, stats.getLateFrames());
+        assertEquals(30_000_000L, stats.getMaxFrameNanos());
+        assertEquals(12_000_000L, stats.getLastFrameNanos());
+    }
+
+    @Test
+    void testAverageStartsAtTheFirstFrameAndSmooths() {
+        FrameStats stats = new FrameStats(BUDGET);
+        stats.recordFrame(10_000_000L);
+        assertEquals(10.0, stats.getAverageFrameMillis(), 1e-9);
+        stats.recordFrame(20_000_000L);
+        assertEquals(11.0, stats.getAverageFrameMillis(), 1e-9);
+    }
+
+    @Test
+    void testReset() {
+        FrameStats stats = new FrameStats(BUDGET);
+        stats.recordFrame(40_000_000L);
+        stats.recordDropped(3);
+        stats.reset();
+        assertEquals(0, stats.getFrameCount());
+        assertEquals(0, stats.getLateFrames());
+        assertEquals(0, stats.getDroppedFrames());
+        assertEquals(0, stats.getMaxFrameNanos());
+        assertEquals(0.0, stats.getAverageFrameMillis());
+        assertEquals(BUDGET, stats.getBudgetNanos());
+    }
+}
@@ -0,0 +1,62 @@
+package com.andernet.experiment.render;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class QualityGovernorTest {
+    private static final long BUDGET = 1_000_000_000L / 60;
+
+    private static void feed(QualityGovernor governor, long nanos, int windows) {
+        for (int i = 0; i < windows * QualityGovernor.WINDOW_FRAMES; i++) {
+            governor.recordFrame(nanos);
+        }
+    }
+
+    @Test
+    void testDegradesOneLevelPerSlowWindow() {
+        QualityGovernor governor = new QualityGovernor(BUDGET);
+        governor.configure(true, RenderQuality.FULL, 60);
+        feed(governor, BUDGET * 2, 1);
+        assertEquals(RenderQuality.NO_SHADOWS, governor.getLevel());
+        // The window after a change only lets caches settle
+        feed(governor, BUDGET * 2, 1);
+        assertEquals(RenderQuality.NO_SHADOWS, governor.getLevel());
+        feed(governor, BUDGET * 2, 1);
+        assertEquals(RenderQuality.NO_GRADIENTS, governor.getLevel());
+    }
+
+    @Test
+    void testRecoversOnlyWithSustainedHeadroom() {
+        QualityGovernor governor = new QualityGovernor(BUDGET);
+        governor.configure(true, RenderQuality.FULL, 60);
+        feed(governor, BUDGET * 2, 1);
+        feed(governor, BUDGET / 10, 1);
+        // Frames just under budget are not enough headroom to step up
+        feed(governor, BUDGET * 9 / 10, QualityGovernor.UPGRADE_WINDOWS);
+        assertEquals(RenderQuality.NO_SHADOWS, governor.getLevel());
+        feed(governor, BUDGET / 10, QualityGovernor.UPGRADE_WINDOWS);
+        assertEquals(RenderQuality.FULL, governor.getLevel());
+    }
+
+    @Test
+    void testFixedLevelIgnoresMeasurements() {
+        QualityGovernor governor = new QualityGovernor(BUDGET);
+        RenderQuality[] notified = new RenderQuality[1];
+        governor.addListener(level -> notified[0] = level);
+        governor.configure(false, RenderQuality.NO_ANTIALIAS, 60);
+        assertEquals(RenderQuality.NO_ANTIALIAS, notified[0]);
+        feed(governor, BUDGET * 10, 5);
+        assertEquals(RenderQuality.NO_ANTIALIAS, governor.getLevel());
+    }
+
+    @Test
+    void testLevelOrdering() {
+        assertTrue(RenderQuality.FULL.hasShadows());
+        assertFalse(RenderQuality.NO_SHADOWS.hasShadows());
+        assertTrue(RenderQuality.NO_SHADOWS.hasGradients());
+        assertFalse(RenderQuality.NO_ANTIALIAS.isAntialiased());
+        assertEquals(RenderQuality.FLAT_SPRITES, RenderQuality.FLAT_SPRITES.lower());
+        assertEquals(RenderQuality.FULL, RenderQuality.FULL.higher());
+        assertEquals(RenderQuality.FULL, RenderQuality.fromName("bogus"));
+    }
+}
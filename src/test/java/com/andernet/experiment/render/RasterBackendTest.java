@@ -0,0 +1,70 @@
+package com.andernet.experiment.render;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import java.util.Random;
+
+class RasterBackendTest {
+    @Test
+    void testMul255IsCorrectlyRounded() {
+        for (int a = 0; a < 256; a++) {
+            for (int b = 0; b < 256; b++) {
+                assertEquals(Math.round(a * b / 255.0), RasterBackend.mul255(a, b));
+            }
+        }
+    }
+
+    @Test
+    void testScalarBlend() {
+        RasterBackend scalar = new ScalarRasterBackend();
+        int[] dst = {0xFF204060, 0xFF204060, 0xFF204060};
+        // Opaque, fully transparent and 50% black (premultiplied)
+        int[] src = {0xFFFFFFFF, 0x00000000, 0x80000000};
+        scalar.blend(dst, 0, src, 0, 3, 255);
+        assertEquals(0xFFFFFFFF, dst[0]);
+        assertEquals(0xFF204060, dst[1]);
+        assertEquals(0xFF102030, dst[2]);
+
+        int[] fill = new int[5];
+        scalar.fill(fill, 1, 3, 0x12345678);
+        assertArrayEquals(new int[] {0, 0x12345678, 0x12345678, 0x12345678, 0}, fill);
+    }
+
+    @Test
+    void testVectorMatchesScalar() {
+        RasterBackend vector = RasterBackends.loadVector();
+        assumeTrue(vector != null, "Vector API not available");
+        RasterBackend scalar = new ScalarRasterBackend();
+
+        Random random = new Random(42);
+        // Odd length so the tail loop runs too
+        int length = 1021;
+        int[] src = new int[length];
+        int[] dst = new int[length];
+        for (int i = 0; i < length; i++) {
+            src[i] = RasterBackend.premultiply(random.nextInt());
+            dst[i] = RasterBackend.premultiply(random.nextInt());
+        }
+        for (int extraAlpha : new int[] {255, 200, 0}) {
+            int[] expected = dst.clone();
+            int[] actual = dst.clone();
+            scalar.blend(expected, 0, src, 0, length, extraAlpha);
+            vector.blend(actual, 0, src, 0, length, extraAlpha);
+            assertArrayEquals(expected, actual);
+        }
+
+        int[] expected = new int[length];
+        int[] actual = new int[length];
+        scalar.fill(expected, 3, length - 5, 0x80402010);
+        vector.fill(actual, 3, length - 5, 0x80402010);
+        assertArrayEquals(expected, actual);
+    }
+
+    @Test
+    void testUnknownNameFallsBackToAvailableBackend() {
+        assertNull(RasterBackends.forName(RasterBackends.JAVA2D));
+        assertEquals("scalar", RasterBackends.forName("scalar").getName());
+        assertNotNull(RasterBackends.forName("bogus"));
+    }
+}
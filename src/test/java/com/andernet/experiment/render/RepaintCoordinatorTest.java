@@ -0,0 +1,52 @@
+package com.andernet.experiment.render;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+class RepaintCoordinatorTest {
+
+    /**
+     * Root pane that records the regions painted into it
+     */
+    private static class RecordingRootPane extends JRootPane {
+        final List<Rectangle> painted = new ArrayList<>();
+
+        @Override
+        public void paintImmediately(int x, int y, int w, int h) {
+            painted.add(new Rectangle(x, y, w, h));
+        }
+    }
+
+    @Test
+    void testDistantRegionsArePaintedSeparately() throws Exception {
+        RecordingRootPane root = new RecordingRootPane();
+        JPanel content = new JPanel(null);
+        root.setContentPane(content);
+        root.setSize(800, 600);
+        content.setBounds(0, 0, 800, 600);
+        JButton a = new JButton();
+        JButton b = new JButton();
+        a.setBounds(10, 10, 50, 20);
+        b.setBounds(700, 500, 50, 20);
+        content.add(a);
+        content.add(b);
+
+        RepaintCoordinator coordinator = new RepaintCoordinator();
+        SwingUtilities.invokeAndWait(() -> {
+            coordinator.addDirtyRegion(a, 0, 0, 50, 20);
+            coordinator.addDirtyRegion(b, 0, 0, 50, 20);
+        });
+        // The flush was queued behind the requests
+        SwingUtilities.invokeAndWait(() -> { });
+
+        assertEquals(2, root.painted.size(), root.painted.toString());
+        assertTrue(root.painted.contains(new Rectangle(10, 10, 50, 20)));
+        assertTrue(root.painted.contains(new Rectangle(700, 500, 50, 20)));
+        assertEquals(1, coordinator.getStats().getFlushes());
+        assertEquals(2000, coordinator.getStats().getPaintedArea());
+    }
+}
@@ -0,0 +1,162 @@
+package com.andernet.experiment.render;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+class ScaledImageTest {
+    private static final long MB = 1024 * 1024;
+
+    private static final class CountingRenderer implements ScaledImage.Renderer {
+        int renders;
+        double lastScale;
+
+        @Override
+        public void render(BufferedImage target, double scale) {
+            renders++;
+            lastScale = scale;
+            Graphics2D g2 = target.createGraphics();
+            g2.scale(scale, scale);
+            g2.setColor(Color.RED);
+            g2.fillRect(0, 0, 10, 10);
+            g2.dispose();
+        }
+    }
+
+    @Test
+    void testQuantize() {
+        assertEquals(1.0, ScaledImage.quantize(0.5));
+        assertEquals(1.0, ScaledImage.quantize(Double.NaN));
+        assertEquals(1.0, ScaledImage.quantize(1.1));
+        assertEquals(1.25, ScaledImage.quantize(1.25));
+        assertEquals(1.5, ScaledImage.quantize(1.49));
+        assertEquals(2.0, ScaledImage.quantize(2.0));
+        assertEquals(ScaledImage.MAX_SCALE, ScaledImage.quantize(10));
+    }
+
+    @Test
+    void testVariantPerScale() {
+        CountingRenderer renderer = new CountingRenderer();
+        ScaledImageCache cache = new ScaledImageCache(64 * MB);
+        ScaledImage image = new ScaledImage(30, 20, renderer, cache);
+
+        BufferedImage base = image.getBaseVariant();
+        assertEquals(30, base.getWidth());
+        assertEquals(20, base.getHeight());
+        BufferedImage large = image.getVariant(1.5);
+        assertEquals(45, large.getWidth());
+        assertEquals(30, large.getHeight());
+        assertEquals(1.5, renderer.lastScale);
+        // The logical square covers 15 device pixels at 150%
+        assertEquals(Color.RED.getRGB(), large.getRGB(14, 14));
+        assertEquals(0, large.getRGB(15, 15));
+
+        assertSame(large, image.getVariant(1.5));
+        assertEquals(2, renderer.renders);
+        assertEquals(2, image.getVariantCount());
+        assertEquals(30L * 20 * 4, cache.getBytes(1.0));
+        assertEquals(45L * 30 * 4, cache.getBytes(1.5));
+        assertEquals(30, image.getWidth(null));
+    }
+
+    @Test
+    void testJava2DPicksVariantForTransform() {
+        CountingRenderer renderer = new CountingRenderer();
+        ScaledImage image = new ScaledImage(30, 20, renderer, new ScaledImageCache(64 * MB));
+        BufferedImage target = new BufferedImage(60, 40, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g2 = target.createGraphics();
+        g2.scale(2, 2);
+        g2.drawImage(image, 0, 0, null);
+        g2.dispose();
+        assertTrue(image.hasVariant(2.0));
+        assertFalse(image.hasVariant(1.0));
+        assertEquals(Color.RED.getRGB(), target.getRGB(19, 19));
+    }
+
+    @Test
+    void testInvalidateReusesVariants() {
+        CountingRenderer renderer = new CountingRenderer();
+        ScaledImage image = new ScaledImage(30, 20, renderer, new ScaledImageCache(64 * MB));
+        BufferedImage variant = image.getVariant(2.0);
+        image.invalidate();
+        assertEquals(1, renderer.renders);
+        assertSame(variant, image.getVariant(2.0));
+        assertEquals(2, renderer.renders);
+
+        image.setSize(40, 20);
+        assertEquals(0, image.getVariantCount());
+        assertEquals(80, image.getVariant(2.0).getWidth());
+    }
+
+    @Test
+    void testBudgetIsPerScale() {
+        // Room for two 100x100 variants at each scale
+        ScaledImageCache cache = new ScaledImageCache(2 * 100 * 100 * 4);
+        ScaledImage a = new ScaledImage(100, 100, new CountingRenderer(), cache);
+        ScaledImage b = new ScaledImage(100, 100, new CountingRenderer(), cache);
+        ScaledImage c = new ScaledImage(100, 100, new CountingRenderer(), cache);
+        ScaledImage large = new ScaledImage(50, 50, new CountingRenderer(), cache);
+
+        a.getBaseVariant();
+        b.getBaseVariant();
+        large.getVariant(2.0);
+        // a was drawn longer ago than b, so it goes first
+        c.getBaseVariant();
+        assertFalse(a.hasVariant(1.0));
+        assertTrue(b.hasVariant(1.0));
+        assertTrue(c.hasVariant(1.0));
+        assertTrue(large.hasVariant(2.0));
+        assertEquals(1, cache.getEvictions(1.0));
+        assertEquals(0, cache.getEvictions(2.0));
+        assertTrue(cache.getBytes(1.0) <= cache.getBudgetBytes());
+        assertEquals(2, cache.getImageCount(1.0));
+    }
+
+    @Test
+    void testDrawPicksVariantForScaledGraphics() {
+        CountingRenderer renderer = new CountingRenderer();
+        ScaledImage image = new ScaledImage(30, 20, renderer, new ScaledImageCache(64 * MB));
+        BufferedImage target = new BufferedImage(60, 40, BufferedImage.TYPE_INT_ARGB_PRE);
+        Graphics2D g2 = target.createGraphics();
+        g2.scale(2, 2);
+        image.draw(g2, 0, 0);
+        g2.dispose();
+        assertTrue(image.hasVariant(2.0));
+        assertEquals(Color.RED.getRGB(), target.getRGB(19, 19));
+        assertEquals(0, target.getRGB(20, 20));
+    }
+
+    @Test
+    void testEvictionByAnotherThreadIsDeferred() throws Exception {
+        ScaledImageCache cache = new ScaledImageCache(100 * 100 * 4);
+        ScaledImage mine = new ScaledImage(100, 100, new CountingRenderer(), cache);
+        mine.getBaseVariant();
+        Thread other = new Thread(() -> new ScaledImage(100, 100, new CountingRenderer(), cache).getBaseVariant());
+        other.start();
+        other.join();
+        // Stops counting at once, but only this thread changes its image
+        assertEquals(1, cache.getEvictions(1.0));
+        assertEquals(1, cache.getImageCount(1.0));
+        assertEquals(1, mine.getVariantCount());
+        assertFalse(mine.hasVariant(1.0));
+        mine.getBaseVariant();
+        assertEquals(1, mine.getVariantCount());
+        assertTrue(mine.hasVariant(1.0));
+    }
+
+    @Test
+    void testRetainScaleDropsOtherMonitors() {
+        ScaledImageCache cache = new ScaledImageCache(64 * MB);
+        ScaledImage image = new ScaledImage(30, 20, new CountingRenderer(), cache);
+        image.getBaseVariant();
+        image.getVariant(1.5);
+        image.getVariant(2.0);
+        cache.retainScale(2.0);
+        assertTrue(image.hasVariant(1.0));
+        assertFalse(image.hasVariant(1.5));
+        assertTrue(image.hasVariant(2.0));
+        assertEquals(0, cache.getBytes(1.5));
+        assertTrue(cache.toString().contains("2.00x: images=1"));
+    }
+}
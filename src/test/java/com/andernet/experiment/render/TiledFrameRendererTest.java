@@ -0,0 +1,127 @@
+package com.andernet.experiment.render;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import com.andernet.experiment.ui.AnimatedButton;
+import com.andernet.experiment.ui.BackgroundPanel;
+
+class TiledFrameRendererTest {
+    private static final int WIDTH = 640;
+    private static final int HEIGHT = 400;
+    // Per-channel difference allowed between the two paths, for blend rounding
+    private static final int TOLERANCE = 2;
+
+    private JRootPane root;
+    private AnimatedButton button;
+    private JLabel label;
+    private TiledFrameRenderer renderer;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            root = new JRootPane();
+            BackgroundPanel content = new BackgroundPanel();
+            button = new AnimatedButton("Click");
+            button.setBounds(100, 100, 140, 60);
+            label = new JLabel("Score: 0");
+            label.setBounds(300, 20, 120, 30);
+            content.add(button);
+            content.add(label);
+            root.setContentPane(content);
+            root.setSize(WIDTH, HEIGHT);
+            root.doLayout();
+            renderer = new TiledFrameRenderer(root, 4);
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        renderer.shutdown();
+    }
+
+    private BufferedImage paintTiled() throws Exception {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        SwingUtilities.invokeAndWait(() -> {
+            Graphics2D g = image.createGraphics();
+            renderer.paintFrame(g);
+            g.dispose();
+        });
+        return image;
+    }
+
+    private BufferedImage paintSwing() throws Exception {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        SwingUtilities.invokeAndWait(() -> {
+            Graphics2D g = image.createGraphics();
+            g.setClip(0, 0, WIDTH, HEIGHT);
+            root.paint(g);
+            g.dispose();
+        });
+        return image;
+    }
+
+    private static void assertSameImage(BufferedImage expected, BufferedImage actual) {
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int x = 0; x < WIDTH; x++) {
+                int e = expected.getRGB(x, y);
+                int a = actual.getRGB(x, y);
+                for (int shift = 0; shift < 24; shift += 8) {
+                    int diff = Math.abs(((e >>> shift) & 0xFF) - ((a >>> shift) & 0xFF));
+                    if (diff > TOLERANCE) {
+                        fail(String.format("pixel (%d, %d): expected %06x but was %06x",
+                            x, y, e & 0xFFFFFF, a & 0xFFFFFF));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void testMatchesSwingPainting() throws Exception {
+        assertSameImage(paintSwing(), paintTiled());
+        TileStats stats = renderer.getStats();
+        assertEquals(1, stats.getFrames());
+        assertEquals(stats.getTilesTotal(), stats.getTilesRendered());
+    }
+
+    @Test
+    void testOnlyDirtyTilesAreRendered() throws Exception {
+        paintTiled();
+        TileStats stats = renderer.getStats();
+        long total = stats.getTilesTotal();
+
+        paintTiled();
+        assertEquals(1, stats.getUnchangedFrames());
+        assertEquals(total, stats.getTilesRendered());
+
+        SwingUtilities.invokeAndWait(() -> {
+            button.setAlpha(0.5f);
+            renderer.regionDirty(button, 0, 0, button.getWidth(), button.getHeight());
+        });
+        BufferedImage tiled = paintTiled();
+        long redrawn = stats.getTilesRendered() - total;
+        // A 140x60 button at (100, 100) touches two by two tiles
+        assertEquals(4, redrawn);
+        assertSameImage(paintSwing(), tiled);
+    }
+
+    @Test
+    void testRepaintRefreshesSnapshots() throws Exception {
+        paintTiled();
+        long snapshots = renderer.getStats().getSnapshots();
+        assertTrue(snapshots > 0, "plain Swing components are painted into snapshots");
+
+        SwingUtilities.invokeAndWait(() -> {
+            label.setText("Score: 42");
+            renderer.regionDirty(label, 0, 0, label.getWidth(), label.getHeight());
+        });
+        BufferedImage tiled = paintTiled();
+        assertEquals(snapshots + 1, renderer.getStats().getSnapshots());
+        assertSameImage(paintSwing(), tiled);
+    }
+}
@@ -0,0 +1,105 @@
+package com.andernet.experiment.replay;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+class FrameSequenceExporterTest {
+
+    /**
+     * One second in which the main button jumps every 100 ms
+     */
+    private static SessionLog movingButtonLog() {
+        SessionLog log = new SessionLog(400, 400, 1);
+        log.record(0, SessionLog.SIZE, SessionLog.MAIN_BUTTON, 140, 60);
+        log.record(0, SessionLog.COLOR, SessionLog.MAIN_BUTTON, 0xFFCC2222, 0);
+        log.record(0, SessionLog.VISIBLE, SessionLog.MAIN_BUTTON, 1, 0);
+        log.record(0, SessionLog.SIZE, SessionLog.FAKE_BUTTON, 80, 40);
+        log.record(0, SessionLog.VISIBLE, SessionLog.FAKE_BUTTON, 1, 0);
+        for (int i = 0; i < 10; i++) {
+            log.record(i * 100, SessionLog.MOVE, SessionLog.MAIN_BUTTON, 20 + i * 20, 20 + i * 30);
+            log.record(i * 100, SessionLog.VALUE, SessionLog.SCORE_LABEL, i, 0);
+        }
+        log.setDuration(1000);
+        return log;
+    }
+
+    private static List<BufferedImage> export(SessionLog log, int threads) throws Exception {
+        List<BufferedImage> frames = new ArrayList<>();
+        List<Integer> order = new ArrayList<>();
+        FrameSequenceExporter exporter = new FrameSequenceExporter(200, 100, 20, threads);
+        ExportStats stats = exporter.export(log, (frame, png) -> {
+            order.add(frame);
+            frames.add(decode(png));
+        });
+        assertEquals(exporter.frameCount(log), stats.getFrames());
+        for (int i = 0; i < order.size(); i++) {
+            assertEquals(i, (int) order.get(i));
+        }
+        return frames;
+    }
+
+    private static BufferedImage decode(byte[] png) throws IOException {
+        return ImageIO.read(new ByteArrayInputStream(png));
+    }
+
+    @Test
+    void testFramesCoverTheSessionInOrder() throws Exception {
+        List<BufferedImage> frames = export(movingButtonLog(), 4);
+        // One second at 20 fps, plus the frame at time zero
+        assertEquals(21, frames.size());
+        BufferedImage first = frames.get(0);
+        assertEquals(200, first.getWidth());
+        assertEquals(100, first.getHeight());
+        // A square game area in a 2:1 frame leaves black bars at the sides
+        assertEquals(0, first.getRGB(10, 50) & 0xFFFFFF);
+        assertNotEquals(0, first.getRGB(100, 50) & 0xFFFFFF);
+    }
+
+    @Test
+    void testParallelOutputMatchesSingleThread() throws Exception {
+        SessionLog log = movingButtonLog();
+        List<BufferedImage> serial = export(log, 1);
+        List<BufferedImage> parallel = export(log, 4);
+        assertEquals(serial.size(), parallel.size());
+        for (int f = 0; f < serial.size(); f++) {
+            BufferedImage a = serial.get(f);
+            BufferedImage b = parallel.get(f);
+            for (int y = 0; y < a.getHeight(); y++) {
+                for (int x = 0; x < a.getWidth(); x++) {
+                    assertEquals(a.getRGB(x, y), b.getRGB(x, y), "frame " + f + " at " + x + "," + y);
+                }
+            }
+        }
+        // The button moves, so consecutive frames 100 ms apart differ
+        assertFalse(sameImage(serial.get(0), serial.get(2)));
+        assertTrue(sameImage(serial.get(0), serial.get(1)));
+    }
+
+    @Test
+    void testSinkFailureIsReported() {
+        SessionLog log = new SessionLog(400, 400, 0);
+        log.setDuration(200);
+        FrameSequenceExporter exporter = new FrameSequenceExporter(64, 64, 10, 2);
+        IOException e = assertThrows(IOException.class, () -> exporter.export(log, (frame, png) -> {
+            throw new IOException("disk full");
+        }));
+        assertEquals("disk full", e.getMessage());
+    }
+
+    private static boolean sameImage(BufferedImage a, BufferedImage b) {
+        for (int y = 0; y < a.getHeight(); y++) {
+            for (int x = 0; x < a.getWidth(); x++) {
+                if (a.getRGB(x, y) != b.getRGB(x, y)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,108 @@
+package com.andernet.experiment.replay;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import com.andernet.experiment.logic.ButtonManager;
+
+class InputLogTest {
+
+    static InputLog.Setup sampleSetup() {
+        return new InputLog.Setup(42L, 30, 800, 600, false, 350, 275, 100, 50, 0xFF3366CC,
+                                  new int[] {100, 120, 500, 400});
+    }
+
+    @Test
+    void testEventsRoundTripThroughCursor() {
+        InputLog log = new InputLog(sampleSetup());
+        log.record(0, InputLog.PRESS, ButtonManager.HIT_MAIN_BUTTON, 400, 300);
+        log.record(90, InputLog.PRESS, 1, -5, 32000);
+        log.record(1000, InputLog.CLOCK_TICK, 0, 0, 0);
+        // Out of order times are clamped to the previous one
+        log.record(800, InputLog.MOVE_TICK, 0, 0, 0);
+        log.record(400_000, InputLog.END, 0, 7, 0);
+
+        InputLog.Cursor cursor = log.cursor();
+        assertTrue(cursor.next());
+        assertEquals(InputLog.PRESS, cursor.kind());
+        assertEquals(ButtonManager.HIT_MAIN_BUTTON, cursor.target());
+        assertTrue(cursor.next());
+        assertEquals(90, cursor.time());
+        assertEquals(1, cursor.target());
+        assertEquals(-5, cursor.x());
+        assertEquals(32000, cursor.y());
+        assertTrue(cursor.next());
+        assertEquals(1000, cursor.time());
+        assertTrue(cursor.next());
+        assertEquals(InputLog.MOVE_TICK, cursor.kind());
+        assertEquals(1000, cursor.time());
+        assertTrue(cursor.next());
+        assertEquals(400_000, cursor.time());
+        assertEquals(7, cursor.x());
+        assertFalse(cursor.next());
+        assertEquals(5, log.getEventCount());
+    }
+
+    @Test
+    void testTimestampsAreVarintDeltas() {
+        InputLog log = new InputLog(sampleSetup());
+        for (int i = 0; i < 100; i++) {
+            log.record(i * 100L, InputLog.PRESS, ButtonManager.HIT_NONE, 1, 1);
+        }
+        // Gaps under 128 ms take one byte ahead of each fixed record
+        assertEquals(100 * (1 + InputLog.RECORD_BYTES), log.getEventBytes());
+        log.record(100 * 100L + 1000, InputLog.CLOCK_TICK, 0, 0, 0);
+        assertEquals(100 * (1 + InputLog.RECORD_BYTES) + 2 + InputLog.RECORD_BYTES, log.getEventBytes());
+    }
+
+    @Test
+    void testWriteAndReadBack() throws IOException {
+        InputLog log = new InputLog(sampleSetup());
+        for (int i = 0; i < 500; i++) {
+            log.record(i * 37L, i % 3 == 0 ? InputLog.CLOCK_TICK : InputLog.PRESS, i % 4 - 2, i, i * 2);
+        }
+        Path file = Files.createTempFile("ctb-input", ".bin");
+        try {
+            log.writeTo(file);
+            InputLog read = InputLog.readFrom(file);
+            assertEquals(42L, read.getSetup().seed());
+            assertEquals(2, read.getSetup().getFakeButtonCount());
+            assertArrayEquals(sampleSetup().fakeLocations(), read.getSetup().fakeLocations());
+            assertEquals(log.getEventCount(), read.getEventCount());
+            assertEquals(log.getEventBytes(), read.getEventBytes());
+            InputLog.Cursor a = log.cursor();
+            InputLog.Cursor b = read.cursor();
+            while (a.next()) {
+                assertTrue(b.next());
+                assertEquals(a.time(), b.time());
+                assertEquals(a.kind(), b.kind());
+                assertEquals(a.target(), b.target());
+                assertEquals(a.y(), b.y());
+            }
+            assertFalse(b.next());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testTruncatedLogIsRejected() throws IOException {
+        InputLog log = new InputLog(sampleSetup());
+        for (int i = 0; i < 20; i++) {
+            log.record(i, InputLog.MOVE_TICK, 0, 0, 0);
+        }
+        Path file = Files.createTempFile("ctb-input", ".bin");
+        try {
+            log.writeTo(file);
+            byte[] bytes = Files.readAllBytes(file);
+            Files.write(file, java.util.Arrays.copyOf(bytes, bytes.length - 3));
+            assertThrows(IOException.class, () -> InputLog.readFrom(file));
+            Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+            assertThrows(IOException.class, () -> InputLog.readFrom(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.andernet.experiment.replay;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import com.andernet.experiment.logic.ButtonManager;
+import com.andernet.experiment.logic.GameConstants;
+import com.andernet.experiment.logic.ObstacleField;
+
+class ReplayDriverTest {
+
+    /**
+     * Three hits, a penalty and another hit, with the clock and the move
+     * task ticking in between; the fades overlap the later presses
+     */
+    private static InputLog sampleGame() {
+        InputLog log = new InputLog(InputLogTest.sampleSetup());
+        log.record(10, InputLog.PRESS, ButtonManager.HIT_MAIN_BUTTON, 400, 300);
+        log.record(25, InputLog.MOVE_TICK, 0, 0, 0);
+        log.record(40, InputLog.PRESS, ButtonManager.HIT_MAIN_BUTTON, 410, 290);
+        log.record(50, InputLog.CLOCK_TICK, 0, 0, 0);
+        log.record(60, InputLog.PAUSE, 0, 0, 0);
+        log.record(80, InputLog.RESUME, 0, 0, 0);
+        log.record(90, InputLog.PRESS, ButtonManager.HIT_MAIN_BUTTON, 405, 295);
+        log.record(100, InputLog.PRESS, 1, 540, 415);
+        log.record(110, InputLog.PRESS, ButtonManager.HIT_NONE, 5, 590);
+        log.record(120, InputLog.CLOCK_TICK, 0, 0, 0);
+        log.record(140, InputLog.PRESS, ButtonManager.HIT_MAIN_BUTTON, 395, 305);
+        log.record(150, InputLog.END, 0, 3 - GameConstants.FAKE_BUTTON_PENALTY + 1, 0);
+        return log;
+    }
+
+    private static void assertSameState(ReplayDriver a, ReplayDriver b) {
+        assertEquals(a.getGameState().getScore(), b.getGameState().getScore());
+        assertEquals(a.getGameState().getTimeLeft(), b.getGameState().getTimeLeft());
+        assertEquals(a.getMainButton().getBounds(), b.getMainButton().getBounds());
+        assertEquals(a.getMainButton().getBaseColor(), b.getMainButton().getBaseColor());
+        assertEquals(a.getMainButton().getAlpha(), b.getMainButton().getAlpha());
+        ObstacleField fa = a.getButtonManager().getObstacleField();
+        ObstacleField fb = b.getButtonManager().getObstacleField();
+        assertEquals(fa.size(), fb.size());
+        for (int i = 0; i < fa.size(); i++) {
+            assertEquals(fa.getX(i), fb.getX(i));
+            assertEquals(fa.getY(i), fb.getY(i));
+        }
+    }
+
+    @Test
+    void testReplayReproducesScoreAndClock() {
+        ReplayDriver driver = new ReplayDriver(sampleGame());
+        ReplayDriver.Result result = driver.replayFast();
+        assertEquals(12, result.events());
+        assertTrue(result.matches(), result.toString());
+        assertEquals(2, result.score());
+        assertEquals(28, driver.getGameState().getTimeLeft());
+        // The buttons moved away from where the recording started
+        assertNotEquals(100, driver.getButtonManager().getObstacleField().getX(0));
+    }
+
+    @Test
+    void testFastAndRealTimeReplaysEndAlike() throws InterruptedException {
+        ReplayDriver fast = new ReplayDriver(sampleGame());
+        ReplayDriver again = new ReplayDriver(sampleGame());
+        ReplayDriver realTime = new ReplayDriver(sampleGame());
+        fast.replayFast();
+        again.replayFast();
+        ReplayDriver.Result result = realTime.replayRealTime();
+
+        assertSameState(fast, again);
+        assertSameState(fast, realTime);
+        assertTrue(result.elapsedNanos() >= 150_000_000L, "took " + result.elapsedNanos());
+    }
+
+    @Test
+    void testSeedDecidesTheMoves() {
+        InputLog.Setup setup = InputLogTest.sampleSetup();
+        InputLog other = new InputLog(new InputLog.Setup(7L, setup.durationSeconds(), setup.width(),
+            setup.height(), setup.lightweightObstacles(), setup.mainX(), setup.mainY(), setup.mainWidth(),
+            setup.mainHeight(), setup.mainColor(), setup.fakeLocations()));
+        other.record(25, InputLog.MOVE_TICK, 0, 0, 0);
+        InputLog same = new InputLog(setup);
+        same.record(25, InputLog.MOVE_TICK, 0, 0, 0);
+
+        ReplayDriver a = new ReplayDriver(same);
+        ReplayDriver b = new ReplayDriver(other);
+        a.replayFast();
+        b.replayFast();
+        assertNotEquals(a.getButtonManager().getObstacleField().getX(0),
+                        b.getButtonManager().getObstacleField().getX(0));
+    }
+
+    @Test
+    void testDriverReplaysOnce() {
+        ReplayDriver driver = new ReplayDriver(sampleGame());
+        driver.replayFast();
+        assertThrows(IllegalStateException.class, driver::replayFast);
+    }
+}
@@ -0,0 +1,144 @@
+package com.andernet.experiment.replay;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import javax.swing.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import com.andernet.experiment.ui.AnimatedButton;
+import com.andernet.experiment.ui.FakeButton;
+import com.andernet.experiment.ui.GameOverlayPanel;
+import com.andernet.experiment.ui.HudLabel;
+
+class SessionLogTest {
+
+    private static SessionLog sampleLog() {
+        SessionLog log = new SessionLog(400, 400, 2);
+        log.record(0, SessionLog.MOVE, SessionLog.MAIN_BUTTON, 10, 20);
+        log.record(0, SessionLog.SIZE, SessionLog.MAIN_BUTTON, 140, 60);
+        log.record(0, SessionLog.VISIBLE, SessionLog.MAIN_BUTTON, 1, 0);
+        log.recordText(0, SessionLog.OVERLAY_LABEL, "3");
+        log.record(500, SessionLog.MOVE, SessionLog.MAIN_BUTTON, 100, 200);
+        log.record(500, SessionLog.ALPHA, SessionLog.MAIN_BUTTON, Float.floatToIntBits(0.5f), 0);
+        log.record(1000, SessionLog.VALUE, SessionLog.SCORE_LABEL, 3, 0);
+        log.record(1000, SessionLog.COLOR, SessionLog.FAKE_BUTTON + 1, 0xFF123456, 0);
+        log.recordText(1500, SessionLog.OVERLAY_LABEL, "Game Over!");
+        log.recordText(1600, SessionLog.OVERLAY_LABEL, "3");
+        return log;
+    }
+
+    @Test
+    void testApplyUntilRebuildsState() {
+        SessionLog log = sampleLog();
+        SessionLog.State state = log.newState();
+        log.applyUntil(state, 499);
+        assertEquals(10, state.getX(SessionLog.MAIN_BUTTON));
+        assertEquals(1f, state.getAlpha(SessionLog.MAIN_BUTTON));
+        assertEquals("3", state.getText(SessionLog.OVERLAY_LABEL));
+
+        log.applyUntil(state, 1500);
+        assertEquals(100, state.getX(SessionLog.MAIN_BUTTON));
+        assertEquals(200, state.getY(SessionLog.MAIN_BUTTON));
+        assertEquals(140, state.getWidth(SessionLog.MAIN_BUTTON));
+        assertEquals(0.5f, state.getAlpha(SessionLog.MAIN_BUTTON));
+        assertEquals(3, state.getValue(SessionLog.SCORE_LABEL));
+        assertEquals(0xFF123456, state.getColor(SessionLog.FAKE_BUTTON + 1));
+        assertEquals("Game Over!", state.getText(SessionLog.OVERLAY_LABEL));
+
+        // Going back replays from the start
+        SessionLog.State later = state.copy();
+        log.applyUntil(state, 100);
+        assertEquals(10, state.getX(SessionLog.MAIN_BUTTON));
+        assertEquals(0, state.getValue(SessionLog.SCORE_LABEL));
+        assertEquals(100, later.getX(SessionLog.MAIN_BUTTON));
+    }
+
+    @Test
+    void testTimesNeverDecrease() {
+        SessionLog log = new SessionLog(400, 400, 0);
+        log.record(100, SessionLog.VALUE, SessionLog.SCORE_LABEL, 1, 0);
+        log.record(90, SessionLog.VALUE, SessionLog.SCORE_LABEL, 2, 0);
+        SessionLog.State state = log.newState();
+        log.applyUntil(state, 99);
+        assertEquals(0, state.getValue(SessionLog.SCORE_LABEL));
+        log.applyUntil(state, 100);
+        assertEquals(2, state.getValue(SessionLog.SCORE_LABEL));
+        assertThrows(IllegalArgumentException.class,
+                     () -> log.record(0, SessionLog.MOVE, SessionLog.FAKE_BUTTON, 0, 0));
+    }
+
+    @Test
+    void testWriteAndRead() throws IOException {
+        SessionLog log = sampleLog();
+        log.setDuration(4000);
+        Path file = Files.createTempFile("session", ".ctbs");
+        try {
+            log.writeTo(file);
+            SessionLog read = SessionLog.readFrom(file);
+            assertEquals(400, read.getWidth());
+            assertEquals(2, read.getFakeButtonCount());
+            assertEquals(log.getEventCount(), read.getEventCount());
+            assertEquals(4000, read.getDuration());
+            SessionLog.State state = read.newState();
+            read.applyUntil(state, 1550);
+            assertEquals(100, state.getX(SessionLog.MAIN_BUTTON));
+            assertEquals("Game Over!", state.getText(SessionLog.OVERLAY_LABEL));
+
+            Files.write(file, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+            assertThrows(IOException.class, () -> SessionLog.readFrom(file));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void testTrackerRecordsComponentChanges() throws Exception {
+        AnimatedButton main = new AnimatedButton("Click");
+        FakeButton fake = new FakeButton("Fake");
+        HudLabel score = new HudLabel("Score: ", 0);
+        HudLabel timer = new HudLabel("Time: ", 30);
+        HudLabel high = new HudLabel("High: ", 7);
+        GameOverlayPanel overlay = new GameOverlayPanel(400, 400);
+        JPanel area = new JPanel(null);
+        area.setSize(400, 300);
+        area.add(main);
+        area.add(fake);
+        main.setBounds(5, 5, 140, 60);
+        SessionTracker tracker = new SessionTracker(main, score, timer, high, overlay);
+
+        SwingUtilities.invokeAndWait(() -> {
+            tracker.start(area, new FakeButton[] {fake});
+            main.setLocation(50, 60);
+            main.setAlpha(0.3f);
+            main.setBaseColor(new java.awt.Color(0x0000FF));
+            fake.setBackground(new java.awt.Color(0x00FF00));
+            score.setValue(4);
+            overlay.setVisible(false);
+            overlay.getOverlayLabel().setText("Go!");
+        });
+        // Component events are delivered through the event queue
+        SwingUtilities.invokeAndWait(() -> { });
+        SessionLog log = tracker.stop(1000);
+        assertFalse(tracker.isRecording());
+        assertEquals(300, log.getHeight());
+        assertEquals(1, log.getFakeButtonCount());
+
+        SessionLog.State state = log.newState();
+        log.applyUntil(state, log.getDuration());
+        assertEquals(50, state.getX(SessionLog.MAIN_BUTTON));
+        assertEquals(60, state.getY(SessionLog.MAIN_BUTTON));
+        assertEquals(0.3f, state.getAlpha(SessionLog.MAIN_BUTTON));
+        assertEquals(0xFF0000FF, state.getColor(SessionLog.MAIN_BUTTON));
+        assertEquals(0xFF00FF00, state.getColor(SessionLog.FAKE_BUTTON));
+        assertEquals(4, state.getValue(SessionLog.SCORE_LABEL));
+        assertEquals(7, state.getValue(SessionLog.HIGH_SCORE_LABEL));
+        assertFalse(state.isVisible(SessionLog.OVERLAY));
+        assertEquals("Go!", state.getText(SessionLog.OVERLAY_LABEL));
+
+        // Detached: later changes are not recorded
+        int events = log.getEventCount();
+        SwingUtilities.invokeAndWait(() -> score.setValue(9));
+        assertEquals(events, log.getEventCount());
+    }
+}
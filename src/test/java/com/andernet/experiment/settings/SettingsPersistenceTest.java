@@ -1,5 +1,7 @@
 package com.andernet.experiment.settings;
 
+import com.andernet.experiment.render.DisplayBackend;
+import com.andernet.experiment.render.RenderQuality;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -13,6 +15,12 @@ class SettingsPersistenceTest {
         s.setSoundEnabled(false);
         s.setMainButtonStartWidth(123);
         s.setMainButtonStartHeight(45);
+        s.setActiveRendering(true);
+        s.setTargetFps(75);
+        s.setTiledRendering(true);
+        s.setAdaptiveQuality(false);
+        s.setRenderQuality(RenderQuality.NO_ANTIALIAS);
+        s.setDisplayBackend(DisplayBackend.OPAQUE_WINDOWED);
         SettingsPersistence.save(s);
         Settings loaded = new Settings();
         SettingsPersistence.load(loaded);
@@ -22,5 +30,11 @@ class SettingsPersistenceTest {
         assertFalse(loaded.isSoundEnabled());
         assertEquals(123, loaded.getMainButtonStartWidth());
         assertEquals(45, loaded.getMainButtonStartHeight());
+        assertTrue(loaded.isActiveRendering());
+        assertEquals(75, loaded.getTargetFps());
+        assertTrue(loaded.isTiledRendering());
+        assertFalse(loaded.isAdaptiveQuality());
+        assertEquals(RenderQuality.NO_ANTIALIAS, loaded.getRenderQuality());
+        assertEquals(DisplayBackend.OPAQUE_WINDOWED, loaded.getDisplayBackend());
     }
 }
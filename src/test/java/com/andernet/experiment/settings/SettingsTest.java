@@ -1,5 +1,7 @@
 package com.andernet.experiment.settings;
 
+import com.andernet.experiment.render.DisplayBackend;
+import com.andernet.experiment.render.RenderQuality;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -13,6 +15,12 @@ class SettingsTest {
         assertTrue(s.isSoundEnabled());
         assertEquals(140, s.getMainButtonStartWidth());
         assertEquals(60, s.getMainButtonStartHeight());
+        assertFalse(s.isActiveRendering());
+        assertEquals(60, s.getTargetFps());
+        assertFalse(s.isTiledRendering());
+        assertTrue(s.isAdaptiveQuality());
+        assertEquals(RenderQuality.FULL, s.getRenderQuality());
+        assertEquals(DisplayBackend.OPAQUE_WINDOWED, s.getDisplayBackend());
     }
     @Test
     void testSetters() {
@@ -23,11 +31,23 @@ class SettingsTest {
         s.setSoundEnabled(false);
         s.setMainButtonStartWidth(200);
         s.setMainButtonStartHeight(80);
+        s.setActiveRendering(true);
+        s.setTargetFps(120);
+        s.setTiledRendering(true);
+        s.setAdaptiveQuality(false);
+        s.setRenderQuality(RenderQuality.NO_GRADIENTS);
+        s.setDisplayBackend(DisplayBackend.FULLSCREEN_EXCLUSIVE);
         assertEquals(99, s.getGameDurationSeconds());
         assertEquals(7, s.getNumFakeButtons());
         assertEquals(555, s.getMoveIntervalMs());
         assertFalse(s.isSoundEnabled());
         assertEquals(200, s.getMainButtonStartWidth());
         assertEquals(80, s.getMainButtonStartHeight());
+        assertTrue(s.isActiveRendering());
+        assertEquals(120, s.getTargetFps());
+        assertTrue(s.isTiledRendering());
+        assertFalse(s.isAdaptiveQuality());
+        assertEquals(RenderQuality.NO_GRADIENTS, s.getRenderQuality());
+        assertEquals(DisplayBackend.FULLSCREEN_EXCLUSIVE, s.getDisplayBackend());
     }
 }
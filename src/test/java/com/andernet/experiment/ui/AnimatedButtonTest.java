@@ -2,6 +2,9 @@ package com.andernet.experiment.ui;
 
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
+import java.awt.Color;
+import java.awt.image.BufferedImage;
+import com.andernet.experiment.render.DisplayList;
 
 class AnimatedButtonTest {
     @Test
@@ -11,4 +14,31 @@ class AnimatedButtonTest {
         // No exception, alpha should be set
         assertEquals(0.5f, btn.getAlpha(), 0.01);
     }
+
+    @Test
+    void testOnlyPaintedChangesReRenderTheSprite() {
+        AnimatedButton btn = new AnimatedButton("Test", Color.RED);
+        btn.setSize(100, 50);
+        BufferedImage sprite = spriteOf(btn);
+        // A pixel the renderer would overwrite shows whether it ran again
+        sprite.setRGB(50, 25, 0xFF00FF00);
+        int marker = sprite.getRGB(50, 25);
+
+        // The background is not painted, so it leaves the sprite alone
+        btn.setBackground(Color.BLUE);
+        assertSame(sprite, spriteOf(btn));
+        assertEquals(marker, sprite.getRGB(50, 25));
+        btn.setBaseColor(Color.RED);
+        assertEquals(marker, spriteOf(btn).getRGB(50, 25));
+
+        btn.setBaseColor(Color.BLUE);
+        assertEquals(Color.BLUE, btn.getBaseColor());
+        assertNotEquals(marker, spriteOf(btn).getRGB(50, 25));
+    }
+
+    private static BufferedImage spriteOf(AnimatedButton btn) {
+        DisplayList list = new DisplayList();
+        btn.addTo(list, 0, 0);
+        return list.getImage(0);
+    }
 }
@@ -0,0 +1,39 @@
+package com.andernet.experiment.ui;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+class ButtonSpriteTest {
+    @Test
+    void testSpriteIsReusedUntilInputsChange() {
+        FakeButton button = new FakeButton("Fake!");
+        button.setSize(80, 40);
+        ButtonSprite sprite = new ButtonSprite(ButtonStyle.FAKE);
+
+        BufferedImage first = sprite.getImage(button, button.getText(), Color.RED, 12);
+        assertNotNull(first);
+        assertEquals(80, first.getWidth());
+        assertEquals(40, first.getHeight());
+        int pixel = first.getRGB(5, 20);
+        assertSame(first, sprite.getImage(button, button.getText(), Color.RED, 12));
+
+        // Same size, new color: image buffer is reused but re-rendered
+        BufferedImage recolored = sprite.getImage(button, button.getText(), Color.BLUE, 12);
+        assertNotEquals(pixel, recolored.getRGB(5, 20));
+
+        // Resize allocates a new image of the new size
+        button.setSize(100, 50);
+        BufferedImage resized = sprite.getImage(button, button.getText(), Color.BLUE, 12);
+        assertEquals(100, resized.getWidth());
+        assertEquals(50, resized.getHeight());
+    }
+
+    @Test
+    void testEmptyComponentHasNoSprite() {
+        AnimatedButton button = new AnimatedButton("Test");
+        ButtonSprite sprite = new ButtonSprite(ButtonStyle.MAIN);
+        assertNull(sprite.getImage(button, button.getText(), Color.BLUE, 16));
+    }
+}
@@ -0,0 +1,63 @@
+package com.andernet.experiment.ui;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+class HudLabelTest {
+    @Test
+    void testSetValueComposesTextLazily() {
+        HudLabel label = new HudLabel("Score: ", 0);
+        assertEquals("Score: 0", label.getText());
+        label.setValue(42);
+        assertEquals(42, label.getValue());
+        assertEquals("Score: 42", label.getText());
+        // Legacy JLabel-style updates still land on the value
+        label.setText("Score: 7");
+        assertEquals(7, label.getValue());
+    }
+
+    @Test
+    void testSetValueDoesNotInvalidateLayout() {
+        int[] revalidations = new int[1];
+        HudLabel label = new HudLabel("Time: ", 30) {
+            @Override
+            public void revalidate() {
+                revalidations[0]++;
+                super.revalidate();
+            }
+        };
+        label.setFont(Theme.LABEL_FONT);
+        int before = revalidations[0];
+        label.setValue(29);
+        label.setValue(28);
+        assertEquals(before, revalidations[0]);
+        assertEquals("Time: 28", label.getText());
+    }
+
+    @Test
+    void testAtlasMeasuresAndDraws() {
+        Font font = Theme.LABEL_FONT;
+        GlyphAtlas atlas = new GlyphAtlas(null, "Score: ", font, Color.BLACK,
+                                          com.andernet.experiment.render.RenderQuality.FULL);
+        assertTrue(atlas.measure(100) > atlas.measure(9));
+        assertTrue(atlas.measure(-5) > atlas.measure(5));
+        assertTrue(atlas.measure(Integer.MIN_VALUE) > 0);
+
+        BufferedImage target = new BufferedImage(200, 40, BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = target.createGraphics();
+        atlas.draw(g, 1234, 0, 0);
+        g.dispose();
+        boolean painted = false;
+        for (int x = atlas.measure(0); x < atlas.measure(1234) && !painted; x++) {
+            for (int y = 0; y < atlas.getHeight(); y++) {
+                if ((target.getRGB(x, y) >>> 24) != 0) {
+                    painted = true;
+                    break;
+                }
+            }
+        }
+        assertTrue(painted, "digits should be drawn after the prefix");
+    }
+}
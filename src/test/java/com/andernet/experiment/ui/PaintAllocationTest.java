@@ -0,0 +1,87 @@
+package com.andernet.experiment.ui;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import javax.swing.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+import java.util.function.Consumer;
+
+/**
+ * Repeated paints of the custom components must not allocate once their
+ * caches are warm, or fast clicking turns into young-GC stutter.
+ */
+class PaintAllocationTest {
+    private static final int WARMUP_PAINTS = 20000;
+    private static final int MEASURED_PAINTS = 1000;
+    // Allowance for JDK-internal blit bookkeeping
+    private static final long MAX_BYTES_PER_PAINT = 256;
+
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static <T extends JComponent> void assertPaintDoesNotAllocate(String name, T component, Consumer<Graphics> paint)
+            throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            BufferedImage target = new BufferedImage(component.getWidth(), component.getHeight(),
+                                                     BufferedImage.TYPE_INT_ARGB_PRE);
+            Graphics2D g = target.createGraphics();
+            // Swing always paints with a clip
+            g.setClip(0, 0, component.getWidth(), component.getHeight());
+            for (int i = 0; i < WARMUP_PAINTS; i++) {
+                paint.accept(g);
+            }
+            long before = allocatedBytes();
+            for (int i = 0; i < MEASURED_PAINTS; i++) {
+                paint.accept(g);
+            }
+            long perPaint = (allocatedBytes() - before) / MEASURED_PAINTS;
+            g.dispose();
+            assertTrue(perPaint <= MAX_BYTES_PER_PAINT, name + " allocated " + perPaint + " bytes per paint");
+        });
+    }
+
+    @Test
+    void testPaintPathsDoNotAllocate() throws Exception {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        assumeTrue(((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean()).isThreadAllocatedMemorySupported());
+
+        AnimatedButton animated = new AnimatedButton("Click");
+        animated.setSize(140, 60);
+        animated.setAlpha(0.5f);
+        assertPaintDoesNotAllocate("AnimatedButton", animated, animated::paintComponent);
+
+        FakeButton fake = new FakeButton("Fake");
+        assertPaintDoesNotAllocate("FakeButton", fake, fake::paintComponent);
+
+        ModernButton modern = new ModernButton("Start");
+        modern.setSize(160, 50);
+        assertPaintDoesNotAllocate("ModernButton", modern, modern::paintComponent);
+
+        ModernPanel panel = new ModernPanel();
+        panel.setSize(200, 100);
+        panel.setGradient(Theme.PRIMARY_BLUE, Theme.NEUTRAL_600);
+        assertPaintDoesNotAllocate("ModernPanel", panel, panel::paintComponent);
+
+        BackgroundPanel background = new BackgroundPanel();
+        background.setSize(400, 300);
+        assertPaintDoesNotAllocate("BackgroundPanel", background, background::paintComponent);
+
+        HudLabel hud = new HudLabel("Score: ", 42);
+        hud.setFont(Theme.LABEL_FONT);
+        hud.setSize(120, 35);
+        assertPaintDoesNotAllocate("HudLabel", hud, hud::paintComponent);
+
+        ParticleLayer particles = new ParticleLayer();
+        particles.setSize(400, 300);
+        particles.getParticles().spawnScore(100, 100, 1, Color.GREEN.getRGB());
+        particles.getParticles().spawnScore(200, 100, -2, Color.RED.getRGB());
+        particles.getParticles().spawnBurst(150, 150, 50, 100f, Theme.ACCENT_ORANGE.getRGB(), new java.util.Random(1));
+        particles.getParticles().update(0.1f);
+        assertPaintDoesNotAllocate("ParticleLayer", particles, particles::paintComponent);
+    }
+}
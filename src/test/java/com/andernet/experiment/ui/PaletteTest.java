@@ -0,0 +1,66 @@
+package com.andernet.experiment.ui;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.awt.*;
+import java.util.Random;
+import com.andernet.experiment.util.ColorCache;
+
+class PaletteTest {
+    // Theme.brightenColor before the palette tables
+    private static Color hsbShade(Color color, float delta) {
+        float[] hsb = Color.RGBtoHSB(color.getRed(), color.getGreen(), color.getBlue(), null);
+        hsb[2] = Math.max(0f, Math.min(1f, hsb[2] + delta));
+        return Color.getHSBColor(hsb[0], hsb[1], hsb[2]);
+    }
+
+    @Test
+    void testShadesMatchHsbDerivation() {
+        Color[] colors = {Theme.PRIMARY_BLUE, Theme.NEUTRAL_600, UIUtils.MODERN_COLORS[3].darker()};
+        float[] factors = {0.1f, 0.15f, 0.2f, 1f, 2f};
+        for (Color c : colors) {
+            assertTrue(Palette.indexOf(c) >= 0);
+            for (float f : factors) {
+                assertEquals(hsbShade(c, f), Theme.brightenColor(c, f));
+                assertEquals(hsbShade(c, -f), Theme.darkenColor(c, f));
+            }
+        }
+        // Same shades through the table and through the cache
+        Color outside = new Color(12, 34, 56);
+        assertEquals(-1, Palette.indexOf(outside));
+        assertEquals(hsbShade(outside, 0.1f), Theme.brightenColor(outside, 0.1f));
+        assertEquals(hsbShade(Theme.PRIMARY_BLUE, 0.123f), Theme.brightenColor(Theme.PRIMARY_BLUE, 0.123f));
+    }
+
+    @Test
+    void testPaletteLookupsReturnSharedInstances() {
+        assertSame(Theme.darkenColor(Theme.PRIMARY_BLUE, 0.1f), Theme.darkenColor(Theme.PRIMARY_BLUE, 0.1f));
+        int slot = Palette.indexOf(Theme.MAIN_BUTTON_COLOR);
+        assertEquals(Theme.MAIN_BUTTON_COLOR.darker(), Palette.color(Palette.darker(slot)));
+        assertSame(Palette.color(Palette.darker(slot)), ColorCache.getDarkerColor(Theme.MAIN_BUTTON_COLOR));
+        assertEquals(Palette.argb(Palette.shade(slot, 100)), Palette.argb(Palette.shade(slot, Palette.STEPS)));
+        assertEquals(0xFF000000, Palette.argb(Palette.shade(slot, -100)));
+    }
+
+    @Test
+    void testRandomButtonColorsFollowTheLegacyDraw() {
+        Random legacy = new Random(42);
+        Random palette = new Random(42);
+        for (int i = 0; i < 50; i++) {
+            assertEquals(UIUtils.getRandomModernColor(legacy).darker(),
+                         Palette.color(Palette.randomButtonColor(palette)));
+        }
+    }
+
+    @Test
+    void testColorCacheHandlesArbitraryColors() {
+        for (int i = 0; i < 2000; i++) {
+            Color c = new Color(i * 7919 & 0xFFFFFF);
+            assertEquals(c.darker(), ColorCache.getDarkerColor(c));
+            assertEquals(new Color(c.getRed(), c.getGreen(), c.getBlue(), i & 0xFF),
+                         ColorCache.getTranslucentColor(c, i & 0xFF));
+        }
+        Color c = new Color(1, 2, 3);
+        assertSame(ColorCache.getBrighterColor(c), ColorCache.getBrighterColor(c));
+    }
+}
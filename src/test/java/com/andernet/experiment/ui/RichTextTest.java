@@ -0,0 +1,91 @@
+package com.andernet.experiment.ui;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+
+class RichTextTest {
+    private static final Font FONT = new Font(Font.SANS_SERIF, Font.BOLD, 20);
+
+    @Test
+    void testParseStripsMarkup() {
+        RichText text = RichText.parse("Game Over!\n{size 12}Score: {b}5{/b}{/size}\n{{b} {unknown}");
+        assertEquals("Game Over!\nScore: 5\n{b} {unknown}", text.getPlainText());
+        assertEquals("Game Over!\n{size 12}Score: {b}5{/b}{/size}\n{{b} {unknown}", text.getMarkup());
+    }
+
+    @Test
+    void testLegacyHtmlIsConverted() {
+        RichText text = RichText.parse("<html><div style='text-align:center;'>Game Over!<br>"
+            + "<b>A &amp; B</b></div></html>");
+        assertEquals("Game Over!\nA & B", text.getPlainText());
+    }
+
+    @Test
+    void testLayoutStacksLinesAndCentersThem() {
+        RichText.Layout one = RichText.parse("Paused").layout(FONT);
+        RichText.Layout two = RichText.parse("Paused\nx").layout(FONT);
+        RichText.Layout small = RichText.parse("{size 10}Paused").layout(FONT);
+        assertEquals(one.getWidth(), two.getWidth());
+        assertTrue(two.getHeight() > one.getHeight());
+        assertTrue(small.getWidth() < one.getWidth());
+
+        BufferedImage target = new BufferedImage(two.getWidth(), two.getHeight(), BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = target.createGraphics();
+        g.setColor(Color.BLACK);
+        two.draw(g, 0, 0);
+        g.dispose();
+        // The short second line sits in the middle, away from both edges
+        int top = one.getHeight();
+        int left = two.getWidth();
+        int right = 0;
+        for (int y = top; y < target.getHeight(); y++) {
+            for (int x = 0; x < target.getWidth(); x++) {
+                if ((target.getRGB(x, y) >>> 24) != 0) {
+                    left = Math.min(left, x);
+                    right = Math.max(right, x);
+                }
+            }
+        }
+        assertTrue(right >= left, "second line not drawn");
+        assertTrue(left > two.getWidth() / 4 && right < two.getWidth() * 3 / 4);
+    }
+
+    @Test
+    void testLabelReusesMessages() {
+        RichTextLabel label = new RichTextLabel("Ready");
+        label.setFont(FONT);
+        label.setForeground(Color.WHITE);
+        String[] steps = {"3", "2", "1", "GO!"};
+        for (String step : steps) {
+            label.prepare(step);
+        }
+        int cached = RichTextLabel.getCachedCount();
+        BufferedImage target = new BufferedImage(100, 60, BufferedImage.TYPE_INT_ARGB);
+        for (int round = 0; round < 3; round++) {
+            for (String step : steps) {
+                label.setText(step);
+                label.setSize(label.getPreferredSize());
+                Graphics2D g = target.createGraphics();
+                label.paint(g);
+                g.dispose();
+            }
+        }
+        assertEquals(cached, RichTextLabel.getCachedCount());
+        assertEquals("GO!", label.getText());
+    }
+
+    @Test
+    void testPreferredSizeFollowsText() {
+        RichTextLabel label = new RichTextLabel("Paused");
+        label.setFont(FONT);
+        Dimension one = label.getPreferredSize();
+        label.setText("Paused\nPress P to resume");
+        Dimension two = label.getPreferredSize();
+        assertTrue(two.width > one.width);
+        assertTrue(two.height > one.height);
+        label.setText("");
+        assertEquals(new Dimension(0, 0), label.getPreferredSize());
+    }
+}
@@ -0,0 +1,152 @@
+package com.andernet.experiment.util;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.List;
+
+class GameSchedulerTest {
+    private long nanos = 1_000_000_000L;
+    private final GameScheduler scheduler = new GameScheduler(() -> nanos, false);
+
+    private void advance(long millis) {
+        // One tick at a time, as the tick source would
+        for (long t = 0; t < millis; t += GameScheduler.TICK_MS) {
+            nanos += Math.min(GameScheduler.TICK_MS, millis - t) * 1_000_000L;
+            scheduler.tick();
+        }
+    }
+
+    @Test
+    void testOneShotRunsOnceAfterItsDelay() {
+        int[] runs = {0};
+        GameScheduler.Handle handle = scheduler.schedule(scheduler.getGameGroup(), 100, () -> runs[0]++);
+        advance(96);
+        assertEquals(0, runs[0]);
+        assertTrue(handle.isActive());
+        advance(8);
+        assertEquals(1, runs[0]);
+        assertFalse(handle.isActive());
+        advance(1000);
+        assertEquals(1, runs[0]);
+        assertEquals(0, scheduler.getStats().getActiveTasks());
+    }
+
+    @Test
+    void testFixedRateKeepsItsAverageRate() {
+        int[] runs = {0};
+        // Not a whole number of ticks
+        scheduler.scheduleAtFixedRate(scheduler.getUiGroup(), 50, 50, () -> runs[0]++);
+        advance(1000);
+        assertEquals(20, runs[0]);
+    }
+
+    @Test
+    void testDelaysLongerThanOneTurnOfTheWheel() {
+        long turn = (long) GameScheduler.WHEEL_SIZE * GameScheduler.TICK_MS;
+        int[] runs = {0};
+        scheduler.schedule(scheduler.getGameGroup(), turn * 2 + 40, () -> runs[0]++);
+        advance(turn * 2);
+        assertEquals(0, runs[0]);
+        advance(40);
+        assertEquals(1, runs[0]);
+    }
+
+    @Test
+    void testCancelFromInsideTheTask() {
+        List<Integer> order = new ArrayList<>();
+        GameScheduler.Handle[] handle = new GameScheduler.Handle[1];
+        handle[0] = scheduler.scheduleAtFixedRate(scheduler.getGameGroup(), 10, 10, () -> {
+            order.add(order.size());
+            if (order.size() == 3) {
+                handle[0].cancel();
+            }
+        });
+        GameScheduler.Handle other = scheduler.schedule(scheduler.getGameGroup(), 20, () -> order.add(-1));
+        other.cancel();
+        advance(200);
+        assertEquals(List.of(0, 1, 2), order);
+        assertFalse(handle[0].isActive());
+        assertEquals(2, scheduler.getStats().getCancelled());
+    }
+
+    @Test
+    void testPausedGroupFreezesAndResumesWithTimeLeft() {
+        int[] game = {0};
+        int[] ui = {0};
+        scheduler.schedule(scheduler.getGameGroup(), 300, () -> game[0]++);
+        scheduler.scheduleAtFixedRate(scheduler.getUiGroup(), 100, 100, () -> ui[0]++);
+        advance(200);
+        scheduler.getGameGroup().pause();
+        assertTrue(scheduler.getGameGroup().isPaused());
+        assertEquals(1, scheduler.getStats().getPausedTasks());
+
+        // Scheduled while paused: waits for the resume too
+        int[] late = {0};
+        scheduler.schedule(scheduler.getGameGroup(), 50, () -> late[0]++);
+        advance(5000);
+        assertEquals(0, game[0]);
+        assertEquals(0, late[0]);
+        assertEquals(52, ui[0]);
+        assertEquals(2, scheduler.getGameGroup().getActiveCount());
+
+        scheduler.getGameGroup().resume();
+        advance(56);
+        assertEquals(1, late[0]);
+        assertEquals(0, game[0]);
+        advance(48);
+        assertEquals(1, game[0]);
+        assertEquals(0, scheduler.getGameGroup().getActiveCount());
+    }
+
+    @Test
+    void testStalledRunsAreSkipped() {
+        int[] runs = {0};
+        scheduler.scheduleAtFixedRate(scheduler.getGameGroup(), 10, 10, () -> runs[0]++);
+        // The EDT is busy for about half a second; the run due at 510 ms is next
+        nanos += 505_000_000L;
+        scheduler.tick();
+        assertEquals(1, runs[0]);
+        assertTrue(scheduler.getStats().getSkipped() >= 48);
+        assertTrue(scheduler.getStats().getMaxLagNanos() >= 480_000_000L);
+        advance(100);
+        assertEquals(11, runs[0]);
+    }
+
+    @Test
+    void testFailingTaskDoesNotStopTheOthers() {
+        int[] runs = {0};
+        Thread thread = Thread.currentThread();
+        Thread.UncaughtExceptionHandler previous = thread.getUncaughtExceptionHandler();
+        List<Throwable> reported = new ArrayList<>();
+        thread.setUncaughtExceptionHandler((t, e) -> reported.add(e));
+        try {
+            scheduler.schedule(scheduler.getGameGroup(), 20, () -> {
+                throw new IllegalStateException("boom");
+            });
+            scheduler.schedule(scheduler.getGameGroup(), 20, () -> runs[0]++);
+            advance(40);
+        } finally {
+            thread.setUncaughtExceptionHandler(previous);
+        }
+        assertEquals(1, runs[0]);
+        assertEquals(1, reported.size());
+    }
+
+    @Test
+    void testExternallyDrivenSchedulerOnlyRunsOnTick() throws Exception {
+        long[] clock = {0};
+        GameScheduler driven = new GameScheduler(() -> clock[0], true);
+        driven.setExternallyDriven(true);
+        int[] runs = {0};
+        javax.swing.SwingUtilities.invokeAndWait(() -> {
+            driven.schedule(driven.getGameGroup(), 0, () -> runs[0]++);
+            clock[0] += 50_000_000L;
+        });
+        // Several periods of the own timer, had it been started
+        Thread.sleep(5 * GameScheduler.TICK_MS);
+        javax.swing.SwingUtilities.invokeAndWait(() -> assertEquals(0, runs[0]));
+        javax.swing.SwingUtilities.invokeAndWait(driven::tick);
+        assertEquals(1, runs[0]);
+    }
+}
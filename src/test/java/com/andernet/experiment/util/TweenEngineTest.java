@@ -0,0 +1,172 @@
+package com.andernet.experiment.util;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import com.andernet.experiment.ui.AnimatedButton;
+
+class TweenEngineTest {
+    private long nanos = 1_000_000_000L;
+    private final GameScheduler scheduler = new GameScheduler(() -> nanos, false);
+    private final TweenEngine engine = new TweenEngine(scheduler, scheduler.getGameGroup());
+
+    private static final class Box {
+        float value;
+    }
+
+    private static final TweenEngine.Property<Box> VALUE = new TweenEngine.Property<>() {
+        @Override
+        public float get(Box box) {
+            return box.value;
+        }
+
+        @Override
+        public void set(Box box, float value) {
+            box.value = value;
+        }
+    };
+
+    private static final TweenEngine.Property<AnimatedButton> ALPHA = new TweenEngine.Property<>() {
+        @Override
+        public float get(AnimatedButton button) {
+            return button.getAlpha();
+        }
+
+        @Override
+        public void set(AnimatedButton button, float value) {
+            button.setAlpha(value);
+        }
+    };
+
+    /**
+     * Tweens are stepped every {@link TweenEngine#FRAME_MS} from the first
+     * one, so the checks below fall on multiples of it
+     */
+    private void advance(long millis) {
+        for (long t = 0; t < millis; t += GameScheduler.TICK_MS) {
+            nanos += Math.min(GameScheduler.TICK_MS, millis - t) * 1_000_000L;
+            scheduler.tick();
+        }
+    }
+
+    @Test
+    void testValueFollowsElapsedTime() {
+        Box box = new Box();
+        engine.animate(box, VALUE, 0f, 100f, 200, Easing.LINEAR, null);
+        advance(48);
+        assertEquals(24f, box.value, 0.01f);
+        // A stalled EDT: the next step lands where the time says
+        nanos += 100_000_000L;
+        scheduler.tick();
+        assertEquals(74f, box.value, 0.01f);
+        advance(100);
+        assertEquals(100f, box.value);
+        assertEquals(0, engine.getActiveCount());
+        assertEquals(0, scheduler.getStats().getActiveTasks());
+    }
+
+    @Test
+    void testNewTweenReplacesTheRunningOne() {
+        Box box = new Box();
+        List<String> done = new ArrayList<>();
+        engine.animate(box, VALUE, 0f, 100f, 100, Easing.LINEAR, () -> done.add("first"));
+        advance(48);
+        engine.animate(box, VALUE, 0f, 100, Easing.LINEAR, () -> done.add("second"));
+        assertEquals(1, engine.getActiveCount());
+        advance(48);
+        // Heading back down from where the first one was
+        assertEquals(48f - 48f * 0.48f, box.value, 0.01f);
+        advance(64);
+        assertEquals(0f, box.value);
+        assertEquals(List.of("second"), done);
+    }
+
+    @Test
+    void testChainedTweensRunBackToBack() {
+        Box box = new Box();
+        List<String> done = new ArrayList<>();
+        engine.animate(box, VALUE, 0f, 10f, 100, Easing.LINEAR, () -> done.add("out"));
+        engine.chain(box, VALUE, 0f, 100, Easing.LINEAR, () -> done.add("in"));
+        assertTrue(engine.isAnimating(box, VALUE));
+        advance(112);
+        assertEquals(List.of("out"), done);
+        // Started when the first ended, not when it was noticed
+        assertEquals(10f - 1.2f, box.value, 0.01f);
+        advance(96);
+        assertEquals(List.of("out", "in"), done);
+        assertFalse(engine.isAnimating(box, VALUE));
+    }
+
+    @Test
+    void testPausedGroupHoldsTweens() {
+        Box box = new Box();
+        engine.animate(box, VALUE, 0f, 1f, 160, Easing.EASE_IN_OUT, null);
+        advance(80);
+        assertEquals(0.5f, box.value, 0.01f);
+        scheduler.getGameGroup().pause();
+        advance(1000);
+        assertEquals(0.5f, box.value, 0.01f);
+        scheduler.getGameGroup().resume();
+        advance(48);
+        assertEquals(Easing.EASE_IN_OUT.apply(0.8f), box.value, 0.01f);
+        advance(32);
+        assertEquals(1f, box.value);
+    }
+
+    @Test
+    void testCancelStopsWithoutCompleting() {
+        Box box = new Box();
+        boolean[] completed = {false};
+        engine.animate(box, VALUE, 0f, 1f, 100, Easing.LINEAR, () -> completed[0] = true);
+        engine.chain(box, VALUE, 0f, 100, Easing.LINEAR, null);
+        advance(48);
+        engine.cancel(box, VALUE);
+        advance(200);
+        assertFalse(completed[0]);
+        assertEquals(0.48f, box.value, 0.01f);
+        assertEquals(2, engine.getPooledCount());
+    }
+
+    @Test
+    void testRunningTweensDoNotAllocate() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(bean.isThreadAllocatedMemorySupported());
+        Box[] boxes = new Box[32];
+        for (int i = 0; i < boxes.length; i++) {
+            boxes[i] = new Box();
+        }
+        // Buttons fade through setAlpha, as the game's do
+        AnimatedButton[] buttons = new AnimatedButton[4];
+        for (int i = 0; i < buttons.length; i++) {
+            buttons[i] = new AnimatedButton("main");
+            buttons[i].setSize(100, 50);
+        }
+        Runnable restart = () -> {
+            for (Box box : boxes) {
+                engine.animate(box, VALUE, 0f, 1f, 200, Easing.EASE_OUT, null);
+                engine.chain(box, VALUE, 0f, 200, Easing.EASE_IN, null);
+            }
+            for (AnimatedButton button : buttons) {
+                engine.animate(button, ALPHA, 0f, 200, Easing.EASE_IN, null);
+                engine.chain(button, ALPHA, 1f, 200, Easing.EASE_OUT, null);
+            }
+        };
+        // Warm up the pool, the lists and the JIT
+        for (int round = 0; round < 200; round++) {
+            restart.run();
+            advance(400);
+        }
+        int pooled = engine.getPooledCount();
+        restart.run();
+        long before = bean.getThreadAllocatedBytes(Thread.currentThread().getId());
+        advance(400);
+        long allocated = bean.getThreadAllocatedBytes(Thread.currentThread().getId()) - before;
+        assertEquals(pooled, engine.getPooledCount());
+        // Allowance for JIT deoptimization and similar noise
+        assertTrue(allocated < 1024, "allocated " + allocated + " bytes");
+    }
+}